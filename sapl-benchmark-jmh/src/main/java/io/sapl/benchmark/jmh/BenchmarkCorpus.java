@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.PolicyDocumentCombiningAlgorithm;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.combinators.DocumentsCombinator;
+import io.sapl.interpreter.combinators.DocumentsCombinatorFactory;
+import io.sapl.pdp.embedded.config.VariablesAndCombinatorSource;
+import io.sapl.prp.PrpUpdateEvent;
+import io.sapl.prp.PrpUpdateEvent.Type;
+import io.sapl.prp.PrpUpdateEvent.Update;
+import io.sapl.prp.PrpUpdateEventSource;
+import lombok.experimental.UtilityClass;
+import reactor.core.publisher.Flux;
+
+/**
+ * Creates reproducible policy corpora and subscriptions for the benchmarks,
+ * using the generators of this module with a fixed seed.
+ */
+@UtilityClass
+public class BenchmarkCorpus {
+
+	public static final long SEED = 2454325L;
+
+	public static final int NUMBER_OF_SUBSCRIPTIONS = 1024;
+
+	/**
+	 * Creates a generator for policies with random boolean target expressions
+	 * over resource.x0 ... resource.xN, as used by the fully random benchmark.
+	 *
+	 * @param numberOfPolicies the number of policies to generate
+	 * @return the generator
+	 */
+	public static RandomPolicyGenerator randomPolicyGenerator(int numberOfPolicies) {
+		return new RandomPolicyGenerator(SEED, numberOfPolicies);
+	}
+
+	public static List<String> randomPolicies(RandomPolicyGenerator generator) {
+		return generator.generatePolicies();
+	}
+
+	public static List<AuthorizationSubscription> randomSubscriptions(RandomPolicyGenerator generator) {
+		var subscriptions = new ArrayList<AuthorizationSubscription>(NUMBER_OF_SUBSCRIPTIONS);
+		for (int i = 0; i < NUMBER_OF_SUBSCRIPTIONS; i++) {
+			subscriptions.add(generator.generateSubscription());
+		}
+		return subscriptions;
+	}
+
+	/**
+	 * Creates role based policies of a generated domain, i.e., policies with
+	 * targets on resources, roles and actions, bodies, obligations and advice.
+	 *
+	 * @param numberOfPolicies the number of policies to return
+	 * @return the policies
+	 */
+	public static List<String> domainPolicies(int numberOfPolicies) {
+		return new DomainPolicyGenerator(SEED).generatePolicies(numberOfPolicies);
+	}
+
+	public static List<AuthorizationSubscription> domainSubscriptions() {
+		var generator = new DomainPolicyGenerator(SEED);
+		var subscriptions = new ArrayList<AuthorizationSubscription>(NUMBER_OF_SUBSCRIPTIONS);
+		for (int i = 0; i < NUMBER_OF_SUBSCRIPTIONS; i++) {
+			subscriptions.add(generator.generateSubscription());
+		}
+		return subscriptions;
+	}
+
+	public static List<SAPL> parse(Collection<String> policies) {
+		var interpreter = new DefaultSAPLInterpreter();
+		var documents = new ArrayList<SAPL>(policies.size());
+		for (String policy : policies) {
+			documents.add(interpreter.parse(policy));
+		}
+		return documents;
+	}
+
+	public static PrpUpdateEvent publish(Collection<SAPL> documents) {
+		var updates = new ArrayList<Update>(documents.size());
+		for (SAPL document : documents) {
+			updates.add(new Update(Type.PUBLISH, document, ""));
+		}
+		return new PrpUpdateEvent(updates);
+	}
+
+	public static PrpUpdateEventSource fixedEventSource(Collection<SAPL> documents) {
+		return new PrpUpdateEventSource() {
+			@Override
+			public Flux<PrpUpdateEvent> getUpdates() {
+				return Flux.just(publish(documents)).concatWith(Flux.never());
+			}
+
+			@Override
+			public void dispose() {
+				// nothing to dispose
+			}
+		};
+	}
+
+	public static VariablesAndCombinatorSource fixedCombinatorSource(PolicyDocumentCombiningAlgorithm algorithm) {
+		DocumentsCombinator combinator = DocumentsCombinatorFactory.getCombinator(algorithm);
+		return new VariablesAndCombinatorSource() {
+			@Override
+			public Flux<Optional<DocumentsCombinator>> getDocumentsCombinator() {
+				return Flux.just(Optional.of(combinator)).concatWith(Flux.never());
+			}
+
+			@Override
+			public Flux<Optional<Map<String, JsonNode>>> getVariables() {
+				return Flux.just(Optional.of(Map.<String, JsonNode>of())).concatWith(Flux.never());
+			}
+
+			@Override
+			public void dispose() {
+				// nothing to dispose
+			}
+		};
+	}
+
+}
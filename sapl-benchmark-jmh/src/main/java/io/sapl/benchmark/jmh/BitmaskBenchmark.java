@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.sapl.prp.index.canonical.Bitmask;
+
+/**
+ * The bitmask operations applied by CanonicalIndexAlgorithm for each evaluated
+ * predicate: intersecting the remaining candidates with the conjunctions of the
+ * predicate and iterating over the result. Copying the candidates per predicate
+ * is compared to the fused operations working on a reusable buffer. Run with
+ * {@code -prof gc} to see the allocation per operation.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BitmaskBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int numberOfConjunctions;
+
+	private Bitmask candidates;
+
+	private Bitmask conjunctionsOfPredicate;
+
+	private Bitmask buffer;
+
+	@Setup
+	public void setUp() {
+		var random = new Random(4711L);
+		candidates = new Bitmask(numberOfConjunctions);
+		candidates.set(0, numberOfConjunctions);
+		conjunctionsOfPredicate = new Bitmask(numberOfConjunctions);
+		for (int i = 0; i < numberOfConjunctions / 100; i++) {
+			conjunctionsOfPredicate.set(random.nextInt(numberOfConjunctions));
+		}
+		buffer = new Bitmask(numberOfConjunctions);
+	}
+
+	@Benchmark
+	public void copyIntersectAndIterate(Blackhole blackhole) {
+		var intersection = new Bitmask(candidates);
+		intersection.and(conjunctionsOfPredicate);
+		intersection.forEachSetBit(blackhole::consume);
+	}
+
+	@Benchmark
+	public void intersectIntoBufferAndIterate(Blackhole blackhole) {
+		buffer.setToIntersection(candidates, conjunctionsOfPredicate);
+		buffer.forEachSetBit(blackhole::consume);
+	}
+
+	@Benchmark
+	public void fusedIntersectAndIterate(Blackhole blackhole) {
+		candidates.forEachSetBitIn(conjunctionsOfPredicate, blackhole::consume);
+	}
+
+	@Benchmark
+	public int numberOfBitsSet() {
+		return candidates.numberOfBitsSet();
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import io.sapl.api.pdp.AuthorizationSubscription;
+
+/**
+ * Generates role based policies of a domain with subjects, roles, actions and
+ * resources, and subscriptions of the subjects of the domain. Targets compare
+ * the resource and action to constants and check the authorities of the
+ * subject. Some policies restrict the access further by a body, or add an
+ * obligation or advice.
+ */
+public class DomainPolicyGenerator {
+
+	private static final int NUMBER_OF_SUBJECTS = 100;
+
+	private static final int NUMBER_OF_ROLES = 30;
+
+	private static final int MAX_NUMBER_OF_ROLES_PER_SUBJECT = 5;
+
+	private static final int NUMBER_OF_ACTIONS = 150;
+
+	private static final int NUMBER_OF_RESOURCES = 300;
+
+	private static final int MAX_NUMBER_OF_CONSTANTS_PER_TARGET = 3;
+
+	private static final double UNRESTRICTED_RESOURCE_PROBABILITY = .1D;
+
+	private static final double ACTION_SPECIFIC_PROBABILITY = .8D;
+
+	private static final double DENY_PROBABILITY = .1D;
+
+	private static final double BODY_PROBABILITY = .3D;
+
+	private static final double OBLIGATION_PROBABILITY = .2D;
+
+	private static final double ADVICE_PROBABILITY = .1D;
+
+	private static final double EMPTY_SUBSCRIPTION_PROBABILITY = .05D;
+
+	private static final double EMPTY_SUBSCRIPTION_NODE_PROBABILITY = .2D;
+
+	private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+	private final Random dice;
+
+	private final List<JsonNode> subjects = new ArrayList<>(NUMBER_OF_SUBJECTS);
+
+	public DomainPolicyGenerator(long seed) {
+		this.dice = new Random(seed);
+		for (int i = 0; i < NUMBER_OF_SUBJECTS; i++) {
+			var subject = JSON.objectNode().put("name", "subject_" + i);
+			var authorities = subject.putArray("authorities");
+			randomNames("role_", NUMBER_OF_ROLES, MAX_NUMBER_OF_ROLES_PER_SUBJECT).forEach(authorities::add);
+			subjects.add(subject);
+		}
+	}
+
+	public List<String> generatePolicies(int numberOfPolicies) {
+		var policies = new ArrayList<String>(numberOfPolicies);
+		for (int i = 0; i < numberOfPolicies; i++) {
+			policies.add(generatePolicy("p_" + i));
+		}
+		return policies;
+	}
+
+	public AuthorizationSubscription generateSubscription() {
+		if (dice.nextDouble() < EMPTY_SUBSCRIPTION_PROBABILITY) {
+			return new AuthorizationSubscription(JSON.objectNode(), JSON.objectNode(), JSON.objectNode(),
+					JSON.objectNode());
+		}
+		var subject = subjects.get(dice.nextInt(NUMBER_OF_SUBJECTS));
+		return new AuthorizationSubscription(orEmpty(subject),
+				orEmpty(JSON.textNode(randomName("action_", NUMBER_OF_ACTIONS))),
+				orEmpty(JSON.textNode(randomName("resource_", NUMBER_OF_RESOURCES))), JSON.objectNode());
+	}
+
+	private String generatePolicy(String name) {
+		var policy = new StringBuilder().append("policy \"").append(name).append('"').append(System.lineSeparator())
+				.append(dice.nextDouble() < DENY_PROBABILITY ? "deny " : "permit ");
+		var targets = new ArrayList<String>(3);
+		if (dice.nextDouble() >= UNRESTRICTED_RESOURCE_PROBABILITY) {
+			targets.add(disjunction("resource == \"%s\"", "resource_", NUMBER_OF_RESOURCES));
+		}
+		targets.add(disjunction("\"%s\" in subject.authorities", "role_", NUMBER_OF_ROLES));
+		if (dice.nextDouble() < ACTION_SPECIFIC_PROBABILITY) {
+			targets.add(disjunction("action == \"%s\"", "action_", NUMBER_OF_ACTIONS));
+		}
+		policy.append(String.join(" & ", targets));
+		if (dice.nextDouble() < BODY_PROBABILITY) {
+			policy.append(System.lineSeparator()).append("where").append(System.lineSeparator())
+					.append("\tsubject.name != \"").append(randomName("subject_", NUMBER_OF_SUBJECTS)).append("\";");
+		}
+		if (dice.nextDouble() < OBLIGATION_PROBABILITY) {
+			policy.append(System.lineSeparator()).append("obligation").append(System.lineSeparator())
+					.append("\t\"logging:log_access\"");
+		}
+		if (dice.nextDouble() < ADVICE_PROBABILITY) {
+			policy.append(System.lineSeparator()).append("advice").append(System.lineSeparator())
+					.append("\t{ \"type\" : \"notify\", \"recipient\" : subject.name }");
+		}
+		return policy.toString();
+	}
+
+	private String disjunction(String comparison, String prefix, int numberOfNames) {
+		var comparisons = new ArrayList<String>();
+		for (String name : randomNames(prefix, numberOfNames, MAX_NUMBER_OF_CONSTANTS_PER_TARGET)) {
+			comparisons.add(String.format(comparison, name));
+		}
+		return "(" + String.join(" | ", comparisons) + ")";
+	}
+
+	private Set<String> randomNames(String prefix, int numberOfNames, int maxNumberOfNames) {
+		var names = new LinkedHashSet<String>();
+		int numberOfRandomNames = 1 + dice.nextInt(maxNumberOfNames);
+		for (int i = 0; i < numberOfRandomNames; i++) {
+			names.add(randomName(prefix, numberOfNames));
+		}
+		return names;
+	}
+
+	private String randomName(String prefix, int numberOfNames) {
+		return prefix + dice.nextInt(numberOfNames);
+	}
+
+	private JsonNode orEmpty(JsonNode node) {
+		return dice.nextDouble() < EMPTY_SUBSCRIPTION_NODE_PROBABILITY ? JSON.objectNode() : node;
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.sapl.api.prp.PolicyRetrievalResult;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import io.sapl.prp.index.ImmutableParsedDocumentIndex;
+import io.sapl.prp.index.canonical.CanonicalImmutableParsedDocumentIndex;
+import io.sapl.prp.index.naive.NaiveImmutableParsedDocumentIndex;
+
+/**
+ * Policy retrieval of the canonical index (CanonicalIndexAlgorithm.match) and
+ * the naive index for randomly generated target expressions.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IndexBenchmark {
+
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	public int numberOfDocuments;
+
+	private ImmutableParsedDocumentIndex canonicalIndex;
+
+	private ImmutableParsedDocumentIndex naiveIndex;
+
+	private List<EvaluationContext> subscriptionScopedEvaluationContexts;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		var generator = BenchmarkCorpus.randomPolicyGenerator(numberOfDocuments);
+		var documents = BenchmarkCorpus.parse(BenchmarkCorpus.randomPolicies(generator));
+		var pdpScopedEvaluationContext = new EvaluationContext(new AnnotationAttributeContext(),
+				new AnnotationFunctionContext(), new HashMap<>());
+
+		canonicalIndex = new CanonicalImmutableParsedDocumentIndex(pdpScopedEvaluationContext)
+				.apply(BenchmarkCorpus.publish(documents));
+		naiveIndex = new NaiveImmutableParsedDocumentIndex().apply(BenchmarkCorpus.publish(documents));
+
+		subscriptionScopedEvaluationContexts = BenchmarkCorpus.randomSubscriptions(generator).stream()
+				.map(pdpScopedEvaluationContext::forAuthorizationSubscription).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public PolicyRetrievalResult canonicalIndexMatch() {
+		return canonicalIndex.retrievePolicies(nextSubscription()).block();
+	}
+
+	@Benchmark
+	public PolicyRetrievalResult naiveIndexRetrievePolicies() {
+		return naiveIndex.retrievePolicies(nextSubscription()).block();
+	}
+
+	private EvaluationContext nextSubscription() {
+		next = (next + 1) % subscriptionScopedEvaluationContexts.size();
+		return subscriptionScopedEvaluationContexts.get(next);
+	}
+
+}
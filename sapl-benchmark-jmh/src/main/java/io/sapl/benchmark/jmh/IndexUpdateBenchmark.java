@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import io.sapl.prp.PrpUpdateEvent;
+import io.sapl.prp.index.ImmutableParsedDocumentIndex;
+import io.sapl.prp.index.canonical.CanonicalImmutableParsedDocumentIndex;
+
+/**
+ * Cost of publishing a single document to a canonical index of the given size
+ * (CanonicalIndexDataCreationStrategy.constructUpdated), compared to
+ * constructing the index including the document from scratch. Both grow
+ * linearly with the size of the index, the incremental update by a much
+ * smaller factor.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IndexUpdateBenchmark {
+
+	private static final int NUMBER_OF_ADDED_DOCUMENTS = 64;
+
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	public int numberOfDocuments;
+
+	private EvaluationContext pdpScopedEvaluationContext;
+
+	private ImmutableParsedDocumentIndex canonicalIndex;
+
+	private List<SAPL> documents;
+
+	private List<SAPL> addedDocuments;
+
+	private List<PrpUpdateEvent> publishAddedDocument;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		var generator = BenchmarkCorpus.randomPolicyGenerator(numberOfDocuments + NUMBER_OF_ADDED_DOCUMENTS);
+		var allDocuments = BenchmarkCorpus.parse(BenchmarkCorpus.randomPolicies(generator));
+		documents = new ArrayList<>(allDocuments.subList(0, numberOfDocuments));
+		pdpScopedEvaluationContext = new EvaluationContext(new AnnotationAttributeContext(),
+				new AnnotationFunctionContext(), new HashMap<>());
+
+		canonicalIndex = new CanonicalImmutableParsedDocumentIndex(pdpScopedEvaluationContext)
+				.apply(BenchmarkCorpus.publish(documents));
+
+		addedDocuments = new ArrayList<>(allDocuments.subList(numberOfDocuments, allDocuments.size()));
+		publishAddedDocument = new ArrayList<>(addedDocuments.size());
+		for (SAPL document : addedDocuments) {
+			publishAddedDocument.add(BenchmarkCorpus.publish(List.of(document)));
+		}
+	}
+
+	@Benchmark
+	public ImmutableParsedDocumentIndex incrementalUpdate() {
+		return canonicalIndex.apply(publishAddedDocument.get(nextAddedDocument()));
+	}
+
+	@Benchmark
+	public ImmutableParsedDocumentIndex fullConstruction() {
+		var allDocuments = new ArrayList<SAPL>(documents);
+		allDocuments.add(addedDocuments.get(nextAddedDocument()));
+		return new CanonicalImmutableParsedDocumentIndex(pdpScopedEvaluationContext)
+				.apply(BenchmarkCorpus.publish(allDocuments));
+	}
+
+	private int nextAddedDocument() {
+		next = (next + 1) % addedDocuments.size();
+		return next;
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.sapl.api.interpreter.SAPLInterpreter;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+
+/**
+ * Parsing of single documents with the DefaultSAPLInterpreter.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParserBenchmark {
+
+	private static final int CORPUS_SIZE = 1000;
+
+	private final SAPLInterpreter interpreter = new DefaultSAPLInterpreter();
+
+	private List<String> randomPolicies;
+
+	private List<String> domainPolicies;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		randomPolicies = BenchmarkCorpus.randomPolicies(BenchmarkCorpus.randomPolicyGenerator(CORPUS_SIZE));
+		domainPolicies = BenchmarkCorpus.domainPolicies(CORPUS_SIZE);
+	}
+
+	@Benchmark
+	public SAPL parseRandomPolicy() {
+		return interpreter.parse(randomPolicies.get(nextIndex()));
+	}
+
+	@Benchmark
+	public SAPL parseDomainPolicy() {
+		return interpreter.parse(domainPolicies.get(nextIndex()));
+	}
+
+	private int nextIndex() {
+		next = (next + 1) % CORPUS_SIZE;
+		return next;
+	}
+
+}
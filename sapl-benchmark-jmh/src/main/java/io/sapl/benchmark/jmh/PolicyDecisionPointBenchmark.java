@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.PolicyDocumentCombiningAlgorithm;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import io.sapl.pdp.embedded.EmbeddedPolicyDecisionPoint;
+import io.sapl.pdp.embedded.config.FixedFunctionsAndAttributesPDPConfigurationProvider;
+import io.sapl.prp.GenericInMemoryIndexedPolicyRetrievalPoint;
+import io.sapl.prp.index.ImmutableParsedDocumentIndex;
+import io.sapl.prp.index.canonical.CanonicalImmutableParsedDocumentIndex;
+import io.sapl.prp.index.naive.NaiveImmutableParsedDocumentIndex;
+
+/**
+ * Latency of the first decision of EmbeddedPolicyDecisionPoint.decide for the
+ * domain policies, i.e., the time from subscribing until the first
+ * AuthorizationDecision is emitted.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PolicyDecisionPointBenchmark {
+
+	@Param({ "NAIVE", "CANONICAL" })
+	public String indexType;
+
+	@Param({ "10", "100", "1000", "10000" })
+	public int numberOfDocuments;
+
+	private EmbeddedPolicyDecisionPoint pdp;
+
+	private List<AuthorizationSubscription> subscriptions;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		var attributeCtx = new AnnotationAttributeContext();
+		var functionCtx = new AnnotationFunctionContext();
+		var configurationProvider = new FixedFunctionsAndAttributesPDPConfigurationProvider(attributeCtx,
+				functionCtx, BenchmarkCorpus.fixedCombinatorSource(PolicyDocumentCombiningAlgorithm.DENY_UNLESS_PERMIT));
+		var documents = BenchmarkCorpus.parse(BenchmarkCorpus.domainPolicies(numberOfDocuments));
+		var prp = new GenericInMemoryIndexedPolicyRetrievalPoint(seedIndex(attributeCtx, functionCtx),
+				BenchmarkCorpus.fixedEventSource(documents));
+		pdp = new EmbeddedPolicyDecisionPoint(configurationProvider, prp);
+		subscriptions = BenchmarkCorpus.domainSubscriptions();
+	}
+
+	@TearDown
+	public void tearDown() {
+		pdp.dispose();
+	}
+
+	@Benchmark
+	public AuthorizationDecision firstDecision() {
+		next = (next + 1) % subscriptions.size();
+		return pdp.decide(subscriptions.get(next)).blockFirst();
+	}
+
+	private ImmutableParsedDocumentIndex seedIndex(AnnotationAttributeContext attributeCtx,
+			AnnotationFunctionContext functionCtx) {
+		if ("CANONICAL".equals(indexType))
+			return new CanonicalImmutableParsedDocumentIndex(
+					new EvaluationContext(attributeCtx, functionCtx, new HashMap<>()));
+		return new NaiveImmutableParsedDocumentIndex();
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import io.sapl.api.pdp.AuthorizationSubscription;
+
+/**
+ * Generates policies with random boolean target expressions over the variables
+ * resource.x0 ... resource.xN, and subscriptions assigning random values to all
+ * of these variables. The corpus has no domain structure and exercises the
+ * normalization and matching of arbitrary target expressions.
+ */
+public class RandomPolicyGenerator {
+
+	private static final int NUMBER_OF_VARIABLES_PER_POLICY = 4;
+
+	private static final double BRACKET_PROBABILITY = .2D;
+
+	private static final double CONJUNCTION_PROBABILITY = .9D;
+
+	private static final double NEGATION_PROBABILITY = .3D;
+
+	private static final double FALSE_PROBABILITY = .5D;
+
+	private final Random dice;
+
+	private final int numberOfPolicies;
+
+	private final int variablePoolSize;
+
+	/**
+	 * @param seed             the seed of the generator
+	 * @param numberOfPolicies the number of policies to generate, which also
+	 *                         determines the number of distinct variables
+	 */
+	public RandomPolicyGenerator(long seed, int numberOfPolicies) {
+		this.dice = new Random(seed);
+		this.numberOfPolicies = numberOfPolicies;
+		this.variablePoolSize = Math.max(10, (int) Math.sqrt(numberOfPolicies) * 2);
+	}
+
+	public List<String> generatePolicies() {
+		var policies = new ArrayList<String>(numberOfPolicies);
+		for (int i = 0; i < numberOfPolicies; i++) {
+			policies.add(generatePolicy("p_" + i));
+		}
+		return policies;
+	}
+
+	public AuthorizationSubscription generateSubscription() {
+		var resource = JsonNodeFactory.instance.objectNode();
+		for (int i = 0; i < variablePoolSize; i++) {
+			resource.put("x" + i, dice.nextDouble() >= FALSE_PROBABILITY);
+		}
+		return new AuthorizationSubscription(NullNode.getInstance(), NullNode.getInstance(), resource,
+				NullNode.getInstance());
+	}
+
+	private String generatePolicy(String name) {
+		var policy = new StringBuilder().append("policy \"").append(name).append('"').append(System.lineSeparator())
+				.append("permit ");
+		int open = 0;
+		for (int i = 0; i < NUMBER_OF_VARIABLES_PER_POLICY; i++) {
+			if (dice.nextDouble() <= NEGATION_PROBABILITY) {
+				policy.append('!');
+			}
+			while (dice.nextDouble() <= BRACKET_PROBABILITY) {
+				policy.append('(');
+				open++;
+			}
+			policy.append("resource.x").append(dice.nextInt(variablePoolSize));
+			double closingProbability = 1.0D / (NUMBER_OF_VARIABLES_PER_POLICY - i);
+			while (open > 0 && dice.nextDouble() < closingProbability) {
+				policy.append(')');
+				open--;
+			}
+			if (i < NUMBER_OF_VARIABLES_PER_POLICY - 1) {
+				policy.append(dice.nextDouble() <= CONJUNCTION_PROBABILITY ? " & " : " | ");
+			}
+		}
+		return policy.toString();
+	}
+
+}
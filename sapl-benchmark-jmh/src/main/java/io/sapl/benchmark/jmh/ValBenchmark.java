@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.interpreter.Val;
+
+/**
+ * JSON operations on Val used throughout expression evaluation.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValBenchmark {
+
+	private static final String SUBSCRIPTION_JSON = "{\"subject\":{\"name\":\"subject.042\",\"authorities\":"
+			+ "[\"role.001\",\"role.017\"]},\"action\":\"read\",\"resource\":{\"type\":\"patient\",\"id\":4711,"
+			+ "\"ward\":\"ward.003\",\"values\":[1.5,2.5,3.5]},\"environment\":{}}";
+
+	private Val value;
+
+	private Val equalValue;
+
+	private JsonNode node;
+
+	@Setup
+	public void setUp() throws JsonProcessingException {
+		value = Val.ofJson(SUBSCRIPTION_JSON);
+		equalValue = Val.ofJson(SUBSCRIPTION_JSON);
+		node = value.get();
+	}
+
+	@Benchmark
+	public Val parseJson() throws JsonProcessingException {
+		return Val.ofJson(SUBSCRIPTION_JSON);
+	}
+
+	@Benchmark
+	public String serializeJson() {
+		return value.toString();
+	}
+
+	@Benchmark
+	public boolean equalsDeep() {
+		return value.equals(equalValue);
+	}
+
+	@Benchmark
+	public int hashCodeDeep() {
+		return value.hashCode();
+	}
+
+	@Benchmark
+	public Val wrapJsonNode() {
+		return Val.of(node);
+	}
+
+	@Benchmark
+	public Val requireObjectNode() {
+		return Val.requireObjectNode(value);
+	}
+
+	@Benchmark
+	public Val navigateKey() {
+		return Val.of(node.get("resource").get("ward"));
+	}
+
+}
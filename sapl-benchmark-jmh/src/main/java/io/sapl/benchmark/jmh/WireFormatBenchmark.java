@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+
+/**
+ * Encoding and decoding of the messages exchanged between the remote PDP client
+ * and the PDP server, as JSON and as Smile. The auxiliary counter bytes reports
+ * the size of the encoded messages, i.e., bytes divided by operations is the
+ * number of bytes on the wire per message.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WireFormatBenchmark {
+
+	private static final String SUBSCRIPTION_JSON = "{\"subject\":{\"name\":\"subject.042\",\"authorities\":"
+			+ "[\"role.001\",\"role.017\"]},\"action\":\"read\",\"resource\":{\"type\":\"patient\",\"id\":4711,"
+			+ "\"ward\":\"ward.003\",\"values\":[1.5,2.5,3.5]},\"environment\":{}}";
+
+	private static final String RESOURCE_JSON = "{\"type\":\"patient\",\"id\":4711,\"ward\":\"ward.003\","
+			+ "\"name\":\"XXXXXXXXXXXX\",\"diagnosis\":\"XXXXXXXXXXXXXXXXXXXX\",\"values\":[1.5,2.5,3.5,4.5,5.5,6.5],"
+			+ "\"visits\":[{\"date\":\"2021-01-04\",\"doctor\":\"doctor.007\"},"
+			+ "{\"date\":\"2021-02-11\",\"doctor\":\"doctor.013\"}]}";
+
+	private static final String OBLIGATIONS_JSON = "[{\"type\":\"logAccess\","
+			+ "\"message\":\"subject.042 read patient 4711\"},"
+			+ "{\"type\":\"notify\",\"recipients\":[\"ward.003\",\"audit\"]}]";
+
+	private static final ObjectMapper JSON_MAPPER = new ObjectMapper().registerModule(new Jdk8Module());
+
+	@Param({ "JSON", "SMILE" })
+	public String wireFormat;
+
+	private ObjectMapper mapper;
+
+	private AuthorizationSubscription subscription;
+
+	private AuthorizationDecision decision;
+
+	private byte[] encodedSubscription;
+
+	private byte[] encodedDecision;
+
+	/**
+	 * Counts the bytes of the encoded messages.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class WireCounters {
+
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		mapper = "SMILE".equals(wireFormat) ? new ObjectMapper(new SmileFactory()).registerModule(new Jdk8Module())
+				: JSON_MAPPER;
+		subscription = JSON_MAPPER.readValue(SUBSCRIPTION_JSON, AuthorizationSubscription.class);
+		decision = AuthorizationDecision.PERMIT.withResource(JSON_MAPPER.readTree(RESOURCE_JSON))
+				.withObligations((ArrayNode) JSON_MAPPER.readTree(OBLIGATIONS_JSON));
+		encodedSubscription = mapper.writeValueAsBytes(subscription);
+		encodedDecision = mapper.writeValueAsBytes(decision);
+	}
+
+	@Benchmark
+	public byte[] encodeSubscription(WireCounters counters) throws IOException {
+		var encoded = mapper.writeValueAsBytes(subscription);
+		counters.bytes += encoded.length;
+		return encoded;
+	}
+
+	@Benchmark
+	public AuthorizationSubscription decodeSubscription() throws IOException {
+		return mapper.readValue(encodedSubscription, AuthorizationSubscription.class);
+	}
+
+	@Benchmark
+	public byte[] encodeDecision(WireCounters counters) throws IOException {
+		var encoded = mapper.writeValueAsBytes(decision);
+		counters.bytes += encoded.length;
+		return encoded;
+	}
+
+	@Benchmark
+	public AuthorizationDecision decodeDecision() throws IOException {
+		return mapper.readValue(encodedDecision, AuthorizationDecision.class);
+	}
+
+}
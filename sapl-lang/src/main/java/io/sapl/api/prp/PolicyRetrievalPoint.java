@@ -15,6 +15,9 @@
  */
 package io.sapl.api.prp;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import io.sapl.interpreter.EvaluationContext;
 import reactor.core.publisher.Flux;
 
@@ -40,5 +43,32 @@ public interface PolicyRetrievalPoint {
 	 */
 	Flux<PolicyRetrievalResult> retrievePolicies(EvaluationContext subscriptionScopedEvaluationContext);
 
+	/**
+	 * Retrieves the policies for several authorization subscriptions at once.
+	 * Implementations should match all subscriptions against the same state of
+	 * the policy retrieval point, so that the results of one list are consistent
+	 * with each other.
+	 * 
+	 * @param subscriptionScopedEvaluationContexts one evaluation context with
+	 *                                             scope subscription per
+	 *                                             subscription
+	 * @return a {@link Flux} of lists containing the policy retrieval results in
+	 *         the order of the given evaluation contexts.
+	 */
+	default Flux<List<PolicyRetrievalResult>> retrievePoliciesForAll(
+			List<EvaluationContext> subscriptionScopedEvaluationContexts) {
+		var retrievals = new ArrayList<Flux<PolicyRetrievalResult>>(subscriptionScopedEvaluationContexts.size());
+		for (var subscriptionScopedEvaluationContext : subscriptionScopedEvaluationContexts) {
+			retrievals.add(retrievePolicies(subscriptionScopedEvaluationContext));
+		}
+		return Flux.combineLatest(retrievals, results -> {
+			var resultList = new ArrayList<PolicyRetrievalResult>(results.length);
+			for (var result : results) {
+				resultList.add((PolicyRetrievalResult) result);
+			}
+			return resultList;
+		});
+	}
+
 	void dispose();
 }
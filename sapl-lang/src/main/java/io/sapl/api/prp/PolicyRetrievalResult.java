@@ -18,6 +18,7 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.eclipse.emf.ecore.util.EcoreUtil;
 
@@ -36,6 +37,15 @@ public class PolicyRetrievalResult {
 	@Getter
 	boolean prpValidState = true;
 	
+	/**
+	 * @return a builder accumulating a retrieval result in place. Prefer it over
+	 *         the with-methods when adding many documents, as each of these copies
+	 *         the matching documents.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
 	public Collection<? extends AuthorizationDecisionEvaluable> getMatchingDocuments() {
 		return this.matchingDocuments;
 	}
@@ -106,4 +116,38 @@ public String toString() {
 				+ isErrorsInTarget() + ")";
 	}
 
+	/**
+	 * Mutable accumulator for a {@link PolicyRetrievalResult}. Adding a document
+	 * takes constant time. Not thread-safe.
+	 */
+	public static class Builder {
+
+		private final List<AuthorizationDecisionEvaluable> matchingDocuments = new ArrayList<>();
+		private boolean errorsInTarget = false;
+		private boolean prpValidState = true;
+
+		private Builder() {
+		}
+
+		public Builder withMatch(AuthorizationDecisionEvaluable match) {
+			matchingDocuments.add(match);
+			return this;
+		}
+
+		public Builder withError() {
+			errorsInTarget = true;
+			return this;
+		}
+
+		public Builder withInvalidState() {
+			prpValidState = false;
+			return this;
+		}
+
+		public PolicyRetrievalResult build() {
+			return new PolicyRetrievalResult(new ArrayList<>(matchingDocuments), errorsInTarget, prpValidState);
+		}
+
+	}
+
 }
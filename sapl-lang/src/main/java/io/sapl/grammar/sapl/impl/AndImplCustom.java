@@ -17,7 +17,9 @@
 
 import io.sapl.api.interpreter.Val;
 import io.sapl.interpreter.EvaluationContext;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import reactor.core.publisher.Flux;
 
 /**
@@ -27,13 +29,17 @@
  * Grammar: Multiplication returns Expression: Comparison (({And.left=current}
  * '&amp;&amp;') right=Comparison)* ;
  */
-public class AndImplCustom extends AndImpl {
+public class AndImplCustom extends AndImpl implements ScopedExpression {
 
 	private static final String LAZY_OPERATOR_IN_TARGET = "Lazy AND operator is not allowed in the target";
 
+	@Getter
+	@Setter
+	private ExpressionScope expressionScope;
+
 	@Override
 	public Flux<Val> evaluate(@NonNull EvaluationContext ctx, @NonNull Val relativeNode) {
-		if (TargetExpressionUtil.isInTargetExpression(this)) {
+		if (ExpressionScopeUtil.isInTargetExpression(this)) {
 			// indexing implies: lazy evaluation is not allowed in target expressions.
 			return Val.errorFlux(LAZY_OPERATOR_IN_TARGET);
 		}
@@ -18,7 +18,9 @@
 import io.sapl.api.interpreter.Val;
 import io.sapl.grammar.sapl.FilterStatement;
 import io.sapl.interpreter.EvaluationContext;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import reactor.core.publisher.Flux;
 
 /**
@@ -27,24 +29,36 @@
  * Grammar: Step: &#39;.&#39; ({AttributeFinderStep} &#39;&lt;&#39; idSteps+=ID
  * (&#39;.&#39; idSteps+=ID)* &#39;&gt;&#39;) ;
  */
-public class AttributeFinderStepImplCustom extends AttributeFinderStepImpl {
+public class AttributeFinderStepImplCustom extends AttributeFinderStepImpl
+		implements ScopedExpression, QualifiedNameReference {
 
 	private static final String UNDEFINED_VALUE = "Undefined value handed over as parameter to policy information point";
 	private static final String EXTERNAL_ATTRIBUTE_IN_TARGET = "Attribute resolution error. Attribute '%s' is not allowed in target.";
 
+	@Getter
+	@Setter
+	private ExpressionScope expressionScope;
+
+	private final ResolvedNameCache resolvedName = new ResolvedNameCache();
+
+	@Override
+	public String getFullyQualifiedName(EvaluationContext ctx) {
+		return resolvedName.resolve(getIdSteps(), ctx);
+	}
+
 	@Override
 	public Flux<Val> apply(@NonNull Val parentValue, @NonNull EvaluationContext ctx, @NonNull Val relativeNode) {
 		if (parentValue.isError()) {
 			return Flux.just(parentValue);
 		}
-		var fullyQualifiedName = FunctionUtil.resolveAbsoluteFunctionName(getIdSteps(), ctx);
-		if (TargetExpressionUtil.isInTargetExpression(this)) {
-			return Val.errorFlux(EXTERNAL_ATTRIBUTE_IN_TARGET, fullyQualifiedName);
+		var attributeName = getFullyQualifiedName(ctx);
+		if (ExpressionScopeUtil.isInTargetExpression(this)) {
+			return Val.errorFlux(EXTERNAL_ATTRIBUTE_IN_TARGET, attributeName);
 		}
 		if (parentValue.isUndefined()) {
 			return Val.errorFlux(UNDEFINED_VALUE);
 		}
-		return ctx.getAttributeCtx().evaluate(fullyQualifiedName, parentValue, ctx, getArguments())
+		return ctx.getAttributeCtx().evaluate(attributeName, parentValue, ctx, getArguments())
 				.distinctUntilChanged();
 	}
 
@@ -96,7 +96,7 @@ public Flux<Val> applyFilterStatement(@NonNull Val parentValue, @NonNull Evaluat
 					fieldFluxes
 							.add(FilterComponentImplCustom
 									.applyFilterFunction(Val.of(field.getValue()), statement.getArguments(),
-											FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx), ctx,
+											FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
 											parentValue, statement.isEach())
 									.map(val -> Tuples.of(field.getKey(), val)));
 				} else {
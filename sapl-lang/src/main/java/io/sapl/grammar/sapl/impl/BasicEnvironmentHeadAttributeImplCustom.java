@@ -17,22 +17,36 @@
 
 import io.sapl.api.interpreter.Val;
 import io.sapl.interpreter.EvaluationContext;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import reactor.core.publisher.Flux;
 
 /**
  * Implements the evaluation of an environment attribute.
  */
-public class BasicEnvironmentHeadAttributeImplCustom extends BasicEnvironmentHeadAttributeImpl {
+public class BasicEnvironmentHeadAttributeImplCustom extends BasicEnvironmentHeadAttributeImpl
+		implements ScopedExpression, QualifiedNameReference {
 
 	private static final String EXTERNAL_ATTRIBUTE_IN_TARGET = "Attribute resolution error. Attribute '%s' is not allowed in target.";
 
+	@Getter
+	@Setter
+	private ExpressionScope expressionScope;
+
+	private final ResolvedNameCache resolvedName = new ResolvedNameCache();
+
+	@Override
+	public String getFullyQualifiedName(EvaluationContext ctx) {
+		return resolvedName.resolve(getIdSteps(), ctx);
+	}
+
 	@Override
 	public Flux<Val> evaluate(@NonNull EvaluationContext ctx, @NonNull Val relativeNode) {
-		var fullyQualifiedName = FunctionUtil.resolveAbsoluteFunctionName(getIdSteps(), ctx);
-		if (TargetExpressionUtil.isInTargetExpression(this)) {
-			return Val.errorFlux(EXTERNAL_ATTRIBUTE_IN_TARGET, fullyQualifiedName);
+		var attributeName = getFullyQualifiedName(ctx);
+		if (ExpressionScopeUtil.isInTargetExpression(this)) {
+			return Val.errorFlux(EXTERNAL_ATTRIBUTE_IN_TARGET, attributeName);
 		}
-		return ctx.getAttributeCtx().evaluate(fullyQualifiedName, Val.UNDEFINED, ctx, getArguments()).take(1);
+		return ctx.getAttributeCtx().evaluate(attributeName, Val.UNDEFINED, ctx, getArguments()).take(1);
 	}
 }
@@ -17,6 +17,7 @@
 
 import io.sapl.api.interpreter.Val;
 import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.BoundFunction;
 import lombok.NonNull;
 import reactor.core.publisher.Flux;
 
@@ -27,12 +28,19 @@
  * steps+=Step*; {Arguments} '(' (args+=Expression (',' args+=Expression)*)?
  * ')';
  */
-public class BasicFunctionImplCustom extends BasicFunctionImpl {
+public class BasicFunctionImplCustom extends BasicFunctionImpl implements QualifiedNameReference {
+
+	private final ResolvedNameCache resolvedName = new ResolvedNameCache();
+
+	@Override
+	public String getFullyQualifiedName(EvaluationContext ctx) {
+		return resolvedName.resolve(getFsteps(), ctx);
+	}
 
 	@Override
 	public Flux<Val> evaluate(@NonNull EvaluationContext ctx, @NonNull Val relativeNode) {
-		return FunctionUtil.combineArgumentFluxes(arguments, ctx, relativeNode)
-				.concatMap(parameters -> FunctionUtil.evaluateFunctionMono(fsteps, ctx, parameters))
+		final BoundFunction function = resolvedName.resolveFunction(getFsteps(), ctx);
+		return FunctionUtil.combineArgumentFluxes(arguments, ctx, relativeNode).map(function::apply)
 				.switchMap(resolveStepsFiltersAndSubtemplates(steps, ctx, relativeNode));
 	}
 
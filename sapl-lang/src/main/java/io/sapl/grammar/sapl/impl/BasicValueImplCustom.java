@@ -30,10 +30,20 @@
  */
 public class BasicValueImplCustom extends BasicValueImpl {
 
+	// set by ConstantFoldingUtil if the value and all steps are constant
+	private Flux<Val> constant;
+
 	@Override
 	public Flux<Val> evaluate(@NonNull EvaluationContext ctx, @NonNull Val relativeNode) {
+		if (constant != null) {
+			return constant;
+		}
 		var evaluatedValue = getValue().evaluate(ctx, relativeNode);
 		return evaluatedValue.switchMap(resolveStepsFiltersAndSubtemplates(steps, ctx, relativeNode));
 	}
 
+	void setConstant(Val value) {
+		constant = Flux.just(value);
+	}
+
 }
@@ -17,6 +17,7 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -52,6 +53,10 @@
  * [?({@literal @} &gt; 2)] returns the array [3, 4, 5] (containing all values
  * that are greater than 2).
  *
+ * If the condition does not access attributes, it is evaluated for all items in
+ * a single loop. Otherwise, the condition is evaluated reactively for each
+ * item.
+ *
  * Grammar: Step: ... | '[' Subscript ']' | ... Subscript returns Step: ... |
  * {ConditionStep} '?' '(' expression=Expression ')' | ...
  */
@@ -60,6 +65,8 @@ public class ConditionStepImplCustom extends ConditionStepImpl {
 
 	private static final String CONDITION_ACCESS_TYPE_MISMATCH = "Type mismatch. Condition access is only possible for array or object, but got '%s'.";
 
+	private volatile Boolean conditionFreeOfAttributes;
+
 	@Override
 	public Flux<Val> apply(@NonNull Val parentValue, @NonNull EvaluationContext ctx, @NonNull Val relativeNode) {
 		if (parentValue.isError()) {
@@ -79,6 +86,14 @@ private Flux<Val> applyToObject(ObjectNode object, EvaluationContext ctx) {
 		if (object.isEmpty()) {
 			return Flux.just(Val.ofEmptyArray());
 		}
+		if (isConditionFreeOfAttributes()) {
+			return Flux.defer(() -> selectSynchronously(object::elements, ctx).map(Flux::just)
+					.orElseGet(() -> applyToObjectReactively(object, ctx)));
+		}
+		return applyToObjectReactively(object, ctx);
+	}
+
+	private Flux<Val> applyToObjectReactively(ObjectNode object, EvaluationContext ctx) {
 		// collect the fluxes providing the evaluated conditions for the array elements
 		final List<Flux<Tuple2<JsonNode, Val>>> itemFluxes = new ArrayList<>(object.size());
 		var iter = object.fields();
@@ -94,6 +109,14 @@ private Flux<Val> applyToArray(ArrayNode arrayNode, EvaluationContext ctx) {
 		if (arrayNode.isEmpty()) {
 			return Flux.just(Val.ofEmptyArray());
 		}
+		if (isConditionFreeOfAttributes()) {
+			return Flux.defer(() -> selectSynchronously(arrayNode, ctx).map(Flux::just)
+					.orElseGet(() -> applyToArrayReactively(arrayNode, ctx)));
+		}
+		return applyToArrayReactively(arrayNode, ctx);
+	}
+
+	private Flux<Val> applyToArrayReactively(ArrayNode arrayNode, EvaluationContext ctx) {
 		// collect the fluxes providing the evaluated conditions for the array elements
 		final List<Flux<Tuple2<JsonNode, Val>>> itemFluxes = new ArrayList<>(arrayNode.size());
 		for (var value : arrayNode) {
@@ -102,6 +125,37 @@ private Flux<Val> applyToArray(ArrayNode arrayNode, EvaluationContext ctx) {
 		return packageResultsInArray(itemFluxes);
 	}
 
+	private boolean isConditionFreeOfAttributes() {
+		if (conditionFreeOfAttributes == null) {
+			conditionFreeOfAttributes = SynchronousEvaluationUtil.isFreeOfAttributes(getExpression());
+		}
+		return conditionFreeOfAttributes;
+	}
+
+	/**
+	 * Evaluates the condition for all items in one loop. As in the reactive
+	 * evaluation, the first error in the order of the items is the result.
+	 *
+	 * @return the array of the selected items, or empty if the condition did not
+	 *         evaluate synchronously to a single value for an item.
+	 */
+	private Optional<Val> selectSynchronously(Iterable<JsonNode> items, EvaluationContext ctx) {
+		var resultArray = Val.JSON.arrayNode();
+		for (var item : items) {
+			var conditionResult = SynchronousEvaluationUtil.evaluate(getExpression().evaluate(ctx, Val.of(item)));
+			if (conditionResult.isEmpty()) {
+				return Optional.empty();
+			}
+			if (conditionResult.get().isError()) {
+				return conditionResult;
+			}
+			if (conditionResult.get().isBoolean() && conditionResult.get().getBoolean()) {
+				resultArray.add(item);
+			}
+		}
+		return Optional.of(Val.of(resultArray));
+	}
+
 	private Flux<Val> packageResultsInArray(Iterable<Flux<Tuple2<JsonNode, Val>>> itemFluxes) {
 		return Flux.combineLatest(itemFluxes, Functions.identity()).map(itemResults -> {
 			var resultArray = Val.JSON.arrayNode();
@@ -159,7 +213,7 @@ private Flux<Val> applyFilterStatementToObject(ObjectNode object, EvaluationCont
 						log.trace("final step. select and filter!");
 						return FilterComponentImplCustom.applyFilterFunction(Val.of(field.getValue()),
 								statement.getArguments(),
-								FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx), ctx,
+								FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
 								Val.of(object), statement.isEach());
 					} else {
 						// there are more steps. descent with them
@@ -201,7 +255,7 @@ private Flux<Val> applyFilterStatementToArray(ArrayNode array, EvaluationContext
 						// this was the final step. apply filter
 						log.trace("final step. select and filter!");
 						return FilterComponentImplCustom.applyFilterFunction(Val.of(element), statement.getArguments(),
-								FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx), ctx,
+								FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
 								Val.of(array), statement.isEach());
 					} else {
 						// there are more steps. descent with them
@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.Array;
+import io.sapl.grammar.sapl.ArraySlicingStep;
+import io.sapl.grammar.sapl.AttributeUnionStep;
+import io.sapl.grammar.sapl.BasicExpression;
+import io.sapl.grammar.sapl.BasicGroup;
+import io.sapl.grammar.sapl.BasicValue;
+import io.sapl.grammar.sapl.BinaryOperator;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.IndexStep;
+import io.sapl.grammar.sapl.IndexUnionStep;
+import io.sapl.grammar.sapl.KeyStep;
+import io.sapl.grammar.sapl.Object;
+import io.sapl.grammar.sapl.Pair;
+import io.sapl.grammar.sapl.RecursiveIndexStep;
+import io.sapl.grammar.sapl.RecursiveKeyStep;
+import io.sapl.grammar.sapl.RecursiveWildcardStep;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.SaplFactory;
+import io.sapl.grammar.sapl.Step;
+import io.sapl.grammar.sapl.UnaryOperator;
+import io.sapl.grammar.sapl.Value;
+import io.sapl.grammar.sapl.WildcardStep;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Folds constant expressions of a parsed document into precomputed values.
+ *
+ * An expression is constant, if it only consists of literals, objects and
+ * arrays of constant expressions, operators applied to constant expressions,
+ * and steps not depending on attributes, functions or relative expressions.
+ * Identifiers, attributes and function calls are never constant, as no purity
+ * information is available for functions at parse time.
+ *
+ * Each maximal constant expression is evaluated once. If it is a basic value,
+ * e.g., a constant obligation object, the value is stored with the node.
+ * Otherwise, the expression is replaced by a basic value holding a literal of
+ * the result. Expressions evaluating to an error or to more than one value are
+ * left untouched, so that errors are reported during evaluation as before.
+ */
+@UtilityClass
+public class ConstantFoldingUtil {
+
+	private static final EvaluationContext CONSTANT_EVALUATION_CTX = new EvaluationContext(
+			new AnnotationAttributeContext(), new AnnotationFunctionContext(), Collections.emptyMap());
+
+	/**
+	 * Folds all constant expressions of the given document in place.
+	 *
+	 * @param document a parsed SAPL document
+	 * @return the number of folded expressions
+	 */
+	public int foldConstants(SAPL document) {
+		var maximalConstantExpressions = new ArrayList<Expression>();
+		collectMaximalConstantExpressions(document, maximalConstantExpressions);
+		var numberOfFoldedExpressions = 0;
+		for (var expression : maximalConstantExpressions) {
+			if (fold(expression)) {
+				numberOfFoldedExpressions++;
+			}
+		}
+		return numberOfFoldedExpressions;
+	}
+
+	private void collectMaximalConstantExpressions(EObject node, List<Expression> constantExpressions) {
+		for (var child : node.eContents()) {
+			if (child instanceof Expression && isConstant((Expression) child)) {
+				constantExpressions.add((Expression) child);
+			} else {
+				collectMaximalConstantExpressions(child, constantExpressions);
+			}
+		}
+	}
+
+	private boolean fold(Expression expression) {
+		var value = evaluate(expression);
+		if (value == null) {
+			return false;
+		}
+		if (expression instanceof BasicValue) {
+			((BasicValueImplCustom) expression).setConstant(value);
+		} else {
+			var basicValue = literalOf(value);
+			basicValue.setConstant(value);
+			EcoreUtil.replace(expression, basicValue);
+		}
+		return true;
+	}
+
+	private Val evaluate(Expression expression) {
+		return valueOf(expression).orElse(null);
+	}
+
+	/**
+	 * @param expression a constant expression
+	 * @return the value of the expression, if it evaluates to a single value
+	 *         without errors. Empty otherwise.
+	 */
+	public Optional<Val> valueOf(Expression expression) {
+		// constant expressions evaluate synchronously. Not blocking here allows
+		// parsing documents on non-blocking threads.
+		return SynchronousEvaluationUtil.evaluate(expression.evaluate(CONSTANT_EVALUATION_CTX, Val.UNDEFINED))
+				.filter(value -> !value.isError());
+	}
+
+	/**
+	 * @param expression an expression
+	 * @return true, if the expression always evaluates to the same single value.
+	 */
+	public boolean isConstant(Expression expression) {
+		if (expression instanceof BinaryOperator) {
+			var operator = (BinaryOperator) expression;
+			return isConstant(operator.getLeft()) && isConstant(operator.getRight());
+		}
+		if (expression instanceof UnaryOperator) {
+			return isConstant(((UnaryOperator) expression).getExpression());
+		}
+		if (expression instanceof BasicValue) {
+			var basicValue = (BasicValue) expression;
+			return isConstant(basicValue.getValue()) && hasOnlyConstantSteps(basicValue, basicValue.getSteps());
+		}
+		if (expression instanceof BasicGroup) {
+			var basicGroup = (BasicGroup) expression;
+			return isConstant(basicGroup.getExpression()) && hasOnlyConstantSteps(basicGroup, basicGroup.getSteps());
+		}
+		return false;
+	}
+
+	private boolean isConstant(Value value) {
+		if (value instanceof Object) {
+			for (var member : ((Object) value).getMembers()) {
+				if (!isConstant(member.getValue())) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (value instanceof Array) {
+			for (var item : ((Array) value).getItems()) {
+				if (!isConstant(item)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		// remaining values are literals
+		return value != null;
+	}
+
+	private boolean hasOnlyConstantSteps(BasicExpression expression, EList<Step> steps) {
+		if (expression.getFilter() != null || expression.getSubtemplate() != null) {
+			return false;
+		}
+		for (var step : steps) {
+			if (!isConstant(step)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isConstant(Step step) {
+		return step instanceof KeyStep || step instanceof IndexStep || step instanceof WildcardStep
+				|| step instanceof ArraySlicingStep || step instanceof IndexUnionStep
+				|| step instanceof AttributeUnionStep || step instanceof RecursiveKeyStep
+				|| step instanceof RecursiveIndexStep || step instanceof RecursiveWildcardStep;
+	}
+
+	private BasicValueImplCustom literalOf(Val value) {
+		var basicValue = (BasicValueImplCustom) SaplFactory.eINSTANCE.createBasicValue();
+		basicValue.setValue(value.isDefined() ? literalOf(value.get()) : SaplFactory.eINSTANCE.createUndefinedLiteral());
+		return basicValue;
+	}
+
+	private Value literalOf(JsonNode json) {
+		var factory = SaplFactory.eINSTANCE;
+		if (json.isObject()) {
+			var object = factory.createObject();
+			EList<Pair> members = object.getMembers();
+			for (Map.Entry<String, JsonNode> field : (Iterable<Map.Entry<String, JsonNode>>) json::fields) {
+				var pair = factory.createPair();
+				pair.setKey(field.getKey());
+				pair.setValue(literalOf(Val.of(field.getValue())));
+				members.add(pair);
+			}
+			return object;
+		}
+		if (json.isArray()) {
+			var array = factory.createArray();
+			for (var item : json) {
+				array.getItems().add(literalOf(Val.of(item)));
+			}
+			return array;
+		}
+		if (json.isTextual()) {
+			var string = factory.createStringLiteral();
+			string.setString(json.textValue());
+			return string;
+		}
+		if (json.isNumber()) {
+			var number = factory.createNumberLiteral();
+			number.setNumber(json.decimalValue());
+			return number;
+		}
+		if (json.isBoolean()) {
+			return json.booleanValue() ? factory.createTrueLiteral() : factory.createFalseLiteral();
+		}
+		return factory.createNullLiteral();
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import org.eclipse.emf.ecore.EObject;
+
+import io.sapl.api.interpreter.PolicyEvaluationException;
+import io.sapl.grammar.sapl.And;
+import io.sapl.grammar.sapl.AttributeFinderStep;
+import io.sapl.grammar.sapl.BasicEnvironmentAttribute;
+import io.sapl.grammar.sapl.BasicEnvironmentHeadAttribute;
+import io.sapl.grammar.sapl.HeadAttributeFinderStep;
+import io.sapl.grammar.sapl.Or;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.PolicyElement;
+import io.sapl.grammar.sapl.PolicySet;
+import io.sapl.grammar.sapl.SAPL;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Assigns the scope of each scoped expression once after parsing, so that the
+ * expressions do not have to determine their location in the document upon
+ * each evaluation.
+ */
+@UtilityClass
+public class ExpressionScopeUtil {
+
+	private static final String LAZY_AND_IN_TARGET = "Lazy AND operator is not allowed in the target of '%s'.";
+	private static final String LAZY_OR_IN_TARGET = "Lazy OR operator is not allowed in the target of '%s'.";
+	private static final String ATTRIBUTE_IN_TARGET = "Attributes are not allowed in the target of '%s'.";
+
+	/**
+	 * Assigns the scopes of all scoped expressions in the document.
+	 *
+	 * @param document a parsed SAPL document
+	 * @throws PolicyEvaluationException if a target expression contains a lazy
+	 *                                   operator or accesses an attribute, as
+	 *                                   target expressions are indexed.
+	 */
+	public void assignScopes(SAPL document) {
+		assignScopes(document.getPolicyElement());
+	}
+
+	private void assignScopes(PolicyElement element) {
+		assignScope(element.getTargetExpression(), ExpressionScope.TARGET, element);
+		if (element instanceof Policy) {
+			var policy = (Policy) element;
+			assignScope(policy.getBody(), ExpressionScope.BODY, element);
+			assignScope(policy.getObligation(), ExpressionScope.OBLIGATION, element);
+			assignScope(policy.getAdvice(), ExpressionScope.ADVICE, element);
+			assignScope(policy.getTransformation(), ExpressionScope.TRANSFORMATION, element);
+		} else if (element instanceof PolicySet) {
+			var policySet = (PolicySet) element;
+			for (var valueDefinition : policySet.getValueDefinitions()) {
+				assignScope(valueDefinition, ExpressionScope.BODY, element);
+			}
+			for (var policy : policySet.getPolicies()) {
+				assignScopes(policy);
+			}
+		}
+	}
+
+	private void assignScope(EObject root, ExpressionScope scope, PolicyElement element) {
+		if (root == null) {
+			return;
+		}
+		assignScopeToNode(root, scope, element);
+		var iter = root.eAllContents();
+		while (iter.hasNext()) {
+			assignScopeToNode(iter.next(), scope, element);
+		}
+	}
+
+	private void assignScopeToNode(EObject node, ExpressionScope scope, PolicyElement element) {
+		if (scope == ExpressionScope.TARGET) {
+			requireAllowedInTarget(node, element);
+		}
+		if (node instanceof ScopedExpression) {
+			((ScopedExpression) node).setExpressionScope(scope);
+		}
+	}
+
+	private void requireAllowedInTarget(EObject node, PolicyElement element) {
+		if (node instanceof And) {
+			throw new PolicyEvaluationException(LAZY_AND_IN_TARGET, element.getSaplName());
+		}
+		if (node instanceof Or) {
+			throw new PolicyEvaluationException(LAZY_OR_IN_TARGET, element.getSaplName());
+		}
+		if (node instanceof AttributeFinderStep || node instanceof HeadAttributeFinderStep
+				|| node instanceof BasicEnvironmentAttribute || node instanceof BasicEnvironmentHeadAttribute) {
+			throw new PolicyEvaluationException(ATTRIBUTE_IN_TARGET, element.getSaplName());
+		}
+	}
+
+	/**
+	 * Used by scoped expressions to check for illegal attributes or lazy operators
+	 * in target expressions. If no scope has been assigned when parsing, e.g., as
+	 * the expression has been constructed programmatically, the scope is
+	 * determined from the containers of the expression once.
+	 *
+	 * @param expression a scoped expression in the AST
+	 * @return true, if the expression is part of the target expression of a policy
+	 *         or policy set.
+	 */
+	public boolean isInTargetExpression(ScopedExpression expression) {
+		var scope = expression.getExpressionScope();
+		if (scope == null) {
+			scope = scopeOf(expression);
+			expression.setExpressionScope(scope);
+		}
+		return scope == ExpressionScope.TARGET;
+	}
+
+	/**
+	 * @param node a node in the AST
+	 * @return the scope of the node, determined from its containers
+	 */
+	public ExpressionScope scopeOf(EObject node) {
+		var current = node;
+		while (current.eContainer() != null) {
+			var container = current.eContainer();
+			if (container instanceof PolicyElement) {
+				return scopeOfChild((PolicyElement) container, current);
+			}
+			current = container;
+		}
+		return ExpressionScope.NONE;
+	}
+
+	private ExpressionScope scopeOfChild(PolicyElement element, EObject child) {
+		if (child == element.getTargetExpression()) {
+			return ExpressionScope.TARGET;
+		}
+		if (element instanceof PolicySet) {
+			return ExpressionScope.BODY;
+		}
+		var policy = (Policy) element;
+		if (child == policy.getBody()) {
+			return ExpressionScope.BODY;
+		}
+		if (child == policy.getObligation()) {
+			return ExpressionScope.OBLIGATION;
+		}
+		if (child == policy.getAdvice()) {
+			return ExpressionScope.ADVICE;
+		}
+		if (child == policy.getTransformation()) {
+			return ExpressionScope.TRANSFORMATION;
+		}
+		return ExpressionScope.NONE;
+	}
+
+}
@@ -26,6 +26,8 @@
 
 public class FilterExtendedImplCustom extends FilterExtendedImpl {
 
+	private volatile Boolean[] synchronouslyApplicable;
+
 	@Override
 	public Flux<Val> apply(Val unfilteredValue, EvaluationContext ctx, Val relativeNode) {
 		if (unfilteredValue.isError()) {
@@ -50,22 +52,47 @@ private Function<? super Val, Publisher<? extends Val>> applyFilterStatements(in
 		if (statementId == statements.size()) {
 			return Flux::just;
 		}
-		return value -> applyFilterStatement(value, statements.get(statementId), ctx, relativeNode)
+		return value -> applyFilterStatement(value, statementId, ctx, relativeNode)
 				.switchMap(applyFilterStatements(statementId + 1, ctx, relativeNode));
 	}
 
-	private Flux<Val> applyFilterStatement(Val unfilteredValue, FilterStatement statement, EvaluationContext ctx,
+	private Flux<Val> applyFilterStatement(Val unfilteredValue, int statementId, EvaluationContext ctx,
 			Val relativeNode) {
+		var statement = statements.get(statementId);
 		if (statement.getTarget().getSteps().size() == 0) {
 			// the expression has no steps. apply filter to unfiltered node directly
 			return applyFilterFunction(unfilteredValue, statement.getArguments(),
-					FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx), ctx, relativeNode,
+					FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx, relativeNode,
 					statement.isEach());
+		} else if (isSynchronouslyApplicable(statementId)) {
+			// walk the value once. fall back to the steps, if that is not possible
+			return Flux.defer(() -> {
+				var filteredValue = SynchronousFilterUtil.applyFilterStatement(unfilteredValue, statement, ctx);
+				return filteredValue != null ? Flux.just(filteredValue)
+						: applyFilterStatementSteps(unfilteredValue, statement, ctx, relativeNode);
+			});
 		} else {
-			// descent with steps
-			return statement.getTarget().getSteps().get(0).applyFilterStatement(unfilteredValue, ctx, relativeNode, 0,
-					statement);
+			return applyFilterStatementSteps(unfilteredValue, statement, ctx, relativeNode);
+		}
+	}
+
+	private Flux<Val> applyFilterStatementSteps(Val unfilteredValue, FilterStatement statement, EvaluationContext ctx,
+			Val relativeNode) {
+		// descent with steps
+		return statement.getTarget().getSteps().get(0).applyFilterStatement(unfilteredValue, ctx, relativeNode, 0,
+				statement);
+	}
+
+	private boolean isSynchronouslyApplicable(int statementId) {
+		var applicable = synchronouslyApplicable;
+		if (applicable == null) {
+			applicable = new Boolean[statements.size()];
+			synchronouslyApplicable = applicable;
+		}
+		if (applicable[statementId] == null) {
+			applicable[statementId] = SynchronousFilterUtil.isApplicable(statements.get(statementId));
 		}
+		return applicable[statementId];
 	}
 
 }
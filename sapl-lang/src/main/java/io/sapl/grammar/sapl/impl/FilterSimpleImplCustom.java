@@ -19,12 +19,18 @@
 import io.sapl.interpreter.EvaluationContext;
 import reactor.core.publisher.Flux;
 
-public class FilterSimpleImplCustom extends FilterSimpleImpl {
+public class FilterSimpleImplCustom extends FilterSimpleImpl implements QualifiedNameReference {
+
+	private final ResolvedNameCache resolvedName = new ResolvedNameCache();
+
+	@Override
+	public String getFullyQualifiedName(EvaluationContext ctx) {
+		return resolvedName.resolve(getFsteps(), ctx);
+	}
 
 	@Override
 	public Flux<Val> apply(Val unfilteredValue, EvaluationContext ctx, Val relativeNode) {
-		return applyFilterFunction(unfilteredValue, arguments, FunctionUtil.resolveAbsoluteFunctionName(fsteps, ctx),
-				ctx, relativeNode, each);
+		return applyFilterFunction(unfilteredValue, arguments, getFullyQualifiedName(ctx), ctx, relativeNode, each);
 	}
 
 }
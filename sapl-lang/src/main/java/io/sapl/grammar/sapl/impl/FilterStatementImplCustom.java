@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import io.sapl.interpreter.EvaluationContext;
+
+/**
+ * A filter statement of an extended filter, applying a function to the values
+ * selected by its target.
+ *
+ * Grammar: FilterStatement: each?='each'? target=BasicRelative? ':'
+ * fsteps+=ID ('.' fsteps+=ID)* arguments=Arguments?;
+ */
+public class FilterStatementImplCustom extends FilterStatementImpl implements QualifiedNameReference {
+
+	private final ResolvedNameCache resolvedName = new ResolvedNameCache();
+
+	@Override
+	public String getFullyQualifiedName(EvaluationContext ctx) {
+		return resolvedName.resolve(getFsteps(), ctx);
+	}
+
+}
@@ -17,9 +17,12 @@
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.eclipse.emf.ecore.EObject;
+
 import io.sapl.api.interpreter.Val;
 import io.sapl.grammar.sapl.Arguments;
 import io.sapl.interpreter.EvaluationContext;
@@ -38,8 +41,25 @@ public Flux<Val[]> combineArgumentFluxes(Arguments arguments, EvaluationContext
 	}
 
 	public String resolveAbsoluteFunctionName(Iterable<String> steps, EvaluationContext ctx) {
+		return resolveAbsoluteFunctionName(steps, ctx.getImports());
+	}
+
+	public String resolveAbsoluteFunctionName(Iterable<String> steps, Map<String, String> imports) {
 		var functionName = mergeStepsToName(steps);
-		return ctx.getImports().getOrDefault(functionName, functionName);
+		return imports.getOrDefault(functionName, functionName);
+	}
+
+	/**
+	 * @param reference a node referring to a function or attribute
+	 * @param steps     the steps of the name as written in the document
+	 * @param ctx       the evaluation context
+	 * @return the fully qualified name resolved against the imports of the
+	 *         evaluation context, cached on the node if it supports this
+	 */
+	public String resolveAbsoluteFunctionName(EObject reference, Iterable<String> steps, EvaluationContext ctx) {
+		if (reference instanceof QualifiedNameReference)
+			return ((QualifiedNameReference) reference).getFullyQualifiedName(ctx);
+		return resolveAbsoluteFunctionName(steps, ctx);
 	}
 
 	public Mono<Val> evaluateFunctionMono(Iterable<String> fsteps, EvaluationContext ctx, Val... parameters) {
@@ -96,7 +96,7 @@ public static Flux<Val> doApplyFilterStatement(BigDecimal index, Val parentValue
 					log.trace("final step. apply filter!");
 					elementFluxes.add(
 							FilterComponentImplCustom.applyFilterFunction(Val.of(element), statement.getArguments(),
-									FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx), ctx,
+									FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
 									parentValue, statement.isEach()));
 				} else {
 					// there are more steps. descent with them
@@ -97,7 +97,7 @@ public Flux<Val> applyFilterStatement(@NonNull Val parentValue, @NonNull Evaluat
 					log.trace("final step. apply filter!");
 					elementFluxes.add(
 							FilterComponentImplCustom.applyFilterFunction(Val.of(element), statement.getArguments(),
-									FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx), ctx,
+									FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
 									parentValue, statement.isEach()));
 				} else {
 					// there are more steps. descent with them
@@ -17,7 +17,9 @@
 
 import io.sapl.api.interpreter.Val;
 import io.sapl.interpreter.EvaluationContext;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import reactor.core.publisher.Flux;
 
 /**
@@ -26,13 +28,17 @@
  * Grammar: Addition returns Expression: Multiplication (({Or.left=current}
  * '||') right=Multiplication)* ;
  */
-public class OrImplCustom extends OrImpl {
+public class OrImplCustom extends OrImpl implements ScopedExpression {
 
 	private static final String LAZY_OPERATOR_IN_TARGET = "Lazy OR operator is not allowed in the target";
 
+	@Getter
+	@Setter
+	private ExpressionScope expressionScope;
+
 	@Override
 	public Flux<Val> evaluate(@NonNull EvaluationContext ctx, @NonNull Val relativeNode) {
-		if (TargetExpressionUtil.isInTargetExpression(this)) {
+		if (ExpressionScopeUtil.isInTargetExpression(this)) {
 			// lazy evaluation is not allowed in target expressions.
 			return Val.errorFlux(LAZY_OPERATOR_IN_TARGET);
 		}
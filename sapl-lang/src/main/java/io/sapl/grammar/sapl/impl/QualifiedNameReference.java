@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import org.eclipse.emf.ecore.EObject;
+
+import io.sapl.interpreter.EvaluationContext;
+
+/**
+ * A node of the abstract syntax tree referring to a function or attribute by a
+ * name which may be subject to the imports of the document.
+ */
+public interface QualifiedNameReference extends EObject {
+
+	/**
+	 * Resolves the name of the node against the imports of the evaluation
+	 * context. Implementations cache the result for the imports instance, so
+	 * repeated evaluations with the same document scoped context do not resolve
+	 * the name again.
+	 * 
+	 * @param ctx the evaluation context providing the imports of the document
+	 * @return the fully qualified name
+	 */
+	String getFullyQualifiedName(EvaluationContext ctx);
+
+}
@@ -104,7 +104,7 @@ private static Flux<Val> doApplyFilterStatement(int index, Val parentValue, Eval
 					log.trace("final step. apply filter!");
 					elementFluxes.add(
 							FilterComponentImplCustom.applyFilterFunction(Val.of(element), statement.getArguments(),
-									FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx), ctx,
+									FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
 									parentValue, statement.isEach()));
 				} else {
 					// there are more steps. descent with them
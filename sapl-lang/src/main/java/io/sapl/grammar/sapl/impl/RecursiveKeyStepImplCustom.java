@@ -104,7 +104,7 @@ private static Flux<Val> applyFilterStatementToObject(String id, ObjectNode obje
 					fieldFluxes
 							.add(FilterComponentImplCustom
 									.applyFilterFunction(Val.of(field.getValue()), statement.getArguments(),
-											FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx), ctx,
+											FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
 											Val.of(object), statement.isEach())
 									.map(val -> Tuples.of(field.getKey(), val)));
 				} else {
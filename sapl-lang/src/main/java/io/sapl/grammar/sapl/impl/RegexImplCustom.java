@@ -19,6 +19,8 @@
 import java.util.regex.PatternSyntaxException;
 
 import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.BasicValue;
+import io.sapl.grammar.sapl.StringLiteral;
 import io.sapl.interpreter.EvaluationContext;
 import lombok.NonNull;
 import reactor.core.publisher.Flux;
@@ -26,6 +28,10 @@
 /**
  * Checks for a value matching a regular expression.
  *
+ * If the regular expression is a string literal, it is compiled once and kept
+ * with the AST node. Otherwise, the compiled patterns are taken from the
+ * {@link RegexPatternCache}.
+ *
  * Grammar: Comparison returns Expression: Prefixed (({Regex.left=current} '=~')
  * right=Prefixed)? ;
  */
@@ -33,13 +39,47 @@ public class RegexImplCustom extends RegexImpl {
 
 	private static final String REGEX_SYNTAX_ERROR = "Syntax error in regular expression '%s'.";
 
+	private static final Pattern NO_LITERAL_PATTERN = Pattern.compile("");
+
+	private volatile Pattern literalPattern;
+
 	@Override
 	public Flux<Val> evaluate(@NonNull EvaluationContext ctx, @NonNull Val relativeNode) {
 		var leftFlux = getLeft().evaluate(ctx, relativeNode);
+		var pattern = literalPattern();
+		if (pattern != NO_LITERAL_PATTERN) {
+			return leftFlux.map(left -> matchRegexp(left, pattern));
+		}
 		var rightFlux = getRight().evaluate(ctx, relativeNode).map(Val::requireText);
 		return Flux.combineLatest(leftFlux, rightFlux, this::matchRegexp);
 	}
 
+	private Pattern literalPattern() {
+		var pattern = literalPattern;
+		if (pattern == null) {
+			pattern = compileLiteralPattern();
+			literalPattern = pattern;
+		}
+		return pattern;
+	}
+
+	private Pattern compileLiteralPattern() {
+		if (!(getRight() instanceof BasicValue)) {
+			return NO_LITERAL_PATTERN;
+		}
+		var basicValue = (BasicValue) getRight();
+		if (!(basicValue.getValue() instanceof StringLiteral) || !basicValue.getSteps().isEmpty()
+				|| basicValue.getFilter() != null || basicValue.getSubtemplate() != null) {
+			return NO_LITERAL_PATTERN;
+		}
+		try {
+			return Pattern.compile(((StringLiteral) basicValue.getValue()).getString());
+		} catch (PatternSyntaxException e) {
+			// evaluated dynamically to report the error
+			return NO_LITERAL_PATTERN;
+		}
+	}
+
 	private Val matchRegexp(Val left, Val right) {
 		if (left.isError()) {
 			return left;
@@ -51,10 +91,20 @@ private Val matchRegexp(Val left, Val right) {
 			return Val.FALSE;
 		}
 		try {
-			return Val.of(Pattern.matches(right.getText(), left.getText()));
+			return Val.of(RegexPatternCache.compile(right.getText()).matcher(left.getText()).matches());
 		} catch (PatternSyntaxException e) {
 			return Val.error(REGEX_SYNTAX_ERROR, right);
 		}
 	}
 
+	private static Val matchRegexp(Val left, Pattern pattern) {
+		if (left.isError()) {
+			return left;
+		}
+		if (!left.isTextual()) {
+			return Val.FALSE;
+		}
+		return Val.of(pattern.matcher(left.getText()).matches());
+	}
+
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Bounded cache of compiled regular expressions computed at runtime, e.g., the
+ * right-hand side of the regex operator if it is not a string literal.
+ * Statistics on hits, misses and evictions are recorded and can be retrieved
+ * for monitoring.
+ */
+@UtilityClass
+public class RegexPatternCache {
+
+	public static final int MAXIMUM_SIZE = 1000;
+
+	private static final Cache<String, Pattern> PATTERNS = CacheBuilder.newBuilder().maximumSize(MAXIMUM_SIZE)
+			.recordStats().build();
+
+	/**
+	 * @param regex a regular expression
+	 * @return the compiled pattern, taken from the cache if it was compiled before
+	 * @throws PatternSyntaxException if the expression's syntax is invalid
+	 */
+	public Pattern compile(String regex) {
+		var pattern = PATTERNS.getIfPresent(regex);
+		if (pattern == null) {
+			pattern = Pattern.compile(regex);
+			PATTERNS.put(regex, pattern);
+		}
+		return pattern;
+	}
+
+	/**
+	 * @return hit and miss counts as well as the number of evictions since
+	 *         startup.
+	 */
+	public CacheStats stats() {
+		return PATTERNS.stats();
+	}
+
+	/**
+	 * @return the ratio of lookups served from the cache, 1.0 if there were no
+	 *         lookups yet.
+	 */
+	public double hitRate() {
+		return PATTERNS.stats().hitRate();
+	}
+
+	/**
+	 * @return the number of patterns currently cached.
+	 */
+	public long size() {
+		return PATTERNS.size();
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.Map;
+
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.BoundFunction;
+import io.sapl.interpreter.functions.FunctionContext;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Caches the fully qualified name of a {@link QualifiedNameReference} for the
+ * imports it was last resolved against. For function calls, the function bound
+ * to this name is cached as well, for the imports and the function context it
+ * was looked up in.
+ * 
+ * A document resolves its imports once for a pair of function and attribute
+ * contexts and hands them to its nodes with the document scoped evaluation
+ * context. The AST itself is never modified. Thus, a document may be evaluated
+ * with different contexts concurrently. The cache is only used if the imports
+ * are the same instance as the ones the name was resolved against. Otherwise,
+ * the name is resolved again.
+ */
+final class ResolvedNameCache {
+
+	private volatile ResolvedName lastResolved;
+
+	private volatile ResolvedFunction lastResolvedFunction;
+
+	String resolve(Iterable<String> steps, EvaluationContext ctx) {
+		var imports = ctx.getImports();
+		var resolved = lastResolved;
+		if (resolved != null && resolved.imports == imports)
+			return resolved.name;
+
+		var name = FunctionUtil.resolveAbsoluteFunctionName(steps, imports);
+		lastResolved = new ResolvedName(imports, name);
+		return name;
+	}
+
+	BoundFunction resolveFunction(Iterable<String> steps, EvaluationContext ctx) {
+		var imports = ctx.getImports();
+		var functionCtx = ctx.getFunctionCtx();
+		var resolved = lastResolvedFunction;
+		if (resolved != null && resolved.imports == imports && resolved.functionCtx == functionCtx)
+			return resolved.function;
+
+		var function = functionCtx.lookupFunction(resolve(steps, ctx));
+		lastResolvedFunction = new ResolvedFunction(imports, functionCtx, function);
+		return function;
+	}
+
+	@RequiredArgsConstructor
+	private static final class ResolvedName {
+
+		private final Map<String, String> imports;
+
+		private final String name;
+
+	}
+
+	@RequiredArgsConstructor
+	private static final class ResolvedFunction {
+
+		private final Map<String, String> imports;
+
+		private final FunctionContext functionCtx;
+
+		private final BoundFunction function;
+
+	}
+
+}
@@ -15,6 +15,7 @@
  */
 package io.sapl.grammar.sapl.impl;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,7 +26,10 @@
 import io.sapl.grammar.sapl.LibraryImport;
 import io.sapl.grammar.sapl.WildcardImport;
 import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.FunctionContext;
+import io.sapl.interpreter.pip.AttributeContext;
 import io.sapl.interpreter.pip.LibraryFunctionProvider;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -38,6 +42,8 @@ public class SAPLImplCustom extends SAPLImpl {
 	private static final String WILDCARD_IMPORT_EXISTS = "Wildcard import of '%s' not possible as an import for name '%s' already exists.";
 	private static final String LIBRARY_IMPORT_EXISTS = "Library import of '%s' not possible as an import for name '%s' already exists.";
 
+	private volatile ResolvedImports resolvedImports;
+
 	@Override
 	public Mono<Val> matches(EvaluationContext subscriptionScopedEvaluationContext) {
 		try {
@@ -64,7 +70,27 @@ public Flux<AuthorizationDecision> evaluate(EvaluationContext subscriptionScoped
 
 	@Override
 	public EvaluationContext documentScopedEvaluationContext(EvaluationContext subscriptionScopedEvaluationContext) {
-		return subscriptionScopedEvaluationContext.withImports(fetchImports(subscriptionScopedEvaluationContext));
+		return subscriptionScopedEvaluationContext.withImports(resolveImports(subscriptionScopedEvaluationContext));
+	}
+
+	/**
+	 * Resolves the imports of the document against the function and attribute
+	 * contexts. The result is kept for the most recent pair of contexts, so that
+	 * the nodes of the document can cache the names they resolved against the
+	 * same imports instance. Evaluating the document with other contexts resolves
+	 * its imports again and never affects evaluations with the previous contexts,
+	 * as the imports are handed to the nodes with the evaluation context.
+	 * 
+	 * @return the imports of the document
+	 */
+	private Map<String, String> resolveImports(EvaluationContext ctx) {
+		var resolved = resolvedImports;
+		if (resolved != null && resolved.isResolvedFor(ctx))
+			return resolved.getImports();
+
+		var imports = Collections.unmodifiableMap(fetchImports(ctx));
+		resolvedImports = new ResolvedImports(ctx.getAttributeCtx(), ctx.getFunctionCtx(), imports);
+		return imports;
 	}
 
 	private Map<String, String> fetchImports(EvaluationContext subscriptionScopedEvaluationContext) {
@@ -130,4 +156,19 @@ private void logAuthzDecision(AuthorizationDecision r) {
 		log.trace("| | |-- {} document {} evaluated to: {}", r.getDecision(), getPolicyElement().getSaplName(), r);
 	}
 
+	@Value
+	private static class ResolvedImports {
+
+		AttributeContext attributeCtx;
+
+		FunctionContext functionCtx;
+
+		Map<String, String> imports;
+
+		boolean isResolvedFor(EvaluationContext ctx) {
+			return attributeCtx == ctx.getAttributeCtx() && functionCtx == ctx.getFunctionCtx();
+		}
+
+	}
+
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * A node of the abstract syntax tree whose evaluation depends on the part of
+ * the document it is located in, e.g., attributes and lazy operators, which
+ * are not allowed in target expressions.
+ */
+public interface ScopedExpression extends EObject {
+
+	/**
+	 * @return the scope assigned when parsing the document, or null if it has not
+	 *         been assigned yet
+	 */
+	ExpressionScope getExpressionScope();
+
+	void setExpressionScope(ExpressionScope expressionScope);
+
+}
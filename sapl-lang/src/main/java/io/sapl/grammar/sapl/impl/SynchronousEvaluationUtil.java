@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.emf.ecore.EObject;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.AttributeFinderStep;
+import io.sapl.grammar.sapl.BasicEnvironmentAttribute;
+import io.sapl.grammar.sapl.BasicEnvironmentHeadAttribute;
+import io.sapl.grammar.sapl.HeadAttributeFinderStep;
+import lombok.experimental.UtilityClass;
+import reactor.core.publisher.Flux;
+
+/**
+ * Helpers for evaluating expressions without setting up a reactive pipeline
+ * for each evaluation, where the expression does not depend on attribute
+ * streams.
+ */
+@UtilityClass
+public class SynchronousEvaluationUtil {
+
+	/**
+	 * @param node a node of the abstract syntax tree
+	 * @return true, if neither the node nor any of its descendants accesses
+	 *         attributes. The evaluation of such a node yields a single value
+	 *         synchronously.
+	 */
+	public boolean isFreeOfAttributes(EObject node) {
+		if (isAttributeAccess(node)) {
+			return false;
+		}
+		var iter = node.eAllContents();
+		while (iter.hasNext()) {
+			if (isAttributeAccess(iter.next())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isAttributeAccess(EObject node) {
+		return node instanceof AttributeFinderStep || node instanceof HeadAttributeFinderStep
+				|| node instanceof BasicEnvironmentAttribute || node instanceof BasicEnvironmentHeadAttribute;
+	}
+
+	/**
+	 * Subscribes to the evaluation result on the calling thread.
+	 *
+	 * @param evaluationResult the Flux returned by an evaluation
+	 * @return the value, if the Flux emitted exactly one value and completed
+	 *         during subscription. Empty otherwise.
+	 */
+	public Optional<Val> evaluate(Flux<Val> evaluationResult) {
+		var values = new ArrayList<Val>(2);
+		var completed = new AtomicBoolean();
+		evaluationResult.take(2).subscribe(values::add, error -> values.clear(), () -> completed.set(true))
+				.dispose();
+		if (!completed.get() || values.size() != 1) {
+			return Optional.empty();
+		}
+		return Optional.of(values.get(0));
+	}
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.FilterStatement;
+import io.sapl.grammar.sapl.IndexStep;
+import io.sapl.grammar.sapl.KeyStep;
+import io.sapl.grammar.sapl.RecursiveKeyStep;
+import io.sapl.grammar.sapl.RecursiveWildcardStep;
+import io.sapl.grammar.sapl.WildcardStep;
+import io.sapl.interpreter.EvaluationContext;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Applies a filter statement by walking the value once, without a reactive
+ * pipeline per node.
+ *
+ * This is possible for statements whose target only consists of key, index,
+ * wildcard, recursive key and recursive wildcard steps and whose arguments do
+ * not access attributes. The result is the same as for the step-wise reactive
+ * application of the statement. Containers are only copied along the paths to
+ * values changed by the filter; untouched subtrees are shared with the
+ * unfiltered value.
+ *
+ * Where the reactive application would not yield exactly one value, e.g., for
+ * key steps applied to empty objects, the walk is aborted and the caller falls
+ * back to the reactive application.
+ */
+@UtilityClass
+public class SynchronousFilterUtil {
+
+	/**
+	 * @param statement a filter statement
+	 * @return true, if the statement can be applied by
+	 *         {@link #applyFilterStatement(Val, FilterStatement, EvaluationContext)}
+	 */
+	public boolean isApplicable(FilterStatement statement) {
+		var steps = statement.getTarget().getSteps();
+		if (steps.isEmpty()) {
+			return false;
+		}
+		for (var step : steps) {
+			if (!(step instanceof KeyStep || step instanceof IndexStep || step instanceof WildcardStep
+					|| step instanceof RecursiveKeyStep || step instanceof RecursiveWildcardStep)) {
+				return false;
+			}
+		}
+		return statement.getArguments() == null
+				|| SynchronousEvaluationUtil.isFreeOfAttributes(statement.getArguments());
+	}
+
+	/**
+	 * @param unfilteredValue the value to filter
+	 * @param statement       an applicable filter statement
+	 * @param ctx             the evaluation context
+	 * @return the filtered value, or null if the statement has to be applied
+	 *         reactively
+	 */
+	public Val applyFilterStatement(Val unfilteredValue, FilterStatement statement, EvaluationContext ctx) {
+		return new Walk(statement, ctx).applyStep(unfilteredValue, 0);
+	}
+
+	@RequiredArgsConstructor
+	private static class Walk {
+
+		private final FilterStatement statement;
+
+		private final EvaluationContext ctx;
+
+		Val applyStep(Val value, int stepId) {
+			if (!value.isDefined() || value.isError()) {
+				return value;
+			}
+			var step = statement.getTarget().getSteps().get(stepId);
+			if (step instanceof KeyStep) {
+				return applyKeyStep(((KeyStep) step).getId(), value, stepId);
+			}
+			if (step instanceof RecursiveKeyStep) {
+				return applyRecursiveKeyStep(((RecursiveKeyStep) step).getId(), value, stepId);
+			}
+			if (step instanceof IndexStep) {
+				return applyIndexStep(((IndexStep) step).getIndex(), value, stepId);
+			}
+			// @.* and @..* are equivalent in filters
+			return applyWildcardStep(value, stepId);
+		}
+
+		private Val applyKeyStep(String id, Val value, int stepId) {
+			if (value.isObject()) {
+				return applyKeyToObject(id, value.getObjectNode(), stepId, false);
+			}
+			if (value.isArray()) {
+				var array = value.getArrayNode();
+				if (array.isEmpty()) {
+					return Val.ofEmptyArray();
+				}
+				return recombineArray(array, element -> element.isObject()
+						? applyKeyToObject(id, (ObjectNode) element, stepId, false)
+						: Val.of(element));
+			}
+			return value;
+		}
+
+		private Val applyRecursiveKeyStep(String id, Val value, int stepId) {
+			if (value.isObject()) {
+				return applyKeyToObject(id, value.getObjectNode(), stepId, true);
+			}
+			if (value.isArray()) {
+				var array = value.getArrayNode();
+				if (array.isEmpty()) {
+					return Val.ofEmptyArray();
+				}
+				return recombineArray(array, element -> applyRecursiveKeyStep(id, Val.of(element), stepId));
+			}
+			return value;
+		}
+
+		private Val applyKeyToObject(String id, ObjectNode object, int stepId, boolean recursive) {
+			if (object.isEmpty()) {
+				return null;
+			}
+			return recombineObject(object, (key, fieldValue) -> {
+				if (key.equals(id)) {
+					return selected(fieldValue, object, stepId);
+				}
+				if (recursive) {
+					return applyRecursiveKeyStep(id, Val.of(fieldValue), stepId);
+				}
+				return Val.of(fieldValue);
+			});
+		}
+
+		private Val applyWildcardStep(Val value, int stepId) {
+			if (value.isObject()) {
+				var object = value.getObjectNode();
+				if (object.isEmpty()) {
+					return null;
+				}
+				return recombineObject(object, (key, fieldValue) -> selected(fieldValue, object, stepId));
+			}
+			if (value.isArray()) {
+				var array = value.getArrayNode();
+				if (array.isEmpty()) {
+					return null;
+				}
+				return recombineArray(array, element -> selected(element, array, stepId));
+			}
+			return value;
+		}
+
+		private Val applyIndexStep(BigDecimal index, Val value, int stepId) {
+			if (!value.isArray()) {
+				return value;
+			}
+			var array = value.getArrayNode();
+			var idx = index.intValue();
+			if (idx < 0) {
+				idx = array.size() + idx;
+			}
+			if (idx < 0 || idx >= array.size()) {
+				return value;
+			}
+			var selectedIndex = idx;
+			var position = new int[1];
+			return recombineArray(array, element -> position[0]++ == selectedIndex ? selected(element, array, stepId)
+					: Val.of(element));
+		}
+
+		private Val selected(JsonNode selectedValue, JsonNode container, int stepId) {
+			if (stepId == statement.getTarget().getSteps().size() - 1) {
+				var filterResult = FilterComponentImplCustom.applyFilterFunction(Val.of(selectedValue),
+						statement.getArguments(),
+						FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
+						Val.of(container), statement.isEach());
+				return SynchronousEvaluationUtil.evaluate(filterResult).orElse(null);
+			}
+			return applyStep(Val.of(selectedValue), stepId + 1);
+		}
+
+		private Val recombineObject(ObjectNode object, FieldFilter fieldFilter) {
+			ObjectNode result = null;
+			var position = 0;
+			for (Iterator<Map.Entry<String, JsonNode>> fields = object.fields(); fields.hasNext(); position++) {
+				var field = fields.next();
+				var filtered = fieldFilter.apply(field.getKey(), field.getValue());
+				if (filtered == null || filtered.isError()) {
+					return filtered;
+				}
+				if (result == null && !isUnchanged(filtered, field.getValue())) {
+					result = copyOfFirstFields(object, position);
+				}
+				// drop undefined
+				if (result != null && filtered.isDefined()) {
+					result.set(field.getKey(), filtered.get());
+				}
+			}
+			return Val.of(result == null ? object : result);
+		}
+
+		private Val recombineArray(ArrayNode array, ElementFilter elementFilter) {
+			ArrayNode result = null;
+			for (var position = 0; position < array.size(); position++) {
+				var element = array.get(position);
+				var filtered = elementFilter.apply(element);
+				if (filtered == null || filtered.isError()) {
+					return filtered;
+				}
+				if (result == null && !isUnchanged(filtered, element)) {
+					result = copyOfFirstElements(array, position);
+				}
+				// drop undefined
+				if (result != null && filtered.isDefined()) {
+					result.add(filtered.get());
+				}
+			}
+			return Val.of(result == null ? array : result);
+		}
+
+		private static boolean isUnchanged(Val filtered, JsonNode original) {
+			return filtered.isDefined() && filtered.get() == original;
+		}
+
+		private static ObjectNode copyOfFirstFields(ObjectNode object, int numberOfFields) {
+			var copy = Val.JSON.objectNode();
+			var fields = object.fields();
+			for (var i = 0; i < numberOfFields; i++) {
+				var field = fields.next();
+				copy.set(field.getKey(), field.getValue());
+			}
+			return copy;
+		}
+
+		private static ArrayNode copyOfFirstElements(ArrayNode array, int numberOfElements) {
+			var copy = Val.JSON.arrayNode();
+			for (var i = 0; i < numberOfElements; i++) {
+				copy.add(array.get(i));
+			}
+			return copy;
+		}
+
+	}
+
+	@FunctionalInterface
+	private interface FieldFilter {
+
+		Val apply(String key, JsonNode value);
+
+	}
+
+	@FunctionalInterface
+	private interface ElementFilter {
+
+		Val apply(JsonNode element);
+
+	}
+
+}
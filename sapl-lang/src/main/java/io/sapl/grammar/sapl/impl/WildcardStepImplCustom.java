@@ -90,8 +90,9 @@ private static Flux<Val> applyFilterStatementToObject(ObjectNode object, Evaluat
 				// this was the final step. apply filter
 				log.trace("final step. select and filter!");
 				fieldFluxes.add(FilterComponentImplCustom.applyFilterFunction(Val.of(field.getValue()),
-						statement.getArguments(), FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx),
-						ctx, Val.of(object), statement.isEach()).map(val -> Tuples.of(field.getKey(), val)));
+						statement.getArguments(),
+						FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
+						Val.of(object), statement.isEach()).map(val -> Tuples.of(field.getKey(), val)));
 			} else {
 				// there are more steps. descent with them
 				log.trace("this step was successful. descent with next step...");
@@ -114,8 +115,9 @@ private static Flux<Val> applyFilterStatementToArray(ArrayNode array, Evaluation
 				// this was the final step. apply filter
 				log.trace("final step. select and filter!");
 				elementFluxes.add(FilterComponentImplCustom.applyFilterFunction(Val.of(element),
-						statement.getArguments(), FunctionUtil.resolveAbsoluteFunctionName(statement.getFsteps(), ctx),
-						ctx, Val.of(array), statement.isEach()));
+						statement.getArguments(),
+						FunctionUtil.resolveAbsoluteFunctionName(statement, statement.getFsteps(), ctx), ctx,
+						Val.of(array), statement.isEach()));
 			} else {
 				// there are more steps. descent with them
 				log.trace("this step was successful. descent with next step...");
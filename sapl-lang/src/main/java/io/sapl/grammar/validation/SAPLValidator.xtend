@@ -19,10 +19,13 @@
 package io.sapl.grammar.validation
 
 import io.sapl.grammar.sapl.And
-import io.sapl.grammar.sapl.Policy
+import io.sapl.grammar.sapl.PolicyElement
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.xtext.validation.Check
 import io.sapl.grammar.sapl.AttributeFinderStep
+import io.sapl.grammar.sapl.BasicEnvironmentAttribute
+import io.sapl.grammar.sapl.BasicEnvironmentHeadAttribute
+import io.sapl.grammar.sapl.HeadAttributeFinderStep
 import io.sapl.grammar.sapl.Or
 
 /**
@@ -35,12 +38,13 @@ class SAPLValidator extends AbstractSAPLValidator {
 	protected static final String MSG_AND_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION = "And is not allowed in target expression."
 	protected static final String MSG_OR_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION = "Or is not allowed in target expression."
 	protected static final String MSG_AFS_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION = "AttributeFinderStep is not allowed in target expression."
+	protected static final String MSG_ATTRIBUTE_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION = "Attribute is not allowed in target expression."
 
 	/**
 	 * According to SAPL documentation, no lazy And operators are allowed in the target expression.
 	 */
 	@Check
-	def policyRuleNoAndAllowedInTargetExpression(Policy policy) {
+	def policyRuleNoAndAllowedInTargetExpression(PolicyElement policy) {
 		genericCheckForTargetExpression(policy, And, MSG_AND_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION)
 	}
 
@@ -48,22 +52,35 @@ class SAPLValidator extends AbstractSAPLValidator {
 	 * According to SAPL documentation, no lazy Or operators are allowed in the target expression.
 	 */
 	@Check
-	def policyRuleNoOrAllowedInTargetExpression(Policy policy) {
+	def policyRuleNoOrAllowedInTargetExpression(PolicyElement policy) {
 		genericCheckForTargetExpression(policy, Or, MSG_OR_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION)
 	}
 
 	/**
-	 * According to SAPL documentation, no lazy Or operators are allowed in the target expression.
+	 * According to SAPL documentation, no attribute finder steps are allowed in the target expression.
 	 */
 	@Check
-	def policyRuleNoAttributeFinderAllowedInTargetExpression(Policy policy) {
+	def policyRuleNoAttributeFinderAllowedInTargetExpression(PolicyElement policy) {
 		genericCheckForTargetExpression(policy, AttributeFinderStep, MSG_AFS_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION)
 	}
 
 	/**
-	 * looks for given class in the target expression of given Policy
+	 * According to SAPL documentation, no other attributes are allowed in the target expression either.
 	 */
-	def <T extends EObject> genericCheckForTargetExpression(Policy policy, Class<T> aClass, String message) {
+	@Check
+	def policyRuleNoOtherAttributesAllowedInTargetExpression(PolicyElement policy) {
+		genericCheckForTargetExpression(policy, HeadAttributeFinderStep, MSG_ATTRIBUTE_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION)
+		genericCheckForTargetExpression(policy, BasicEnvironmentAttribute, MSG_ATTRIBUTE_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION)
+		genericCheckForTargetExpression(policy, BasicEnvironmentHeadAttribute, MSG_ATTRIBUTE_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION)
+	}
+
+	/**
+	 * looks for given class in the target expression of given Policy or Policy Set
+	 */
+	def <T extends EObject> genericCheckForTargetExpression(PolicyElement policy, Class<T> aClass, String message) {
+		if (policy.targetExpression === null) {
+			return
+		}
 		val foundItem = findClass(policy.targetExpression, aClass);
 		if (foundItem !== null) {
 			error(message, foundItem, null)
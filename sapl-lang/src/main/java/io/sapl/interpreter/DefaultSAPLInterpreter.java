@@ -39,6 +39,8 @@
 import io.sapl.grammar.SAPLStandaloneSetup;
 import io.sapl.grammar.sapl.PolicySet;
 import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.ConstantFoldingUtil;
+import io.sapl.grammar.sapl.impl.ExpressionScopeUtil;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 
@@ -53,6 +55,11 @@ public class DefaultSAPLInterpreter implements SAPLInterpreter {
 
 	private static final Injector INJECTOR = new SAPLStandaloneSetup().createInjectorAndDoEMFRegistration();
 
+	// documents do not reference each other, so each thread can reuse one resource
+	// set as long as the loaded resources are removed from it again
+	private static final ThreadLocal<XtextResourceSet> RESOURCE_SETS = ThreadLocal
+			.withInitial(() -> INJECTOR.getInstance(XtextResourceSet.class));
+
 	@Override
 	public SAPL parse(String saplDefinition) {
 		return parse(new ByteArrayInputStream(saplDefinition.getBytes(StandardCharsets.UTF_8)));
@@ -108,19 +115,24 @@ private DocumentType typeOfDocument(SAPL saplDocument) {
 	}
 
 	private static SAPL loadAsResource(InputStream policyInputStream) {
-		final XtextResourceSet resourceSet = INJECTOR.getInstance(XtextResourceSet.class);
+		final XtextResourceSet resourceSet = RESOURCE_SETS.get();
 		final Resource resource = resourceSet.createResource(URI.createFileURI(DUMMY_RESOURCE_URI));
 
 		try {
 			resource.load(policyInputStream, resourceSet.getLoadOptions());
 		} catch (IOException | WrappedException e) {
 			throw new PolicyEvaluationException(e, PARSING_ERRORS, resource.getErrors());
+		} finally {
+			resourceSet.getResources().remove(resource);
 		}
 
 		if (!resource.getErrors().isEmpty()) {
 			throw new PolicyEvaluationException(PARSING_ERRORS, resource.getErrors());
 		}
-		return (SAPL) resource.getContents().get(0);
+		var saplDocument = (SAPL) resource.getContents().get(0);
+		ExpressionScopeUtil.assignScopes(saplDocument);
+		ConstantFoldingUtil.foldConstants(saplDocument);
+		return saplDocument;
 	}
 
 }
@@ -15,7 +15,7 @@
  */
 package io.sapl.interpreter;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -37,7 +37,7 @@ public class EvaluationContext {
 
 	public EvaluationContext(@NonNull AttributeContext attributeCtx, @NonNull FunctionContext functionCtx,
 			Map<String, JsonNode> environmentVariables) {
-		this(attributeCtx, functionCtx, new VariableContext(environmentVariables), new HashMap<>(1));
+		this(attributeCtx, functionCtx, new VariableContext(environmentVariables), Collections.emptyMap());
 	}
 
 	private EvaluationContext(AttributeContext attributeContext, FunctionContext functionContext,
@@ -45,7 +45,7 @@ private EvaluationContext(AttributeContext attributeContext, FunctionContext fun
 		this.attributeCtx = attributeContext;
 		this.functionCtx = functionContext;
 		this.variableCtx = variableContext;
-		this.imports = new HashMap<>(imports);
+		this.imports = imports;
 	}
 
 	public EvaluationContext withEnvironmentVariable(String identifier, JsonNode value) {
@@ -53,7 +53,18 @@ public EvaluationContext withEnvironmentVariable(String identifier, JsonNode val
 				imports);
 	}
 
+	/**
+	 * Nodes of a document cache the names they resolved against the imports
+	 * instance of the context. Thus, the map is shared, not copied, and must not
+	 * be modified afterwards.
+	 * 
+	 * @param localImports the imports of a document
+	 * @return an evaluation context resolving function and attribute names against
+	 *         the imports
+	 */
 	public EvaluationContext withImports(Map<String, String> localImports) {
+		if (localImports == imports)
+			return this;
 		return new EvaluationContext(attributeCtx, functionCtx, variableCtx, localImports);
 	}
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter.combinators;
+
+import java.util.ArrayList;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.Decision;
+import io.sapl.api.prp.PolicyRetrievalResult;
+import io.sapl.grammar.sapl.AuthorizationDecisionEvaluable;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.EvaluationContext;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+
+/**
+ * Base class for combining algorithms in which one decision overrides all
+ * others, e.g., DENY for deny-overrides.
+ *
+ * Policies with the opposite entitlement and without transformation can
+ * neither yield the overriding decision nor contribute obligations, advices or
+ * a resource to it. Once the other documents combine to the overriding
+ * decision, these dominated policies cannot change the result. Thus, they are
+ * only subscribed to while the other documents do not yield the overriding
+ * decision. This avoids evaluating their attributes, e.g., for a set of PIP
+ * backed permit policies while a simple deny policy applies. While the other
+ * documents keep changing between non-overriding decisions, the dominated
+ * policies stay subscribed and their latest decisions are shared instead of
+ * evaluating them again for each change.
+ *
+ * The combined decisions are identical to the ones of the eager evaluation of
+ * all documents.
+ */
+@Slf4j
+public abstract class AbstractShortCircuitingCombinator extends AbstractEagerCombinator {
+
+	/**
+	 * @return the decision overriding all others with this algorithm
+	 */
+	protected abstract Decision overridingDecision();
+
+	@Override
+	public Flux<AuthorizationDecision> combineMatchingDocuments(PolicyRetrievalResult policyRetrievalResult,
+			EvaluationContext evaluationCtx) {
+		var documents = new ArrayList<AuthorizationDecisionEvaluable>(policyRetrievalResult.getMatchingDocuments());
+		var decisiveDocuments = new ArrayList<AuthorizationDecisionEvaluable>(documents.size());
+		var dominatedDocuments = new ArrayList<AuthorizationDecisionEvaluable>(documents.size());
+		var isDominated = new boolean[documents.size()];
+		for (var i = 0; i < documents.size(); i++) {
+			isDominated[i] = isDominated(documents.get(i));
+			(isDominated[i] ? dominatedDocuments : decisiveDocuments).add(documents.get(i));
+		}
+		if (decisiveDocuments.isEmpty() || dominatedDocuments.isEmpty()) {
+			return super.combineMatchingDocuments(policyRetrievalResult, evaluationCtx);
+		}
+		log.debug("|-- Combining matching documents, {} of them only if not {}", dominatedDocuments.size(),
+				overridingDecision());
+		var errorsInTarget = policyRetrievalResult.isErrorsInTarget();
+		return Flux.defer(() -> {
+			var dominated = new DominatedDecisions(evaluateAll(dominatedDocuments, evaluationCtx));
+			return evaluateAll(decisiveDocuments, evaluationCtx).switchMap(decisiveDecisions -> {
+				var decision = combineDecisions(decisiveDecisions, errorsInTarget);
+				if (decision.getDecision() == overridingDecision()) {
+					dominated.disconnect();
+					return Flux.just(decision);
+				}
+				return dominated.connect().map(dominatedDecisions -> combineDecisions(
+						inDocumentOrder(isDominated, decisiveDecisions, dominatedDecisions), errorsInTarget));
+			}).doFinally(signal -> dominated.disconnect());
+		});
+	}
+
+	private boolean isDominated(AuthorizationDecisionEvaluable document) {
+		var element = document instanceof SAPL ? ((SAPL) document).getPolicyElement() : document;
+		if (!(element instanceof Policy)) {
+			return false;
+		}
+		var policy = (Policy) element;
+		var entitlement = "permit".equals(policy.getEntitlement()) ? Decision.PERMIT : Decision.DENY;
+		return entitlement != overridingDecision() && policy.getTransformation() == null;
+	}
+
+	private static AuthorizationDecision[] inDocumentOrder(boolean[] isDominated,
+			AuthorizationDecision[] decisiveDecisions, AuthorizationDecision[] dominatedDecisions) {
+		// obligations and advices are collected in the order of the documents
+		var decisions = new AuthorizationDecision[isDominated.length];
+		var nextDecisive = 0;
+		var nextDominated = 0;
+		for (var i = 0; i < decisions.length; i++) {
+			decisions[i] = isDominated[i] ? dominatedDecisions[nextDominated++] : decisiveDecisions[nextDecisive++];
+		}
+		return decisions;
+	}
+
+	/**
+	 * The evaluation of the dominated policies of one subscription. It is
+	 * connected on the first non-overriding decision of the other documents and
+	 * replays the latest decisions to each following one until the overriding
+	 * decision applies.
+	 */
+	private static class DominatedDecisions {
+
+		private final ConnectableFlux<AuthorizationDecision[]> decisions;
+
+		private Disposable connection;
+
+		DominatedDecisions(Flux<AuthorizationDecision[]> decisions) {
+			this.decisions = decisions.replay(1);
+		}
+
+		synchronized Flux<AuthorizationDecision[]> connect() {
+			if (connection == null) {
+				connection = decisions.connect();
+			}
+			return decisions;
+		}
+
+		synchronized void disconnect() {
+			if (connection != null) {
+				connection.dispose();
+				connection = null;
+			}
+		}
+
+	}
+
+}
@@ -26,6 +26,7 @@
 import com.fasterxml.jackson.databind.JsonNode;
 
 import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.Decision;
 import io.sapl.grammar.sapl.Policy;
 import io.sapl.interpreter.EvaluationContext;
 import lombok.extern.slf4j.Slf4j;
@@ -52,7 +53,12 @@
  * ii) Otherwise the decision is NOT_APPLICABLE.
  */
 @Slf4j
-public class DenyOverridesCombinator extends AbstractEagerCombinator implements PolicyCombinator {
+public class DenyOverridesCombinator extends AbstractShortCircuitingCombinator implements PolicyCombinator {
+
+	@Override
+	protected Decision overridingDecision() {
+		return DENY;
+	}
 
 	@Override
 	protected AuthorizationDecision combineDecisions(AuthorizationDecision[] decisions, boolean errorsInTarget) {
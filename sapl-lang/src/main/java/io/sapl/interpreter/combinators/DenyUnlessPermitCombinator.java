@@ -24,6 +24,7 @@
 import com.fasterxml.jackson.databind.JsonNode;
 
 import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.Decision;
 import io.sapl.grammar.sapl.Policy;
 import io.sapl.interpreter.EvaluationContext;
 import lombok.extern.slf4j.Slf4j;
@@ -42,7 +43,12 @@
  * - Otherwise the decision is DENY.
  */
 @Slf4j
-public class DenyUnlessPermitCombinator extends AbstractEagerCombinator implements PolicyCombinator {
+public class DenyUnlessPermitCombinator extends AbstractShortCircuitingCombinator implements PolicyCombinator {
+
+	@Override
+	protected Decision overridingDecision() {
+		return PERMIT;
+	}
 
 	@Override
 	protected AuthorizationDecision combineDecisions(AuthorizationDecision[] decisions, boolean errorsInTarget) {
@@ -15,8 +15,11 @@
  */
 package io.sapl.interpreter.functions;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.Collection;
 import java.util.Collections;
@@ -30,8 +33,8 @@
 import io.sapl.api.functions.FunctionLibrary;
 import io.sapl.api.interpreter.InitializationException;
 import io.sapl.api.interpreter.Val;
-import io.sapl.interpreter.validation.IllegalParameterType;
 import io.sapl.interpreter.validation.ParameterTypeValidator;
+import io.sapl.interpreter.validation.ParameterValidator;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -50,6 +53,8 @@ public class AnnotationFunctionContext implements FunctionContext {
 	private static final String ILLEGAL_NUMBER_OF_PARAMETERS = "Illegal number of parameters. Function expected %d but got %d";
 	private static final String CLASS_HAS_NO_FUNCTION_LIBRARY_ANNOTATION = "Provided class has no @FunctionLibrary annotation.";
 	private static final String ILLEGAL_PARAMETER_FOR_IMPORT = "Function has parameters that are not a Val. Cannot be loaded. Type was: %s.";
+	private static final String FUNCTION_NOT_ACCESSIBLE = "Function %s is not accessible. Cannot be loaded.";
+	private static final MethodType INVOCATION_TYPE = MethodType.methodType(Val.class, Val[].class);
 
 	private final Collection<LibraryDocumentation> documentation = new LinkedList<>();
 	private final Map<String, FunctionMetadata> functions = new HashMap<>();
@@ -70,38 +75,88 @@ public AnnotationFunctionContext(Object... libraries) throws InitializationExcep
 
 	@Override
 	public Val evaluate(String function, Val... parameters) {
-		log.trace("evaluate {}({})", function, parameters);
+		return lookupFunction(function).apply(parameters);
+	}
+
+	@Override
+	public BoundFunction lookupFunction(String function) {
 		final FunctionMetadata metadata = functions.get(function);
 		if (metadata == null) {
-			return Val.error(UNKNOWN_FUNCTION, function);
+			return parameters -> Val.error(UNKNOWN_FUNCTION, function);
 		}
-		final Parameter[] funParams = metadata.getFunction().getParameters();
+		return metadata.getBoundFunction();
+	}
+
+	/**
+	 * Binds the method to a method handle and precomputes the validation of its
+	 * parameters, so that neither reflection nor annotation lookups are necessary
+	 * when applying the function.
+	 */
+	private static BoundFunction bind(String function, Object library, Method method, int parameterCardinality)
+			throws InitializationException {
+		MethodHandle handle;
 		try {
-			if (metadata.getParameterCardinality() == -1) {
-				// function is a varargs function
-				// all args are validated against the same annotation if present
-				for (Val parameter : parameters) {
-					ParameterTypeValidator.validateType(parameter, funParams[0]);
+			handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+		} catch (IllegalAccessException e) {
+			throw new InitializationException(e, FUNCTION_NOT_ACCESSIBLE, function);
+		}
+		if (!Modifier.isStatic(method.getModifiers())) {
+			handle = handle.bindTo(library);
+		}
+		final Parameter[] funParams = method.getParameters();
+		final ParameterValidator[] validators = new ParameterValidator[funParams.length];
+		for (int i = 0; i < funParams.length; i++) {
+			validators[i] = ParameterTypeValidator.validatorFor(funParams[i]);
+		}
+		if (parameterCardinality == -1) {
+			// function is a varargs function
+			// all args are validated against the same annotation if present
+			final MethodHandle varArgsHandle = handle.asType(INVOCATION_TYPE);
+			return parameters -> {
+				log.trace("evaluate {}({})", function, parameters);
+				try {
+					for (Val parameter : parameters) {
+						validators[0].validate(parameter);
+					}
+					return (Val) varArgsHandle.invokeExact(parameters);
+				} catch (Error e) {
+					throw e;
+				} catch (Throwable e) {
+					// invokeExact declares Throwable. Exceptions raised by the library are
+					// reported as an error value, like an InvocationTargetException before.
+					return evaluationError(function, parameters, e);
 				}
-				return (Val) metadata.getFunction().invoke(metadata.getLibrary(), new Object[] { parameters });
-			} else if (metadata.getParameterCardinality() == parameters.length) {
+			};
+		}
+		final MethodHandle spreadingHandle = handle.asSpreader(Val[].class, parameterCardinality)
+				.asType(INVOCATION_TYPE);
+		return parameters -> {
+			log.trace("evaluate {}({})", function, parameters);
+			if (parameterCardinality != parameters.length) {
+				return Val.error(ILLEGAL_NUMBER_OF_PARAMETERS, parameterCardinality, parameters.length);
+			}
+			try {
 				for (int i = 0; i < parameters.length; i++) {
-					ParameterTypeValidator.validateType(parameters[i], funParams[i]);
+					validators[i].validate(parameters[i]);
 				}
-				return (Val) metadata.getFunction().invoke(metadata.getLibrary(), (Object[]) parameters);
-			} else {
-				return Val.error(ILLEGAL_NUMBER_OF_PARAMETERS, metadata.getParameterCardinality(), parameters.length);
-			}
-		} catch (RuntimeException | IllegalParameterType | IllegalAccessException | InvocationTargetException e) {
-			var params = new StringBuilder();
-			for (var i = 0; i < parameters.length; i++) {
-				params.append(parameters[i]);
-				if (i < parameters.length - 2)
-					params.append(',');
+				return (Val) spreadingHandle.invokeExact(parameters);
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				return evaluationError(function, parameters, e);
 			}
-			return Val.error("Error during evaluation of function %s(%s): %s", function, params.toString(),
-					e.getMessage());
+		};
+	}
+
+	private static Val evaluationError(String function, Val[] parameters, Throwable e) {
+		var params = new StringBuilder();
+		for (var i = 0; i < parameters.length; i++) {
+			params.append(parameters[i]);
+			if (i < parameters.length - 2)
+				params.append(',');
 		}
+		return Val.error("Error during evaluation of function %s(%s): %s", function, params.toString(),
+				e.getMessage());
 	}
 
 	@Override
@@ -150,8 +205,10 @@ private final void importFunction(Object library, String libName, LibraryDocumen
 			}
 		}
 		libMeta.documentation.put(funName, funAnnotation.docs());
-		FunctionMetadata funMeta = new FunctionMetadata(library, parameters, method);
-		functions.put(fullName(libName, funName), funMeta);
+		String fullName = fullName(libName, funName);
+		FunctionMetadata funMeta = new FunctionMetadata(library, parameters, method,
+				bind(fullName, library, method, parameters));
+		functions.put(fullName, funMeta);
 
 		libraries.get(libName).add(funName);
 	}
@@ -195,6 +252,9 @@ public static class FunctionMetadata {
 		@NonNull
 		Method function;
 
+		@NonNull
+		BoundFunction boundFunction;
+
 	}
 
 }
@@ -25,6 +25,18 @@ public interface FunctionContext extends LibraryFunctionProvider {
 
 	Val evaluate(String function, Val... parameters);
 
+	/**
+	 * Resolves a function once, e.g., before applying it to each set of parameters
+	 * an expression evaluates to.
+	 * 
+	 * @param function the fully qualified name of the function
+	 * @return the function. If no function with the name exists, applying it
+	 *         results in an error.
+	 */
+	default BoundFunction lookupFunction(String function) {
+		return parameters -> evaluate(function, parameters);
+	}
+
 	void loadLibrary(Object library) throws InitializationException;
 
 	Collection<LibraryDocumentation> getDocumentation();
@@ -15,11 +15,14 @@
  */
 package io.sapl.interpreter.pip;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,13 +38,14 @@
 import io.sapl.api.pip.AttributeException;
 import io.sapl.api.pip.PolicyInformationPoint;
 import io.sapl.grammar.sapl.Arguments;
-import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.impl.SynchronousEvaluationUtil;
 import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.pip.AttributeStreamMultiplexer.AttributeStreamKey;
 import io.sapl.interpreter.validation.IllegalParameterType;
 import io.sapl.interpreter.validation.ParameterTypeValidator;
+import io.sapl.interpreter.validation.ParameterValidator;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
@@ -49,12 +53,24 @@
 /**
  * This Class holds the different attribute finders and PIPs as a context during
  * evaluation.
+ * 
+ * Attribute streams are shared between all subscriptions requesting the same
+ * attribute for the same left-hand value and arguments with the same PDP
+ * configuration. I.e., the PIP is only invoked once per distinct combination and
+ * the resulting stream is multiplexed to all subscribers. Thus, the PIP is
+ * handed over the variables of the PDP configuration only, not the variables of
+ * the subscription or of the policy.
+ * 
+ * Streams are only shared if all argument expressions are free of attributes.
+ * Such an argument evaluates to a single value, which is part of the key and is
+ * handed over to the PIP as a Flux of this value. Otherwise, the PIP is invoked
+ * for the subscription alone with the Fluxes of the arguments.
  */
 @Slf4j
-@NoArgsConstructor
 public class AnnotationAttributeContext implements AttributeContext {
 
 	private static final int REQUIRED_NUMBER_OF_PARAMETERS = 2;
+	private static final Duration DEFAULT_ATTRIBUTE_STREAM_GRACE_PERIOD = Duration.ZERO;
 	private static final String NAME_DELIMITER = ".";
 	private static final String ATTRIBUTE_NAME_COLLISION_PIP_CONTAINS_MULTIPLE_ATTRIBUTE_METHODS_WITH_NAME = "Attribute name collision. PIP contains multiple attribute methods with name %s";
 	private static final String CLASS_HAS_NO_POLICY_INFORMATION_POINT_ANNOTATION = "Provided class has no @PolicyInformationPoint annotation.";
@@ -64,10 +80,21 @@ public class AnnotationAttributeContext implements AttributeContext {
 	private static final String ADDITIONAL_PARAMETER_OF_METHOD_MUST_BE_A_FLUX_OF_VALUES = "Additional parameters of the method must be Flux<Val>. Was: %s.";
 	private static final String SECOND_PARAMETER_OF_METHOD_MUST_BE_A_MAP = "Second parameter of method must be a Map<String, JsonNode>. Was: %s";
 	private static final String RETURN_TYPE_MUST_BE_FLUX_OF_VALUES = "The return type of an attribute finder must be Flux<Val>. Was: %s";
+	private static final String ATTRIBUTE_FINDER_NOT_ACCESSIBLE = "Attribute finder %s is not accessible. Cannot be loaded.";
+	private static final MethodType INVOCATION_TYPE = MethodType.methodType(Flux.class, Object[].class);
 
 	private final Map<String, Collection<String>> attributeNamesByPipName = new HashMap<>();
 	private final Map<String, AttributeFinderMetadata> attributeMetadataByAttributeName = new HashMap<>();
 	private final Collection<PolicyInformationPointDocumentation> pipDocumentations = new LinkedList<>();
+	private final AttributeStreamMultiplexer attributeStreams;
+
+	/**
+	 * Create an empty attribute context. Upstreams of shared attribute streams are
+	 * closed as soon as the last subscriber leaves.
+	 */
+	public AnnotationAttributeContext() {
+		attributeStreams = new AttributeStreamMultiplexer(DEFAULT_ATTRIBUTE_STREAM_GRACE_PERIOD);
+	}
 
 	/**
 	 * Create the attribute context from a list of PIPs
@@ -76,42 +103,124 @@ public class AnnotationAttributeContext implements AttributeContext {
 	 * @throws AttributeException when loading the PIPs fails
 	 */
 	public AnnotationAttributeContext(Object... policyInformationPoints) throws InitializationException {
+		this(DEFAULT_ATTRIBUTE_STREAM_GRACE_PERIOD, policyInformationPoints);
+	}
+
+	/**
+	 * Create the attribute context from a list of PIPs
+	 * 
+	 * @param attributeStreamGracePeriod the time a shared attribute stream is kept
+	 *                                   connected to the PIP after its last
+	 *                                   subscriber left
+	 * @param policyInformationPoints    a list of PIPs
+	 * @throws AttributeException when loading the PIPs fails
+	 */
+	public AnnotationAttributeContext(@NonNull Duration attributeStreamGracePeriod, Object... policyInformationPoints)
+			throws InitializationException {
+		attributeStreams = new AttributeStreamMultiplexer(attributeStreamGracePeriod);
 		for (Object pip : policyInformationPoints) {
 			loadPolicyInformationPoint(pip);
 		}
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Flux<Val> evaluate(String attribute, Val value, EvaluationContext ctx, Arguments arguments) {
 		final AttributeFinderMetadata metadata = attributeMetadataByAttributeName.get(attribute);
 		if (metadata == null) {
 			return Flux.just(Val.error(UNKNOWN_ATTRIBUTE, attribute));
 		}
-
-		final Object pip = metadata.getPolicyInformationPoint();
-		final Method method = metadata.getFunction();
-		final Parameter firstParameter = method.getParameters()[0];
 		try {
-			ParameterTypeValidator.validateType(value, firstParameter);
-			if (arguments == null || arguments.getArgs() == null || arguments.getArgs().size() == 0) {
-				return (Flux<Val>) method.invoke(pip, value, ctx.getVariableCtx().getVariables());
+			metadata.getValueValidator().validate(value);
+		} catch (IllegalParameterType e) {
+			log.error(e.getMessage());
+			return Flux.just(Val.error(e));
+		}
+		final Map<String, JsonNode> variables = ctx.getVariableCtx().getPdpScopedVariables();
+		if (arguments == null || arguments.getArgs().isEmpty()) {
+			return attributeStreams.stream(new AttributeStreamKey(attribute, value, variables),
+					() -> invokeAttributeFinder(metadata, value, variables));
+		}
+		final Val[] argumentValues = evaluateArgumentsSynchronously(arguments, ctx);
+		if (argumentValues == null) {
+			final Flux<?>[] argumentFluxes = new Flux<?>[arguments.getArgs().size()];
+			for (int i = 0; i < argumentFluxes.length; i++) {
+				argumentFluxes[i] = arguments.getArgs().get(i).evaluate(ctx, Val.UNDEFINED);
 			}
-			Object[] argObjects = new Object[arguments.getArgs().size() + 2];
-			int i = 0;
-			argObjects[i++] = value;
-			argObjects[i++] = ctx.getVariableCtx().getVariables();
-			for (Expression argument : arguments.getArgs()) {
-				argObjects[i++] = argument.evaluate(ctx, Val.UNDEFINED);
+			return invokeAttributeFinder(metadata, value, variables, (Object[]) argumentFluxes);
+		}
+		final Flux<?>[] argumentFluxes = new Flux<?>[argumentValues.length];
+		for (int i = 0; i < argumentValues.length; i++) {
+			argumentFluxes[i] = Flux.just(argumentValues[i]);
+		}
+		return attributeStreams.stream(new AttributeStreamKey(attribute, value, variables, argumentValues),
+				() -> invokeAttributeFinder(metadata, value, variables, (Object[]) argumentFluxes));
+	}
+
+	/**
+	 * @return the values of the arguments, if all of them are free of attributes
+	 *         and evaluate to a single value synchronously, null otherwise
+	 */
+	private static Val[] evaluateArgumentsSynchronously(Arguments arguments, EvaluationContext ctx) {
+		if (!SynchronousEvaluationUtil.isFreeOfAttributes(arguments)) {
+			return null;
+		}
+		final Val[] argumentValues = new Val[arguments.getArgs().size()];
+		for (int i = 0; i < argumentValues.length; i++) {
+			var argumentValue = SynchronousEvaluationUtil
+					.evaluate(arguments.getArgs().get(i).evaluate(ctx, Val.UNDEFINED));
+			if (argumentValue.isEmpty()) {
+				return null;
 			}
-			return (Flux<Val>) method.invoke(pip, argObjects);
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException
-				| IllegalParameterType e) {
+			argumentValues[i] = argumentValue.get();
+		}
+		return argumentValues;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Flux<Val> invokeAttributeFinder(AttributeFinderMetadata metadata, Val value,
+			Map<String, JsonNode> variables, Object... argumentFluxes) {
+		final Object[] argObjects = new Object[argumentFluxes.length + REQUIRED_NUMBER_OF_PARAMETERS];
+		argObjects[0] = value;
+		argObjects[1] = variables;
+		System.arraycopy(argumentFluxes, 0, argObjects, REQUIRED_NUMBER_OF_PARAMETERS, argumentFluxes.length);
+		try {
+			return (Flux<Val>) metadata.getAttributeFinder().invokeExact(argObjects);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			// invokeExact declares Throwable. Exceptions raised by the PIP are reported
+			// as an error value.
 			log.error(e.getMessage());
 			return Flux.just(Val.error(e));
 		}
 	}
 
+	/**
+	 * Binds the attribute finder method to a method handle taking all parameters
+	 * as one array, so that the PIP is not invoked reflectively.
+	 */
+	private static MethodHandle bind(String attribute, Object policyInformationPoint, Method method)
+			throws InitializationException {
+		MethodHandle handle;
+		try {
+			handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+		} catch (IllegalAccessException e) {
+			throw new InitializationException(e, ATTRIBUTE_FINDER_NOT_ACCESSIBLE, attribute);
+		}
+		if (!Modifier.isStatic(method.getModifiers())) {
+			handle = handle.bindTo(policyInformationPoint);
+		}
+		return handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOCATION_TYPE);
+	}
+
+	/**
+	 * @return the number of distinct attribute streams currently connected to
+	 *         PIPs.
+	 */
+	public int numberOfActiveAttributeStreams() {
+		return attributeStreams.numberOfActiveStreams();
+	}
+
 	@Override
 	public final void loadPolicyInformationPoint(Object pip) throws InitializationException {
 		final Class<?> clazz = pip.getClass();
@@ -212,8 +321,10 @@ private void importAttribute(Object policyInformationPoint, String pipName,
 
 		pipDocs.documentation.put(attName, attAnnotation.docs());
 
-		attributeMetadataByAttributeName.put(fullName(pipName, attName),
-				new AttributeFinderMetadata(policyInformationPoint, method));
+		final String fullName = fullName(pipName, attName);
+		attributeMetadataByAttributeName.put(fullName,
+				new AttributeFinderMetadata(policyInformationPoint, method, bind(fullName, policyInformationPoint, method),
+						ParameterTypeValidator.validatorFor(method.getParameters()[0])));
 
 		attributeNamesByPipName.get(pipName).add(attName);
 	}
@@ -255,6 +366,12 @@ public static class AttributeFinderMetadata {
 		@NonNull
 		Method function;
 
+		@NonNull
+		MethodHandle attributeFinder;
+
+		@NonNull
+		ParameterValidator valueValidator;
+
 	}
 
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter.pip;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.interpreter.Val;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Shares attribute streams between all subscriptions requesting the same
+ * attribute for the same left-hand value, PDP variables and arguments.
+ *
+ * For each distinct key, only one upstream Flux is subscribed to at the PIP. The
+ * latest value of the upstream is replayed to subscribers joining later. Once
+ * the last subscriber cancels, the upstream is kept alive for the configured
+ * grace period, so that a subscriber re-joining quickly (e.g. after a policy
+ * update) does not cause a reconnect to the PIP.
+ *
+ * The subscribers of a stream are counted while holding the lock of its map
+ * entry. A stream is removed from the map in the same step in which it is found
+ * to be unused, before its upstream is cancelled. Thus, an upstream is never
+ * reconnected, and a subscriber arriving later always opens a new stream.
+ */
+@Slf4j
+public class AttributeStreamMultiplexer {
+
+	private final Map<AttributeStreamKey, SharedStream> activeStreams = new ConcurrentHashMap<>();
+	private final Duration gracePeriod;
+
+	/**
+	 * @param gracePeriod the time an upstream is kept alive after its last
+	 *                    subscriber left. Duration.ZERO tears down the upstream
+	 *                    immediately.
+	 */
+	public AttributeStreamMultiplexer(@NonNull Duration gracePeriod) {
+		this.gracePeriod = gracePeriod;
+	}
+
+	/**
+	 * Returns the shared stream for the given key. If no upstream exists for the
+	 * key, the supplier is used to create it upon subscription.
+	 *
+	 * @param key      identifies the attribute stream
+	 * @param upstream supplies the upstream Flux of the PIP
+	 * @return a Flux sharing one upstream between all subscribers with the same
+	 *         key
+	 */
+	public Flux<Val> stream(@NonNull AttributeStreamKey key, @NonNull Supplier<Flux<Val>> upstream) {
+		return Flux.defer(() -> {
+			var sharedStream = acquire(key, upstream);
+			return sharedStream.values.doFinally(signal -> release(sharedStream));
+		});
+	}
+
+	/**
+	 * @return the number of distinct upstreams currently connected or within their
+	 *         grace period.
+	 */
+	public int numberOfActiveStreams() {
+		return activeStreams.size();
+	}
+
+	private SharedStream acquire(AttributeStreamKey key, Supplier<Flux<Val>> upstream) {
+		return activeStreams.compute(key, (k, activeStream) -> {
+			var stream = activeStream == null ? new SharedStream(k, upstream) : activeStream;
+			stream.subscribers++;
+			stream.cancelScheduledRemoval();
+			return stream;
+		});
+	}
+
+	private void release(SharedStream sharedStream) {
+		var removed = new boolean[1];
+		activeStreams.computeIfPresent(sharedStream.key, (k, activeStream) -> {
+			if (activeStream != sharedStream || --activeStream.subscribers > 0) {
+				return activeStream;
+			}
+			if (!gracePeriod.isZero()) {
+				activeStream.scheduleRemoval();
+				return activeStream;
+			}
+			removed[0] = true;
+			return null;
+		});
+		if (removed[0]) {
+			sharedStream.disconnect();
+		}
+	}
+
+	private void removeIfUnused(SharedStream sharedStream) {
+		var removed = new boolean[1];
+		activeStreams.computeIfPresent(sharedStream.key, (k, activeStream) -> {
+			if (activeStream != sharedStream || activeStream.subscribers > 0) {
+				return activeStream;
+			}
+			removed[0] = true;
+			return null;
+		});
+		if (removed[0]) {
+			sharedStream.disconnect();
+		}
+	}
+
+	private class SharedStream {
+
+		private final AttributeStreamKey key;
+
+		private final Flux<Val> values;
+
+		// guarded by the lock of the map entry
+		private int subscribers;
+
+		// guarded by the lock of the map entry
+		private Disposable scheduledRemoval;
+
+		private Disposable connection;
+
+		private boolean disconnected;
+
+		SharedStream(AttributeStreamKey key, Supplier<Flux<Val>> upstream) {
+			log.trace("opening shared attribute stream: {}", key);
+			this.key = key;
+			// a terminated upstream is replayed to its current subscribers only. The PIP
+			// is subscribed to once the first subscriber is registered, outside of the
+			// map entry lock.
+			this.values = Flux.defer(upstream).doOnTerminate(() -> activeStreams.remove(key, this)).replay(1)
+					.autoConnect(1, this::connected);
+		}
+
+		void scheduleRemoval() {
+			scheduledRemoval = Schedulers.parallel().schedule(() -> removeIfUnused(this), gracePeriod.toMillis(),
+					TimeUnit.MILLISECONDS);
+		}
+
+		void cancelScheduledRemoval() {
+			if (scheduledRemoval != null) {
+				scheduledRemoval.dispose();
+				scheduledRemoval = null;
+			}
+		}
+
+		synchronized void connected(Disposable connection) {
+			if (disconnected) {
+				connection.dispose();
+			} else {
+				this.connection = connection;
+			}
+		}
+
+		synchronized void disconnect() {
+			log.trace("closing shared attribute stream: {}", key);
+			disconnected = true;
+			if (connection != null) {
+				connection.dispose();
+			}
+		}
+
+	}
+
+	/**
+	 * Identifies a distinct attribute stream by the fully qualified attribute name,
+	 * the left-hand value, the variables of the PDP configuration and the values
+	 * of the arguments. The variables are compared by identity, as all
+	 * subscriptions evaluated with the same PDP configuration share the same
+	 * instance. Thus, the variables are neither hashed nor compared in depth.
+	 */
+	@Getter
+	@ToString
+	public static class AttributeStreamKey {
+
+		private final String attribute;
+
+		private final Val value;
+
+		@ToString.Exclude
+		private final Map<String, JsonNode> pdpScopedVariables;
+
+		private final List<Val> arguments;
+
+		private final int hashCode;
+
+		public AttributeStreamKey(@NonNull String attribute, @NonNull Val value,
+				@NonNull Map<String, JsonNode> pdpScopedVariables, @NonNull Val... arguments) {
+			this.attribute = attribute;
+			this.value = value;
+			this.pdpScopedVariables = pdpScopedVariables;
+			this.arguments = Arrays.asList(arguments);
+			this.hashCode = ((attribute.hashCode() * 31 + value.hashCode()) * 31
+					+ System.identityHashCode(pdpScopedVariables)) * 31 + this.arguments.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof AttributeStreamKey)) {
+				return false;
+			}
+			var otherKey = (AttributeStreamKey) other;
+			return hashCode == otherKey.hashCode && pdpScopedVariables == otherKey.pdpScopedVariables
+					&& attribute.equals(otherKey.attribute) && value.equals(otherKey.value)
+					&& arguments.equals(otherKey.arguments);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+	}
+
+}
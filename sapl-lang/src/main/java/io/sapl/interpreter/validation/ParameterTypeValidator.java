@@ -17,7 +17,9 @@
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Parameter;
+import java.util.ArrayList;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
@@ -38,35 +40,60 @@ public class ParameterTypeValidator {
 	private static final Set<Class<?>> VALIDATION_ANNOTATIONS = Set.of(Number.class, Int.class, Long.class, Bool.class,
 			Text.class, Array.class, JsonObject.class);
 
+	private static final ParameterValidator NO_VALIDATION = parameterValue -> {
+		// parameter has no type validation annotations
+	};
+
 	public static void validateType(Val parameterValue, Parameter parameterType) throws IllegalParameterType {
+		validatorFor(parameterType).validate(parameterValue);
+	}
+
+	/**
+	 * @param parameterType a parameter of a function or attribute finder
+	 * @return a validator checking values against the type validation annotations
+	 *         of the parameter. The annotations are only inspected once.
+	 */
+	public static ParameterValidator validatorFor(Parameter parameterType) {
 		if (!hasValidationAnnotations(parameterType))
-			return;
+			return NO_VALIDATION;
 
-		if (parameterValue.isUndefined())
-			throw new IllegalParameterType(String.format(ILLEGAL_PARAMETER_TYPE, "undefined",
-					listAllowedTypes(parameterType.getAnnotations())));
+		var annotations = parameterType.getAnnotations();
+		var allowedTypes = listAllowedTypes(annotations);
+		var typeChecks = new ArrayList<Predicate<JsonNode>>(annotations.length);
+		for (Annotation annotation : annotations)
+			if (isTypeValidationAnnotation(annotation))
+				typeChecks.add(typeCheckFor(annotation));
 
-		validateJsonNodeType(parameterValue.get(), parameterType);
-	}
+		return parameterValue -> {
+			if (parameterValue.isUndefined())
+				throw new IllegalParameterType(String.format(ILLEGAL_PARAMETER_TYPE, "undefined", allowedTypes));
 
-	private static void validateJsonNodeType(JsonNode node, Parameter parameterType) throws IllegalParameterType {
-		Annotation[] annotations = parameterType.getAnnotations();
-		for (Annotation annotation : annotations)
-			if (nodeContentsMatchesTypeGivenByAnnotation(node, annotation))
-				return;
+			var node = parameterValue.get();
+			for (var typeCheck : typeChecks)
+				if (typeCheck.test(node))
+					return;
 
-		throw new IllegalParameterType(
-				String.format(ILLEGAL_PARAMETER_TYPE, node.getNodeType().toString(), listAllowedTypes(annotations)));
+			throw new IllegalParameterType(
+					String.format(ILLEGAL_PARAMETER_TYPE, node.getNodeType().toString(), allowedTypes));
+		};
 	}
 
-	private static boolean nodeContentsMatchesTypeGivenByAnnotation(JsonNode node, Annotation annotation) {
-		return (Number.class.isAssignableFrom(annotation.getClass()) && node.isNumber())
-				|| (Int.class.isAssignableFrom(annotation.getClass()) && node.isNumber() && node.canConvertToInt())
-				|| (Long.class.isAssignableFrom(annotation.getClass()) && node.isNumber() && node.canConvertToLong())
-				|| (Bool.class.isAssignableFrom(annotation.getClass()) && node.isBoolean())
-				|| (Text.class.isAssignableFrom(annotation.getClass()) && node.isTextual())
-				|| (Array.class.isAssignableFrom(annotation.getClass()) && node.isArray())
-				|| (JsonObject.class.isAssignableFrom(annotation.getClass()) && node.isObject());
+	private static Predicate<JsonNode> typeCheckFor(Annotation annotation) {
+		var annotationClass = annotation.getClass();
+		if (Number.class.isAssignableFrom(annotationClass))
+			return JsonNode::isNumber;
+		if (Int.class.isAssignableFrom(annotationClass))
+			return node -> node.isNumber() && node.canConvertToInt();
+		if (Long.class.isAssignableFrom(annotationClass))
+			return node -> node.isNumber() && node.canConvertToLong();
+		if (Bool.class.isAssignableFrom(annotationClass))
+			return JsonNode::isBoolean;
+		if (Text.class.isAssignableFrom(annotationClass))
+			return JsonNode::isTextual;
+		if (Array.class.isAssignableFrom(annotationClass))
+			return JsonNode::isArray;
+		// only type validation annotations are handed over, i.e., JsonObject
+		return JsonNode::isObject;
 	}
 
 	private static boolean hasValidationAnnotations(Parameter parameterType) {
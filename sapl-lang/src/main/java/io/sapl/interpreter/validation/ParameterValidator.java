@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter.validation;
+
+import io.sapl.api.interpreter.Val;
+
+/**
+ * Validates values handed over to one parameter of a function or attribute
+ * finder. Validators are created once when loading a library, so that the
+ * annotations of the parameter are not inspected upon each invocation.
+ */
+@FunctionalInterface
+public interface ParameterValidator {
+
+	void validate(Val parameterValue) throws IllegalParameterType;
+
+}
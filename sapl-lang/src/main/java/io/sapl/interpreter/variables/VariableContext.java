@@ -27,6 +27,14 @@
 import io.sapl.api.interpreter.Val;
 import io.sapl.api.pdp.AuthorizationSubscription;
 
+/**
+ * Immutable scope of variables. Deriving a scope for an authorization
+ * subscription or for an additional variable does not copy the variables of
+ * the enclosing scope. Instead, the derived scope only holds its own bindings
+ * and a reference to the enclosing scope, which is consulted for all other
+ * variables. The JSON values are shared between all scopes and must not be
+ * modified.
+ */
 public class VariableContext {
 
 	private static final String SUBJECT = "subject";
@@ -35,76 +43,93 @@ public class VariableContext {
 	private static final String ENVIRONMENT = "environment";
 	private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
 
+	private final VariableContext parent;
+
+	private final VariableContext root;
+
 	private final Map<String, JsonNode> variables;
 
+	private volatile Map<String, JsonNode> flattenedVariables;
+
 	public VariableContext(Map<String, JsonNode> environmentVariables) {
-		variables = Maps.newHashMapWithExpectedSize(environmentVariables.size());
-		environmentVariables.forEach((key, value) -> variables.put(key, value.deepCopy()));
+		parent = null;
+		root = this;
+		var copiedVariables = Maps.<String, JsonNode>newHashMapWithExpectedSize(environmentVariables.size());
+		environmentVariables.forEach((key, value) -> copiedVariables.put(key, value.deepCopy()));
+		variables = Collections.unmodifiableMap(copiedVariables);
+	}
+
+	private VariableContext(VariableContext parent, Map<String, JsonNode> variables) {
+		this.parent = parent;
+		this.root = parent.root;
+		this.variables = variables;
 	}
 
 	public VariableContext withEnvironmentVariable(String identifier, JsonNode value) {
-		return copy().putEnvironmentVariable(identifier, value);
+		if (SUBJECT.equals(identifier) || RESOURCE.equals(identifier) || ACTION.equals(identifier)
+				|| ENVIRONMENT.equals(identifier)) {
+			throw new PolicyEvaluationException("cannot overwrite request variable: %s", identifier);
+		}
+		return new VariableContext(this, Collections.singletonMap(identifier, value));
 	}
 
 	public VariableContext forAuthorizationSubscription(AuthorizationSubscription authzSubscription) {
-		return copy().loadSubscriptionVariables(authzSubscription);
+		var subscriptionVariables = Maps.<String, JsonNode>newHashMapWithExpectedSize(4);
+		subscriptionVariables.put(SUBJECT, valueOrNull(authzSubscription.getSubject()));
+		subscriptionVariables.put(ACTION, valueOrNull(authzSubscription.getAction()));
+		subscriptionVariables.put(RESOURCE, valueOrNull(authzSubscription.getResource()));
+		subscriptionVariables.put(ENVIRONMENT, valueOrNull(authzSubscription.getEnvironment()));
+		return new VariableContext(this, Collections.unmodifiableMap(subscriptionVariables));
 	}
 
-	private VariableContext loadSubscriptionVariables(AuthorizationSubscription authzSubscription) {
-		if (authzSubscription.getSubject() != null) {
-			variables.put(SUBJECT, authzSubscription.getSubject());
-		} else {
-			variables.put(SUBJECT, JSON.nullNode());
-		}
-		if (authzSubscription.getAction() != null) {
-			variables.put(ACTION, authzSubscription.getAction());
-		} else {
-			variables.put(ACTION, JSON.nullNode());
-		}
-		if (authzSubscription.getResource() != null) {
-			variables.put(RESOURCE, authzSubscription.getResource());
-		} else {
-			variables.put(RESOURCE, JSON.nullNode());
-		}
-		if (authzSubscription.getEnvironment() != null) {
-			variables.put(ENVIRONMENT, authzSubscription.getEnvironment());
-		} else {
-			variables.put(ENVIRONMENT, JSON.nullNode());
-		}
-		return this;
+	private static JsonNode valueOrNull(JsonNode value) {
+		return value == null ? JSON.nullNode() : value;
 	}
 
-	private VariableContext putEnvironmentVariable(String identifier, JsonNode value) {
-		if (SUBJECT.equals(identifier) || RESOURCE.equals(identifier) || ACTION.equals(identifier)
-				|| ENVIRONMENT.equals(identifier)) {
-			throw new PolicyEvaluationException("cannot overwrite request variable: %s", identifier);
+	/**
+	 * @return an unmodifiable view of all variables visible in this scope. The
+	 *         view is created on first access.
+	 */
+	public Map<String, JsonNode> getVariables() {
+		if (parent == null) {
+			return variables;
+		}
+		var result = flattenedVariables;
+		if (result == null) {
+			var allVariables = new HashMap<>(parent.getVariables());
+			allVariables.putAll(variables);
+			result = Collections.unmodifiableMap(allVariables);
+			flattenedVariables = result;
 		}
-		variables.put(identifier, value);
-		return this;
+		return result;
 	}
 
-	public Map<String, JsonNode> getVariables() {
-		return Collections.unmodifiableMap(variables);
+	/**
+	 * @return the variables of the outermost scope, i.e., the variables of the PDP
+	 *         configuration. All scopes derived from the same outermost scope
+	 *         return the same instance.
+	 */
+	public Map<String, JsonNode> getPdpScopedVariables() {
+		return root.variables;
 	}
 
 	public boolean exists(String identifier) {
-		return variables.containsKey(identifier);
+		for (var scope = this; scope != null; scope = scope.parent) {
+			if (scope.variables.containsKey(identifier)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public Val get(String identifier) {
-		if (!variables.containsKey(identifier)) {
-			return Val.UNDEFINED;
+		for (var scope = this; scope != null; scope = scope.parent) {
+			var value = scope.variables.get(identifier);
+			if (value != null) {
+				return Val.of(value);
+			}
 		}
-		return Val.of(variables.get(identifier));
-	}
-
-	/**
-	 * @return a deep copy of this variables context.
-	 */
-	private VariableContext copy() {
-		var variablesCopy = new HashMap<String, JsonNode>();
-		variables.forEach((key, value) -> variablesCopy.put(key, value.deepCopy()));
-		return new VariableContext(variablesCopy);
+		return Val.UNDEFINED;
 	}
 
 }
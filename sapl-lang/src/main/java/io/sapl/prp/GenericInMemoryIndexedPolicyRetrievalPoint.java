@@ -15,6 +15,7 @@
  */
 package io.sapl.prp;
 
+import java.util.List;
 
 import io.sapl.api.prp.PolicyRetrievalPoint;
 import io.sapl.api.prp.PolicyRetrievalResult;
@@ -36,8 +37,10 @@ public class GenericInMemoryIndexedPolicyRetrievalPoint implements PolicyRetriev
     public GenericInMemoryIndexedPolicyRetrievalPoint(ImmutableParsedDocumentIndex seedIndex,
                                                       PrpUpdateEventSource eventSource) {
         this.eventSource = eventSource;
+        // only the latest index is replayed to new subscribers, as the sources may
+        // emit several events while loading the initial set of documents
         index = Flux.from(eventSource.getUpdates()).scan(seedIndex, ImmutableParsedDocumentIndex::apply).skip(1L)
-                .share().cache();
+                .cache(1);
         // initial subscription, so that the index starts building upon startup
         indexSubscription = index.subscribe();
     }
@@ -48,6 +51,17 @@ public Flux<PolicyRetrievalResult> retrievePolicies(EvaluationContext subscripti
                 .doOnNext(this::logMatching);
     }
 
+    /**
+     * Matches all subscriptions against the same index. Upon an update of the
+     * index, a new list of results is emitted.
+     */
+    @Override
+    public Flux<List<PolicyRetrievalResult>> retrievePoliciesForAll(
+            List<EvaluationContext> subscriptionScopedEvaluationContexts) {
+        return Flux.from(index).switchMap(idx -> Flux.fromIterable(subscriptionScopedEvaluationContexts)
+                .concatMap(idx::retrievePolicies).doOnNext(this::logMatching).collectList());
+    }
+
     @Override
     public void dispose() {
         indexSubscription.dispose();
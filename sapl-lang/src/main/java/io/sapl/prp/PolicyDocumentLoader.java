@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.sapl.api.interpreter.SAPLInterpreter;
+import io.sapl.grammar.sapl.SAPL;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reads and parses SAPL documents in parallel. As reading documents blocks, the
+ * work is done on the bounded elastic scheduler. The documents are emitted in
+ * the order their parsing completes, so that consumers can start processing
+ * them while parsing continues. When all documents are loaded, a report with
+ * the total and the slowest parse times is logged.
+ */
+@Slf4j
+public class PolicyDocumentLoader {
+
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	private static final int NUMBER_OF_SLOWEST_DOCUMENTS_REPORTED = 10;
+
+	private final SAPLInterpreter interpreter;
+
+	private final int parallelism;
+
+	private final int batchSize;
+
+	public PolicyDocumentLoader(@NonNull SAPLInterpreter interpreter) {
+		this(interpreter, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param interpreter the interpreter used for parsing
+	 * @param parallelism the maximal number of documents loaded concurrently
+	 * @param batchSize   the maximal number of documents per batch emitted by
+	 *                    {@link #loadInBatches(Flux)}
+	 */
+	public PolicyDocumentLoader(@NonNull SAPLInterpreter interpreter, int parallelism, int batchSize) {
+		if (parallelism < 1 || batchSize < 1) {
+			throw new IllegalArgumentException("Parallelism and batch size must be positive.");
+		}
+		this.interpreter = interpreter;
+		this.parallelism = parallelism;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Reads and parses the documents of all sources. Documents which cannot be
+	 * read or parsed are emitted with an empty document and the cause of the
+	 * failure.
+	 *
+	 * @param sources the sources of the documents
+	 * @return the loaded documents in the order their loading completes
+	 */
+	public Flux<LoadedDocument> load(@NonNull Flux<DocumentSource> sources) {
+		return Flux.defer(() -> {
+			var report = new LoadingReport();
+			return sources.parallel(parallelism).runOn(Schedulers.boundedElastic()).map(this::load).sequential()
+					.doOnNext(report::add).doOnComplete(report::log);
+		});
+	}
+
+	/**
+	 * Like {@link #load(Flux)}, but emits the documents in batches.
+	 *
+	 * @param sources the sources of the documents
+	 * @return the loaded documents in batches of at most the configured batch size
+	 */
+	public Flux<List<LoadedDocument>> loadInBatches(@NonNull Flux<DocumentSource> sources) {
+		return load(sources).buffer(batchSize);
+	}
+
+	private LoadedDocument load(DocumentSource source) {
+		var start = System.nanoTime();
+		String rawDocument = null;
+		try {
+			rawDocument = source.getReader().call();
+			var document = interpreter.parse(rawDocument);
+			var parseTime = System.nanoTime() - start;
+			log.debug("loaded SAPL document {} in {}ms", source.getName(), TimeUnit.NANOSECONDS.toMillis(parseTime));
+			return new LoadedDocument(source.getName(), rawDocument, Optional.of(document), parseTime, null);
+		} catch (Exception e) {
+			log.info("unable to load SAPL document {}: {}", source.getName(), e.getMessage());
+			return new LoadedDocument(source.getName(), rawDocument, Optional.empty(), System.nanoTime() - start, e);
+		}
+	}
+
+	/**
+	 * A named document to be loaded.
+	 */
+	@Value
+	public static class DocumentSource {
+
+		String name;
+
+		Callable<String> reader;
+
+		public static DocumentSource of(Path path) {
+			return new DocumentSource(path.toString(), () -> Files.readString(path, StandardCharsets.UTF_8));
+		}
+
+	}
+
+	/**
+	 * The result of loading a document. If the document could not be read or
+	 * parsed, the document is empty and the cause of the failure is set.
+	 */
+	@Value
+	public static class LoadedDocument {
+
+		String name;
+
+		String rawDocument;
+
+		Optional<SAPL> document;
+
+		long loadTimeNanos;
+
+		Exception failure;
+
+	}
+
+	private static class LoadingReport {
+
+		private final long start = System.nanoTime();
+
+		private final PriorityQueue<LoadedDocument> slowestDocuments = new PriorityQueue<>(
+				Comparator.comparingLong(LoadedDocument::getLoadTimeNanos));
+
+		private int numberOfDocuments;
+
+		private int numberOfFailures;
+
+		private long totalLoadTimeNanos;
+
+		void add(LoadedDocument document) {
+			numberOfDocuments++;
+			if (document.getDocument().isEmpty()) {
+				numberOfFailures++;
+			}
+			totalLoadTimeNanos += document.getLoadTimeNanos();
+			slowestDocuments.add(document);
+			if (slowestDocuments.size() > NUMBER_OF_SLOWEST_DOCUMENTS_REPORTED) {
+				slowestDocuments.poll();
+			}
+		}
+
+		void log() {
+			if (numberOfDocuments == 0) {
+				return;
+			}
+			var elapsed = Duration.ofNanos(System.nanoTime() - start);
+			log.info("loaded {} SAPL documents ({} failed) in {}ms, accumulated parse time {}ms, average {}us",
+					numberOfDocuments, numberOfFailures, elapsed.toMillis(),
+					TimeUnit.NANOSECONDS.toMillis(totalLoadTimeNanos),
+					TimeUnit.NANOSECONDS.toMicros(totalLoadTimeNanos / numberOfDocuments));
+			var slowest = new ArrayList<>(slowestDocuments);
+			slowest.sort(Comparator.comparingLong(LoadedDocument::getLoadTimeNanos).reversed());
+			for (var document : slowest) {
+				log.info("  {}ms {}", TimeUnit.NANOSECONDS.toMillis(document.getLoadTimeNanos()), document.getName());
+			}
+		}
+
+	}
+
+}
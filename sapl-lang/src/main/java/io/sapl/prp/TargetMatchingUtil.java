@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Function;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.api.prp.PolicyRetrievalResult;
+import io.sapl.grammar.sapl.AuthorizationDecisionEvaluable;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+/**
+ * Matches the target expressions of a collection of documents against a
+ * subscription and accumulates the matching documents in one pass.
+ */
+@Slf4j
+@UtilityClass
+public class TargetMatchingUtil {
+
+	/**
+	 * Target expressions do not access attributes. Thus, the matches are usually
+	 * available synchronously and are collected in a plain loop. Starting with the
+	 * first document whose match is not available synchronously, the remaining
+	 * documents are matched reactively one after another. The match already
+	 * started for this document is handed over instead of being subscribed to
+	 * again.
+	 *
+	 * @param <T>       the type of the documents
+	 * @param documents the documents to match
+	 * @param matcher   returns the result of matching a document, e.g.
+	 *                  {@code document -> document.matches(ctx)}
+	 * @return the matching documents in iteration order of the documents. If
+	 *         matching a document fails, the result indicates errors in target.
+	 */
+	public <T extends AuthorizationDecisionEvaluable> Mono<PolicyRetrievalResult> matchAll(Collection<T> documents,
+			Function<T, Mono<Val>> matcher) {
+		return Mono.defer(() -> {
+			var result = PolicyRetrievalResult.builder();
+			var iterator = documents.iterator();
+			while (iterator.hasNext()) {
+				var document = iterator.next();
+				// subscribes on the calling thread, a synchronous match is terminated here
+				var match = matcher.apply(document).toProcessor();
+				if (!match.isSuccess() || match.peek() == null) {
+					var remainingDocuments = new ArrayList<T>();
+					iterator.forEachRemaining(remainingDocuments::add);
+					return match.doOnCancel(match::cancel).map(value -> Tuples.of(document, value))
+							.concatWith(Flux.fromIterable(remainingDocuments)
+									.concatMap(doc -> matcher.apply(doc).map(value -> Tuples.of(doc, value))))
+							.reduce(result, (builder, matchAndDocument) -> accumulate(builder,
+									matchAndDocument.getT1(), matchAndDocument.getT2()))
+							.map(PolicyRetrievalResult.Builder::build);
+				}
+				accumulate(result, document, match.peek());
+			}
+			return Mono.just(result.build());
+		});
+	}
+
+	private PolicyRetrievalResult.Builder accumulate(PolicyRetrievalResult.Builder result,
+			AuthorizationDecisionEvaluable document, Val match) {
+		if (match.isError()) {
+			return result.withError();
+		}
+		if (!match.isBoolean()) {
+			log.error("matching returned error. (Should never happen): {}", match);
+			return result.withError();
+		}
+		if (match.getBoolean()) {
+			return result.withMatch(document);
+		}
+		return result;
+	}
+
+}
@@ -15,81 +15,214 @@
  */
 package io.sapl.prp.index.canonical;
 
-import java.util.BitSet;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
 
 import com.google.common.base.Preconditions;
 
+/**
+ * A growable set of bits backed by an array of words. In addition to the usual
+ * in-place operations, the mask offers fused operations, which combine two
+ * masks without materializing an intermediate mask. This allows the matching
+ * algorithm to work on reusable buffers instead of allocating a copy of the
+ * candidates per predicate.
+ */
 public class Bitmask {
 
-	private final BitSet impl;
+	private static final int ADDRESS_BITS_PER_WORD = 6;
+
+	private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+	private static final long WORD_MASK = 0xffffffffffffffffL;
+
+	private long[] words;
 
-	// force initial capacity?
 	public Bitmask() {
-		impl = new BitSet();
+		this(BITS_PER_WORD);
+	}
+
+	/**
+	 * @param numberOfBits the number of bits the mask can hold without growing
+	 */
+	public Bitmask(int numberOfBits) {
+		words = new long[Math.max(1, wordIndex(numberOfBits - 1) + 1)];
 	}
 
 	public Bitmask(final Bitmask mask) {
-		impl = (BitSet) mask.impl.clone();
+		words = mask.words.clone();
+	}
+
+	private static int wordIndex(int bitIndex) {
+		return bitIndex >> ADDRESS_BITS_PER_WORD;
+	}
+
+	private void ensureCapacity(int numberOfWords) {
+		if (words.length < numberOfWords) {
+			words = Arrays.copyOf(words, Math.max(2 * words.length, numberOfWords));
+		}
 	}
 
 	public void and(Bitmask mask) {
-		impl.and(mask.impl);
+		int commonWords = Math.min(words.length, mask.words.length);
+		for (int i = 0; i < commonWords; i++) {
+			words[i] &= mask.words[i];
+		}
+		Arrays.fill(words, commonWords, words.length, 0L);
 	}
 
 	public void andNot(Bitmask mask) {
-		impl.andNot(mask.impl);
+		int commonWords = Math.min(words.length, mask.words.length);
+		for (int i = 0; i < commonWords; i++) {
+			words[i] &= ~mask.words[i];
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0L);
 	}
 
 	public void clear(int bitIndex) {
-		impl.clear(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		if (wordIndex < words.length) {
+			words[wordIndex] &= ~(1L << bitIndex);
+		}
 	}
 
 	public void flip(int fromIndex, int toIndex) {
-		impl.flip(fromIndex, toIndex);
+		applyToRange(fromIndex, toIndex, false);
 	}
 
 	public boolean intersects(Bitmask mask) {
-		return impl.intersects(mask.impl);
+		int commonWords = Math.min(words.length, mask.words.length);
+		for (int i = 0; i < commonWords; i++) {
+			if ((words[i] & mask.words[i]) != 0L) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public void or(Bitmask mask) {
-		impl.or(mask.impl);
+		int wordsInUse = mask.numberOfWordsInUse();
+		ensureCapacity(wordsInUse);
+		for (int i = 0; i < wordsInUse; i++) {
+			words[i] |= mask.words[i];
+		}
 	}
 
 	public void set(int bitIndex) {
-		impl.set(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		ensureCapacity(wordIndex + 1);
+		words[wordIndex] |= 1L << bitIndex;
 	}
 
 	public void set(int fromIndex, int toIndex) {
-		impl.set(fromIndex, toIndex);
+		applyToRange(fromIndex, toIndex, true);
+	}
+
+	private void applyToRange(int fromIndex, int toIndex, boolean set) {
+		Preconditions.checkArgument(0 <= fromIndex && fromIndex <= toIndex, "invalid range: %s to %s", fromIndex,
+				toIndex);
+		if (fromIndex == toIndex) {
+			return;
+		}
+		int startWordIndex = wordIndex(fromIndex);
+		int endWordIndex = wordIndex(toIndex - 1);
+		ensureCapacity(endWordIndex + 1);
+
+		// shifts are taken modulo 64, i.e., only the lowest six bits of the
+		// indexes are relevant
+		long firstWordMask = WORD_MASK << fromIndex;
+		long lastWordMask = WORD_MASK >>> -toIndex;
+		for (int i = startWordIndex; i <= endWordIndex; i++) {
+			long mask = WORD_MASK;
+			if (i == startWordIndex) {
+				mask &= firstWordMask;
+			}
+			if (i == endWordIndex) {
+				mask &= lastWordMask;
+			}
+			words[i] = set ? words[i] | mask : words[i] ^ mask;
+		}
+	}
+
+	/**
+	 * Replaces the content of this mask with the intersection of the given masks,
+	 * reusing the words of this mask.
+	 *
+	 * @param mask1 a mask
+	 * @param mask2 another mask
+	 */
+	public void setToIntersection(Bitmask mask1, Bitmask mask2) {
+		int commonWords = Math.min(mask1.words.length, mask2.words.length);
+		ensureCapacity(commonWords);
+		for (int i = 0; i < commonWords; i++) {
+			words[i] = mask1.words[i] & mask2.words[i];
+		}
+		Arrays.fill(words, commonWords, words.length, 0L);
 	}
 
 	public int numberOfBitsSet() {
-		AtomicInteger numberOfBitsSets = new AtomicInteger();
-		forEachSetBit(index -> numberOfBitsSets.getAndIncrement());
+		int numberOfBitsSet = 0;
+		for (long word : words) {
+			numberOfBitsSet += Long.bitCount(word);
+		}
+		return numberOfBitsSet;
+	}
 
-		return numberOfBitsSets.get();
+	public void forEachSetBit(final IntConsumer action) {
+		Preconditions.checkNotNull(action);
+		for (int i = 0; i < words.length; i++) {
+			forEachSetBit(i, words[i], action);
+		}
 	}
 
-	public void forEachSetBit(final Consumer<Integer> action) {
+	/**
+	 * Iterates over the bits set in both this and the given mask, without
+	 * materializing the intersection.
+	 *
+	 * @param mask   the mask to intersect this mask with
+	 * @param action the action applied to the index of each bit in the
+	 *               intersection
+	 */
+	public void forEachSetBitIn(Bitmask mask, final IntConsumer action) {
 		Preconditions.checkNotNull(action);
-		for (int i = impl.nextSetBit(0); i >= 0; i = impl.nextSetBit(i + 1)) {
-			if (i == Integer.MAX_VALUE) {
-				break;
-			}
-			action.accept(i);
+		int commonWords = Math.min(words.length, mask.words.length);
+		for (int i = 0; i < commonWords; i++) {
+			forEachSetBit(i, words[i] & mask.words[i], action);
+		}
+	}
+
+	private static void forEachSetBit(int wordIndex, long word, IntConsumer action) {
+		while (word != 0L) {
+			action.accept(wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word));
+			word &= word - 1;
 		}
 	}
 
 	public boolean isSet(int bitIndex) {
-		return impl.get(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		return wordIndex < words.length && (words[wordIndex] & 1L << bitIndex) != 0L;
+	}
+
+	private int numberOfWordsInUse() {
+		int wordsInUse = words.length;
+		while (wordsInUse > 0 && words[wordsInUse - 1] == 0L) {
+			wordsInUse--;
+		}
+		return wordsInUse;
 	}
 
 	@Override
 	public String toString() {
-		return String.valueOf(impl.toString());
+		var result = new StringBuilder("{");
+		forEachSetBit(index -> {
+			if (result.length() > 1) {
+				result.append(", ");
+			}
+			result.append(index);
+		});
+		return result.append('}').toString();
 	}
 
 }
@@ -17,12 +17,15 @@
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.base.Preconditions;
 
 import io.sapl.api.interpreter.Val;
 import io.sapl.grammar.sapl.Expression;
 import io.sapl.interpreter.EvaluationContext;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -68,10 +71,48 @@ public Mono<Val> evaluate(EvaluationContext subscriptionScopedEvaluationContext)
                 .next();
     }
 
+    /**
+     * Evaluates the Bool without composing a reactive pipeline around the result.
+     * Target expressions cannot contain attribute finders. Thus, their evaluation
+     * usually emits the result immediately upon subscription. Should the
+     * expression not emit a value synchronously, the evaluation is cancelled and
+     * the caller has to fall back to {@link #evaluate(EvaluationContext)}.
+     *
+     * @param subscriptionScopedEvaluationContext the evaluation context
+     * @return the result of the evaluation, or an empty Optional if the
+     *         expression did not evaluate synchronously
+     */
+    public Optional<Val> evaluateSynchronously(EvaluationContext subscriptionScopedEvaluationContext) {
+        if (isConstantExpression) {
+            return Optional.of(constant ? Val.TRUE : Val.FALSE);
+        }
+        EvaluationContext documentScopedEvaluationContext = subscriptionScopedEvaluationContext.withImports(imports);
+        var result = new AtomicReference<Val>();
+        var error = new AtomicReference<Throwable>();
+        var subscription = expression.evaluate(documentScopedEvaluationContext, Val.UNDEFINED).take(1)
+                .subscribe(result::set, error::set);
+        if (error.get() != null) {
+            throw Exceptions.propagate(error.get());
+        }
+        if (result.get() == null) {
+            subscription.dispose();
+            return Optional.empty();
+        }
+        var value = result.get();
+        return Optional.of(value.isError() || value.isBoolean() ? value : Val.error("expression not boolean"));
+    }
+
     public boolean isImmutable() {
         return isConstantExpression;
     }
 
+    /**
+     * @return the expression of the Bool, or null if the Bool is constant
+     */
+    Expression getExpression() {
+        return expression;
+    }
+
     @Override
     public int hashCode() {
         if (!hasHashCode) {
@@ -19,8 +19,8 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+
 import io.sapl.prp.PrpUpdateEvent.Type;
 import io.sapl.api.interpreter.PolicyEvaluationException;
 import io.sapl.api.prp.PolicyRetrievalResult;
@@ -32,37 +32,51 @@
 import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 public class CanonicalImmutableParsedDocumentIndex implements ImmutableParsedDocumentIndex {
 
-    private final CanonicalIndexDataContainer indexDataContainer;
+    /*
+     * An adaptive predicate order strategy may replace the container by one only
+     * differing in the order of the predicates. The reordered container is
+     * constructed in the background and swapped in, unless the container has been
+     * replaced in the meantime. The documents of the index never change.
+     *
+     * An updated index uses the strategy returned by forUpdatedIndex(), so a
+     * reordering still running for this index neither affects the statistics nor
+     * the container of its successor.
+     */
+    private final AtomicReference<CanonicalIndexDataContainer> indexDataContainer;
     private final Map<String, SAPL> documents;
+    private final Map<String, DisjunctiveFormula> targets;
     private final PredicateOrderStrategy predicateOrderStrategy;
     private final EvaluationContext pdpScopedEvaluationContext;
     private final boolean consistent;
 
     public CanonicalImmutableParsedDocumentIndex(PredicateOrderStrategy predicateOrderStrategy,
                                                  EvaluationContext pdpScopedEvaluationContext) {
-        this(Collections.emptyMap(), predicateOrderStrategy, pdpScopedEvaluationContext, true);
+        this(Collections.emptyMap(), Collections.emptyMap(),
+                new CanonicalIndexDataCreationStrategy(predicateOrderStrategy).constructNew(Collections.emptyMap(),
+                        Collections.emptyMap()),
+                predicateOrderStrategy, pdpScopedEvaluationContext, true);
     }
 
     public CanonicalImmutableParsedDocumentIndex(EvaluationContext pdpScopedEvaluationContext) {
-        this(Collections.emptyMap(), new DefaultPredicateOrderStrategy(), pdpScopedEvaluationContext, true);
+        this(new DefaultPredicateOrderStrategy(), pdpScopedEvaluationContext);
     }
 
     private CanonicalImmutableParsedDocumentIndex(Map<String, SAPL> updatedDocuments,
+                                                  Map<String, DisjunctiveFormula> updatedTargets,
+                                                  CanonicalIndexDataContainer indexDataContainer,
                                                   PredicateOrderStrategy predicateOrderStrategy,
                                                   EvaluationContext pdpScopedEvaluationContext, boolean consistent) {
         this.documents = updatedDocuments;
+        this.targets = updatedTargets;
+        this.indexDataContainer = new AtomicReference<>(indexDataContainer);
         this.predicateOrderStrategy = predicateOrderStrategy;
         this.pdpScopedEvaluationContext = pdpScopedEvaluationContext;
         this.consistent = consistent;
-        Map<String, DisjunctiveFormula> targets = this.documents.entrySet().stream().collect(
-                Collectors.toMap(Entry::getKey, entry -> retainTarget(entry.getValue(), pdpScopedEvaluationContext)));
-
-        this.indexDataContainer = new CanonicalIndexDataCreationStrategy(predicateOrderStrategy).constructNew(documents,
-                targets);
     }
 
     @Override
@@ -71,7 +85,11 @@ public Mono<PolicyRetrievalResult> retrievePolicies(EvaluationContext subscripti
             return Mono.just(new PolicyRetrievalResult(new ArrayList<>(), true, false));
         }
         try {
-            return CanonicalIndexAlgorithm.match(subscriptionScopedEvaluationContext, indexDataContainer);
+            if (predicateOrderStrategy.shouldReorder()) {
+                reorderPredicates();
+            }
+            return CanonicalIndexAlgorithm.match(subscriptionScopedEvaluationContext, indexDataContainer.get(),
+                    predicateOrderStrategy);
         } catch (PolicyEvaluationException e) {
             log.error("error while retrieving policies", e);
             return Mono.just(new PolicyRetrievalResult(new ArrayList<>(), true, true));
@@ -91,9 +109,55 @@ public ImmutableParsedDocumentIndex apply(PrpUpdateEvent event) {
                 applyUpdate(newDocuments, update);
             }
         }
+
+        // only the target formulas of documents which actually changed are derived,
+        // the index data of the other documents is reused by constructUpdated
+        var removedDocuments = new HashMap<String, SAPL>();
+        var removedTargets = new HashMap<String, DisjunctiveFormula>();
+        for (var entry : documents.entrySet()) {
+            if (newDocuments.get(entry.getKey()) != entry.getValue()) {
+                removedDocuments.put(entry.getKey(), entry.getValue());
+                removedTargets.put(entry.getKey(), targets.get(entry.getKey()));
+            }
+        }
+        var addedDocuments = new HashMap<String, SAPL>();
+        var addedTargets = new HashMap<String, DisjunctiveFormula>();
+        for (var entry : newDocuments.entrySet()) {
+            if (documents.get(entry.getKey()) != entry.getValue()) {
+                addedDocuments.put(entry.getKey(), entry.getValue());
+                addedTargets.put(entry.getKey(), retainTarget(entry.getValue(), pdpScopedEvaluationContext));
+            }
+        }
+
+        var newTargets = new HashMap<>(targets);
+        removedTargets.keySet().forEach(newTargets::remove);
+        newTargets.putAll(addedTargets);
+
+        var newPredicateOrderStrategy = predicateOrderStrategy.forUpdatedIndex();
+        var newIndexDataContainer = indexDataContainer.get();
+        if (!removedDocuments.isEmpty() || !addedDocuments.isEmpty()) {
+            newIndexDataContainer = new CanonicalIndexDataCreationStrategy(newPredicateOrderStrategy)
+                    .constructUpdated(newIndexDataContainer, removedDocuments, removedTargets, addedDocuments,
+                            addedTargets);
+        }
         log.debug("returning updated index containing {} documents", newDocuments.size());
-        return new CanonicalImmutableParsedDocumentIndex(newDocuments, predicateOrderStrategy,
-                pdpScopedEvaluationContext, newConsistencyState);
+        return new CanonicalImmutableParsedDocumentIndex(newDocuments, newTargets, newIndexDataContainer,
+                newPredicateOrderStrategy, pdpScopedEvaluationContext, newConsistencyState);
+    }
+
+    PredicateOrderStrategy getPredicateOrderStrategy() {
+        return predicateOrderStrategy;
+    }
+
+    private void reorderPredicates() {
+        var current = indexDataContainer.get();
+        Mono.fromCallable(
+                () -> new CanonicalIndexDataCreationStrategy(predicateOrderStrategy).constructReordered(current))
+                .subscribeOn(Schedulers.boundedElastic()).subscribe(reordered -> {
+                    if (indexDataContainer.compareAndSet(current, reordered)) {
+                        log.debug("reordered predicates of index based on sampled statistics");
+                    }
+                }, error -> log.error("error while reordering predicates of index", error));
     }
 
     private void applyUpdate(Map<String, SAPL> newDocuments, PrpUpdateEvent.Update update) {
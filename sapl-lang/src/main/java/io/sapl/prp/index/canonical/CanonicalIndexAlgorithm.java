@@ -15,41 +15,168 @@
  */
 package io.sapl.prp.index.canonical;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import io.sapl.api.interpreter.Val;
 import io.sapl.api.prp.PolicyRetrievalResult;
 import io.sapl.grammar.sapl.SAPL;
 import io.sapl.interpreter.EvaluationContext;
-import lombok.NonNull;
+import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
 import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
+@Slf4j
 @UtilityClass
 public class CanonicalIndexAlgorithm {
 
+	/*
+	 * Matching contexts are reused by subsequent synchronous matches on the same
+	 * thread. A context handed over to the reactive fallback is not returned to
+	 * the pool.
+	 */
+	private final ThreadLocal<CanonicalIndexMatchingContext> MATCHING_CONTEXT_POOL = new ThreadLocal<>();
+
+	private final Bitmask UNEVALUATED_EQUALITY_GROUP = new Bitmask();
+
+	/**
+	 * Matches the subscription against the index. The predicates are evaluated
+	 * synchronously as long as their expressions emit their result immediately.
+	 * Only if a predicate does not evaluate synchronously, matching continues
+	 * with a reactive evaluation of the remaining predicates. Predicates of an
+	 * equality group are resolved by a single evaluation of their common path.
+	 *
+	 * @param subscriptionScopedEvaluationCtx the evaluation context of the
+	 *                                        subscription
+	 * @param dataContainer                   the index data
+	 * @return the documents with matching targets
+	 */
 	public Mono<PolicyRetrievalResult> match(EvaluationContext subscriptionScopedEvaluationCtx,
 			CanonicalIndexDataContainer dataContainer) {
+		return match(subscriptionScopedEvaluationCtx, dataContainer, null);
+	}
 
-		var matchingCtxMono = Mono.just(new CanonicalIndexMatchingContext(dataContainer.getNumberOfConjunctions(),
-				subscriptionScopedEvaluationCtx));
+	/**
+	 * Matches the subscription against the index like
+	 * {@link #match(EvaluationContext, CanonicalIndexDataContainer)}. If the
+	 * strategy decides to sample the match, the synchronous evaluations of the
+	 * predicates are recorded by the strategy.
+	 *
+	 * @param subscriptionScopedEvaluationCtx the evaluation context of the
+	 *                                        subscription
+	 * @param dataContainer                   the index data
+	 * @param predicateOrderStrategy          the strategy recording the
+	 *                                        evaluations, may be null
+	 * @return the documents with matching targets
+	 */
+	public Mono<PolicyRetrievalResult> match(EvaluationContext subscriptionScopedEvaluationCtx,
+			CanonicalIndexDataContainer dataContainer, PredicateOrderStrategy predicateOrderStrategy) {
+		return Mono.defer(() -> {
+			var sampler = predicateOrderStrategy != null && predicateOrderStrategy.isSampling()
+					? predicateOrderStrategy
+					: null;
+			var matchingCtx = acquireMatchingContext(dataContainer.getNumberOfConjunctions(),
+					subscriptionScopedEvaluationCtx);
+			var predicateOrder = dataContainer.getPredicateOrder();
+			var equalityGroupOfPredicate = dataContainer.getEqualityGroupOfPredicate();
+			var evaluatedEqualityGroups = new Bitmask[dataContainer.getNumberOfEqualityGroups()];
+			try {
+				for (int i = 0; i < predicateOrder.size(); i++) {
+					var predicate = predicateOrder.get(i);
+					if (!matchingCtx.isPredicateReferencedInCandidates(predicate))
+						continue;
+
+					long start = sampler == null ? 0L : System.nanoTime();
+					Optional<Val> evaluationResult = evaluateSynchronously(i, predicate, equalityGroupOfPredicate[i],
+							evaluatedEqualityGroups, subscriptionScopedEvaluationCtx);
+					if (evaluationResult.isEmpty())
+						return matchReactively(matchingCtx, predicateOrder.subList(i, predicateOrder.size()),
+								dataContainer);
+
+					if (sampler != null)
+						sampler.recordEvaluation(predicate, evaluationResult.get(), System.nanoTime() - start);
+
+					applyEvaluationResult(evaluationResult.get(), matchingCtx, predicate, dataContainer);
+				}
+				if (sampler != null)
+					sampler.recordSampledMatch();
+
+				var result = createRetrievalResult(matchingCtx, dataContainer);
+				releaseMatchingContext(matchingCtx);
+				return Mono.just(result);
+			} catch (RuntimeException e) {
+				log.error("error while matching subscription against index", e);
+				releaseMatchingContext(matchingCtx);
+				return Mono.just(new PolicyRetrievalResult(Collections.emptyList(), true, true));
+			}
+		});
+	}
+
+	/*
+	 * The path of an equality group is evaluated for the first referenced
+	 * predicate of the group. The remaining predicates of the group are resolved
+	 * by the result of the lookup. If the path cannot be evaluated, the
+	 * predicates of the group are evaluated one by one.
+	 */
+	private Optional<Val> evaluateSynchronously(int position, Predicate predicate, EqualityGroup equalityGroup,
+			Bitmask[] evaluatedEqualityGroups, EvaluationContext subscriptionScopedEvaluationCtx) {
+		if (equalityGroup != null) {
+			var predicatesEvaluatingToTrue = evaluatedEqualityGroups[equalityGroup.getId()];
+			if (predicatesEvaluatingToTrue == null) {
+				predicatesEvaluatingToTrue = equalityGroup.evaluate(subscriptionScopedEvaluationCtx)
+						.orElse(UNEVALUATED_EQUALITY_GROUP);
+				evaluatedEqualityGroups[equalityGroup.getId()] = predicatesEvaluatingToTrue;
+			}
+			if (predicatesEvaluatingToTrue != UNEVALUATED_EQUALITY_GROUP)
+				return Optional.of(Val.of(predicatesEvaluatingToTrue.isSet(position)));
+		}
+		return predicate.evaluateSynchronously(subscriptionScopedEvaluationCtx);
+	}
 
-		for (Predicate predicate : dataContainer.getPredicateOrder()) {
+	private Mono<PolicyRetrievalResult> matchReactively(CanonicalIndexMatchingContext initialMatchingCtx,
+			List<Predicate> remainingPredicates, CanonicalIndexDataContainer dataContainer) {
+
+		var matchingCtxMono = Mono.just(initialMatchingCtx);
+
+		for (Predicate predicate : remainingPredicates) {
 			matchingCtxMono = matchingCtxMono.flatMap(matchingCtx -> accumulate(matchingCtx, predicate, dataContainer));
 		}
 
-		return matchingCtxMono.map(matchingCtx -> {
-			var matching = matchingCtx.getMatchingCandidatesMask();
-			var formulas = fetchFormulas(matching, dataContainer);
-			var policies = fetchPolicies(formulas, dataContainer);
+		return matchingCtxMono.map(matchingCtx -> createRetrievalResult(matchingCtx, dataContainer))
+				.onErrorResume(e -> {
+					log.error("error while matching subscription against index", e);
+					return Mono.just(new PolicyRetrievalResult(Collections.emptyList(), true, true));
+				});
+	}
+
+	private CanonicalIndexMatchingContext acquireMatchingContext(int numberOfConjunctions,
+			EvaluationContext subscriptionScopedEvaluationCtx) {
+		var matchingCtx = MATCHING_CONTEXT_POOL.get();
+		if (matchingCtx == null)
+			return new CanonicalIndexMatchingContext(numberOfConjunctions, subscriptionScopedEvaluationCtx);
 
-			return new PolicyRetrievalResult(policies, matchingCtx.isErrorsInTargets(), true);
-		}).onErrorReturn(new PolicyRetrievalResult(Collections.emptyList(), true, true));
+		MATCHING_CONTEXT_POOL.remove();
+		matchingCtx.reset(numberOfConjunctions, subscriptionScopedEvaluationCtx);
+		return matchingCtx;
+	}
+
+	private void releaseMatchingContext(CanonicalIndexMatchingContext matchingCtx) {
+		matchingCtx.reset(0, null);
+		MATCHING_CONTEXT_POOL.set(matchingCtx);
+	}
+
+	private PolicyRetrievalResult createRetrievalResult(CanonicalIndexMatchingContext matchingCtx,
+			CanonicalIndexDataContainer dataContainer) {
+		var conjunctionDocuments = dataContainer.getConjunctionDocuments();
+		var policies = new ArrayList<SAPL>(Math.min(conjunctionDocuments.getNumberOfDocuments(), 16));
+		conjunctionDocuments.collectDocuments(matchingCtx.getMatchingCandidatesMask(),
+				matchingCtx.clearedCollectedDocumentsBuffer(), policies);
+
+		return new PolicyRetrievalResult(policies, matchingCtx.isErrorsInTargets(), true);
 	}
 
 	private Mono<CanonicalIndexMatchingContext> accumulate(CanonicalIndexMatchingContext matchingCtx,
@@ -64,19 +191,18 @@ private Mono<CanonicalIndexMatchingContext> accumulate(CanonicalIndexMatchingCon
 	static Function<Val, CanonicalIndexMatchingContext> handleEvaluationResult(
 			CanonicalIndexMatchingContext matchingCtx, Predicate predicate, CanonicalIndexDataContainer dataContainer) {
 		return evaluationResult -> {
-			if (evaluationResult.isError()) {
-				handleErrorEvaluationResult(predicate, matchingCtx);
-			} else {
-				updateCandidatesInMatchingContext(predicate, evaluationResult.getBoolean(), matchingCtx, dataContainer);
-			}
+			applyEvaluationResult(evaluationResult, matchingCtx, predicate, dataContainer);
 			return matchingCtx;
 		};
 	}
 
-	Bitmask orBitMask(@NonNull Bitmask b1, @NonNull Bitmask b2) {
-		var result = new Bitmask(b1);
-		result.or(b2);
-		return result;
+	private void applyEvaluationResult(Val evaluationResult, CanonicalIndexMatchingContext matchingCtx,
+			Predicate predicate, CanonicalIndexDataContainer dataContainer) {
+		if (evaluationResult.isError()) {
+			handleErrorEvaluationResult(predicate, matchingCtx);
+		} else {
+			updateCandidatesInMatchingContext(predicate, evaluationResult.getBoolean(), matchingCtx, dataContainer);
+		}
 	}
 
 	private void updateCandidatesInMatchingContext(Predicate predicate, Boolean evaluationResult,
@@ -99,23 +225,29 @@ void handleErrorEvaluationResult(final Predicate predicate, CanonicalIndexMatchi
 		matchingCtx.removeCandidates(predicate.getConjunctions());
 	}
 
+	/*
+	 * A conjunction is orphaned, once all formulas containing it are satisfied.
+	 * Each formula is only counted once per conjunction, even if several of its
+	 * conjunctions are satisfied.
+	 */
 	Bitmask findOrphanedCandidates(final Bitmask satisfiableCandidates, CanonicalIndexMatchingContext matchingCtx,
 			CanonicalIndexDataContainer dataContainer) {
-		var result = new Bitmask();
+		var result = matchingCtx.clearedOrphanedCandidatesBuffer();
 
 		satisfiableCandidates.forEachSetBit(index -> {
-			var cTuples = dataContainer.getConjunctionsInFormulasReferencingConjunction(index);
-			for (CTuple cTuple : cTuples) {
-				if (!matchingCtx.isRemainingCandidate(cTuple.getCI()))
+			for (DisjunctiveFormula formula : dataContainer.getRelatedFormulas(index)) {
+				if (!matchingCtx.addSatisfiedFormula(formula))
 					continue;
 
-				matchingCtx.increaseNumberOfEliminatedFormulasForConjunction(cTuple.getCI(), cTuple.getN());
-
-				// if all formulas of conjunction have been eliminated
-				if (matchingCtx.areAllFunctionsEliminated(cTuple.getCI(),
-						dataContainer.getNumberOfFormulasWithConjunction(cTuple.getCI())))
-					result.set(cTuple.getCI());
+				matchingCtx.forEachRemainingCandidateIn(dataContainer.getConjunctionsOfFormula(formula),
+						conjunctionIndex -> {
+							matchingCtx.increaseNumberOfEliminatedFormulasForConjunction(conjunctionIndex, 1);
 
+							// if all formulas of conjunction have been eliminated
+							if (matchingCtx.areAllFunctionsEliminated(conjunctionIndex,
+									dataContainer.getNumberOfFormulasWithConjunction(conjunctionIndex)))
+								result.set(conjunctionIndex);
+						});
 			}
 		});
 
@@ -129,20 +261,14 @@ void reduceCandidates(final CanonicalIndexMatchingContext matchingCtx, final Bit
 		matchingCtx.removeCandidates(orphanedCandidates);
 	}
 
-	Set<DisjunctiveFormula> fetchFormulas(final Bitmask satisfiableCandidates,
-			CanonicalIndexDataContainer dataContainer) {
-		final Set<DisjunctiveFormula> result = new HashSet<>();
-		satisfiableCandidates.forEachSetBit(index -> result.addAll(dataContainer.getRelatedFormulas(index)));
-		return result;
-	}
-
 	Bitmask findSatisfiableCandidates(final Predicate predicate, final boolean evaluationResult,
 			CanonicalIndexMatchingContext matchingCtx, CanonicalIndexDataContainer dataContainer) {
-		var result = new Bitmask();
-		// calling method with negated evaluation result will return satisfied clauses
-		var satisfiableCandidates = findUnsatisfiableCandidates(matchingCtx, predicate, !evaluationResult);
+		var result = matchingCtx.clearedSatisfiedCandidatesBuffer();
+		// the clauses unsatisfiable for the negated evaluation result are satisfied
+		var satisfiableConjunctions = evaluationResult ? predicate.getFalseForFalsePredicate()
+				: predicate.getFalseForTruePredicate();
 
-		satisfiableCandidates.forEachSetBit(index -> {
+		matchingCtx.forEachRemainingCandidateIn(satisfiableConjunctions, index -> {
 			// increment number of true literals
 			matchingCtx.incrementTrueLiteralsForConjunction(index);
 
@@ -154,21 +280,12 @@ Bitmask findSatisfiableCandidates(final Predicate predicate, final boolean evalu
 		return result;
 	}
 
-	private Set<SAPL> fetchPolicies(final Set<DisjunctiveFormula> formulas, CanonicalIndexDataContainer dataContainer) {
-		return formulas.parallelStream().map(dataContainer::getPoliciesIncludingFormula)
-				.flatMap(Collection::parallelStream).collect(Collectors.toSet());
-	}
-
 	Bitmask findUnsatisfiableCandidates(final CanonicalIndexMatchingContext matchingCtx, final Predicate predicate,
 			final boolean predicateEvaluationResult) {
-		var result = matchingCtx.getCopyOfCandidates();
-
 		if (predicateEvaluationResult)
-			result.and(predicate.getFalseForTruePredicate());
-		else
-			result.and(predicate.getFalseForFalsePredicate());
+			return matchingCtx.remainingCandidatesIn(predicate.getFalseForTruePredicate());
 
-		return result;
+		return matchingCtx.remainingCandidatesIn(predicate.getFalseForFalsePredicate());
 	}
 
 }
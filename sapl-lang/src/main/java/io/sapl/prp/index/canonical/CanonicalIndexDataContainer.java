@@ -16,6 +16,7 @@
 package io.sapl.prp.index.canonical;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,26 +34,60 @@
 @Getter(AccessLevel.NONE)
 public class CanonicalIndexDataContainer {
 
+    @Getter(AccessLevel.PACKAGE)
     Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments;
 
+    @Getter(AccessLevel.PACKAGE)
     Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas;
 
     @Getter
     ImmutableList<Predicate> predicateOrder;
 
+    @Getter(AccessLevel.PACKAGE)
     List<Set<DisjunctiveFormula>> relatedFormulas;
 
+    @Getter(AccessLevel.PACKAGE)
     Map<DisjunctiveFormula, Bitmask> relatedCandidates;
 
+    @Getter(AccessLevel.PACKAGE)
     Map<Integer, Set<CTuple>> conjunctionsInFormulasReferencingConjunction;
 
+    @Getter(AccessLevel.PACKAGE)
     int[] numberOfLiteralsInConjunction;
 
+    @Getter(AccessLevel.PACKAGE)
     int[] numberOfFormulasWithConjunction;
 
     @Getter
     int numberOfConjunctions;
 
+    /*
+     * Bookkeeping required to update the index incrementally. Conjunction indexes
+     * are stable across updates. Indexes of removed conjunctions are kept as free
+     * indexes and reused for conjunctions added later on.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    Map<ConjunctiveClause, Integer> clauseToIndex;
+
+    @Getter(AccessLevel.PACKAGE)
+    Map<Bool, PredicateInfo> boolToPredicateInfo;
+
+    @Getter(AccessLevel.PACKAGE)
+    ImmutableList<Integer> freeConjunctionIndexes;
+
+    /*
+     * The equality group of each predicate, by position in the predicate order.
+     * Null for predicates not being part of a group.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    EqualityGroup[] equalityGroupOfPredicate;
+
+    @Getter(AccessLevel.PACKAGE)
+    int numberOfEqualityGroups;
+
+    @Getter(AccessLevel.PACKAGE)
+    ConjunctionDocuments conjunctionDocuments;
+
     //TODO exposed internal representation (int arrays)
     public CanonicalIndexDataContainer(Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments,
                                        Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas,
@@ -61,9 +96,47 @@ public CanonicalIndexDataContainer(Map<DisjunctiveFormula, Set<SAPL>> formulaToD
                                        Map<Integer, Set<CTuple>> conjunctionsInFormulasReferencingConjunction,
                                        int[] numberOfLiteralsInConjunction, int[] numberOfFormulasWithConjunction) {
 
+        this(formulaToDocuments, clauseToFormulas, predicateOrder, relatedFormulas, relatedCandidates,
+                conjunctionsInFormulasReferencingConjunction, numberOfLiteralsInConjunction,
+                numberOfFormulasWithConjunction, Collections.emptyMap(), Collections.emptyMap(),
+                Collections.emptyList(), new EqualityGroup[predicateOrder.size()]);
+    }
+
+    CanonicalIndexDataContainer(Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments,
+                                Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas,
+                                Collection<Predicate> predicateOrder, List<Set<DisjunctiveFormula>> relatedFormulas,
+                                Map<DisjunctiveFormula, Bitmask> relatedCandidates,
+                                Map<Integer, Set<CTuple>> conjunctionsInFormulasReferencingConjunction,
+                                int[] numberOfLiteralsInConjunction, int[] numberOfFormulasWithConjunction,
+                                Map<ConjunctiveClause, Integer> clauseToIndex,
+                                Map<Bool, PredicateInfo> boolToPredicateInfo,
+                                Collection<Integer> freeConjunctionIndexes,
+                                EqualityGroup[] equalityGroupOfPredicate) {
+
         this(formulaToDocuments, clauseToFormulas, ImmutableList.copyOf(predicateOrder),
                 relatedFormulas, relatedCandidates, conjunctionsInFormulasReferencingConjunction,
-                numberOfLiteralsInConjunction, numberOfFormulasWithConjunction, numberOfLiteralsInConjunction.length);
+                numberOfLiteralsInConjunction, numberOfFormulasWithConjunction, numberOfLiteralsInConjunction.length,
+                clauseToIndex, boolToPredicateInfo, ImmutableList.copyOf(freeConjunctionIndexes),
+                equalityGroupOfPredicate, countEqualityGroups(equalityGroupOfPredicate),
+                new ConjunctionDocuments(formulaToDocuments, relatedFormulas));
+    }
+
+    private static int countEqualityGroups(EqualityGroup[] equalityGroupOfPredicate) {
+        int numberOfEqualityGroups = 0;
+        for (EqualityGroup equalityGroup : equalityGroupOfPredicate) {
+            if (equalityGroup != null) {
+                numberOfEqualityGroups = Math.max(numberOfEqualityGroups, equalityGroup.getId() + 1);
+            }
+        }
+        return numberOfEqualityGroups;
+    }
+
+    /**
+     * @return true, if the container holds the bookkeeping required to be updated
+     *         incrementally
+     */
+    boolean isIncrementallyUpdatable() {
+        return clauseToIndex.size() + freeConjunctionIndexes.size() == numberOfConjunctions;
     }
 
 
@@ -73,7 +146,7 @@ public int getNumberOfLiteralsInConjunction(int conjunctionIndex) {
 
 
     public int getNumberOfFormulasWithConjunction(int conjunctionIndex) {
-        return numberOfLiteralsInConjunction[conjunctionIndex];
+        return numberOfFormulasWithConjunction[conjunctionIndex];
     }
 
 
@@ -85,6 +158,10 @@ Set<DisjunctiveFormula> getRelatedFormulas(int conjunctionIndex) {
         return relatedFormulas.get(conjunctionIndex);
     }
 
+    Bitmask getConjunctionsOfFormula(DisjunctiveFormula formula) {
+        return relatedCandidates.get(formula);
+    }
+
     Set<SAPL> getPoliciesIncludingFormula(DisjunctiveFormula formula) {
         return formulaToDocuments.get(formula);
     }
@@ -15,28 +15,50 @@
  */
 package io.sapl.prp.index.canonical;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.BasicIdentifier;
+import io.sapl.grammar.sapl.ElementOf;
+import io.sapl.grammar.sapl.Equals;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.KeyStep;
 import io.sapl.grammar.sapl.SAPL;
+import io.sapl.grammar.sapl.impl.ConstantFoldingUtil;
 import io.sapl.prp.index.canonical.ordering.DefaultPredicateOrderStrategy;
 import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 
 @RequiredArgsConstructor
 public class CanonicalIndexDataCreationStrategy {
 
+	/*
+	 * An incremental update is only worth it if it touches a small part of the
+	 * index. Also, the index is rebuilt once the majority of conjunction indexes
+	 * are unused, to keep the bitmasks and arrays used during matching compact.
+	 */
+	private static final double MAX_SHARE_OF_TOUCHED_FORMULAS = .5D;
+
+	private static final double MAX_SHARE_OF_FREE_CONJUNCTION_INDEXES = .5D;
+
 	private final PredicateOrderStrategy predicateOrderStrategy;
 
 	public CanonicalIndexDataCreationStrategy() {
@@ -56,11 +78,202 @@ public CanonicalIndexDataContainer constructNew(final Map<String, SAPL> document
 		return constructContainerWithOrder(formulaToDocuments, clauseToFormulas);
 	}
 
+	/**
+	 * Derives an updated index from an existing one. Only the formulas and
+	 * conjunctions of the removed and added documents are processed, i.e., only
+	 * their predicate infos, bitmasks and CTuples are computed. The sets,
+	 * predicate infos and bitmasks of formulas, conjunctions and predicates not
+	 * affected by the update are shared with the previous container, which is not
+	 * modified and stays valid.
+	 * <p>
+	 * The maps and arrays of the container itself are no persistent data
+	 * structures, though. They are copied shallowly and the predicate order and
+	 * the equality groups are recomputed. So an update still costs O(F + C + P
+	 * log P) for F formulas, C conjunctions and P predicates in the index, plus
+	 * the work for the affected data. As the copies are cheap compared to
+	 * normalizing every formula, this is still a multiple faster than
+	 * {@link #constructNew(Map, Map)}, see IndexUpdateBenchmark of
+	 * sapl-benchmark-jmh. Whenever the update touches large parts of the index, a
+	 * new index is constructed instead.
+	 *
+	 * @param previous         the index to be updated
+	 * @param removedDocuments the documents to be removed, by name
+	 * @param removedTargets   the target formulas of the documents to be removed,
+	 *                         by name
+	 * @param addedDocuments   the documents to be added, by name
+	 * @param addedTargets     the target formulas of the documents to be added, by
+	 *                         name
+	 * @return the updated index
+	 */
+	public CanonicalIndexDataContainer constructUpdated(final CanonicalIndexDataContainer previous,
+			final Map<String, SAPL> removedDocuments, final Map<String, DisjunctiveFormula> removedTargets,
+			final Map<String, SAPL> addedDocuments, final Map<String, DisjunctiveFormula> addedTargets) {
+
+		Map<DisjunctiveFormula, Set<SAPL>> previousFormulaToDocuments = previous.getFormulaToDocuments();
+		Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments = new HashMap<>(previousFormulaToDocuments);
+		Set<DisjunctiveFormula> touchedFormulas = new HashSet<>();
+		removedTargets.forEach((name, formula) -> copyOnWrite(formulaToDocuments, formula, touchedFormulas)
+				.remove(removedDocuments.get(name)));
+		addedTargets.forEach((name, formula) -> copyOnWrite(formulaToDocuments, formula, touchedFormulas)
+				.add(addedDocuments.get(name)));
+		removeEmptyEntries(formulaToDocuments, touchedFormulas);
+
+		Set<DisjunctiveFormula> removedFormulas = touchedFormulas.stream()
+				.filter(formula -> !formulaToDocuments.containsKey(formula)).collect(Collectors.toSet());
+		Set<DisjunctiveFormula> addedFormulas = touchedFormulas.stream()
+				.filter(formula -> !previousFormulaToDocuments.containsKey(formula)).collect(Collectors.toSet());
+
+		if (!previous.isIncrementallyUpdatable() || removedFormulas.size()
+				+ addedFormulas.size() > MAX_SHARE_OF_TOUCHED_FORMULAS * formulaToDocuments.size()) {
+			Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas = new HashMap<>();
+			addNewFormulasToClauseMapping(formulaToDocuments.keySet(), clauseToFormulas);
+			return constructContainerWithOrder(formulaToDocuments, clauseToFormulas);
+		}
+
+		Map<ConjunctiveClause, Set<DisjunctiveFormula>> previousClauseToFormulas = previous.getClauseToFormulas();
+		Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas = new HashMap<>(previousClauseToFormulas);
+		Set<ConjunctiveClause> touchedClauses = new HashSet<>();
+		for (DisjunctiveFormula formula : removedFormulas) {
+			formula.getClauses().forEach(
+					clause -> copyOnWrite(clauseToFormulas, clause, touchedClauses).remove(formula));
+		}
+		for (DisjunctiveFormula formula : addedFormulas) {
+			formula.getClauses().forEach(clause -> copyOnWrite(clauseToFormulas, clause, touchedClauses).add(formula));
+		}
+		removeEmptyEntries(clauseToFormulas, touchedClauses);
+
+		if (removedFormulas.isEmpty() && addedFormulas.isEmpty()) {
+			return new CanonicalIndexDataContainer(formulaToDocuments, clauseToFormulas, previous.getPredicateOrder(),
+					previous.getRelatedFormulas(), previous.getRelatedCandidates(),
+					previous.getConjunctionsInFormulasReferencingConjunction(),
+					previous.getNumberOfLiteralsInConjunction(), previous.getNumberOfFormulasWithConjunction(),
+					previous.getClauseToIndex(), previous.getBoolToPredicateInfo(),
+					previous.getFreeConjunctionIndexes(), previous.getEqualityGroupOfPredicate());
+		}
+
+		PredicateInfoUpdate predicateInfoUpdate = new PredicateInfoUpdate(previous.getBoolToPredicateInfo());
+		removedFormulas.forEach(predicateInfoUpdate::removeFormula);
+		addedFormulas.forEach(predicateInfoUpdate::addFormula);
+
+		Map<ConjunctiveClause, Integer> clauseToIndex = new HashMap<>(previous.getClauseToIndex());
+		Deque<Integer> freeConjunctionIndexes = new ArrayDeque<>(previous.getFreeConjunctionIndexes());
+		Set<Integer> removedClauseIndexes = new HashSet<>();
+		int numberOfConjunctions = previous.getNumberOfConjunctions();
+
+		for (ConjunctiveClause clause : touchedClauses) {
+			if (!clauseToFormulas.containsKey(clause)) {
+				int index = clauseToIndex.remove(clause);
+				predicateInfoUpdate.removeClause(clause, index);
+				removedClauseIndexes.add(index);
+				freeConjunctionIndexes.add(index);
+			}
+		}
+		for (ConjunctiveClause clause : touchedClauses) {
+			if (!previousClauseToFormulas.containsKey(clause)) {
+				Integer index = freeConjunctionIndexes.poll();
+				if (index == null) {
+					index = numberOfConjunctions++;
+				}
+				clauseToIndex.put(clause, index);
+				predicateInfoUpdate.addClause(clause, index);
+			}
+		}
+
+		if (numberOfConjunctions > 0 && freeConjunctionIndexes.size() > MAX_SHARE_OF_FREE_CONJUNCTION_INDEXES
+				* numberOfConjunctions) {
+			return constructContainerWithOrder(formulaToDocuments, clauseToFormulas);
+		}
+
+		Map<Bool, PredicateInfo> boolToPredicateInfo = predicateInfoUpdate.complete();
+		List<Predicate> predicateOrder = predicateOrderStrategy.createPredicateOrder(boolToPredicateInfo.values());
+
+		Map<DisjunctiveFormula, Bitmask> relatedCandidates = new HashMap<>(previous.getRelatedCandidates());
+		removedFormulas.forEach(relatedCandidates::remove);
+		relatedCandidates.putAll(mapFormulaToClauses(addedFormulas, clauseToIndex));
+
+		int[] numberOfLiteralsInConjunction = Arrays.copyOf(previous.getNumberOfLiteralsInConjunction(),
+				numberOfConjunctions);
+		int[] numberOfFormulasWithConjunction = Arrays.copyOf(previous.getNumberOfFormulasWithConjunction(),
+				numberOfConjunctions);
+		List<Set<DisjunctiveFormula>> relatedFormulas = new ArrayList<>(previous.getRelatedFormulas());
+		while (relatedFormulas.size() < numberOfConjunctions) {
+			relatedFormulas.add(Collections.emptySet());
+		}
+		Map<Integer, Set<CTuple>> conjunctionsInFormulasReferencingConjunction = new HashMap<>(
+				previous.getConjunctionsInFormulasReferencingConjunction());
+
+		for (Integer index : removedClauseIndexes) {
+			numberOfLiteralsInConjunction[index] = 0;
+			numberOfFormulasWithConjunction[index] = 0;
+			relatedFormulas.set(index, Collections.emptySet());
+			conjunctionsInFormulasReferencingConjunction.remove(index);
+		}
+		for (ConjunctiveClause clause : touchedClauses) {
+			Set<DisjunctiveFormula> formulasContainingClause = clauseToFormulas.get(clause);
+			if (formulasContainingClause == null) {
+				continue;
+			}
+			int index = clauseToIndex.get(clause);
+			numberOfLiteralsInConjunction[index] = clause.size();
+			numberOfFormulasWithConjunction[index] = formulasContainingClause.size();
+			relatedFormulas.set(index, formulasContainingClause);
+			conjunctionsInFormulasReferencingConjunction.put(index,
+					collectCTuples(index, formulasContainingClause, relatedCandidates));
+		}
+
+		return new CanonicalIndexDataContainer(formulaToDocuments, clauseToFormulas, predicateOrder, relatedFormulas,
+				relatedCandidates, conjunctionsInFormulasReferencingConjunction, numberOfLiteralsInConjunction,
+				numberOfFormulasWithConjunction, clauseToIndex, boolToPredicateInfo, freeConjunctionIndexes,
+				createEqualityGroups(predicateOrder));
+	}
+
+	/**
+	 * Derives an index from an existing one, which only differs in the order of
+	 * its predicates. The order is recomputed by the predicate order strategy. All
+	 * other data is shared with the previous index.
+	 *
+	 * @param previous the index to be reordered
+	 * @return the reordered index
+	 */
+	public CanonicalIndexDataContainer constructReordered(final CanonicalIndexDataContainer previous) {
+		List<Predicate> predicateOrder = predicateOrderStrategy
+				.createPredicateOrder(previous.getBoolToPredicateInfo().values());
+
+		return new CanonicalIndexDataContainer(previous.getFormulaToDocuments(), previous.getClauseToFormulas(),
+				predicateOrder, previous.getRelatedFormulas(), previous.getRelatedCandidates(),
+				previous.getConjunctionsInFormulasReferencingConjunction(),
+				previous.getNumberOfLiteralsInConjunction(), previous.getNumberOfFormulasWithConjunction(),
+				previous.getClauseToIndex(), previous.getBoolToPredicateInfo(), previous.getFreeConjunctionIndexes(),
+				createEqualityGroups(predicateOrder));
+	}
+
+	/*
+	 * Replaces the value stored for the key with a copy on first access, so that
+	 * the set of the previous index is never modified.
+	 */
+	private static <K, V> Set<V> copyOnWrite(Map<K, Set<V>> map, K key, Set<K> copiedKeys) {
+		if (copiedKeys.add(key)) {
+			Set<V> copy = new HashSet<>(map.getOrDefault(key, Collections.emptySet()));
+			map.put(key, copy);
+			return copy;
+		}
+		return map.get(key);
+	}
+
+	private static <K, V> void removeEmptyEntries(Map<K, Set<V>> map, Set<K> keys) {
+		for (K key : keys) {
+			if (map.get(key).isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+
 	private CanonicalIndexDataContainer constructContainerWithOrder(
 			Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments,
 			Map<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulas) {
 
-		Collection<PredicateInfo> predicateInfos = collectPredicateInfos(formulaToDocuments.keySet());
+		Map<Bool, PredicateInfo> boolToPredicateInfo = collectPredicateInfos(formulaToDocuments.keySet());
+		Collection<PredicateInfo> predicateInfos = boolToPredicateInfo.values();
 
 		// manipulates Bitmask of Predicates stored in PredicateInfo as a side effect
 		BiMap<ConjunctiveClause, Integer> clauseToIndex = createCandidateIndex(predicateInfos);
@@ -84,7 +297,8 @@ private CanonicalIndexDataContainer constructContainerWithOrder(
 
 		return new CanonicalIndexDataContainer(formulaToDocuments, clauseToFormulas, predicateOrder, relatedFormulas,
 				relatedCandidates, conjunctionsInFormulasReferencingConjunction, numberOfLiteralsInConjunction,
-				numberOfFormulasWithConjunction);
+				numberOfFormulasWithConjunction, clauseToIndex, boolToPredicateInfo, Collections.emptyList(),
+				createEqualityGroups(predicateOrder));
 	}
 
 	private void addNewFormulasToClauseMapping(final Collection<DisjunctiveFormula> formulas,
@@ -118,27 +332,31 @@ private Map<Integer, Set<CTuple>> getConjunctionReferenceMap(
 		for (Entry<ConjunctiveClause, Set<DisjunctiveFormula>> clauseToFormulaEntry : clauseToFormulas.entrySet()) {
 
 			Integer clauseIndex = clauseToIndex.get(clauseToFormulaEntry.getKey());
-			Set<DisjunctiveFormula> formulasContainingClause = clauseToFormulaEntry.getValue();
-			Bitmask clausesInSameFormulas = new Bitmask();
+			conjunctionsInFormulasReferencingConjunction.put(clauseIndex,
+					collectCTuples(clauseIndex, clauseToFormulaEntry.getValue(), formulaToClauses));
+		}
+		return conjunctionsInFormulasReferencingConjunction;
+	}
 
-			formulasContainingClause.forEach(
-					formulaContainingClause -> clausesInSameFormulas.or(formulaToClauses.get(formulaContainingClause)));
-			clausesInSameFormulas.clear(clauseIndex);
+	private Set<CTuple> collectCTuples(int clauseIndex, Set<DisjunctiveFormula> formulasContainingClause,
+			Map<DisjunctiveFormula, Bitmask> formulaToClauses) {
+		Bitmask clausesInSameFormulas = new Bitmask();
 
-			Set<CTuple> cTupleSet = new HashSet<>(clausesInSameFormulas.numberOfBitsSet());
-			clausesInSameFormulas.forEachSetBit(relatedClauseIndex -> {
-				long numberOfSharedFormulas = formulasContainingClause.stream().map(formulaToClauses::get)
-						.filter(bitmask -> bitmask.isSet(relatedClauseIndex)).count();
+		formulasContainingClause.forEach(
+				formulaContainingClause -> clausesInSameFormulas.or(formulaToClauses.get(formulaContainingClause)));
+		clausesInSameFormulas.clear(clauseIndex);
 
-				cTupleSet.add(new CTuple(relatedClauseIndex, numberOfSharedFormulas));
-			});
+		Set<CTuple> cTupleSet = new HashSet<>(clausesInSameFormulas.numberOfBitsSet());
+		clausesInSameFormulas.forEachSetBit(relatedClauseIndex -> {
+			long numberOfSharedFormulas = formulasContainingClause.stream().map(formulaToClauses::get)
+					.filter(bitmask -> bitmask.isSet(relatedClauseIndex)).count();
 
-			conjunctionsInFormulasReferencingConjunction.put(clauseIndex, cTupleSet);
-		}
-		return conjunctionsInFormulasReferencingConjunction;
+			cTupleSet.add(new CTuple(relatedClauseIndex, numberOfSharedFormulas));
+		});
+		return cTupleSet;
 	}
 
-	private Collection<PredicateInfo> collectPredicateInfos(Set<DisjunctiveFormula> formulas) {
+	private Map<Bool, PredicateInfo> collectPredicateInfos(Set<DisjunctiveFormula> formulas) {
 		Map<Bool, PredicateInfo> boolToPredicateInfo = new HashMap<>();
 		Set<Bool> negativesGroupedByFormula = new HashSet<>();
 		Set<Bool> positivesGroupedByFormula = new HashSet<>();
@@ -156,13 +374,15 @@ private Collection<PredicateInfo> collectPredicateInfos(Set<DisjunctiveFormula>
 			}
 		}
 
-		for (PredicateInfo predicateInfo : boolToPredicateInfo.values()) {
-			double sum = predicateInfo.getClauseRelevanceList().stream().mapToDouble(Double::doubleValue).sum();
-			sum /= predicateInfo.getNumberOfPositives() + predicateInfo.getNumberOfNegatives();
-			predicateInfo.setRelevance(sum);
-		}
+		boolToPredicateInfo.values().forEach(CanonicalIndexDataCreationStrategy::updateRelevance);
+
+		return boolToPredicateInfo;
+	}
 
-		return boolToPredicateInfo.values();
+	private static void updateRelevance(PredicateInfo predicateInfo) {
+		double sum = predicateInfo.getClauseRelevanceList().stream().mapToDouble(Double::doubleValue).sum();
+		sum /= predicateInfo.getNumberOfPositives() + predicateInfo.getNumberOfNegatives();
+		predicateInfo.setRelevance(sum);
 	}
 
 	private void createPredicateInfo(final Literal literal, final ConjunctiveClause clause,
@@ -260,4 +480,211 @@ private Map<Integer, Set<DisjunctiveFormula>> mapIndexToFormulas(
 				.collect(Collectors.toMap(entry -> clauseToIndex.get(entry.getKey()), Entry::getValue));
 	}
 
+	/*
+	 * Groups the predicates of the form <path> == <constant> and <path> in
+	 * <constant array> by their path, so that the path only has to be evaluated
+	 * once during matching. Paths compared by a single predicate are not grouped.
+	 */
+	static EqualityGroup[] createEqualityGroups(List<Predicate> predicateOrder) {
+		List<EqualityComparison> comparisons = new ArrayList<>(predicateOrder.size());
+		Map<List<String>, Integer> numberOfComparisonsOfPath = new HashMap<>();
+		for (Predicate predicate : predicateOrder) {
+			EqualityComparison comparison = equalityComparisonOf(predicate.getBool());
+			comparisons.add(comparison);
+			if (comparison != null) {
+				numberOfComparisonsOfPath.merge(comparison.getPathKey(), 1, Integer::sum);
+			}
+		}
+
+		EqualityGroup[] equalityGroupOfPredicate = new EqualityGroup[predicateOrder.size()];
+		Map<List<String>, EqualityGroup> equalityGroupOfPath = new HashMap<>();
+		for (int position = 0; position < comparisons.size(); position++) {
+			EqualityComparison comparison = comparisons.get(position);
+			if (comparison == null || numberOfComparisonsOfPath.get(comparison.getPathKey()) < 2) {
+				continue;
+			}
+			EqualityGroup equalityGroup = equalityGroupOfPath.get(comparison.getPathKey());
+			if (equalityGroup == null) {
+				equalityGroup = new EqualityGroup(equalityGroupOfPath.size(), comparison.getPath());
+				equalityGroupOfPath.put(comparison.getPathKey(), equalityGroup);
+			}
+			equalityGroup.addPredicate(position, comparison.getConstants());
+			equalityGroupOfPredicate[position] = equalityGroup;
+		}
+		return equalityGroupOfPredicate;
+	}
+
+	private static EqualityComparison equalityComparisonOf(Bool bool) {
+		Expression expression = bool.getExpression();
+		if (expression instanceof Equals) {
+			Equals equals = (Equals) expression;
+			if (isPath(equals.getLeft())) {
+				return equalityComparisonOf(equals.getLeft(), constantOperandOf(equals.getRight()));
+			}
+			if (isPath(equals.getRight())) {
+				return equalityComparisonOf(equals.getRight(), constantOperandOf(equals.getLeft()));
+			}
+		} else if (expression instanceof ElementOf) {
+			ElementOf elementOf = (ElementOf) expression;
+			if (isPath(elementOf.getLeft())) {
+				return equalityComparisonOf(elementOf.getLeft(),
+						constantOperandOf(elementOf.getRight()).filter(Val::isArray));
+			}
+		}
+		return null;
+	}
+
+	private static EqualityComparison equalityComparisonOf(Expression path, Optional<Val> constantOperand) {
+		if (constantOperand.isEmpty() || constantOperand.get().isUndefined()) {
+			return null;
+		}
+		JsonNode constant = constantOperand.get().get();
+		List<String> pathKey = new ArrayList<>();
+		pathKey.add(((BasicIdentifier) path).getIdentifier());
+		((BasicIdentifier) path).getSteps().forEach(step -> pathKey.add(((KeyStep) step).getId()));
+		Iterable<JsonNode> constants = constant.isArray() ? constant : List.of(constant);
+		return new EqualityComparison(pathKey, path, constants);
+	}
+
+	private static Optional<Val> constantOperandOf(Expression operand) {
+		return ConstantFoldingUtil.isConstant(operand) ? ConstantFoldingUtil.valueOf(operand) : Optional.empty();
+	}
+
+	/*
+	 * A path is an identifier followed by key steps only. Its evaluation does not
+	 * depend on functions or attributes.
+	 */
+	private static boolean isPath(Expression expression) {
+		if (!(expression instanceof BasicIdentifier)) {
+			return false;
+		}
+		BasicIdentifier identifier = (BasicIdentifier) expression;
+		return identifier.getFilter() == null && identifier.getSubtemplate() == null
+				&& identifier.getSteps().stream().allMatch(KeyStep.class::isInstance);
+	}
+
+	@Value
+	private static class EqualityComparison {
+
+		List<String> pathKey;
+
+		Expression path;
+
+		Iterable<JsonNode> constants;
+
+	}
+
+	/*
+	 * Applies the changes of an incremental update to copies of the affected
+	 * PredicateInfos (and their Predicates). PredicateInfos of Bools not affected
+	 * by the update are shared with the previous index.
+	 */
+	private static class PredicateInfoUpdate {
+
+		private final Map<Bool, PredicateInfo> boolToPredicateInfo;
+
+		private final Set<Bool> copiedBools = new HashSet<>();
+
+		PredicateInfoUpdate(Map<Bool, PredicateInfo> previousBoolToPredicateInfo) {
+			boolToPredicateInfo = new HashMap<>(previousBoolToPredicateInfo);
+		}
+
+		void addFormula(DisjunctiveFormula formula) {
+			Set<Bool> negativesGroupedByFormula = new HashSet<>();
+			Set<Bool> positivesGroupedByFormula = new HashSet<>();
+			for (ConjunctiveClause clause : formula.getClauses()) {
+				final double relevanceForClause = 1.0 / clause.size();
+				for (Literal literal : clause.getLiterals()) {
+					PredicateInfo predicateInfo = copyOnWrite(literal.getBool());
+					predicateInfo.addToClauseRelevanceList(relevanceForClause);
+					if (literal.isNegated()) {
+						predicateInfo.incNumberOfNegatives();
+						if (negativesGroupedByFormula.add(literal.getBool())) {
+							predicateInfo.incGroupedNumberOfNegatives();
+						}
+					} else {
+						predicateInfo.incNumberOfPositives();
+						if (positivesGroupedByFormula.add(literal.getBool())) {
+							predicateInfo.incGroupedNumberOfPositives();
+						}
+					}
+				}
+			}
+		}
+
+		void removeFormula(DisjunctiveFormula formula) {
+			Set<Bool> negativesGroupedByFormula = new HashSet<>();
+			Set<Bool> positivesGroupedByFormula = new HashSet<>();
+			for (ConjunctiveClause clause : formula.getClauses()) {
+				final double relevanceForClause = 1.0 / clause.size();
+				for (Literal literal : clause.getLiterals()) {
+					PredicateInfo predicateInfo = copyOnWrite(literal.getBool());
+					predicateInfo.removeFromClauseRelevanceList(relevanceForClause);
+					if (literal.isNegated()) {
+						predicateInfo.decNumberOfNegatives();
+						if (negativesGroupedByFormula.add(literal.getBool())) {
+							predicateInfo.decGroupedNumberOfNegatives();
+						}
+					} else {
+						predicateInfo.decNumberOfPositives();
+						if (positivesGroupedByFormula.add(literal.getBool())) {
+							predicateInfo.decGroupedNumberOfPositives();
+						}
+					}
+				}
+			}
+		}
+
+		void addClause(ConjunctiveClause clause, int index) {
+			for (Literal literal : clause.getLiterals()) {
+				PredicateInfo predicateInfo = copyOnWrite(literal.getBool());
+				Predicate predicate = predicateInfo.getPredicate();
+				if (literal.isNegated()) {
+					predicateInfo.addUnsatisfiableConjunctionIfTrue(clause);
+					predicate.getFalseForTruePredicate().set(index);
+				} else {
+					predicateInfo.addUnsatisfiableConjunctionIfFalse(clause);
+					predicate.getFalseForFalsePredicate().set(index);
+				}
+				predicate.getConjunctions().set(index);
+			}
+		}
+
+		void removeClause(ConjunctiveClause clause, int index) {
+			for (Literal literal : clause.getLiterals()) {
+				PredicateInfo predicateInfo = copyOnWrite(literal.getBool());
+				Predicate predicate = predicateInfo.getPredicate();
+				predicateInfo.removeUnsatisfiableConjunctionIfTrue(clause);
+				predicateInfo.removeUnsatisfiableConjunctionIfFalse(clause);
+				predicate.getFalseForTruePredicate().clear(index);
+				predicate.getFalseForFalsePredicate().clear(index);
+				predicate.getConjunctions().clear(index);
+			}
+		}
+
+		Map<Bool, PredicateInfo> complete() {
+			for (Bool bool : copiedBools) {
+				PredicateInfo predicateInfo = boolToPredicateInfo.get(bool);
+				if (predicateInfo.getNumberOfPositives() + predicateInfo.getNumberOfNegatives() == 0) {
+					boolToPredicateInfo.remove(bool);
+				} else {
+					updateRelevance(predicateInfo);
+				}
+			}
+			return boolToPredicateInfo;
+		}
+
+		private PredicateInfo copyOnWrite(Bool bool) {
+			if (copiedBools.add(bool)) {
+				PredicateInfo previous = boolToPredicateInfo.get(bool);
+				PredicateInfo copy = previous == null ? new PredicateInfo(new Predicate(bool))
+						: new PredicateInfo(previous);
+				boolToPredicateInfo.put(bool, copy);
+				return copy;
+			}
+			return boolToPredicateInfo.get(bool);
+		}
+
+	}
+
 }
@@ -15,6 +15,11 @@
  */
 package io.sapl.prp.index.canonical;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
 import io.sapl.interpreter.EvaluationContext;
 import lombok.Getter;
 import lombok.Setter;
@@ -25,11 +30,22 @@ public class CanonicalIndexMatchingContext {
     @Getter
     private final Bitmask matchingCandidatesMask;
 
-    private final int[] trueLiteralsOfConjunction;
-    private final int[] eliminatedFormulasWithConjunction;
+    /*
+     * Buffers reused for the intermediate results of each predicate, so that
+     * matching does not allocate masks per predicate
+     */
+    private final Bitmask intersectionBuffer;
+    private final Bitmask satisfiedCandidatesBuffer;
+    private final Bitmask orphanedCandidatesBuffer;
+    private final Bitmask collectedDocumentsBuffer;
+
+    private final Set<DisjunctiveFormula> satisfiedFormulas = new HashSet<>();
+
+    private int[] trueLiteralsOfConjunction;
+    private int[] eliminatedFormulasWithConjunction;
 
     @Getter
-    private final EvaluationContext subscriptionScopedEvaluationContext;
+    private EvaluationContext subscriptionScopedEvaluationContext;
 
     @Getter
     @Setter
@@ -38,10 +54,15 @@ public class CanonicalIndexMatchingContext {
     public CanonicalIndexMatchingContext(int numberOfConjunctions,
                                          EvaluationContext subscriptionScopedEvaluationContext) {
 
-        candidatesMask = new Bitmask();
+        candidatesMask = new Bitmask(numberOfConjunctions);
         candidatesMask.set(0, numberOfConjunctions);
 
-        matchingCandidatesMask = new Bitmask();
+        matchingCandidatesMask = new Bitmask(numberOfConjunctions);
+
+        intersectionBuffer = new Bitmask(numberOfConjunctions);
+        satisfiedCandidatesBuffer = new Bitmask(numberOfConjunctions);
+        orphanedCandidatesBuffer = new Bitmask(numberOfConjunctions);
+        collectedDocumentsBuffer = new Bitmask();
 
         trueLiteralsOfConjunction = new int[numberOfConjunctions];
         eliminatedFormulasWithConjunction = new int[numberOfConjunctions];
@@ -49,10 +70,67 @@ public CanonicalIndexMatchingContext(int numberOfConjunctions,
         this.subscriptionScopedEvaluationContext = subscriptionScopedEvaluationContext;
     }
 
+    /**
+     * Resets the context, so it can be reused for matching another subscription.
+     * The counter arrays are only reallocated if the number of conjunctions
+     * exceeds their capacity.
+     *
+     * @param numberOfConjunctions                the number of conjunctions in the index
+     * @param subscriptionScopedEvaluationContext the evaluation context of the subscription
+     */
+    void reset(int numberOfConjunctions, EvaluationContext subscriptionScopedEvaluationContext) {
+        candidatesMask.clear();
+        candidatesMask.set(0, numberOfConjunctions);
+
+        matchingCandidatesMask.clear();
+        satisfiedFormulas.clear();
+
+        if (trueLiteralsOfConjunction.length < numberOfConjunctions) {
+            trueLiteralsOfConjunction = new int[numberOfConjunctions];
+            eliminatedFormulasWithConjunction = new int[numberOfConjunctions];
+        } else {
+            Arrays.fill(trueLiteralsOfConjunction, 0, numberOfConjunctions, 0);
+            Arrays.fill(eliminatedFormulasWithConjunction, 0, numberOfConjunctions, 0);
+        }
+
+        this.subscriptionScopedEvaluationContext = subscriptionScopedEvaluationContext;
+        errorsInTargets = false;
+    }
+
     Bitmask getCopyOfCandidates() {
         return new Bitmask(candidatesMask);
     }
 
+    /**
+     * @param conjunctions a mask of conjunctions
+     * @return the remaining candidates among the conjunctions. The result is
+     *         stored in a buffer of the context and only valid until the next
+     *         call.
+     */
+    Bitmask remainingCandidatesIn(Bitmask conjunctions) {
+        intersectionBuffer.setToIntersection(candidatesMask, conjunctions);
+        return intersectionBuffer;
+    }
+
+    void forEachRemainingCandidateIn(Bitmask conjunctions, IntConsumer action) {
+        candidatesMask.forEachSetBitIn(conjunctions, action);
+    }
+
+    Bitmask clearedSatisfiedCandidatesBuffer() {
+        satisfiedCandidatesBuffer.clear();
+        return satisfiedCandidatesBuffer;
+    }
+
+    Bitmask clearedOrphanedCandidatesBuffer() {
+        orphanedCandidatesBuffer.clear();
+        return orphanedCandidatesBuffer;
+    }
+
+    Bitmask clearedCollectedDocumentsBuffer() {
+        collectedDocumentsBuffer.clear();
+        return collectedDocumentsBuffer;
+    }
+
     boolean isRemainingCandidate(int candidateIndex) {
         return candidatesMask.isSet(candidateIndex);
     }
@@ -77,6 +155,14 @@ boolean areAllFunctionsEliminated(int conjunctionIndex, int numberOfFormulasWith
         return eliminatedFormulasWithConjunction[conjunctionIndex] == numberOfFormulasWithConjunction;
     }
 
+    /**
+     * @param formula a formula with a satisfied conjunction
+     * @return true, if the formula has not been satisfied before
+     */
+    boolean addSatisfiedFormula(DisjunctiveFormula formula) {
+        return satisfiedFormulas.add(formula);
+    }
+
     void addSatisfiedCandidates(Bitmask satisfiedCandidates) {
         matchingCandidatesMask.or(satisfiedCandidates);
     }
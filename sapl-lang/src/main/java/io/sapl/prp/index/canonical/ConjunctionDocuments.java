@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.sapl.grammar.sapl.SAPL;
+
+/**
+ * The documents of an index by ordinal, and for each conjunction the ordinals
+ * of the documents with a target formula containing the conjunction. This
+ * allows to collect the matching documents in one sequential pass over the
+ * satisfied conjunctions, deduplicating the documents by their ordinal.
+ */
+class ConjunctionDocuments {
+
+	private static final int[] NO_DOCUMENTS = new int[0];
+
+	private final SAPL[] documents;
+
+	private final int[][] documentOrdinalsOfConjunction;
+
+	ConjunctionDocuments(Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments,
+			List<Set<DisjunctiveFormula>> relatedFormulas) {
+		Map<SAPL, Integer> ordinalOfDocument = new IdentityHashMap<>();
+		List<SAPL> documentsByOrdinal = new ArrayList<>();
+		for (Set<SAPL> documentsOfFormula : formulaToDocuments.values()) {
+			for (SAPL document : documentsOfFormula) {
+				ordinalOfDocument.computeIfAbsent(document, key -> {
+					documentsByOrdinal.add(key);
+					return documentsByOrdinal.size() - 1;
+				});
+			}
+		}
+		documents = documentsByOrdinal.toArray(new SAPL[0]);
+
+		documentOrdinalsOfConjunction = new int[relatedFormulas.size()][];
+		Set<Integer> ordinals = new LinkedHashSet<>();
+		for (int conjunctionIndex = 0; conjunctionIndex < relatedFormulas.size(); conjunctionIndex++) {
+			ordinals.clear();
+			for (DisjunctiveFormula formula : relatedFormulas.get(conjunctionIndex)) {
+				for (SAPL document : formulaToDocuments.getOrDefault(formula, Set.of())) {
+					ordinals.add(ordinalOfDocument.get(document));
+				}
+			}
+			documentOrdinalsOfConjunction[conjunctionIndex] = ordinals.isEmpty() ? NO_DOCUMENTS
+					: ordinals.stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+
+	int getNumberOfDocuments() {
+		return documents.length;
+	}
+
+	/**
+	 * Adds the documents of the satisfied conjunctions to the result. Each
+	 * document is added only once.
+	 *
+	 * @param satisfiedConjunctions the indexes of the satisfied conjunctions
+	 * @param collectedOrdinals     a cleared buffer for the ordinals of the
+	 *                              documents already added
+	 * @param result                the collection the documents are added to
+	 */
+	void collectDocuments(Bitmask satisfiedConjunctions, Bitmask collectedOrdinals, Collection<SAPL> result) {
+		satisfiedConjunctions.forEachSetBit(conjunctionIndex -> {
+			for (int ordinal : documentOrdinalsOfConjunction[conjunctionIndex]) {
+				if (!collectedOrdinals.isSet(ordinal)) {
+					collectedOrdinals.set(ordinal);
+					result.add(documents[ordinal]);
+				}
+			}
+		});
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.Expression;
+import io.sapl.grammar.sapl.impl.SynchronousEvaluationUtil;
+import io.sapl.interpreter.EvaluationContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Predicates of the form {@code <path> == <constant>} or
+ * {@code <path> in <constant array>} comparing the same path. The path is
+ * evaluated once per subscription, and a hash lookup of its value yields all
+ * predicates of the group evaluating to true. All other predicates of the group
+ * evaluate to false.
+ *
+ * Predicates are identified by their position in the predicate order of the
+ * index.
+ */
+@RequiredArgsConstructor
+class EqualityGroup {
+
+	private static final Bitmask NONE = new Bitmask();
+
+	@Getter
+	private final int id;
+
+	@Getter
+	private final Expression path;
+
+	private final Map<Object, Bitmask> predicatesByConstant = new HashMap<>();
+
+	void addPredicate(int position, Iterable<JsonNode> constants) {
+		for (JsonNode constant : constants)
+			predicatesByConstant.computeIfAbsent(keyOf(constant), key -> new Bitmask()).set(position);
+	}
+
+	/**
+	 * Evaluates the path and looks up the predicates matching its value.
+	 *
+	 * @param subscriptionScopedEvaluationCtx the evaluation context of the
+	 *                                        subscription
+	 * @return the positions of the predicates of the group evaluating to true, or
+	 *         an empty Optional if the path evaluated to an error or did not
+	 *         evaluate synchronously
+	 */
+	Optional<Bitmask> evaluate(EvaluationContext subscriptionScopedEvaluationCtx) {
+		return SynchronousEvaluationUtil.evaluate(path.evaluate(subscriptionScopedEvaluationCtx, Val.UNDEFINED))
+				.filter(value -> !value.isError()).map(this::predicatesEvaluatingToTrue);
+	}
+
+	private Bitmask predicatesEvaluatingToTrue(Val pathValue) {
+		if (pathValue.isUndefined())
+			return NONE;
+
+		return predicatesByConstant.getOrDefault(keyOf(pathValue.get()), NONE);
+	}
+
+	/*
+	 * Numbers are compared by their decimal value, all other values by their JSON
+	 * representation. See EqualsImplCustom and ElementOfImplCustom.
+	 */
+	private static Object keyOf(JsonNode value) {
+		return value.isNumber() ? value.decimalValue().stripTrailingZeros() : value;
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package io.sapl.prp.index.canonical;
 
+import java.util.Optional;
+
 import com.google.common.base.Preconditions;
 
 import io.sapl.api.interpreter.Val;
@@ -34,8 +36,25 @@ public Predicate(final Bool bool) {
 		this.bool = Preconditions.checkNotNull(bool);
 	}
 
+	/**
+	 * Creates a copy of the predicate with its own bitmasks, so the copy can be
+	 * updated without affecting index data still referencing the original.
+	 *
+	 * @param predicate the predicate to copy
+	 */
+	public Predicate(final Predicate predicate) {
+		this(predicate.getBool());
+		conjunctions.or(predicate.getConjunctions());
+		falseForTruePredicate.or(predicate.getFalseForTruePredicate());
+		falseForFalsePredicate.or(predicate.getFalseForFalsePredicate());
+	}
+
 	public Mono<Val> evaluate(EvaluationContext subscriptionScopedEvaluationCtx) {
 		return getBool().evaluate(subscriptionScopedEvaluationCtx);
 	}
 
+	public Optional<Val> evaluateSynchronously(EvaluationContext subscriptionScopedEvaluationCtx) {
+		return getBool().evaluateSynchronously(subscriptionScopedEvaluationCtx);
+	}
+
 }
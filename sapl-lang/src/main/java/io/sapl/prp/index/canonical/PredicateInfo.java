@@ -52,6 +52,24 @@ public PredicateInfo(final Predicate predicate) {
 		this.predicate = Preconditions.checkNotNull(predicate);
 	}
 
+	/**
+	 * Creates a copy of the predicate info, including a copy of its predicate.
+	 *
+	 * @param predicateInfo the predicate info to copy
+	 */
+	public PredicateInfo(final PredicateInfo predicateInfo) {
+		this(new Predicate(predicateInfo.getPredicate()));
+		unsatisfiableConjunctionsIfFalse.addAll(predicateInfo.unsatisfiableConjunctionsIfFalse);
+		unsatisfiableConjunctionsIfTrue.addAll(predicateInfo.unsatisfiableConjunctionsIfTrue);
+		groupedNumberOfNegatives = predicateInfo.groupedNumberOfNegatives;
+		groupedNumberOfPositives = predicateInfo.groupedNumberOfPositives;
+		numberOfNegatives = predicateInfo.numberOfNegatives;
+		numberOfPositives = predicateInfo.numberOfPositives;
+		relevance = predicateInfo.relevance;
+		relevanceList.addAll(predicateInfo.relevanceList);
+		score = predicateInfo.score;
+	}
+
 	public Set<ConjunctiveClause> getUnsatisfiableConjunctionsIfFalse() {
 		return Collections.unmodifiableSet(unsatisfiableConjunctionsIfFalse);
 	}
@@ -72,6 +90,14 @@ public void addUnsatisfiableConjunctionIfTrue(ConjunctiveClause clause) {
 		unsatisfiableConjunctionsIfTrue.add(clause);
 	}
 
+	public void removeUnsatisfiableConjunctionIfFalse(ConjunctiveClause clause) {
+		unsatisfiableConjunctionsIfFalse.remove(clause);
+	}
+
+	public void removeUnsatisfiableConjunctionIfTrue(ConjunctiveClause clause) {
+		unsatisfiableConjunctionsIfTrue.remove(clause);
+	}
+
 	public int getGroupedNumberOfNegatives() {
 		return groupedNumberOfNegatives;
 	}
@@ -104,6 +130,10 @@ public void addToClauseRelevanceList(double relevanceForClause) {
 		relevanceList.add(relevanceForClause);
 	}
 
+	public void removeFromClauseRelevanceList(double relevanceForClause) {
+		relevanceList.remove(Double.valueOf(relevanceForClause));
+	}
+
 	public void incGroupedNumberOfNegatives() {
 		++groupedNumberOfNegatives;
 	}
@@ -120,6 +150,22 @@ public void incNumberOfPositives() {
 		++numberOfPositives;
 	}
 
+	public void decGroupedNumberOfNegatives() {
+		--groupedNumberOfNegatives;
+	}
+
+	public void decGroupedNumberOfPositives() {
+		--groupedNumberOfPositives;
+	}
+
+	public void decNumberOfNegatives() {
+		--numberOfNegatives;
+	}
+
+	public void decNumberOfPositives() {
+		--numberOfPositives;
+	}
+
 	public void setRelevance(double relevance) {
 		this.relevance = relevance;
 	}
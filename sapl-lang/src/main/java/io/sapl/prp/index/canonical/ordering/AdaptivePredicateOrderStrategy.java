@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical.ordering;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.prp.index.canonical.Bool;
+import io.sapl.prp.index.canonical.Predicate;
+import io.sapl.prp.index.canonical.PredicateInfo;
+
+/**
+ * Orders the predicates by statistics sampled from live traffic instead of
+ * assuming every predicate to be equally expensive and to be true for half of
+ * the subscriptions.
+ *
+ * Every n-th match against the index is sampled, i.e., the evaluation time and
+ * result of each predicate evaluated during the match is recorded. The score of
+ * a predicate is the expected number of formulas it eliminates, weighted by its
+ * relevance and divided by its evaluation cost relative to the mean cost of all
+ * predicates. The relative cost is smoothed towards one, so that a single
+ * sample cannot move a predicate to the front of the order. Predicates without
+ * samples are scored with a true rate of 0.5 and a relative cost of one.
+ *
+ * Once the configured number of matches has been sampled, the index using this
+ * strategy recomputes its predicate order in the background and swaps it in.
+ *
+ * The statistics belong to a single index. Which predicates are evaluated
+ * during a match depends on the predicate order and the documents of the index,
+ * so an updated index starts with a new instance and fresh statistics.
+ */
+public class AdaptivePredicateOrderStrategy implements PredicateOrderStrategy {
+
+	public static final int DEFAULT_SAMPLING_RATE = 100;
+
+	public static final long DEFAULT_REORDERING_INTERVAL = 1000L;
+
+	private final int samplingRate;
+
+	private final long reorderingInterval;
+
+	private final Map<Bool, PredicateStatistics> statistics = new ConcurrentHashMap<>();
+
+	private final AtomicLong numberOfSampledMatches = new AtomicLong();
+
+	public AdaptivePredicateOrderStrategy() {
+		this(DEFAULT_SAMPLING_RATE, DEFAULT_REORDERING_INTERVAL);
+	}
+
+	/**
+	 * @param samplingRate       every samplingRate-th match is sampled
+	 * @param reorderingInterval the number of sampled matches after which the
+	 *                           predicate order is recomputed
+	 */
+	public AdaptivePredicateOrderStrategy(int samplingRate, long reorderingInterval) {
+		if (samplingRate < 1) {
+			throw new IllegalArgumentException("The sampling rate must be positive.");
+		}
+		if (reorderingInterval < 1) {
+			throw new IllegalArgumentException("The reordering interval must be positive.");
+		}
+		this.samplingRate = samplingRate;
+		this.reorderingInterval = reorderingInterval;
+	}
+
+	@Override
+	public List<Predicate> createPredicateOrder(Collection<PredicateInfo> data) {
+		var bools = data.stream().map(predicateInfo -> predicateInfo.getPredicate().getBool())
+				.collect(Collectors.toSet());
+		statistics.keySet().retainAll(bools);
+
+		double meanEvaluationNanos = statistics.values().stream()
+				.filter(predicateStatistics -> predicateStatistics.getNumberOfEvaluations() > 0)
+				.mapToDouble(PredicateStatistics::getMeanEvaluationNanos).average().orElse(0D);
+
+		// the scores are not stored in the predicate infos, as these are shared with
+		// the index currently in use
+		Map<PredicateInfo, Double> scores = new HashMap<>(data.size());
+		data.forEach(predicateInfo -> scores.put(predicateInfo, createScore(predicateInfo, meanEvaluationNanos)));
+
+		return data.stream().sorted(Comparator.comparing(scores::get, Comparator.reverseOrder()))
+				.map(PredicateInfo::getPredicate).collect(Collectors.toList());
+	}
+
+	private double createScore(PredicateInfo predicateInfo, double meanEvaluationNanos) {
+		var predicateStatistics = statistics.get(predicateInfo.getPredicate().getBool());
+		var trueRate = predicateStatistics == null ? .5D : predicateStatistics.getTrueRate();
+		var relevance = predicateInfo.getRelevance();
+
+		// a true result eliminates the formulas containing the predicate negated
+		// and vice versa
+		var expectedEliminations = trueRate * predicateInfo.getGroupedNumberOfNegatives()
+				+ (1D - trueRate) * predicateInfo.getGroupedNumberOfPositives();
+
+		var relativeCosts = 1D;
+		if (predicateStatistics != null && predicateStatistics.getNumberOfEvaluations() > 0
+				&& meanEvaluationNanos > 0D) {
+			relativeCosts = (predicateStatistics.getMeanEvaluationNanos() + meanEvaluationNanos)
+					/ (2D * meanEvaluationNanos);
+		}
+
+		return Math.pow(relevance, 2D - relevance) * expectedEliminations / relativeCosts;
+	}
+
+	@Override
+	public boolean isSampling() {
+		return samplingRate == 1 || ThreadLocalRandom.current().nextInt(samplingRate) == 0;
+	}
+
+	@Override
+	public void recordEvaluation(Predicate predicate, Val result, long nanos) {
+		statistics.computeIfAbsent(predicate.getBool(), bool -> new PredicateStatistics()).record(result, nanos);
+	}
+
+	@Override
+	public void recordSampledMatch() {
+		numberOfSampledMatches.incrementAndGet();
+	}
+
+	/**
+	 * Checks whether enough matches have been sampled since the last reordering.
+	 * If so, only the first caller is told to recompute the predicate order.
+	 *
+	 * @return true, if the caller is to recompute the predicate order
+	 */
+	@Override
+	public boolean shouldReorder() {
+		long sampledMatches = numberOfSampledMatches.get();
+		return sampledMatches >= reorderingInterval && numberOfSampledMatches.compareAndSet(sampledMatches, 0L);
+	}
+
+	@Override
+	public PredicateOrderStrategy forUpdatedIndex() {
+		return new AdaptivePredicateOrderStrategy(samplingRate, reorderingInterval);
+	}
+
+	/**
+	 * @return the statistics sampled so far, by the Bool of the predicates
+	 */
+	public Map<Bool, PredicateStatistics> getStatistics() {
+		return Collections.unmodifiableMap(statistics);
+	}
+
+}
@@ -26,10 +26,26 @@
 
 public class DefaultPredicateOrderStrategy implements PredicateOrderStrategy {
 
+    private final boolean parallelScoring;
+
+    public DefaultPredicateOrderStrategy() {
+        this(false);
+    }
+
+    /**
+     * @param parallelScoring if true, the scores of the predicates are computed
+     *                        on the common fork-join pool. Only affects building
+     *                        the index, never matching a subscription against it.
+     */
+    public DefaultPredicateOrderStrategy(boolean parallelScoring) {
+        this.parallelScoring = parallelScoring;
+    }
+
     @Override
     public List<Predicate> createPredicateOrder(Collection<PredicateInfo> data) {
         List<PredicateInfo> predicateInfos = new ArrayList<>(data);
-        predicateInfos.parallelStream().forEach(predicateInfo -> predicateInfo.setScore(createScore(predicateInfo)));
+        var predicateInfoStream = parallelScoring ? predicateInfos.parallelStream() : predicateInfos.stream();
+        predicateInfoStream.forEach(predicateInfo -> predicateInfo.setScore(createScore(predicateInfo)));
 
         return predicateInfos.stream().sorted(Collections.reverseOrder()).map(PredicateInfo::getPredicate)
                 .collect(Collectors.toList());
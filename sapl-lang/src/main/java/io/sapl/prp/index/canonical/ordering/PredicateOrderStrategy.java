@@ -18,11 +18,67 @@
 import java.util.Collection;
 import java.util.List;
 
+import io.sapl.api.interpreter.Val;
 import io.sapl.prp.index.canonical.Predicate;
 import io.sapl.prp.index.canonical.PredicateInfo;
 
+/**
+ * Determines the order in which the predicates of the canonical index are
+ * evaluated. Strategies adapting the order to the subscriptions matched against
+ * the index may sample matches and request a reordering. By default, matches
+ * are not sampled and the order is computed once per index update.
+ */
 public interface PredicateOrderStrategy {
 
 	List<Predicate> createPredicateOrder(final Collection<PredicateInfo> data);
 
+	/**
+	 * Decides whether the evaluations of the next match are to be recorded.
+	 *
+	 * @return true, if the match is to be sampled
+	 */
+	default boolean isSampling() {
+		return false;
+	}
+
+	/**
+	 * Records the evaluation of a predicate during a sampled match.
+	 *
+	 * @param predicate the evaluated predicate
+	 * @param result    the result of the evaluation
+	 * @param nanos     the evaluation time in nanoseconds
+	 */
+	default void recordEvaluation(Predicate predicate, Val result, long nanos) {
+		// no statistics are kept by default
+	}
+
+	/**
+	 * Records the completion of a sampled match.
+	 */
+	default void recordSampledMatch() {
+		// no statistics are kept by default
+	}
+
+	/**
+	 * Called by the index before each match. If true is returned, the index
+	 * recomputes its predicate order in the background.
+	 *
+	 * @return true, if the caller is to recompute the predicate order
+	 */
+	default boolean shouldReorder() {
+		return false;
+	}
+
+	/**
+	 * Provides the strategy for an index derived from the index using this
+	 * strategy by a document update. Strategies keeping statistics return a new
+	 * instance, so that the derived index starts without the statistics and
+	 * pending reorderings of its predecessor.
+	 *
+	 * @return the strategy of the updated index
+	 */
+	default PredicateOrderStrategy forUpdatedIndex() {
+		return this;
+	}
+
 }
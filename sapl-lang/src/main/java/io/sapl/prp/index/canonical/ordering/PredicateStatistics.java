@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical.ordering;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.sapl.api.interpreter.Val;
+
+/**
+ * Evaluation statistics of a predicate, sampled from matching subscriptions
+ * against the index. Can be updated concurrently.
+ */
+public class PredicateStatistics {
+
+	private final LongAdder numberOfTrueResults = new LongAdder();
+
+	private final LongAdder numberOfFalseResults = new LongAdder();
+
+	private final LongAdder numberOfErrors = new LongAdder();
+
+	private final LongAdder evaluationNanos = new LongAdder();
+
+	void record(Val result, long nanos) {
+		if (result.isError()) {
+			numberOfErrors.increment();
+		} else if (result.getBoolean()) {
+			numberOfTrueResults.increment();
+		} else {
+			numberOfFalseResults.increment();
+		}
+		evaluationNanos.add(nanos);
+	}
+
+	public long getNumberOfTrueResults() {
+		return numberOfTrueResults.sum();
+	}
+
+	public long getNumberOfFalseResults() {
+		return numberOfFalseResults.sum();
+	}
+
+	public long getNumberOfErrors() {
+		return numberOfErrors.sum();
+	}
+
+	public long getNumberOfEvaluations() {
+		return getNumberOfTrueResults() + getNumberOfFalseResults() + getNumberOfErrors();
+	}
+
+	/**
+	 * @return the share of evaluations resulting in true, estimated with add-one
+	 *         smoothing, i.e., 0.5 if the predicate has not been evaluated yet
+	 */
+	public double getTrueRate() {
+		double numberOfTrueResults = getNumberOfTrueResults();
+		return (numberOfTrueResults + 1) / (numberOfTrueResults + getNumberOfFalseResults() + 2);
+	}
+
+	/**
+	 * @return the mean evaluation time in nanoseconds, or 0 if the predicate has
+	 *         not been evaluated yet
+	 */
+	public double getMeanEvaluationNanos() {
+		long numberOfEvaluations = getNumberOfEvaluations();
+		return numberOfEvaluations == 0 ? 0D : (double) evaluationNanos.sum() / numberOfEvaluations;
+	}
+
+	@Override
+	public String toString() {
+		return "PredicateStatistics(true=" + getNumberOfTrueResults() + ", false=" + getNumberOfFalseResults()
+				+ ", errors=" + getNumberOfErrors() + ", meanEvaluationNanos=" + getMeanEvaluationNanos() + ")";
+	}
+
+}
@@ -23,16 +23,15 @@
 import io.sapl.interpreter.EvaluationContext;
 import io.sapl.prp.PrpUpdateEvent;
 import io.sapl.prp.PrpUpdateEvent.Type;
+import io.sapl.prp.TargetMatchingUtil;
 import io.sapl.prp.index.ImmutableParsedDocumentIndex;
 import lombok.ToString;
-import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
 /**
  * The Index Object has to be immutable to avoid race conditions. SAPL Objects
  * are assumed to be immutable.
  */
-@Slf4j
 @ToString
 public class NaiveImmutableParsedDocumentIndex implements ImmutableParsedDocumentIndex {
 	// Mapping of Document Name to the parsed Document
@@ -51,26 +50,11 @@ private NaiveImmutableParsedDocumentIndex(Map<String, SAPL> documents, boolean c
 
 	@Override
 	public Mono<PolicyRetrievalResult> retrievePolicies(EvaluationContext subscriptionScopedEvaluationContext) {
-		var retrieval = Mono.just(new PolicyRetrievalResult());
-		if(!consistent) {
-			return retrieval.map(PolicyRetrievalResult::withInvalidState);
+		if (!consistent) {
+			return Mono.just(PolicyRetrievalResult.builder().withInvalidState().build());
 		}
-		for (SAPL document : documents.values()) {
-			retrieval = retrieval.flatMap(retrievalResult -> document.matches(subscriptionScopedEvaluationContext).map(match -> {
-				if (match.isError()) {
-					return retrievalResult.withError();
-				}
-				if (!match.isBoolean()) {
-					log.error("matching returned error. (Should never happen): {}", match.getMessage());
-					return retrievalResult.withError();
-				}
-				if (match.getBoolean()) {
-					return retrievalResult.withMatch(document);
-				}
-				return retrievalResult;
-			}));
-		}
-		return retrieval;
+		return TargetMatchingUtil.matchAll(documents.values(),
+				document -> document.matches(subscriptionScopedEvaluationContext));
 	}
 
 	@Override
@@ -27,6 +27,7 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.LinkedList;
 import java.util.List;
@@ -35,9 +36,9 @@
 
 import org.apache.commons.io.IOUtils;
 
-import io.sapl.api.interpreter.PolicyEvaluationException;
 import io.sapl.api.interpreter.SAPLInterpreter;
-import io.sapl.grammar.sapl.SAPL;
+import io.sapl.prp.PolicyDocumentLoader;
+import io.sapl.prp.PolicyDocumentLoader.DocumentSource;
 import io.sapl.prp.PrpUpdateEvent;
 import io.sapl.prp.PrpUpdateEvent.Type;
 import io.sapl.prp.PrpUpdateEvent.Update;
@@ -53,7 +54,7 @@ public class ResourcesPrpUpdateEventSource implements PrpUpdateEventSource {
 	private static final String POLICY_FILE_SUFFIX = ".sapl";
 	private static final String POLICY_FILE_GLOB_PATTERN = "*" + POLICY_FILE_SUFFIX;
 
-	private final SAPLInterpreter interpreter;
+	private final PolicyDocumentLoader documentLoader;
 	private final PrpUpdateEvent initializingPrpUpdate;
 
 	public ResourcesPrpUpdateEventSource(@NonNull String policyPath, @NonNull SAPLInterpreter interpreter) {
@@ -62,7 +63,7 @@ public ResourcesPrpUpdateEventSource(@NonNull String policyPath, @NonNull SAPLIn
 
 	public ResourcesPrpUpdateEventSource(@NonNull Class<?> clazz, @NonNull String policyPath,
                                          @NonNull SAPLInterpreter interpreter) {
-		this.interpreter = interpreter;
+		this.documentLoader = new PolicyDocumentLoader(interpreter);
 		log.info("Loading a static set of policies from the bundled ressources");
 		URL policyFolderUrl = clazz.getResource(policyPath);
 		if (policyFolderUrl == null) {
@@ -87,9 +88,9 @@ private PrpUpdateEvent readPoliciesFromJar(URL policiesFolderUrl) {
 		if (policiesDirPath.charAt(0) == File.separatorChar) {
 			policiesDirPath.deleteCharAt(0);
 		}
-		List<Update> updates = new LinkedList<>();
 		final String policiesDirPathStr = policiesDirPath.toString();
 		try (ZipFile zipFile = new ZipFile(jarFilePath)) {
+			var sources = new LinkedList<DocumentSource>();
 			Enumeration<? extends ZipEntry> e = zipFile.entries();
 
 			while (e.hasMoreElements()) {
@@ -97,22 +98,24 @@ private PrpUpdateEvent readPoliciesFromJar(URL policiesFolderUrl) {
 				if (!entry.isDirectory() && entry.getName().startsWith(policiesDirPathStr)
 						&& entry.getName().endsWith(POLICY_FILE_SUFFIX)) {
 					log.info("load SAPL document: {}", entry.getName());
-					BufferedInputStream bis = new BufferedInputStream(zipFile.getInputStream(entry));
-					var rawDocument = IOUtils.toString(bis, StandardCharsets.UTF_8);
-					bis.close();
-					final SAPL saplDocument = interpreter.parse(rawDocument);
-					updates.add(new Update(Type.PUBLISH, saplDocument, rawDocument));
+					sources.add(new DocumentSource(entry.getName(), () -> readEntry(zipFile, entry)));
 				}
 			}
-		} catch (IOException | PolicyEvaluationException e) {
+			// the zip file has to stay open until all documents are loaded
+			return loadDocuments(sources);
+		} catch (IOException e) {
 			throw Exceptions.propagate(e);
 		}
-		return new PrpUpdateEvent(updates);
+	}
+
+	private static String readEntry(ZipFile zipFile, ZipEntry entry) throws IOException {
+		try (BufferedInputStream bis = new BufferedInputStream(zipFile.getInputStream(entry))) {
+			return IOUtils.toString(bis, StandardCharsets.UTF_8);
+		}
 	}
 
 	private PrpUpdateEvent readPoliciesFromDirectory(URL policiesFolderUrl) {
 		log.debug("reading policies from directory {}", policiesFolderUrl);
-		List<Update> updates = new LinkedList<>();
 		Path policiesDirectoryPath;
 		try {
 			policiesDirectoryPath = Paths.get(policiesFolderUrl.toURI());
@@ -120,16 +123,32 @@ private PrpUpdateEvent readPoliciesFromDirectory(URL policiesFolderUrl) {
 			throw Exceptions.propagate(e);
 
 		}
+		var sources = new LinkedList<DocumentSource>();
 		try (DirectoryStream<Path> stream = Files.newDirectoryStream(policiesDirectoryPath, POLICY_FILE_GLOB_PATTERN)) {
 			for (Path filePath : stream) {
 				log.info("loading SAPL document: {}", filePath);
-				var rawDocument = readFile(filePath);
-				var saplDocument = interpreter.parse(rawDocument);
-				updates.add(new Update(Type.PUBLISH, saplDocument, rawDocument));
+				sources.add(DocumentSource.of(filePath));
 			}
-		} catch (IOException | PolicyEvaluationException e) {
+		} catch (IOException e) {
 			throw Exceptions.propagate(e);
 		}
+		return loadDocuments(sources);
+	}
+
+	/*
+	 * The bundled documents are static. Thus, they are parsed in parallel, but
+	 * completely during construction, so that an invalid document still fails the
+	 * startup and the index is built only once.
+	 */
+	private PrpUpdateEvent loadDocuments(List<DocumentSource> sources) {
+		var loadedDocuments = documentLoader.load(Flux.fromIterable(sources)).collectList().block();
+		List<Update> updates = new ArrayList<>(sources.size());
+		for (var loadedDocument : loadedDocuments) {
+			if (loadedDocument.getFailure() != null) {
+				throw Exceptions.propagate(loadedDocument.getFailure());
+			}
+			updates.add(new Update(Type.PUBLISH, loadedDocument.getDocument().get(), loadedDocument.getRawDocument()));
+		}
 		return new PrpUpdateEvent(updates);
 	}
 
@@ -18,6 +18,8 @@
 import static io.sapl.grammar.sapl.impl.util.TestUtil.expressionErrors;
 import static io.sapl.grammar.sapl.impl.util.TestUtil.expressionEvaluatesTo;
 
+import java.util.StringJoiner;
+
 import org.junit.Test;
 
 import io.sapl.grammar.sapl.impl.util.MockUtil;
@@ -154,4 +156,27 @@ public void filterNonBoolInCondition() {
 		expressionErrors(CTX, "[10,1] |- { @[?(123)] : mock.emptyString }");
 	}
 
+	@Test
+	public void applyToLargeArray() {
+		var array = new StringJoiner(",", "[", "]");
+		var expected = new StringJoiner(",", "[", "]");
+		for (int i = 0; i < 5000; i++) {
+			array.add(String.valueOf(i));
+			if (i >= 4990) {
+				expected.add(String.valueOf(i));
+			}
+		}
+		expressionEvaluatesTo(CTX, array + "[?(@ >= 4990)]", expected.toString());
+	}
+
+	@Test
+	public void applyToArrayWithStreamingCondition() {
+		expressionEvaluatesTo(CTX, "[2][?(@ < <test.numbers>)]", "[]", "[]", "[]", "[2]", "[2]", "[2]");
+	}
+
+	@Test
+	public void applyToObjectWithStreamingCondition() {
+		expressionEvaluatesTo(CTX, "{ \"key\" : 2 }[?(@ < <test.numbers>)]", "[]", "[]", "[]", "[2]", "[2]", "[2]");
+	}
+
 }
@@ -17,10 +17,18 @@
 
 import static io.sapl.grammar.sapl.impl.util.TestUtil.expressionErrors;
 import static io.sapl.grammar.sapl.impl.util.TestUtil.expressionEvaluatesTo;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.Map;
 
 import org.junit.Test;
 
+import io.sapl.api.interpreter.Val;
 import io.sapl.grammar.sapl.impl.util.MockUtil;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
 import io.sapl.interpreter.EvaluationContext;
 
 public class BasicFunctionImplTest {
@@ -40,4 +48,16 @@ public void basicSuccessfullEvaluationError() {
 	public void basicSuccessfullEvaluationExceptionToError() {
 		expressionErrors(CTX, "mock.exception()");
 	}
+
+	@Test
+	public void functionIsLookedUpOnceForTheSameContext() throws IOException {
+		var functionCtx = spy(CTX.getFunctionCtx());
+		var ctx = new EvaluationContext(CTX.getAttributeCtx(), functionCtx, Map.of());
+		var expression = ParserUtil.expression("mock.nil()");
+
+		expression.evaluate(ctx, Val.UNDEFINED).blockFirst();
+		expression.evaluate(ctx, Val.UNDEFINED).blockFirst();
+
+		verify(functionCtx, times(1)).lookupFunction("mock.nil");
+	}
 }
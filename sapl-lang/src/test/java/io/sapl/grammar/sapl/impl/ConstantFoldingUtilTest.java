@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import io.sapl.api.interpreter.PolicyEvaluationException;
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.BasicValue;
+import io.sapl.grammar.sapl.Div;
+import io.sapl.grammar.sapl.NumberLiteral;
+import io.sapl.grammar.sapl.Plus;
+import io.sapl.grammar.sapl.Policy;
+import io.sapl.grammar.sapl.TrueLiteral;
+import io.sapl.grammar.sapl.ValueDefinition;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import reactor.test.StepVerifier;
+
+public class ConstantFoldingUtilTest {
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	private EvaluationContext ctx;
+
+	@Before
+	public void setUp() {
+		ctx = new EvaluationContext(new AnnotationAttributeContext(), new AnnotationFunctionContext(),
+				new HashMap<>());
+	}
+
+	@Test
+	public void constantOperatorIsReplacedByLiteral() {
+		var policy = (Policy) INTERPRETER.parse("policy \"p\" permit where var x = (1 + 2) * 3;").getPolicyElement();
+		var definition = (ValueDefinition) policy.getBody().getStatements().get(0);
+
+		assertThat(definition.getEval()).isInstanceOf(BasicValue.class);
+		var literal = ((BasicValue) definition.getEval()).getValue();
+		assertThat(literal).isInstanceOf(NumberLiteral.class);
+		assertThat(((NumberLiteral) literal).getNumber()).isEqualByComparingTo("9");
+	}
+
+	@Test
+	public void constantTargetIsReplacedByLiteral() {
+		var policy = INTERPRETER.parse("policy \"p\" permit !(1 > 2)").getPolicyElement();
+
+		assertThat(policy.getTargetExpression()).isInstanceOf(BasicValue.class);
+		assertThat(((BasicValue) policy.getTargetExpression()).getValue()).isInstanceOf(TrueLiteral.class);
+	}
+
+	@Test
+	public void constantObligationIsEvaluatedOnlyOnce() throws JsonProcessingException {
+		var policy = (Policy) INTERPRETER
+				.parse("policy \"p\" permit obligation { \"type\" : \"log\", \"values\" : [1, 2 + 3, { \"x\" : null }] }")
+				.getPolicyElement();
+		var obligation = policy.getObligation();
+
+		var first = obligation.evaluate(ctx, Val.UNDEFINED).blockFirst();
+		var second = obligation.evaluate(ctx, Val.UNDEFINED).blockFirst();
+
+		assertThat(first).isSameAs(second);
+		assertThat(first).isEqualTo(Val.ofJson("{\"type\":\"log\",\"values\":[1,5,{\"x\":null}]}"));
+	}
+
+	@Test
+	public void constantStepsAreFolded() {
+		var policy = (Policy) INTERPRETER.parse("policy \"p\" permit where var x = [1, [2, 3]][1][0];")
+				.getPolicyElement();
+		var definition = (ValueDefinition) policy.getBody().getStatements().get(0);
+
+		StepVerifier.create(definition.getEval().evaluate(ctx, Val.UNDEFINED)).expectNext(Val.of(2))
+				.verifyComplete();
+	}
+
+	@Test
+	public void expressionsDependingOnSubscriptionAreNotFolded() {
+		var policy = (Policy) INTERPRETER.parse("policy \"p\" permit where var x = resource.a + (1 + 2);")
+				.getPolicyElement();
+		var definition = (ValueDefinition) policy.getBody().getStatements().get(0);
+
+		assertThat(definition.getEval()).isInstanceOf(Plus.class);
+		assertThat(((Plus) definition.getEval()).getRight()).isInstanceOf(BasicValue.class);
+	}
+
+	@Test
+	public void errorsAreNotFolded() {
+		var policy = (Policy) INTERPRETER.parse("policy \"p\" permit where var x = 10 / 0;").getPolicyElement();
+		var definition = (ValueDefinition) policy.getBody().getStatements().get(0);
+
+		assertThat(definition.getEval()).isInstanceOf(Div.class);
+	}
+
+	@Test
+	public void lazyOperatorInTargetIsRejected() {
+		assertThatThrownBy(() -> INTERPRETER.parse("policy \"p\" permit true && false"))
+				.isInstanceOf(PolicyEvaluationException.class);
+	}
+
+	@Test
+	public void functionCallsAreNotFolded() {
+		assertThat(ConstantFoldingUtil.foldConstants(INTERPRETER.parse("policy \"p\" permit where time.now();")))
+				.isZero();
+	}
+
+}
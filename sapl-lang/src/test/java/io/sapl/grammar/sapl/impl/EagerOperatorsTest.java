@@ -24,6 +24,8 @@
 import org.junit.Ignore;
 import org.junit.Test;
 
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
 import io.sapl.interpreter.EvaluationContext;
 
 public class EagerOperatorsTest {
@@ -679,4 +681,21 @@ public void evaluateRegExLeftError() {
 	public void evaluateRegExRightError() {
 		expressionErrors(CTX, "\"aaa\" =~ (10/0)");
 	}
+
+	@Test
+	public void evaluateRegExDynamicPattern() {
+		expressionEvaluatesTo(CTX, "\"test\" =~ (\"t\" + \".*\")", "true");
+	}
+
+	@Test
+	public void evaluateRegExDynamicPatternError() {
+		expressionErrors(CTX, "\"test\" =~ (\"*\" + \"**\")");
+	}
+
+	@Test
+	public void evaluateRegExLiteralPatternTwice() throws IOException {
+		var expression = ParserUtil.expression("\"test\" =~ \"t.*\"");
+		expressionEvaluatesTo(CTX, expression, Val.TRUE);
+		expressionEvaluatesTo(CTX, expression, Val.TRUE);
+	}
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.junit.Test;
+
+import io.sapl.api.interpreter.PolicyEvaluationException;
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.Or;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+
+public class ExpressionScopeUtilTest {
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	@Test
+	public void scopesAreAssignedWhenParsing() {
+		var document = INTERPRETER.parse("policy \"p\" permit where subject.<a.b> || true; "
+				+ "obligation <c.d> advice subject.<e.f> transform subject.<g.h>");
+
+		var scopes = new ArrayList<ExpressionScope>();
+		for (var expression : scopedExpressions(document)) {
+			scopes.add(expression.getExpressionScope());
+		}
+		assertThat(scopes).containsExactly(ExpressionScope.BODY, ExpressionScope.BODY, ExpressionScope.OBLIGATION,
+				ExpressionScope.ADVICE, ExpressionScope.TRANSFORMATION);
+	}
+
+	@Test
+	public void scopesAreAssignedInPolicySets() {
+		var document = INTERPRETER.parse("set \"s\" deny-overrides var x = <a.b>; "
+				+ "policy \"p\" permit resource == true where x || <c.d>;");
+
+		var expressions = scopedExpressions(document);
+		assertThat(expressions).hasSize(3)
+				.allMatch(expression -> expression.getExpressionScope() == ExpressionScope.BODY);
+		assertThat(expressions.get(1)).isInstanceOf(Or.class);
+	}
+
+	@Test
+	public void lazyOperatorsAndAttributesInTargetsAreRejected() {
+		assertRejected("policy \"p\" permit true && false");
+		assertRejected("policy \"p\" permit true || false");
+		assertRejected("policy \"p\" permit subject.<a.b> == 1");
+		assertRejected("policy \"p\" permit subject.|<a.b> == 1");
+		assertRejected("policy \"p\" permit <a.b> == 1");
+		assertRejected("policy \"p\" permit |<a.b> == 1");
+		assertRejected("set \"s\" deny-overrides for <a.b> == 1 policy \"p\" permit");
+		assertRejected("set \"s\" deny-overrides policy \"p\" permit true || false");
+	}
+
+	@Test
+	public void scopeOfProgrammaticallyConstructedExpressionIsDeterminedOnce() {
+		var policy = INTERPRETER.parse("policy \"p\" permit").getPolicyElement();
+		var attribute = new BasicEnvironmentAttributeImplCustom();
+		policy.setTargetExpression(attribute);
+
+		var ctx = new EvaluationContext(new AnnotationAttributeContext(), new AnnotationFunctionContext(), new HashMap<>());
+		assertThat(attribute.getExpressionScope()).isNull();
+		assertThat(attribute.evaluate(ctx, Val.UNDEFINED).blockFirst().isError()).isTrue();
+		assertThat(attribute.getExpressionScope()).isEqualTo(ExpressionScope.TARGET);
+	}
+
+	@Test
+	public void standaloneExpressionHasNoScope() {
+		var attribute = new BasicEnvironmentAttributeImplCustom();
+
+		assertThat(ExpressionScopeUtil.scopeOf(attribute)).isEqualTo(ExpressionScope.NONE);
+	}
+
+	private static void assertRejected(String document) {
+		assertThatThrownBy(() -> INTERPRETER.parse(document)).isInstanceOf(PolicyEvaluationException.class);
+	}
+
+	private static List<ScopedExpression> scopedExpressions(EObject document) {
+		var expressions = new ArrayList<ScopedExpression>();
+		var iter = document.eAllContents();
+		while (iter.hasNext()) {
+			var node = iter.next();
+			if (node instanceof ScopedExpression) {
+				expressions.add((ScopedExpression) node);
+			}
+		}
+		return expressions;
+	}
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+public class RegexPatternCacheTest {
+
+	@Test
+	public void sameRegexReturnsCachedPattern() {
+		var misses = RegexPatternCache.stats().missCount();
+		var hits = RegexPatternCache.stats().hitCount();
+
+		var first = RegexPatternCache.compile("cached-[a-z]+");
+		var second = RegexPatternCache.compile("cached-[a-z]+");
+
+		assertThat(second).isSameAs(first);
+		assertThat(RegexPatternCache.stats().missCount()).isGreaterThan(misses);
+		assertThat(RegexPatternCache.stats().hitCount()).isGreaterThan(hits);
+		assertThat(RegexPatternCache.hitRate()).isBetween(0D, 1D);
+	}
+
+	@Test(expected = PatternSyntaxException.class)
+	public void invalidRegexThrowsException() {
+		RegexPatternCache.compile("***");
+	}
+
+	@Test
+	public void cacheIsBounded() {
+		for (int i = 0; i < RegexPatternCache.MAXIMUM_SIZE + 10; i++) {
+			RegexPatternCache.compile("bounded-" + i);
+		}
+		assertThat(RegexPatternCache.size()).isLessThanOrEqualTo(RegexPatternCache.MAXIMUM_SIZE);
+	}
+
+}
@@ -16,11 +16,15 @@
 package io.sapl.grammar.sapl.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.util.Map;
 
 import org.junit.Test;
 
+import io.sapl.api.functions.Function;
+import io.sapl.api.functions.FunctionLibrary;
+import io.sapl.api.interpreter.InitializationException;
 import io.sapl.api.interpreter.PolicyEvaluationException;
 import io.sapl.api.interpreter.SAPLInterpreter;
 import io.sapl.api.interpreter.Val;
@@ -28,6 +32,8 @@
 import io.sapl.grammar.sapl.impl.util.MockUtil;
 import io.sapl.interpreter.DefaultSAPLInterpreter;
 import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
 import reactor.test.StepVerifier;
 
 public class SAPLImplCustomTest {
@@ -125,6 +131,33 @@ public void doubleImportLibraryFails() {
 		policy.documentScopedEvaluationContext(CTX);
 	}
 
+	@Test
+	public void linkingResolvesImportsOnlyOnce() {
+		var policy = INTERPRETER.parse("import simple.length policy \"policy\" permit true");
+		var imports = policy.documentScopedEvaluationContext(CTX).getImports();
+		assertSame(imports, policy.documentScopedEvaluationContext(CTX).getImports());
+	}
+
+	@Test
+	public void documentEvaluatedWithDifferentContextsResolvesNamesPerContext() throws InitializationException {
+		var policy = INTERPRETER
+				.parse("import a.* import b.* policy \"policy\" permit where value() == \"a\";");
+		var aCtx = contextWithLibrary(new LibraryA());
+		var bCtx = contextWithLibrary(new LibraryB());
+
+		StepVerifier.create(policy.evaluate(aCtx)).expectNext(AuthorizationDecision.PERMIT).verifyComplete();
+		StepVerifier.create(policy.evaluate(bCtx)).expectNext(AuthorizationDecision.NOT_APPLICABLE)
+				.verifyComplete();
+		StepVerifier.create(policy.evaluate(aCtx)).expectNext(AuthorizationDecision.PERMIT).verifyComplete();
+	}
+
+	@Test
+	public void linkedDocumentIsEvaluatedWithoutImportsInContext() {
+		var policy = INTERPRETER
+				.parse("import simple as s policy \"policy\" permit where s.length([1,2]) == 2;");
+		StepVerifier.create(policy.evaluate(CTX)).expectNext(AuthorizationDecision.PERMIT).verifyComplete();
+	}
+
 	@Test
 	public void policyBodyEvaluationDoesNotCheckTargetAgain() {
 		var policy = INTERPRETER.parse("policy \"policy\" permit (10/0)");
@@ -132,4 +165,26 @@ public void policyBodyEvaluationDoesNotCheckTargetAgain() {
 		StepVerifier.create(policy.evaluate(CTX)).expectNext(expected).verifyComplete();
 	}
 
+	private static EvaluationContext contextWithLibrary(Object library) throws InitializationException {
+		var functionCtx = new AnnotationFunctionContext();
+		functionCtx.loadLibrary(library);
+		return new EvaluationContext(new AnnotationAttributeContext(), functionCtx, Map.of());
+	}
+
+	@FunctionLibrary(name = "a")
+	public static class LibraryA {
+		@Function
+		public Val value() {
+			return Val.of("a");
+		}
+	}
+
+	@FunctionLibrary(name = "b")
+	public static class LibraryB {
+		@Function
+		public Val value() {
+			return Val.of("b");
+		}
+	}
+
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.grammar.sapl.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.grammar.sapl.FilterExtended;
+import io.sapl.grammar.sapl.FilterStatement;
+import io.sapl.grammar.sapl.impl.util.MockUtil;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
+import io.sapl.interpreter.EvaluationContext;
+
+public class SynchronousFilterUtilTest {
+
+	private final static EvaluationContext CTX = MockUtil.constructTestEnvironmentPdpScopedEvaluationContext();
+
+	private static final String DOCUMENT = "{ \"name\" : \"Otto\", \"ssn\" : \"123-45-678\", "
+			+ "\"family\" : [ { \"name\" : \"Mary\", \"ssn\" : \"987-65-432\" }, { \"name\" : \"Paul\" }, 1, [ [ { \"ssn\" : \"x\" } ] ] ], "
+			+ "\"address\" : { \"street\" : \"Main Street\", \"city\" : \"Springfield\" } }";
+
+	@Test
+	public void sameResultAsStepwiseApplication() throws IOException {
+		assertSameResultAsSteps(DOCUMENT, "{ @..ssn : filter.blacken }");
+		assertSameResultAsSteps(DOCUMENT, "{ @..ssn : filter.remove }");
+		assertSameResultAsSteps(DOCUMENT, "{ @..ssn : filter.blacken(2) }");
+		assertSameResultAsSteps(DOCUMENT, "{ @.family[0].name : filter.remove }");
+		assertSameResultAsSteps(DOCUMENT, "{ @.family[-1] : filter.remove }");
+		assertSameResultAsSteps(DOCUMENT, "{ @.family[7] : filter.remove }");
+		assertSameResultAsSteps(DOCUMENT, "{ @.address.* : filter.blacken }");
+		assertSameResultAsSteps(DOCUMENT, "{ @..* : filter.remove }");
+		assertSameResultAsSteps(DOCUMENT, "{ @.family.name : filter.blacken }");
+		assertSameResultAsSteps(DOCUMENT, "{ @.family.* : filter.blacken }");
+		assertSameResultAsSteps(DOCUMENT, "{ @..family..ssn : filter.blacken }");
+		assertSameResultAsSteps("[ 1, 2, 3 ]", "{ @..ssn : filter.blacken }");
+		assertSameResultAsSteps("[]", "{ @..ssn : filter.blacken }");
+		assertSameResultAsSteps("\"text\"", "{ @.key : filter.blacken }");
+	}
+
+	@Test
+	public void errorsArePropagated() throws IOException {
+		assertSameResultAsSteps(DOCUMENT, "{ @.address.* : filter.blacken(\"x\") }");
+		assertSameResultAsSteps(DOCUMENT, "{ @..family : filter.blacken }");
+	}
+
+	@Test
+	public void untouchedSubtreesAreShared() throws IOException {
+		var unfilteredValue = Val.ofJson(DOCUMENT);
+		var filteredValue = SynchronousFilterUtil.applyFilterStatement(unfilteredValue,
+				statement("{ @.family[0].ssn : filter.blacken }"), CTX);
+
+		assertThat(filteredValue.get().get("address")).isSameAs(unfilteredValue.get().get("address"));
+		assertThat(filteredValue.get().get("family").get(1)).isSameAs(unfilteredValue.get().get("family").get(1));
+		assertThat(filteredValue.get().get("family").get(0)).isNotSameAs(unfilteredValue.get().get("family").get(0));
+		assertThat(filteredValue.get().get("family").get(0).get("ssn").textValue()).isEqualTo("XXXXXXXXXX");
+	}
+
+	@Test
+	public void unmatchedValueIsReturnedUnchanged() throws IOException {
+		var unfilteredValue = Val.ofJson(DOCUMENT);
+		var filteredValue = SynchronousFilterUtil.applyFilterStatement(unfilteredValue,
+				statement("{ @..unknown : filter.remove }"), CTX);
+
+		assertThat(filteredValue.get()).isSameAs(unfilteredValue.get());
+	}
+
+	@Test
+	public void emptyObjectsAreLeftToStepwiseApplication() throws IOException {
+		assertThat(SynchronousFilterUtil.applyFilterStatement(Val.ofEmptyObject(), statement("{ @.key : filter.remove }"),
+				CTX)).isNull();
+		assertThat(SynchronousFilterUtil.applyFilterStatement(Val.ofJson("[ {} ]"),
+				statement("{ @..key : filter.remove }"), CTX)).isNull();
+	}
+
+	@Test
+	public void applicability() throws IOException {
+		assertThat(SynchronousFilterUtil.isApplicable(statement("{ @..ssn : filter.blacken }"))).isTrue();
+		assertThat(SynchronousFilterUtil.isApplicable(statement("{ @[0].*..key : filter.blacken(1) }"))).isTrue();
+		assertThat(SynchronousFilterUtil.isApplicable(statement("{ @[?(@ > 1)] : filter.remove }"))).isFalse();
+		assertThat(SynchronousFilterUtil.isApplicable(statement("{ @.key : filter.blacken(<test.numbers>) }")))
+				.isFalse();
+	}
+
+	private static void assertSameResultAsSteps(String value, String filter) throws IOException {
+		var unfilteredValue = Val.ofJson(value);
+		var statement = statement(filter);
+		var expected = statement.getTarget().getSteps().get(0)
+				.applyFilterStatement(unfilteredValue, CTX, Val.UNDEFINED, 0, statement).blockFirst();
+
+		var actual = SynchronousFilterUtil.applyFilterStatement(unfilteredValue, statement, CTX);
+
+		assertThat(actual).as("%s |- %s", value, filter).isNotNull();
+		assertThat(actual.isError()).as("%s |- %s", value, filter).isEqualTo(expected.isError());
+		if (!expected.isError()) {
+			assertThat(actual).as("%s |- %s", value, filter).isEqualTo(expected);
+		}
+	}
+
+	private static FilterStatement statement(String filter) throws IOException {
+		return ((FilterExtended) ParserUtil.filterComponent(filter)).getStatements().get(0);
+	}
+
+}
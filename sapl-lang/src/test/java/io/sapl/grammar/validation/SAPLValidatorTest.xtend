@@ -65,6 +65,21 @@ class SAPLValidatorTest {
 		'''.parse.assertError(SaplPackage::eINSTANCE.attributeFinderStep, null, SAPLValidator.MSG_AFS_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION);
 	}
 	
+	@Test
+	def void policySetTargetWithLazyAnd() {
+		'''
+			set "test set" deny-overrides for a == b && c == d
+			policy "test policy" permit
+		'''.parse.assertError(SaplPackage::eINSTANCE.and, null, SAPLValidator.MSG_AND_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION);
+	}
+
+	@Test
+	def void targetWithEnvironmentAttribute() {
+		'''
+			policy "test policy" permit <clock.now> == "now"
+		'''.parse.assertError(SaplPackage::eINSTANCE.basicEnvironmentAttribute, null, SAPLValidator.MSG_ATTRIBUTE_IS_NOT_ALLOWED_IN_TARGET_EXPRESSION);
+	}
+
 	@Test	
 	def void invalidPolicy() {
 		'''
@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.interpreter.combinators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.interpreter.Val;
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.Decision;
+import io.sapl.api.pip.Attribute;
+import io.sapl.api.pip.PolicyInformationPoint;
+import io.sapl.api.prp.PolicyRetrievalResult;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class ShortCircuitingCombinatorTest {
+
+	private static final DefaultSAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	private static final AuthorizationSubscription EMPTY_AUTH_SUBSCRIPTION = new AuthorizationSubscription(null, null,
+			null, null);
+
+	private final AtomicInteger subscriptionsToSlowAttribute = new AtomicInteger();
+
+	private final AtomicInteger subscriptionsToCountedAttribute = new AtomicInteger();
+
+	private EvaluationContext evaluationCtx;
+
+	@Before
+	public void setUp() throws Exception {
+		var attributeCtx = new AnnotationAttributeContext();
+		attributeCtx.loadPolicyInformationPoint(new TestPIP());
+		evaluationCtx = new EvaluationContext(attributeCtx, new AnnotationFunctionContext(), new HashMap<>())
+				.forAuthorizationSubscription(EMPTY_AUTH_SUBSCRIPTION);
+	}
+
+	@Test
+	public void denyOverridesDoesNotSubscribeToDominatedPolicies() {
+		var result = matching("policy \"deny\" deny obligation \"log\"",
+				"policy \"slow permit\" permit where <test.slow>;");
+
+		StepVerifier.create(new DenyOverridesCombinator().combineMatchingDocuments(result, evaluationCtx))
+				.expectNextMatches(decision -> decision.getDecision() == Decision.DENY
+						&& decision.getObligations().get().size() == 1)
+				.verifyComplete();
+		assertThat(subscriptionsToSlowAttribute.get()).isZero();
+	}
+
+	@Test
+	public void dominatedPoliciesAreEvaluatedIfNotOverridden() {
+		var result = matching("policy \"deny\" deny where false;", "policy \"permit\" permit where <test.fast>;");
+
+		StepVerifier.create(new DenyOverridesCombinator().combineMatchingDocuments(result, evaluationCtx))
+				.expectNextMatches(decision -> decision.getDecision() == Decision.PERMIT).verifyComplete();
+	}
+
+	@Test
+	public void dominatedPoliciesAreEvaluatedOnceWhileNotOverridden() {
+		var result = matching("policy \"deny\" deny where <test.changing>;",
+				"policy \"permit\" permit where <test.counted>;");
+
+		StepVerifier.create(new DenyOverridesCombinator().combineMatchingDocuments(result, evaluationCtx))
+				.expectNextMatches(decision -> decision.getDecision() == Decision.PERMIT)
+				.expectNextMatches(decision -> decision.getDecision() == Decision.INDETERMINATE)
+				.expectNextMatches(decision -> decision.getDecision() == Decision.PERMIT).thenCancel().verify();
+		assertThat(subscriptionsToCountedAttribute.get()).isOne();
+	}
+
+	@Test
+	public void dominatedPoliciesAreEvaluatedAgainAfterOverridingDecision() {
+		var result = matching("policy \"deny\" deny where <test.toggling>;",
+				"policy \"permit\" permit where <test.counted>;");
+
+		StepVerifier.create(new DenyOverridesCombinator().combineMatchingDocuments(result, evaluationCtx))
+				.expectNextMatches(decision -> decision.getDecision() == Decision.PERMIT)
+				.expectNextMatches(decision -> decision.getDecision() == Decision.DENY)
+				.expectNextMatches(decision -> decision.getDecision() == Decision.PERMIT).thenCancel().verify();
+		assertThat(subscriptionsToCountedAttribute.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void denyPoliciesWithTransformationAreNotDominated() {
+		var result = matching("policy \"permit\" permit", "policy \"deny\" deny transform \"x\"");
+
+		StepVerifier.create(new PermitOverridesCombinator().combineMatchingDocuments(result, evaluationCtx))
+				.expectNextMatches(decision -> decision.getDecision() == Decision.PERMIT
+						&& decision.getResource().get().textValue().equals("x"))
+				.verifyComplete();
+	}
+
+	@Test
+	public void sameDecisionsAsEagerEvaluation() {
+		var documents = List.of("policy \"p1\" permit obligation \"p1\"", "policy \"d1\" deny obligation \"d1\"",
+				"policy \"p2\" permit where <test.fast>; obligation \"p2\"", "policy \"d2\" deny where false;",
+				"policy \"p3\" permit advice \"p3\"");
+		for (var combinator : List.of(new DenyOverridesCombinator(), new PermitOverridesCombinator(),
+				new DenyUnlessPermitCombinator(), new PermitUnlessDenyCombinator())) {
+			for (var i = 0; i < documents.size(); i++) {
+				for (var j = 0; j < documents.size(); j++) {
+					if (i == j) {
+						continue;
+					}
+					var result = matching(documents.get(i), documents.get(j));
+					var expected = new EagerEvaluation(combinator).combineMatchingDocuments(result, evaluationCtx)
+							.collectList().block();
+					var actual = combinator.combineMatchingDocuments(result, evaluationCtx).collectList().block();
+					assertThat(actual).as("%s with %s and %s", combinator.getClass().getSimpleName(), documents.get(i),
+							documents.get(j)).isEqualTo(expected);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void policySetsShortCircuit() {
+		var policySet = "set \"tests\" permit-overrides policy \"permit\" permit policy \"slow deny\" deny where <test.slow>;";
+
+		StepVerifier.create(INTERPRETER.evaluate(EMPTY_AUTH_SUBSCRIPTION, policySet, evaluationCtx))
+				.expectNextMatches(decision -> decision.getDecision() == Decision.PERMIT).verifyComplete();
+		assertThat(subscriptionsToSlowAttribute.get()).isZero();
+	}
+
+	private static PolicyRetrievalResult matching(String... documents) {
+		var result = new PolicyRetrievalResult();
+		for (var document : documents) {
+			SAPL saplDocument = INTERPRETER.parse(document);
+			result = result.withMatch(saplDocument);
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates all documents like the eager combinators did.
+	 */
+	private static class EagerEvaluation extends AbstractEagerCombinator {
+
+		private final AbstractEagerCombinator combinator;
+
+		EagerEvaluation(AbstractEagerCombinator combinator) {
+			this.combinator = combinator;
+		}
+
+		@Override
+		protected AuthorizationDecision combineDecisions(AuthorizationDecision[] decisions, boolean errorsInTarget) {
+			return combinator.combineDecisions(decisions, errorsInTarget);
+		}
+
+	}
+
+	@PolicyInformationPoint(name = "test")
+	public class TestPIP {
+
+		@Attribute
+		public Flux<Val> slow(Val value, Map<String, JsonNode> variables) {
+			subscriptionsToSlowAttribute.incrementAndGet();
+			return Flux.never();
+		}
+
+		@Attribute
+		public Flux<Val> counted(Val value, Map<String, JsonNode> variables) {
+			subscriptionsToCountedAttribute.incrementAndGet();
+			return Flux.just(Val.TRUE).concatWith(Flux.never());
+		}
+
+		@Attribute
+		public Flux<Val> changing(Val value, Map<String, JsonNode> variables) {
+			return Flux.just(Val.FALSE, Val.error("changed"), Val.FALSE).concatWith(Flux.never());
+		}
+
+		@Attribute
+		public Flux<Val> toggling(Val value, Map<String, JsonNode> variables) {
+			return Flux.just(Val.FALSE, Val.TRUE, Val.FALSE).concatWith(Flux.never());
+		}
+
+		@Attribute
+		public Flux<Val> fast(Val value, Map<String, JsonNode> variables) {
+			return Flux.just(Val.TRUE);
+		}
+
+	}
+
+}
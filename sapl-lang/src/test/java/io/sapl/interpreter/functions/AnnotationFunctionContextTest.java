@@ -15,9 +15,14 @@
  */
 package io.sapl.interpreter.functions;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import org.junit.Test;
 
+import io.sapl.api.functions.Function;
+import io.sapl.api.functions.FunctionLibrary;
 import io.sapl.api.interpreter.InitializationException;
+import io.sapl.api.interpreter.Val;
 
 public class AnnotationFunctionContextTest {
 
@@ -27,4 +32,62 @@ public void testAutoconfigure() throws InitializationException {
 		context.evaluate(MockLibrary.NAME + ".helloTest");
 	}
 
+	@Test
+	public void boundFunctionIsApplicableRepeatedly() throws InitializationException {
+		var context = new AnnotationFunctionContext(new MockLibrary());
+		var function = context.lookupFunction(MockLibrary.NAME + ".helloTest");
+		assertThat(function.apply()).isEqualTo(Val.of("HELLO TEST"));
+		assertThat(function.apply()).isEqualTo(Val.of("HELLO TEST"));
+	}
+
+	@Test
+	public void varArgsFunctionIsAppliedToAllParameters() throws InitializationException {
+		var context = new AnnotationFunctionContext(new MockLibrary());
+		assertThat(context.evaluate(MockLibrary.NAME + ".concat", Val.of("a"), Val.of("b"), Val.of("c")))
+				.isEqualTo(Val.of("abc"));
+		assertThat(context.evaluate(MockLibrary.NAME + ".concat")).isEqualTo(Val.of(""));
+	}
+
+	@Test
+	public void varArgsParametersAreValidated() throws InitializationException {
+		var context = new AnnotationFunctionContext(new MockLibrary());
+		assertThat(context.evaluate(MockLibrary.NAME + ".concat", Val.of("a"), Val.of(1)).isError()).isTrue();
+	}
+
+	@Test
+	public void illegalNumberOfParametersIsAnError() throws InitializationException {
+		var context = new AnnotationFunctionContext(new MockLibrary());
+		assertThat(context.evaluate(MockLibrary.NAME + ".helloTest", Val.of(1)).isError()).isTrue();
+	}
+
+	@Test
+	public void exceptionOfFunctionIsAnError() throws InitializationException {
+		var context = new AnnotationFunctionContext(new MockLibrary());
+		var result = context.evaluate(MockLibrary.NAME + ".fail", Val.of(1));
+		assertThat(result.isError()).isTrue();
+		assertThat(result.getMessage()).contains("failed on purpose");
+	}
+
+	@Test(expected = AssertionError.class)
+	public void errorOfFunctionIsRethrown() throws InitializationException {
+		var context = new AnnotationFunctionContext(new ErrorLibrary());
+		context.evaluate("error.raise");
+	}
+
+	@Test
+	public void unknownFunctionIsAnError() {
+		var context = new AnnotationFunctionContext();
+		assertThat(context.lookupFunction("unknown.function").apply().isError()).isTrue();
+	}
+
+	@FunctionLibrary(name = "error")
+	public static class ErrorLibrary {
+
+		@Function
+		public Val raise() {
+			throw new AssertionError("raised on purpose");
+		}
+
+	}
+
 }
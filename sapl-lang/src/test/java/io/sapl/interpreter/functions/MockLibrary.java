@@ -18,6 +18,7 @@
 import io.sapl.api.functions.Function;
 import io.sapl.api.functions.FunctionLibrary;
 import io.sapl.api.interpreter.Val;
+import io.sapl.api.validation.Text;
 
 @FunctionLibrary(name = MockLibrary.NAME, description = "docs of my lib")
 public class MockLibrary {
@@ -30,4 +31,17 @@ public static Val helloTest() {
 		return Val.of("HELLO TEST");
 	}
 
+	@Function(docs = "concatenates texts")
+	public Val concat(@Text Val... texts) {
+		var builder = new StringBuilder();
+		for (var text : texts)
+			builder.append(text.getText());
+		return Val.of(builder.toString());
+	}
+
+	@Function(docs = "always fails")
+	public Val fail(Val value) {
+		throw new IllegalStateException("failed on purpose");
+	}
+
 }
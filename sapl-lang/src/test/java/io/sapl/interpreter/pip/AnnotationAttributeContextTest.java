@@ -15,12 +15,43 @@
  */
 package io.sapl.interpreter.pip;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
 import io.sapl.api.interpreter.InitializationException;
+import io.sapl.api.interpreter.Val;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pip.Attribute;
+import io.sapl.api.pip.PolicyInformationPoint;
+import io.sapl.grammar.sapl.Arguments;
+import io.sapl.grammar.sapl.SaplFactory;
+import io.sapl.grammar.sapl.impl.util.ParserUtil;
+import io.sapl.grammar.sapl.impl.util.TestUtil;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
 public class AnnotationAttributeContextTest {
 
+	private static final String COUNTING_ATTRIBUTE = "counting.stream";
+	private static final String COUNTING_ATTRIBUTE_WITH_ARGUMENT = "counting.streamWithArgument";
+	private static final String ECHO_ATTRIBUTE = "counting.echo";
+
 	@Test
 	public void registerFinder() throws InitializationException {
 		TestPIP pip = new TestPIP();
@@ -28,4 +59,184 @@ public void registerFinder() throws InitializationException {
 		attributeCtx.loadPolicyInformationPoint(pip);
 	}
 
+	@Test
+	public void identicalSubscriptionsShareOneUpstream() throws InitializationException {
+		var pip = new CountingPIP();
+		var attributeCtx = new AnnotationAttributeContext(pip);
+		var ctx = evaluationContext(attributeCtx);
+
+		var first = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).subscribe();
+		var second = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).subscribe();
+
+		assertThat(pip.invocations.get(), is(1));
+		assertThat(attributeCtx.numberOfActiveAttributeStreams(), is(1));
+		first.dispose();
+		second.dispose();
+	}
+
+	@Test
+	public void distinctValuesAndArgumentsUseDistinctUpstreams() throws InitializationException {
+		var pip = new CountingPIP();
+		var attributeCtx = new AnnotationAttributeContext(pip);
+		var ctx = evaluationContext(attributeCtx);
+
+		var first = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).subscribe();
+		var second = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("b"), ctx, null).subscribe();
+		var third = attributeCtx.evaluate(COUNTING_ATTRIBUTE_WITH_ARGUMENT, Val.of("a"), ctx, arguments("1")).subscribe();
+		var fourth = attributeCtx.evaluate(COUNTING_ATTRIBUTE_WITH_ARGUMENT, Val.of("a"), ctx, arguments("2")).subscribe();
+
+		assertThat(pip.invocations.get(), is(4));
+		assertThat(attributeCtx.numberOfActiveAttributeStreams(), is(4));
+		first.dispose();
+		second.dispose();
+		third.dispose();
+		fourth.dispose();
+	}
+
+	@Test
+	public void distinctVariablesUseDistinctUpstreams() throws InitializationException {
+		var pip = new CountingPIP();
+		var attributeCtx = new AnnotationAttributeContext(pip);
+		var ctx = evaluationContext(attributeCtx);
+		var otherCtx = new EvaluationContext(attributeCtx, new AnnotationFunctionContext(),
+				Map.of("subject", JsonNodeFactory.instance.textNode("other")));
+
+		var first = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).subscribe();
+		var second = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), otherCtx, null).subscribe();
+
+		assertThat(pip.invocations.get(), is(2));
+		assertThat(attributeCtx.numberOfActiveAttributeStreams(), is(2));
+		first.dispose();
+		second.dispose();
+	}
+
+	@Test
+	public void subscriptionVariablesAreNotPartOfTheKey() throws InitializationException {
+		var pip = new CountingPIP();
+		var attributeCtx = new AnnotationAttributeContext(pip);
+		var ctx = evaluationContext(attributeCtx);
+		var aliceCtx = ctx.forAuthorizationSubscription(new AuthorizationSubscription(
+				JsonNodeFactory.instance.textNode("alice"), null, null, null));
+		var bobCtx = ctx.forAuthorizationSubscription(new AuthorizationSubscription(
+				JsonNodeFactory.instance.textNode("bob"), null, null, null));
+
+		var first = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), aliceCtx, null).subscribe();
+		var second = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), bobCtx, null).subscribe();
+
+		assertThat(pip.invocations.get(), is(1));
+		assertThat(pip.lastVariables.containsKey("subject"), is(false));
+		first.dispose();
+		second.dispose();
+	}
+
+	@Test
+	public void streamingArgumentsAreHandedOverUnshared() throws InitializationException, IOException {
+		var pip = new CountingPIP();
+		var attributeCtx = new AnnotationAttributeContext(pip);
+		var ctx = evaluationContext(attributeCtx);
+		var arguments = SaplFactory.eINSTANCE.createArguments();
+		arguments.getArgs().add(ParserUtil.expression("\"a\".<counting.stream>"));
+
+		var echoed = new ArrayList<Val>();
+		var first = attributeCtx.evaluate(ECHO_ATTRIBUTE, Val.of("a"), ctx, arguments).subscribe(echoed::add);
+		var second = attributeCtx.evaluate(ECHO_ATTRIBUTE, Val.of("a"), ctx, arguments).subscribe();
+		pip.upstream.onNext(Val.of(1));
+		pip.upstream.onNext(Val.of(2));
+
+		assertThat(pip.echoInvocations.get(), is(2));
+		assertThat(echoed, is(List.of(Val.of(1), Val.of(2))));
+		first.dispose();
+		second.dispose();
+	}
+
+	@Test
+	public void lateSubscriberReceivesLatestValue() throws InitializationException {
+		var pip = new CountingPIP();
+		var attributeCtx = new AnnotationAttributeContext(pip);
+		var ctx = evaluationContext(attributeCtx);
+
+		var first = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).subscribe();
+		pip.upstream.onNext(Val.of(1));
+		pip.upstream.onNext(Val.of(2));
+
+		StepVerifier.create(attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).take(1))
+				.expectNext(Val.of(2)).verifyComplete();
+		assertThat(pip.invocations.get(), is(1));
+		first.dispose();
+	}
+
+	@Test
+	public void upstreamIsClosedWhenLastSubscriberLeaves() throws InitializationException {
+		var pip = new CountingPIP();
+		var attributeCtx = new AnnotationAttributeContext(pip);
+		var ctx = evaluationContext(attributeCtx);
+
+		var first = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).subscribe();
+		first.dispose();
+
+		assertThat(attributeCtx.numberOfActiveAttributeStreams(), is(0));
+		var second = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).subscribe();
+		assertThat(pip.invocations.get(), is(2));
+		second.dispose();
+	}
+
+	@Test
+	public void upstreamIsKeptDuringGracePeriod() throws InitializationException {
+		var pip = new CountingPIP();
+		var attributeCtx = new AnnotationAttributeContext(Duration.ofMinutes(1L), pip);
+		var ctx = evaluationContext(attributeCtx);
+
+		var first = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).subscribe();
+		first.dispose();
+
+		assertThat(attributeCtx.numberOfActiveAttributeStreams(), is(1));
+		var second = attributeCtx.evaluate(COUNTING_ATTRIBUTE, Val.of("a"), ctx, null).subscribe();
+		assertThat(pip.invocations.get(), is(1));
+		second.dispose();
+	}
+
+	private static EvaluationContext evaluationContext(AttributeContext attributeCtx) {
+		return new EvaluationContext(attributeCtx, new AnnotationFunctionContext(), new HashMap<>());
+	}
+
+	private static Arguments arguments(String value) {
+		var arguments = SaplFactory.eINSTANCE.createArguments();
+		var stringLiteral = SaplFactory.eINSTANCE.createStringLiteral();
+		stringLiteral.setString(value);
+		arguments.getArgs().add(TestUtil.basicValueFrom(stringLiteral));
+		return arguments;
+	}
+
+	@PolicyInformationPoint(name = "counting")
+	public static class CountingPIP {
+
+		final AtomicInteger invocations = new AtomicInteger();
+
+		final AtomicInteger echoInvocations = new AtomicInteger();
+
+		final DirectProcessor<Val> upstream = DirectProcessor.create();
+
+		Map<String, JsonNode> lastVariables;
+
+		@Attribute
+		public Flux<Val> stream(Val value, Map<String, JsonNode> variables) {
+			invocations.incrementAndGet();
+			lastVariables = variables;
+			return upstream;
+		}
+
+		@Attribute
+		public Flux<Val> streamWithArgument(Val value, Map<String, JsonNode> variables, Flux<Val> argument) {
+			invocations.incrementAndGet();
+			return upstream;
+		}
+
+		@Attribute
+		public Flux<Val> echo(Val value, Map<String, JsonNode> variables, Flux<Val> argument) {
+			echoInvocations.incrementAndGet();
+			return argument;
+		}
+
+	}
+
 }
@@ -18,6 +18,7 @@
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -30,6 +31,7 @@
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import io.sapl.api.interpreter.PolicyEvaluationException;
 import io.sapl.api.interpreter.Val;
 import io.sapl.api.pdp.AuthorizationSubscription;
 
@@ -106,4 +108,37 @@ public void failGetUndefined() {
 		assertThat("returns undefined", ctx.get(VAR_ID), is(Val.UNDEFINED));
 	}
 
+	@Test
+	public void derivedContextDoesNotAffectParent() {
+		VariableContext parent = new VariableContext(EMPTY_MAP).forAuthorizationSubscription(AUTH_SUBSCRIPTION);
+		VariableContext child = parent.withEnvironmentVariable(VAR_ID, VAR_NODE.get());
+		assertFalse("parent must not see variables of derived context", parent.exists(VAR_ID));
+		assertTrue("derived context sees variables of parent", child.exists("subject"));
+		assertEquals("derived context sees own variables", child.get(VAR_ID), VAR_NODE);
+	}
+
+	@Test
+	public void getVariablesContainsAllScopes() {
+		Map<String, JsonNode> environmentVariables = new HashMap<>();
+		environmentVariables.put("pdpVar", VAR_NODE.get());
+		VariableContext ctx = new VariableContext(environmentVariables).forAuthorizationSubscription(AUTH_SUBSCRIPTION)
+				.withEnvironmentVariable(VAR_ID, VAR_NODE.get()).withEnvironmentVariable(VAR_ID, VAR_NODE_NEW.get());
+		Map<String, JsonNode> variables = ctx.getVariables();
+		assertEquals("all variables are visible", 6, variables.size());
+		assertEquals("innermost definition wins", VAR_NODE_NEW.get(), variables.get(VAR_ID));
+		assertEquals("pdp variables are visible", VAR_NODE.get(), variables.get("pdpVar"));
+	}
+
+	@Test
+	public void subscriptionValuesAreNotCopied() {
+		VariableContext ctx = new VariableContext(EMPTY_MAP).forAuthorizationSubscription(AUTH_SUBSCRIPTION);
+		assertThat("values are shared", ctx.get("subject").get(), sameInstance(SUBJECT_NODE.get()));
+	}
+
+	@Test(expected = PolicyEvaluationException.class)
+	public void failOverwritingSubscriptionVariable() {
+		new VariableContext(EMPTY_MAP).forAuthorizationSubscription(AUTH_SUBSCRIPTION)
+				.withEnvironmentVariable("subject", VAR_NODE.get());
+	}
+
 }
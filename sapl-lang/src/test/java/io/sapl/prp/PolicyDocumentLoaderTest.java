@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.prp.PolicyDocumentLoader.DocumentSource;
+import io.sapl.prp.PolicyDocumentLoader.LoadedDocument;
+import reactor.core.publisher.Flux;
+
+public class PolicyDocumentLoaderTest {
+
+	private final PolicyDocumentLoader loader = new PolicyDocumentLoader(new DefaultSAPLInterpreter(), 4, 10);
+
+	@Test
+	public void allDocumentsAreLoaded() {
+		var loadedDocuments = loader.load(Flux.fromIterable(sources(50))).collectList().block();
+
+		assertThat(loadedDocuments).hasSize(50);
+		assertThat(loadedDocuments).allMatch(document -> document.getDocument().isPresent());
+		assertThat(loadedDocuments.stream().map(document -> document.getDocument().get().getPolicyElement().getSaplName())
+				.collect(Collectors.toSet())).hasSize(50);
+	}
+
+	@Test
+	public void documentsAreEmittedInBatches() {
+		var batches = loader.loadInBatches(Flux.fromIterable(sources(25))).collectList().block();
+
+		assertThat(batches).extracting(List::size).containsExactly(10, 10, 5);
+	}
+
+	@Test
+	public void failuresAreReportedPerDocument() {
+		var sources = new ArrayList<>(sources(3));
+		sources.add(new DocumentSource("invalid", () -> "policy \"invalid\" perm"));
+		sources.add(new DocumentSource("unreadable", () -> {
+			throw new IOException("unreadable");
+		}));
+
+		var loadedDocuments = loader.load(Flux.fromIterable(sources)).collectList().block();
+
+		assertThat(loadedDocuments).hasSize(5);
+		assertThat(loadedDocuments).filteredOn(document -> document.getFailure() != null)
+				.extracting(LoadedDocument::getName).containsExactlyInAnyOrder("invalid", "unreadable");
+		assertThat(loadedDocuments).filteredOn(document -> document.getFailure() != null)
+				.allMatch(document -> document.getDocument().isEmpty());
+	}
+
+	private static List<DocumentSource> sources(int numberOfDocuments) {
+		var sources = new ArrayList<DocumentSource>(numberOfDocuments);
+		for (int i = 0; i < numberOfDocuments; i++) {
+			var document = "policy \"policy_" + i + "\" permit resource.value == " + i;
+			sources.add(new DocumentSource("policy_" + i, () -> document));
+		}
+		return sources;
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import io.sapl.api.interpreter.SAPLInterpreter;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.prp.PolicyRetrievalResult;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class TargetMatchingUtilTest {
+
+	private static final SAPLInterpreter INTERPRETER = new DefaultSAPLInterpreter();
+
+	private EvaluationContext ctx;
+
+	@Before
+	public void setUp() {
+		var resource = JsonNodeFactory.instance.objectNode().put("value", 7);
+		ctx = new EvaluationContext(new AnnotationAttributeContext(), new AnnotationFunctionContext(), new HashMap<>())
+				.forAuthorizationSubscription(new AuthorizationSubscription(NullNode.getInstance(),
+						NullNode.getInstance(), resource, NullNode.getInstance()));
+	}
+
+	@Test
+	public void matchingDocumentsAreCollectedInOrder() {
+		var documents = documents(3000);
+
+		StepVerifier.create(TargetMatchingUtil.matchAll(documents, document -> document.matches(ctx)))
+				.assertNext(result -> {
+					assertThat(result.isErrorsInTarget()).isFalse();
+					assertThat(result.isPrpValidState()).isTrue();
+					assertThat(names(result)).hasSize(30).startsWith("policy_7", "policy_107", "policy_207")
+							.endsWith("policy_2907");
+				}).verifyComplete();
+	}
+
+	@Test
+	public void errorInTargetIsReported() {
+		var documents = documents(10);
+		documents.add(INTERPRETER.parse("policy \"error\" permit resource.value / 0 == 1"));
+
+		StepVerifier.create(TargetMatchingUtil.matchAll(documents, document -> document.matches(ctx)))
+				.assertNext(result -> {
+					assertThat(result.isErrorsInTarget()).isTrue();
+					assertThat(names(result)).containsExactly("policy_7");
+				}).verifyComplete();
+	}
+
+	@Test
+	public void asynchronousMatchesAreAccumulatedReactively() {
+		var documents = documents(300);
+
+		var retrieval = TargetMatchingUtil.matchAll(documents,
+				document -> document.matches(ctx).delayElement(Duration.ofMillis(1)));
+
+		StepVerifier.create(retrieval).assertNext(
+				result -> assertThat(names(result)).containsExactly("policy_7", "policy_107", "policy_207"))
+				.verifyComplete();
+		// the result is accumulated anew for each subscription
+		StepVerifier.create(retrieval).assertNext(result -> assertThat(result.getMatchingDocuments()).hasSize(3))
+				.verifyComplete();
+	}
+
+	@Test
+	public void eachTargetIsSubscribedToOnce() {
+		var documents = documents(300);
+		var subscriptions = new AtomicInteger();
+
+		var retrieval = TargetMatchingUtil.matchAll(documents, document -> document.matches(ctx)
+				.delayElement(Duration.ofMillis(1)).doOnSubscribe(subscription -> subscriptions.incrementAndGet()));
+
+		StepVerifier.create(retrieval).assertNext(result -> assertThat(result.getMatchingDocuments()).hasSize(3))
+				.verifyComplete();
+		assertThat(subscriptions).hasValue(300);
+	}
+
+	@Test
+	public void builderAccumulatesResult() {
+		var document = INTERPRETER.parse("policy \"p\" permit");
+
+		var result = PolicyRetrievalResult.builder().withMatch(document).withError().withInvalidState().build();
+
+		assertThat(names(result)).containsExactly("p");
+		assertThat(result.isErrorsInTarget()).isTrue();
+		assertThat(result.isPrpValidState()).isFalse();
+		assertThat(result).isEqualTo(new PolicyRetrievalResult().withMatch(document).withError());
+	}
+
+	@Test
+	public void emptyDocumentsYieldEmptyResult() {
+		StepVerifier.create(TargetMatchingUtil.matchAll(List.<SAPL>of(), document -> Mono.error(new AssertionError())))
+				.assertNext(result -> assertThat(result.getMatchingDocuments()).isEmpty()).verifyComplete();
+	}
+
+	private static List<SAPL> documents(int numberOfDocuments) {
+		var documents = new ArrayList<SAPL>(numberOfDocuments);
+		for (int i = 0; i < numberOfDocuments; i++) {
+			documents.add(INTERPRETER.parse("policy \"policy_" + i + "\" permit resource.value == " + i % 100));
+		}
+		return documents;
+	}
+
+	private static List<String> names(PolicyRetrievalResult result) {
+		var names = new ArrayList<String>();
+		result.getMatchingDocuments().forEach(document -> names.add(((SAPL) document).getPolicyElement().getSaplName()));
+		return names;
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BitmaskTest {
+
+	@Test
+	public void rangesAcrossWordBoundaries() {
+		var mask = new Bitmask();
+		mask.set(60, 130);
+
+		assertThat(mask.numberOfBitsSet()).isEqualTo(70);
+		assertThat(mask.isSet(59)).isFalse();
+		assertThat(mask.isSet(60)).isTrue();
+		assertThat(mask.isSet(129)).isTrue();
+		assertThat(mask.isSet(130)).isFalse();
+
+		mask.flip(0, 64);
+		assertThat(mask.numberOfBitsSet()).isEqualTo(60 + 66);
+		assertThat(mask.isSet(0)).isTrue();
+		assertThat(mask.isSet(63)).isFalse();
+		assertThat(mask.isSet(64)).isTrue();
+	}
+
+	@Test
+	public void operationsBehaveLikeBitSet() {
+		var random = new Random(4711L);
+		for (int run = 0; run < 100; run++) {
+			var expected1 = randomBitSet(random);
+			var expected2 = randomBitSet(random);
+			var mask1 = toBitmask(expected1);
+			var mask2 = toBitmask(expected2);
+
+			assertThat(mask1.intersects(mask2)).isEqualTo(expected1.intersects(expected2));
+
+			var intersection = new Bitmask(3);
+			intersection.setToIntersection(mask1, mask2);
+			var expectedIntersection = (BitSet) expected1.clone();
+			expectedIntersection.and(expected2);
+			assertSameBits(intersection, expectedIntersection);
+
+			var iteratedIntersection = new ArrayList<Integer>();
+			mask1.forEachSetBitIn(mask2, iteratedIntersection::add);
+			assertThat(iteratedIntersection).isEqualTo(setBits(expectedIntersection));
+
+			var union = new Bitmask(mask1);
+			union.or(mask2);
+			var expectedUnion = (BitSet) expected1.clone();
+			expectedUnion.or(expected2);
+			assertSameBits(union, expectedUnion);
+
+			var difference = new Bitmask(mask1);
+			difference.andNot(mask2);
+			var expectedDifference = (BitSet) expected1.clone();
+			expectedDifference.andNot(expected2);
+			assertSameBits(difference, expectedDifference);
+
+			mask1.and(mask2);
+			assertSameBits(mask1, expectedIntersection);
+		}
+	}
+
+	@Test
+	public void copyIsIndependentOfOriginal() {
+		var original = new Bitmask();
+		original.set(3);
+		var copy = new Bitmask(original);
+		copy.set(200);
+		copy.clear(3);
+
+		assertThat(original.isSet(3)).isTrue();
+		assertThat(original.isSet(200)).isFalse();
+		assertThat(copy.toString()).isEqualTo("{200}");
+	}
+
+	private static BitSet randomBitSet(Random random) {
+		var bitSet = new BitSet();
+		int numberOfBits = random.nextInt(300);
+		for (int i = 0; i < numberOfBits; i++) {
+			if (random.nextInt(4) == 0) {
+				bitSet.set(i);
+			}
+		}
+		return bitSet;
+	}
+
+	private static Bitmask toBitmask(BitSet bitSet) {
+		var mask = new Bitmask();
+		bitSet.stream().forEach(mask::set);
+		return mask;
+	}
+
+	private static List<Integer> setBits(BitSet bitSet) {
+		var setBits = new ArrayList<Integer>();
+		bitSet.stream().forEach(setBits::add);
+		return setBits;
+	}
+
+	private static void assertSameBits(Bitmask actual, BitSet expected) {
+		var actualBits = new ArrayList<Integer>();
+		actual.forEachSetBit(actualBits::add);
+		assertThat(actualBits).isEqualTo(setBits(expected));
+		assertThat(actual.numberOfBitsSet()).isEqualTo(expected.cardinality());
+	}
+
+}
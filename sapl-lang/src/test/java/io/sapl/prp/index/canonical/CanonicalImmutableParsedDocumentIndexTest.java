@@ -20,11 +20,16 @@
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -50,6 +55,7 @@
 import io.sapl.prp.PrpUpdateEvent.Update;
 import io.sapl.prp.index.ImmutableParsedDocumentIndex;
 import io.sapl.prp.index.canonical.ordering.NoPredicateOrderStrategy;
+import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
 
 public class CanonicalImmutableParsedDocumentIndexTest {
 
@@ -166,6 +172,49 @@ public void test_orphaned() {
         assertTrue(result.getMatchingDocuments().contains(doc2));
     }
 
+    @Test
+    public void test_reorder_predicates_off_the_matching_thread() throws Exception {
+        // given
+        var reorderingThread = new CompletableFuture<String>();
+        var reorderRequested = new AtomicBoolean();
+        PredicateOrderStrategy reorderingStrategy = new PredicateOrderStrategy() {
+            @Override
+            public List<Predicate> createPredicateOrder(Collection<PredicateInfo> data) {
+                if (reorderRequested.get()) {
+                    reorderingThread.complete(Thread.currentThread().getName());
+                }
+                return data.stream().map(PredicateInfo::getPredicate).collect(Collectors.toList());
+            }
+
+            @Override
+            public boolean shouldReorder() {
+                return reorderRequested.compareAndSet(false, true);
+            }
+        };
+        EvaluationContext evaluationContext = new EvaluationContext(
+                new AnnotationAttributeContext(), new AnnotationFunctionContext(), new HashMap<>());
+        List<Update> updates = new ArrayList<>(1);
+        String definition = "policy \"p_0\" permit resource.x0";
+        SAPL document = interpreter.parse(definition);
+        updates.add(new Update(Type.PUBLISH, document, definition));
+        ImmutableParsedDocumentIndex updatedIndex = new CanonicalImmutableParsedDocumentIndex(reorderingStrategy,
+                evaluationContext).apply(new PrpUpdateEvent(updates));
+
+        bindings.put("x0", true);
+        var subscriptionScopedEvaluationCtx = new EvaluationContext(new AnnotationAttributeContext(),
+                new AnnotationFunctionContext(), variables).forAuthorizationSubscription(createRequestObject());
+
+        // when
+        PolicyRetrievalResult result = updatedIndex.retrievePolicies(subscriptionScopedEvaluationCtx).block();
+
+        // then
+        assertThat(result.getMatchingDocuments()).hasSize(1);
+        assertTrue(result.getMatchingDocuments().contains(document));
+        assertThat(reorderingThread.get(1, TimeUnit.SECONDS)).isNotEqualTo(Thread.currentThread().getName());
+        assertTrue(updatedIndex.retrievePolicies(subscriptionScopedEvaluationCtx).block().getMatchingDocuments()
+                .contains(document));
+    }
+
     @Test
     public void testPutSimple() {
         // given
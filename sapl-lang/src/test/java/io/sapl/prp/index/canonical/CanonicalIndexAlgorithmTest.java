@@ -16,22 +16,29 @@
 package io.sapl.prp.index.canonical;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
-import static org.assertj.core.api.Assertions.assertThatNullPointerException;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import io.sapl.api.interpreter.Val;
+import io.sapl.api.prp.PolicyRetrievalResult;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
 import io.sapl.interpreter.EvaluationContext;
 import io.sapl.interpreter.functions.AnnotationFunctionContext;
 import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import reactor.core.publisher.Mono;
 
 public class CanonicalIndexAlgorithmTest {
 
@@ -44,26 +51,6 @@ public void setUp() {
 
 	}
 
-	@Test
-	public void test_or_bitmask() {
-		var b1 = new Bitmask();
-		var b2 = new Bitmask();
-
-		b1.set(0, 3);
-		b2.set(2, 6);
-
-		var b3 = CanonicalIndexAlgorithm.orBitMask(b1, b2);
-
-		assertThat(b3).isNotNull();
-		assertThat(b3.isSet(0)).isTrue();
-		assertThat(b3.isSet(2)).isTrue();
-		assertThat(b3.isSet(4)).isTrue();
-
-		assertThatNullPointerException().isThrownBy(() -> CanonicalIndexAlgorithm.orBitMask(null, b2));
-		assertThatNullPointerException().isThrownBy(() -> CanonicalIndexAlgorithm.orBitMask(b1, null));
-		assertThatNullPointerException().isThrownBy(() -> CanonicalIndexAlgorithm.orBitMask(null, null));
-	}
-
 	@Test
 	public void test_find_unsatisfiable_candidates() {
 		var predicate = new Predicate(new Bool(true));
@@ -164,44 +151,6 @@ public void test_remove_candidates_related_to_predicate() {
 		assertThat(remainingCandidates.isSet(3)).isFalse();
 	}
 
-	@Test
-	public void test_fetch_formulas() {
-		var satisfiableCandidates = new Bitmask();
-		List<Set<DisjunctiveFormula>> relatedFormulas = new ArrayList<>();
-		var dataContainer = createEmptyContainer();
-
-		assertThat(CanonicalIndexAlgorithm.fetchFormulas(satisfiableCandidates, dataContainer)).isEmpty();
-
-		satisfiableCandidates.set(1);
-		satisfiableCandidates.set(2);
-		assertThatExceptionOfType(IndexOutOfBoundsException.class)
-				.isThrownBy(() -> CanonicalIndexAlgorithm.fetchFormulas(satisfiableCandidates, createEmptyContainer()));
-
-		Set<DisjunctiveFormula> set0 = new HashSet<>();
-
-		Set<DisjunctiveFormula> set1 = new HashSet<>();
-		set1.add(new DisjunctiveFormula(createDummyClauseList(1)));
-		set1.add(new DisjunctiveFormula(createDummyClauseList(2)));
-
-		Set<DisjunctiveFormula> set2 = new HashSet<>();
-		set2.add(new DisjunctiveFormula(createDummyClauseList(3)));
-		set2.add(new DisjunctiveFormula(createDummyClauseList(4)));
-		set2.add(new DisjunctiveFormula(createDummyClauseList(5)));
-
-		relatedFormulas.add(0, set0);
-		relatedFormulas.add(1, set1);
-		relatedFormulas.add(2, set2);
-
-		dataContainer = createEmptyContainerWithRelatedFormulas(relatedFormulas);
-
-		Set<DisjunctiveFormula> formulas = CanonicalIndexAlgorithm.fetchFormulas(satisfiableCandidates, dataContainer);
-		assertThat(formulas).isNotEmpty();
-		assertThat(formulas.size()).isEqualTo(5);
-
-		Bitmask satisfiableCandidates2 = new Bitmask();
-		assertThat(CanonicalIndexAlgorithm.fetchFormulas(satisfiableCandidates2, dataContainer)).isEmpty();
-	}
-
 	@Test
 	public void test_find_satisfiable_candidates() {
 		var candidates = new Bitmask();
@@ -251,6 +200,94 @@ public void test_find_orphaned_candidates() {
 				.numberOfBitsSet()).isEqualTo(0);
 	}
 
+	@Test
+	public void test_match_synchronously() {
+		var document = new DefaultSAPLInterpreter().parse("policy \"p\" permit true");
+		var predicate = new Predicate(new Bool(true));
+
+		PolicyRetrievalResult result = CanonicalIndexAlgorithm
+				.match(subscriptionScopedEvaluationContext, createSingleLiteralContainer(predicate, document)).block();
+
+		assertThat(result).isNotNull();
+		assertThat(result.isErrorsInTarget()).isFalse();
+		assertThat(result.getMatchingDocuments()).hasSize(1).allMatch(document::equals);
+
+		// a second match reuses the pooled matching context
+		result = CanonicalIndexAlgorithm
+				.match(subscriptionScopedEvaluationContext, createSingleLiteralContainer(predicate, document)).block();
+		assertThat(result).isNotNull();
+		assertThat(result.getMatchingDocuments()).hasSize(1).allMatch(document::equals);
+	}
+
+	@Test
+	public void test_match_falls_back_to_reactive_evaluation() {
+		var document = new DefaultSAPLInterpreter().parse("policy \"p\" permit true");
+		var predicate = spy(new Predicate(new Bool(true)));
+		doReturn(Optional.empty()).when(predicate).evaluateSynchronously(subscriptionScopedEvaluationContext);
+		doReturn(Mono.just(Val.TRUE)).when(predicate).evaluate(subscriptionScopedEvaluationContext);
+
+		PolicyRetrievalResult result = CanonicalIndexAlgorithm
+				.match(subscriptionScopedEvaluationContext, createSingleLiteralContainer(predicate, document)).block();
+
+		assertThat(result).isNotNull();
+		assertThat(result.isErrorsInTarget()).isFalse();
+		assertThat(result.getMatchingDocuments()).hasSize(1).allMatch(document::equals);
+		verify(predicate).evaluate(subscriptionScopedEvaluationContext);
+	}
+
+	@Test
+	public void test_match_with_error_in_predicate() {
+		var document = new DefaultSAPLInterpreter().parse("policy \"p\" permit true");
+		var predicate = spy(new Predicate(new Bool(true)));
+		doReturn(Optional.of(Val.error("error"))).when(predicate)
+				.evaluateSynchronously(subscriptionScopedEvaluationContext);
+
+		PolicyRetrievalResult result = CanonicalIndexAlgorithm
+				.match(subscriptionScopedEvaluationContext, createSingleLiteralContainer(predicate, document)).block();
+
+		assertThat(result).isNotNull();
+		assertThat(result.isErrorsInTarget()).isTrue();
+		assertThat(result.getMatchingDocuments()).isEmpty();
+	}
+
+	@Test
+	public void test_collect_documents_of_satisfied_conjunctions_once() {
+		var interpreter = new DefaultSAPLInterpreter();
+		var document1 = interpreter.parse("policy \"p1\" permit true");
+		var document2 = interpreter.parse("policy \"p2\" permit true");
+		var document3 = interpreter.parse("policy \"p3\" permit true");
+		var formula1 = new DisjunctiveFormula(createDummyClauseList(1));
+		var formula2 = new DisjunctiveFormula(createDummyClauseList(2));
+		var formula3 = new DisjunctiveFormula(createDummyClauseList(3));
+		Map<DisjunctiveFormula, Set<SAPL>> formulaToDocuments = Map.of(formula1, Set.of(document1, document2),
+				formula2, Set.of(document2), formula3, Set.of(document3));
+		List<Set<DisjunctiveFormula>> relatedFormulas = List.of(Set.of(formula1, formula2), Set.of(formula2),
+				Set.of(formula3));
+		var conjunctionDocuments = new ConjunctionDocuments(formulaToDocuments, relatedFormulas);
+
+		var satisfiedConjunctions = new Bitmask();
+		satisfiedConjunctions.set(0);
+		satisfiedConjunctions.set(1);
+		List<SAPL> documents = new ArrayList<>();
+		conjunctionDocuments.collectDocuments(satisfiedConjunctions, new Bitmask(), documents);
+
+		assertThat(conjunctionDocuments.getNumberOfDocuments()).isEqualTo(3);
+		assertThat(documents).containsExactlyInAnyOrder(document1, document2);
+	}
+
+	private CanonicalIndexDataContainer createSingleLiteralContainer(Predicate predicate, SAPL document) {
+		var clause = new ConjunctiveClause(new Literal(predicate.getBool()));
+		var formula = new DisjunctiveFormula(clause);
+		predicate.getConjunctions().set(0);
+		predicate.getFalseForFalsePredicate().set(0);
+		var relatedCandidates = new Bitmask();
+		relatedCandidates.set(0);
+
+		return new CanonicalIndexDataContainer(Map.of(formula, Set.of(document)), Map.of(clause, Set.of(formula)),
+				List.of(predicate), List.of(Set.of(formula)), Map.of(formula, relatedCandidates),
+				Map.of(0, Collections.emptySet()), new int[] { 1 }, new int[] { 1 });
+	}
+
 	private List<ConjunctiveClause> createDummyClauseList(int numberOfLiterals) {
 		List<Literal> literals = new ArrayList<>();
 		for (int i = 0; i < numberOfLiterals; i++) {
@@ -265,12 +302,6 @@ private CanonicalIndexDataContainer createEmptyContainer() {
 				Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap(), new int[0], new int[0]);
 	}
 
-	private CanonicalIndexDataContainer createEmptyContainerWithRelatedFormulas(
-			List<Set<DisjunctiveFormula>> relatedFormulas) {
-		return new CanonicalIndexDataContainer(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList(),
-				relatedFormulas, Collections.emptyMap(), Collections.emptyMap(), new int[0], new int[0]);
-	}
-
 	private CanonicalIndexDataContainer createEmptyContainerWithNUmberOfLiteralsInConjunction(
 			int[] numberOfFormulasWithConjunction) {
 		return new CanonicalIndexDataContainer(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList(),
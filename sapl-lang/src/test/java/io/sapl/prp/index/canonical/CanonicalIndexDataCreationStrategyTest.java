@@ -0,0 +1,432 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.index.canonical;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.sapl.api.interpreter.SAPLInterpreter;
+import io.sapl.api.interpreter.Val;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.prp.PolicyRetrievalResult;
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import io.sapl.prp.PrpUpdateEvent;
+import io.sapl.prp.PrpUpdateEvent.Type;
+import io.sapl.prp.PrpUpdateEvent.Update;
+import io.sapl.prp.index.ImmutableParsedDocumentIndex;
+import io.sapl.prp.index.canonical.ordering.AdaptivePredicateOrderStrategy;
+import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
+import io.sapl.prp.index.naive.NaiveImmutableParsedDocumentIndex;
+
+public class CanonicalIndexDataCreationStrategyTest {
+
+	private static final int NUMBER_OF_VARIABLES = 4;
+
+	@Rule
+	public Timeout globalTimeout = Timeout.seconds(30);
+
+	private static SAPLInterpreter interpreter;
+
+	private static JsonNodeFactory json;
+
+	private EvaluationContext pdpScopedEvaluationContext;
+
+	private Random random;
+
+	private int policyCounter;
+
+	@BeforeClass
+	public static void beforeClass() {
+		interpreter = new DefaultSAPLInterpreter();
+		json = JsonNodeFactory.instance;
+	}
+
+	@Before
+	public void setUp() {
+		pdpScopedEvaluationContext = new EvaluationContext(new AnnotationAttributeContext(),
+				new AnnotationFunctionContext(), new HashMap<>());
+		random = new Random(4711L);
+		policyCounter = 0;
+	}
+
+	@Test
+	public void incrementallyUpdatedIndexMatchesRebuiltIndex() {
+		Map<String, SAPL> publishedDocuments = new HashMap<>();
+		ImmutableParsedDocumentIndex index = new CanonicalImmutableParsedDocumentIndex(pdpScopedEvaluationContext);
+		index = index.apply(publish(publishedDocuments, 12));
+
+		for (int i = 0; i < 40; i++) {
+			PrpUpdateEvent event = random.nextBoolean() ? publish(publishedDocuments, 1)
+					: unpublishRandomDocument(publishedDocuments);
+			index = index.apply(event);
+
+			assertSameMatchingDocuments(index, rebuild(publishedDocuments));
+		}
+	}
+
+	@Test
+	public void previousIndexIsNotAffectedByUpdate() {
+		Map<String, SAPL> publishedDocuments = new HashMap<>();
+		ImmutableParsedDocumentIndex previous = new CanonicalImmutableParsedDocumentIndex(pdpScopedEvaluationContext)
+				.apply(publish(publishedDocuments, 10));
+		Map<String, SAPL> documentsOfPrevious = new HashMap<>(publishedDocuments);
+
+		ImmutableParsedDocumentIndex updated = previous;
+		for (int i = 0; i < 6; i++) {
+			updated = updated.apply(unpublishRandomDocument(publishedDocuments));
+			updated = updated.apply(publish(publishedDocuments, 1));
+		}
+
+		assertSameMatchingDocuments(previous, rebuild(documentsOfPrevious));
+		assertSameMatchingDocuments(updated, rebuild(publishedDocuments));
+	}
+
+	@Test
+	public void unpublishAndPublishInSameEventOnlyReplacesDocument() {
+		Map<String, SAPL> publishedDocuments = new HashMap<>();
+		ImmutableParsedDocumentIndex index = new CanonicalImmutableParsedDocumentIndex(pdpScopedEvaluationContext)
+				.apply(publish(publishedDocuments, 10));
+
+		String name = publishedDocuments.keySet().iterator().next();
+		SAPL oldDocument = publishedDocuments.get(name);
+		SAPL newDocument = interpreter.parse("policy \"" + name + "\" permit resource.x0 & !resource.x1");
+		publishedDocuments.put(name, newDocument);
+		index = index.apply(new PrpUpdateEvent(new Update(Type.UNPUBLISH, oldDocument, ""),
+				new Update(Type.PUBLISH, newDocument, "")));
+
+		assertSameMatchingDocuments(index, rebuild(publishedDocuments));
+	}
+
+	@Test
+	public void conjunctionIndexesAreReusedAfterUnpublish() {
+		var strategy = new CanonicalIndexDataCreationStrategy();
+		Map<String, SAPL> documents = new HashMap<>();
+		Map<String, DisjunctiveFormula> targets = new HashMap<>();
+		for (int i = 0; i < 10; i++) {
+			String name = "p_" + i;
+			SAPL document = interpreter.parse("policy \"" + name + "\" permit resource.x" + i);
+			documents.put(name, document);
+			targets.put(name, targetOf(document));
+		}
+		var container = strategy.constructNew(documents, targets);
+		var previousContainer = container;
+		assertThat(container.getNumberOfConjunctions()).isEqualTo(10);
+
+		for (int i = 10; i < 30; i++) {
+			String removedName = "p_" + (i - 10);
+			String addedName = "p_" + i;
+			SAPL addedDocument = interpreter.parse("policy \"" + addedName + "\" permit resource.x" + i);
+			var addedTarget = targetOf(addedDocument);
+			previousContainer = container;
+			container = strategy.constructUpdated(container, Map.of(removedName, documents.remove(removedName)),
+					Map.of(removedName, targets.remove(removedName)), Map.of(addedName, addedDocument),
+					Map.of(addedName, addedTarget));
+			documents.put(addedName, addedDocument);
+			targets.put(addedName, addedTarget);
+		}
+
+		assertThat(container.getNumberOfConjunctions()).isEqualTo(10);
+		assertThat(container.getPredicateOrder()).hasSize(10);
+
+		// data of documents not touched by the last update is shared
+		var untouchedBool = targets.get("p_28").getClauses().get(0).getLiterals().get(0).getBool();
+		assertThat(container.getBoolToPredicateInfo().get(untouchedBool))
+				.isSameAs(previousContainer.getBoolToPredicateInfo().get(untouchedBool));
+		assertThat(container.getRelatedCandidates().get(targets.get("p_28")))
+				.isSameAs(previousContainer.getRelatedCandidates().get(targets.get("p_28")));
+	}
+
+	@Test
+	public void equalityPredicatesComparingSamePathAreGrouped() {
+		var strategy = new CanonicalIndexDataCreationStrategy();
+		Map<String, SAPL> documents = new HashMap<>();
+		Map<String, DisjunctiveFormula> targets = new HashMap<>();
+		List<String> targetExpressions = List.of("resource.type == \"a\"", "\"b\" == resource.type",
+				"resource[\"type\"] in [\"c\", \"a\"]", "resource.owner == \"x\"", "resource.x0",
+				"resource.type =~ \"d\"");
+		for (int i = 0; i < targetExpressions.size(); i++) {
+			String name = "p_" + i;
+			SAPL document = interpreter.parse("policy \"" + name + "\" permit " + targetExpressions.get(i));
+			documents.put(name, document);
+			targets.put(name, targetOf(document));
+		}
+
+		var container = strategy.constructNew(documents, targets);
+
+		assertThat(container.getNumberOfEqualityGroups()).isEqualTo(1);
+		Set<EqualityGroup> groups = new HashSet<>();
+		int numberOfGroupedPredicates = 0;
+		for (EqualityGroup group : container.getEqualityGroupOfPredicate()) {
+			if (group != null) {
+				groups.add(group);
+				numberOfGroupedPredicates++;
+			}
+		}
+		assertThat(groups).hasSize(1);
+		assertThat(numberOfGroupedPredicates).isEqualTo(3);
+	}
+
+	@Test
+	public void indexWithEqualityGroupsMatchesNaiveIndex() {
+		List<String> targetExpressions = List.of("resource.type == \"a\"", "\"b\" == resource.type",
+				"resource.type in [\"c\", \"a\"]", "!(resource.type == \"b\") & resource.level == 1",
+				"resource.level == 2.0 | resource.type == \"d\"", "resource.level in [1.0, 3]",
+				"resource.type == null", "resource.level == 1 & resource.level == 3", "resource.type in []");
+		List<Update> updates = new ArrayList<>();
+		for (int i = 0; i < targetExpressions.size(); i++) {
+			SAPL document = interpreter.parse("policy \"p_" + i + "\" permit " + targetExpressions.get(i));
+			updates.add(new Update(Type.PUBLISH, document, ""));
+		}
+		ImmutableParsedDocumentIndex canonicalIndex = new CanonicalImmutableParsedDocumentIndex(
+				pdpScopedEvaluationContext).apply(new PrpUpdateEvent(updates));
+		ImmutableParsedDocumentIndex naiveIndex = new NaiveImmutableParsedDocumentIndex()
+				.apply(new PrpUpdateEvent(updates));
+
+		List<ObjectNode> resources = new ArrayList<>();
+		for (String type : List.of("a", "b", "c", "d", "e")) {
+			for (JsonNode level : List.of(json.numberNode(1), json.numberNode(1.0D), json.numberNode(2L),
+					json.numberNode(new BigDecimal("3.00")), json.textNode("1"))) {
+				ObjectNode resource = json.objectNode();
+				resource.put("type", type);
+				resource.set("level", level);
+				resources.add(resource);
+			}
+		}
+		ObjectNode withoutType = json.objectNode();
+		withoutType.put("level", 1);
+		resources.add(withoutType);
+		ObjectNode withNullType = json.objectNode();
+		withNullType.putNull("type");
+		resources.add(withNullType);
+		ObjectNode withObjectType = json.objectNode();
+		withObjectType.set("type", json.objectNode().put("a", 1));
+		resources.add(withObjectType);
+
+		for (ObjectNode resource : resources) {
+			var subscriptionScopedEvaluationContext = new EvaluationContext(new AnnotationAttributeContext(),
+					new AnnotationFunctionContext(), new HashMap<>())
+							.forAuthorizationSubscription(new AuthorizationSubscription(NullNode.getInstance(),
+									NullNode.getInstance(), resource, NullNode.getInstance()));
+			PolicyRetrievalResult canonicalResult = canonicalIndex.retrievePolicies(subscriptionScopedEvaluationContext)
+					.block();
+			PolicyRetrievalResult naiveResult = naiveIndex.retrievePolicies(subscriptionScopedEvaluationContext)
+					.block();
+
+			assertThat(canonicalResult).isNotNull();
+			assertThat(naiveResult).isNotNull();
+			assertThat(names(canonicalResult)).as("matching documents for resource %s", resource)
+					.isEqualTo(names(naiveResult));
+		}
+	}
+
+	@Test
+	public void adaptiveStrategyOrdersPredicatesBySampledTrueRate() {
+		var strategy = new AdaptivePredicateOrderStrategy(1, 1);
+		var container = constructWithTwoPredicates(strategy);
+		var first = container.getPredicateOrder().get(0);
+		var second = container.getPredicateOrder().get(1);
+		for (int i = 0; i < 10; i++) {
+			strategy.recordEvaluation(first, Val.TRUE, 1000L);
+			strategy.recordEvaluation(second, Val.FALSE, 1000L);
+		}
+
+		var reordered = new CanonicalIndexDataCreationStrategy(strategy).constructReordered(container);
+
+		assertThat(reordered.getPredicateOrder()).containsExactly(second, first);
+		assertThat(strategy.getStatistics().get(first.getBool()).getNumberOfTrueResults()).isEqualTo(10L);
+		assertThat(strategy.getStatistics().get(second.getBool()).getNumberOfFalseResults()).isEqualTo(10L);
+	}
+
+	@Test
+	public void adaptiveStrategyOrdersPredicatesBySampledCosts() {
+		var strategy = new AdaptivePredicateOrderStrategy(1, 1);
+		var container = constructWithTwoPredicates(strategy);
+		var first = container.getPredicateOrder().get(0);
+		var second = container.getPredicateOrder().get(1);
+		for (int i = 0; i < 10; i++) {
+			strategy.recordEvaluation(first, Val.FALSE, 100_000L);
+			strategy.recordEvaluation(second, Val.FALSE, 100L);
+		}
+
+		var reordered = new CanonicalIndexDataCreationStrategy(strategy).constructReordered(container);
+
+		assertThat(reordered.getPredicateOrder()).containsExactly(second, first);
+	}
+
+	@Test
+	public void indexWithArbitraryPredicateOrderMatchesRebuiltIndex() {
+		for (int i = 0; i < 10; i++) {
+			Random shuffling = new Random(i);
+			PredicateOrderStrategy shufflingStrategy = predicateInfos -> {
+				List<Predicate> predicateOrder = new ArrayList<>();
+				predicateInfos.forEach(predicateInfo -> predicateOrder.add(predicateInfo.getPredicate()));
+				Collections.shuffle(predicateOrder, shuffling);
+				return predicateOrder;
+			};
+			Map<String, SAPL> publishedDocuments = new HashMap<>();
+			ImmutableParsedDocumentIndex index = new CanonicalImmutableParsedDocumentIndex(shufflingStrategy,
+					pdpScopedEvaluationContext).apply(publish(publishedDocuments, 12));
+
+			assertSameMatchingDocuments(index, rebuild(publishedDocuments));
+		}
+	}
+
+	@Test
+	public void adaptivelyReorderedIndexMatchesRebuiltIndex() {
+		var strategy = new AdaptivePredicateOrderStrategy(1, 4);
+		Map<String, SAPL> publishedDocuments = new HashMap<>();
+		ImmutableParsedDocumentIndex index = new CanonicalImmutableParsedDocumentIndex(strategy,
+				pdpScopedEvaluationContext).apply(publish(publishedDocuments, 12));
+
+		AdaptivePredicateOrderStrategy sampledStrategy = null;
+		for (int i = 0; i < 3; i++) {
+			assertSameMatchingDocuments(index, rebuild(publishedDocuments));
+			sampledStrategy = adaptiveStrategyOf(index);
+			index = index.apply(publish(publishedDocuments, 1));
+		}
+
+		assertThat(sampledStrategy.getStatistics()).isNotEmpty();
+		assertThat(sampledStrategy.getStatistics().values())
+				.allMatch(statistics -> statistics.getNumberOfEvaluations() > 0);
+	}
+
+	@Test
+	public void updatedIndexStartsWithFreshStatistics() {
+		var strategy = new AdaptivePredicateOrderStrategy(1, Long.MAX_VALUE);
+		Map<String, SAPL> publishedDocuments = new HashMap<>();
+		ImmutableParsedDocumentIndex index = new CanonicalImmutableParsedDocumentIndex(strategy,
+				pdpScopedEvaluationContext).apply(publish(publishedDocuments, 12));
+		assertSameMatchingDocuments(index, rebuild(publishedDocuments));
+
+		ImmutableParsedDocumentIndex updatedIndex = index.apply(publish(publishedDocuments, 1));
+
+		assertThat(adaptiveStrategyOf(updatedIndex)).isNotSameAs(adaptiveStrategyOf(index));
+		assertThat(adaptiveStrategyOf(updatedIndex).getStatistics()).isEmpty();
+		assertThat(adaptiveStrategyOf(index).getStatistics()).isNotEmpty();
+	}
+
+	private static AdaptivePredicateOrderStrategy adaptiveStrategyOf(ImmutableParsedDocumentIndex index) {
+		return (AdaptivePredicateOrderStrategy) ((CanonicalImmutableParsedDocumentIndex) index)
+				.getPredicateOrderStrategy();
+	}
+
+	private CanonicalIndexDataContainer constructWithTwoPredicates(AdaptivePredicateOrderStrategy strategy) {
+		Map<String, SAPL> documents = new HashMap<>();
+		Map<String, DisjunctiveFormula> targets = new HashMap<>();
+		for (String name : List.of("a", "b")) {
+			SAPL document = interpreter.parse("policy \"" + name + "\" permit resource." + name);
+			documents.put(name, document);
+			targets.put(name, targetOf(document));
+		}
+		return new CanonicalIndexDataCreationStrategy(strategy).constructNew(documents, targets);
+	}
+
+	private static DisjunctiveFormula targetOf(SAPL document) {
+		return new DisjunctiveFormula(new ConjunctiveClause(
+				new Literal(new Bool(document.getPolicyElement().getTargetExpression(), Collections.emptyMap()))));
+	}
+
+	private void assertSameMatchingDocuments(ImmutableParsedDocumentIndex actual,
+			ImmutableParsedDocumentIndex expected) {
+		for (int bindings = 0; bindings < 1 << NUMBER_OF_VARIABLES; bindings++) {
+			var subscriptionScopedEvaluationContext = new EvaluationContext(new AnnotationAttributeContext(),
+					new AnnotationFunctionContext(), new HashMap<>())
+							.forAuthorizationSubscription(createSubscription(bindings));
+			PolicyRetrievalResult actualResult = actual.retrievePolicies(subscriptionScopedEvaluationContext)
+					.block();
+			PolicyRetrievalResult expectedResult = expected.retrievePolicies(subscriptionScopedEvaluationContext)
+					.block();
+
+			assertThat(actualResult).isNotNull();
+			assertThat(expectedResult).isNotNull();
+			assertThat(names(actualResult)).as("matching documents for bindings %s", bindings)
+					.isEqualTo(names(expectedResult));
+		}
+	}
+
+	private ImmutableParsedDocumentIndex rebuild(Map<String, SAPL> documents) {
+		List<Update> updates = new ArrayList<>();
+		documents.values().forEach(document -> updates.add(new Update(Type.PUBLISH, document, "")));
+		return new CanonicalImmutableParsedDocumentIndex(pdpScopedEvaluationContext)
+				.apply(new PrpUpdateEvent(updates));
+	}
+
+	private PrpUpdateEvent publish(Map<String, SAPL> publishedDocuments, int numberOfDocuments) {
+		List<Update> updates = new ArrayList<>();
+		for (int i = 0; i < numberOfDocuments; i++) {
+			String name = "p_" + policyCounter++;
+			SAPL document = interpreter.parse("policy \"" + name + "\" permit " + randomExpression(2));
+			publishedDocuments.put(name, document);
+			updates.add(new Update(Type.PUBLISH, document, ""));
+		}
+		return new PrpUpdateEvent(updates);
+	}
+
+	private PrpUpdateEvent unpublishRandomDocument(Map<String, SAPL> publishedDocuments) {
+		List<String> names = new ArrayList<>(publishedDocuments.keySet());
+		names.sort(String::compareTo);
+		SAPL document = publishedDocuments.remove(names.get(random.nextInt(names.size())));
+		return new PrpUpdateEvent(new Update(Type.UNPUBLISH, document, ""));
+	}
+
+	private String randomExpression(int depth) {
+		if (depth == 0 || random.nextInt(3) == 0) {
+			return (random.nextBoolean() ? "!" : "") + "resource.x" + random.nextInt(NUMBER_OF_VARIABLES);
+		}
+		String operator = random.nextBoolean() ? " & " : " | ";
+		return "(" + randomExpression(depth - 1) + operator + randomExpression(depth - 1) + ")";
+	}
+
+	private static AuthorizationSubscription createSubscription(int bindings) {
+		ObjectNode resource = json.objectNode();
+		for (int i = 0; i < NUMBER_OF_VARIABLES; i++) {
+			resource.put("x" + i, (bindings & 1 << i) != 0);
+		}
+		return new AuthorizationSubscription(NullNode.getInstance(), NullNode.getInstance(), resource,
+				NullNode.getInstance());
+	}
+
+	private static Set<String> names(PolicyRetrievalResult result) {
+		Set<String> names = new HashSet<>();
+		result.getMatchingDocuments().forEach(document -> names.add(((SAPL) document).getPolicyElement().getSaplName()));
+		return names;
+	}
+
+}
@@ -19,7 +19,6 @@
 import io.sapl.api.pdp.AuthorizationSubscription;
 import io.sapl.api.pdp.PolicyDecisionPoint;
 import io.sapl.api.pdp.multisubscription.IdentifiableAuthorizationDecision;
-import io.sapl.api.pdp.multisubscription.IdentifiableAuthorizationSubscription;
 import io.sapl.api.pdp.multisubscription.MultiAuthorizationDecision;
 import io.sapl.api.pdp.multisubscription.MultiAuthorizationSubscription;
 import io.sapl.api.prp.PolicyRetrievalPoint;
@@ -27,21 +26,51 @@
 import io.sapl.interpreter.EvaluationContext;
 import io.sapl.pdp.embedded.config.PDPConfiguration;
 import io.sapl.pdp.embedded.config.PDPConfigurationProvider;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 @Slf4j
-@RequiredArgsConstructor
 public class EmbeddedPolicyDecisionPoint implements PolicyDecisionPoint {
 
+	public static final int DEFAULT_MULTI_SUBSCRIPTION_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
 	private final PDPConfigurationProvider configurationProvider;
 	private final PolicyRetrievalPoint policyRetrievalPoint;
+	private final Scheduler multiSubscriptionScheduler;
+
+	public EmbeddedPolicyDecisionPoint(PDPConfigurationProvider configurationProvider,
+			PolicyRetrievalPoint policyRetrievalPoint) {
+		this(configurationProvider, policyRetrievalPoint, DEFAULT_MULTI_SUBSCRIPTION_PARALLELISM);
+	}
+
+	/**
+	 * @param configurationProvider        provides the PDP configuration
+	 * @param policyRetrievalPoint         retrieves the matching documents
+	 * @param multiSubscriptionParallelism the number of threads evaluating the
+	 *                                     subscriptions of multi-subscriptions
+	 */
+	public EmbeddedPolicyDecisionPoint(PDPConfigurationProvider configurationProvider,
+			PolicyRetrievalPoint policyRetrievalPoint, int multiSubscriptionParallelism) {
+		if (multiSubscriptionParallelism < 1) {
+			throw new IllegalArgumentException("The parallelism of multi-subscription evaluation must be positive.");
+		}
+		this.configurationProvider = configurationProvider;
+		this.policyRetrievalPoint = policyRetrievalPoint;
+		this.multiSubscriptionScheduler = Schedulers.newParallel("sapl-multi-subscription",
+				multiSubscriptionParallelism, true);
+	}
 
 	@Override
 	public Flux<AuthorizationDecision> decide(AuthorizationSubscription authzSubscription) {
@@ -55,9 +84,10 @@ private Function<? super PDPConfiguration, Publisher<? extends AuthorizationDeci
 			AuthorizationSubscription authzSubscription) {
 		return pdpConfiguration -> {
 			if (pdpConfiguration.isValid()) {
-				return Flux.just(pdpConfiguration.getPdpScopedEvaluationContext())
-						.map(createSubsctiptionScope(authzSubscription))
-						.switchMap(retrieveAndCombineDocuments(pdpConfiguration));
+				// the configuration is shared by all subscriptions, only the subscription
+				// scope is created per subscription
+				return retrieveAndCombineDocuments(pdpConfiguration).apply(
+						pdpConfiguration.getPdpScopedEvaluationContext().forAuthorizationSubscription(authzSubscription));
 			} else {
 				return Flux.just(AuthorizationDecision.INDETERMINATE);
 			}
@@ -83,58 +113,176 @@ private Function<? super PolicyRetrievalResult, Publisher<? extends Authorizatio
 		};
 	}
 
-	private Function<? super EvaluationContext, ? extends EvaluationContext> createSubsctiptionScope(
-			AuthorizationSubscription authzSubscription) {
-		return pdpScopedEvaluationContext -> pdpScopedEvaluationContext.forAuthorizationSubscription(authzSubscription);
-	}
-
+	/**
+	 * Each distinct subscription of the multi-subscription is evaluated once on
+	 * the multi-subscription scheduler. Like for
+	 * {@link #decideAll(MultiAuthorizationSubscription)}, all subscriptions share
+	 * one PDP configuration and one retrieval of the matching documents. The
+	 * decisions are emitted for all subscription ids of an entry as soon as the
+	 * decision of the entry changes, independent of the decisions of the other
+	 * entries.
+	 */
 	@Override
 	public Flux<IdentifiableAuthorizationDecision> decide(MultiAuthorizationSubscription multiAuthzSubscription) {
 		if (multiAuthzSubscription.hasAuthorizationSubscriptions()) {
-			final List<Flux<IdentifiableAuthorizationDecision>> identifiableAuthzDecisionFluxes = createIdentifiableAuthzDecisionFluxes(
-					multiAuthzSubscription);
-			return Flux.merge(identifiableAuthzDecisionFluxes);
+			var batch = new SubscriptionBatch(multiAuthzSubscription);
+			return Flux.defer(() -> {
+				// the latest decision of each entry, to suppress unchanged decisions after
+				// updates of the configuration or the policies
+				var latestDecisions = new AuthorizationDecision[batch.distinctSubscriptions.size()];
+				return decideBatch(batch, EmbeddedPolicyDecisionPoint::mergeIndexed)
+						.filter(indexedDecision -> isChanged(latestDecisions, indexedDecision))
+						.flatMapIterable(indexedDecision -> identifiableDecisions(
+								batch.subscriptionIdsOfDistinctSubscription.get(indexedDecision.getT1()),
+								indexedDecision.getT2()));
+			});
 		}
 		return Flux.just(IdentifiableAuthorizationDecision.INDETERMINATE);
 	}
 
+	private static Flux<Tuple2<Integer, AuthorizationDecision>> mergeIndexed(
+			List<Flux<AuthorizationDecision>> authzDecisionFluxes) {
+		var indexedDecisionFluxes = new ArrayList<Flux<Tuple2<Integer, AuthorizationDecision>>>(
+				authzDecisionFluxes.size());
+		for (int i = 0; i < authzDecisionFluxes.size(); i++) {
+			var index = i;
+			indexedDecisionFluxes.add(authzDecisionFluxes.get(i).map(authzDecision -> Tuples.of(index, authzDecision)));
+		}
+		// all entries have to be subscribed to at once, as their fluxes do not complete
+		return Flux.merge(Flux.fromIterable(indexedDecisionFluxes), indexedDecisionFluxes.size());
+	}
+
+	private static boolean isChanged(AuthorizationDecision[] latestDecisions,
+			Tuple2<Integer, AuthorizationDecision> indexedDecision) {
+		var index = indexedDecision.getT1();
+		if (indexedDecision.getT2().equals(latestDecisions[index])) {
+			return false;
+		}
+		latestDecisions[index] = indexedDecision.getT2();
+		return true;
+	}
+
+	private static List<IdentifiableAuthorizationDecision> identifiableDecisions(List<String> subscriptionIds,
+			AuthorizationDecision authzDecision) {
+		var identifiableAuthzDecisions = new ArrayList<IdentifiableAuthorizationDecision>(subscriptionIds.size());
+		for (var subscriptionId : subscriptionIds) {
+			identifiableAuthzDecisions.add(new IdentifiableAuthorizationDecision(subscriptionId, authzDecision));
+		}
+		return identifiableAuthzDecisions;
+	}
+
 	@Override
 	public Flux<MultiAuthorizationDecision> decideAll(MultiAuthorizationSubscription multiAuthzSubscription) {
 		if (multiAuthzSubscription.hasAuthorizationSubscriptions()) {
-			final List<Flux<IdentifiableAuthorizationDecision>> identifiableAuthzDecisionFluxes = createIdentifiableAuthzDecisionFluxes(
-					multiAuthzSubscription);
-			return Flux.combineLatest(identifiableAuthzDecisionFluxes, this::collectAuthorizationDecisions);
+			var batch = new SubscriptionBatch(multiAuthzSubscription);
+			return decideBatch(batch, EmbeddedPolicyDecisionPoint::combineLatest).distinctUntilChanged()
+					.map(batch::multiDecision);
 		}
 		return Flux.just(MultiAuthorizationDecision.indeterminate());
 	}
 
-	private List<Flux<IdentifiableAuthorizationDecision>> createIdentifiableAuthzDecisionFluxes(
-			Iterable<IdentifiableAuthorizationSubscription> multiDecision) {
-		final List<Flux<IdentifiableAuthorizationDecision>> identifiableAuthzDecisionFluxes = new ArrayList<>();
-		for (IdentifiableAuthorizationSubscription identifiableAuthzSubscription : multiDecision) {
-			final String subscriptionId = identifiableAuthzSubscription.getAuthorizationSubscriptionId();
-			final AuthorizationSubscription authzSubscription = identifiableAuthzSubscription
-					.getAuthorizationSubscription();
-			final Flux<IdentifiableAuthorizationDecision> identifiableAuthzDecisionFlux = decide(authzSubscription)
-					.map(authzDecision -> new IdentifiableAuthorizationDecision(subscriptionId, authzDecision));
-			identifiableAuthzDecisionFluxes.add(identifiableAuthzDecisionFlux);
-		}
-		return identifiableAuthzDecisionFluxes;
+	/**
+	 * Evaluates the distinct subscriptions of a batch with one PDP configuration
+	 * and one state of the policy retrieval point for all of them. The
+	 * subscriptions are evaluated on the multi-subscription scheduler.
+	 * 
+	 * @param combinator combines the decision fluxes of the distinct
+	 *                   subscriptions, given in their order
+	 * @return the combined decisions, switching to new decision fluxes upon
+	 *         updates of the configuration or the policies
+	 */
+	private <T> Flux<T> decideBatch(SubscriptionBatch batch,
+			Function<List<Flux<AuthorizationDecision>>, Flux<T>> combinator) {
+		log.trace("|--------------------------------->");
+		log.trace("|-- PDP batch of {} distinct subscriptions", batch.distinctSubscriptions.size());
+		return configurationProvider.pdpConfiguration().switchMap(pdpConfiguration -> {
+			if (!pdpConfiguration.isValid()) {
+				return combinator.apply(Collections.nCopies(batch.distinctSubscriptions.size(),
+						Flux.just(AuthorizationDecision.INDETERMINATE)));
+			}
+			var pdpScopedEvaluationContext = pdpConfiguration.getPdpScopedEvaluationContext();
+			var subscriptionScopedEvaluationContexts = new ArrayList<EvaluationContext>(
+					batch.distinctSubscriptions.size());
+			for (var authzSubscription : batch.distinctSubscriptions) {
+				subscriptionScopedEvaluationContexts
+						.add(pdpScopedEvaluationContext.forAuthorizationSubscription(authzSubscription));
+			}
+			return policyRetrievalPoint.retrievePoliciesForAll(subscriptionScopedEvaluationContexts)
+					.switchMap(policyRetrievalResults -> combinator.apply(combineDocumentsForAll(pdpConfiguration,
+							subscriptionScopedEvaluationContexts, policyRetrievalResults)));
+		});
 	}
 
-	private MultiAuthorizationDecision collectAuthorizationDecisions(Object[] values) {
-		final MultiAuthorizationDecision multiAuthzDecision = new MultiAuthorizationDecision();
-		for (Object value : values) {
-			IdentifiableAuthorizationDecision ir = (IdentifiableAuthorizationDecision) value;
-			multiAuthzDecision.setAuthorizationDecisionForSubscriptionWithId(ir.getAuthorizationSubscriptionId(),
-					ir.getAuthorizationDecision());
+	private List<Flux<AuthorizationDecision>> combineDocumentsForAll(PDPConfiguration pdpConfiguration,
+			List<EvaluationContext> subscriptionScopedEvaluationContexts,
+			List<PolicyRetrievalResult> policyRetrievalResults) {
+		var authzDecisionFluxes = new ArrayList<Flux<AuthorizationDecision>>(policyRetrievalResults.size());
+		for (int i = 0; i < policyRetrievalResults.size(); i++) {
+			Flux<AuthorizationDecision> authzDecisionFlux = Flux.from(combineDocuments(pdpConfiguration,
+					subscriptionScopedEvaluationContexts.get(i)).apply(policyRetrievalResults.get(i)));
+			authzDecisionFluxes.add(authzDecisionFlux.distinctUntilChanged().subscribeOn(multiSubscriptionScheduler));
 		}
-		return multiAuthzDecision;
+		return authzDecisionFluxes;
 	}
 
+	/**
+	 * A list of decisions is only emitted once all subscriptions have been decided
+	 * with the current configuration and policies, i.e., updates of these do not
+	 * lead to intermediate lists mixing decisions of the old and the new state.
+	 */
+	private static Flux<List<AuthorizationDecision>> combineLatest(
+			List<Flux<AuthorizationDecision>> authzDecisionFluxes) {
+		return Flux.combineLatest(authzDecisionFluxes, decisions -> {
+			var decisionList = new ArrayList<AuthorizationDecision>(decisions.length);
+			for (var decision : decisions) {
+				decisionList.add((AuthorizationDecision) decision);
+			}
+			return decisionList;
+		});
+	}
+
+	/**
+	 * Disposes the configuration provider, the policy retrieval point and the
+	 * scheduler evaluating multi-subscriptions.
+	 */
 	public void dispose() {
 		configurationProvider.dispose();
 		policyRetrievalPoint.dispose();
+		multiSubscriptionScheduler.dispose();
+	}
+
+	/**
+	 * The subscriptions of a multi-subscription with identical subscriptions
+	 * evaluated only once.
+	 */
+	private static class SubscriptionBatch {
+
+		private final List<AuthorizationSubscription> distinctSubscriptions = new ArrayList<>();
+		private final List<List<String>> subscriptionIdsOfDistinctSubscription = new ArrayList<>();
+		private final Map<String, Integer> indexOfDistinctSubscription = new LinkedHashMap<>();
+
+		SubscriptionBatch(MultiAuthorizationSubscription multiAuthzSubscription) {
+			var indexOfSubscription = new LinkedHashMap<AuthorizationSubscription, Integer>();
+			for (var identifiableAuthzSubscription : multiAuthzSubscription) {
+				var index = indexOfSubscription.computeIfAbsent(
+						identifiableAuthzSubscription.getAuthorizationSubscription(), authzSubscription -> {
+							distinctSubscriptions.add(authzSubscription);
+							subscriptionIdsOfDistinctSubscription.add(new ArrayList<>());
+							return distinctSubscriptions.size() - 1;
+						});
+				var subscriptionId = identifiableAuthzSubscription.getAuthorizationSubscriptionId();
+				subscriptionIdsOfDistinctSubscription.get(index).add(subscriptionId);
+				indexOfDistinctSubscription.put(subscriptionId, index);
+			}
+		}
+
+		MultiAuthorizationDecision multiDecision(List<AuthorizationDecision> decisions) {
+			var multiAuthzDecision = new MultiAuthorizationDecision();
+			indexOfDistinctSubscription.forEach((subscriptionId, index) -> multiAuthzDecision
+					.setAuthorizationDecisionForSubscriptionWithId(subscriptionId, decisions.get(index)));
+			return multiAuthzDecision;
+		}
+
 	}
 
 }
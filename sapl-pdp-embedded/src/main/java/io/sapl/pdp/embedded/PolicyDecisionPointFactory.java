@@ -63,11 +63,19 @@ public static EmbeddedPolicyDecisionPoint filesystemPolicyDecisionPoint(Collecti
 	public static EmbeddedPolicyDecisionPoint filesystemPolicyDecisionPoint(String path,
 			Collection<Object> policyInformationPoints, Collection<Object> functionLibraries)
 			throws InitializationException {
+		return filesystemPolicyDecisionPoint(path, policyInformationPoints, functionLibraries,
+				EmbeddedPolicyDecisionPoint.DEFAULT_MULTI_SUBSCRIPTION_PARALLELISM);
+	}
+
+	public static EmbeddedPolicyDecisionPoint filesystemPolicyDecisionPoint(String path,
+			Collection<Object> policyInformationPoints, Collection<Object> functionLibraries,
+			int multiSubscriptionParallelism) throws InitializationException {
 		var fileSource = new FileSystemVariablesAndCombinatorSource(path);
 		var configurationProvider = constructConfigurationProvider(fileSource, policyInformationPoints,
 				functionLibraries);
 		var policyRetrievalPoint = constructFilesystemPolicyRetrievalPoint(path);
-		return new EmbeddedPolicyDecisionPoint(configurationProvider, policyRetrievalPoint);
+		return new EmbeddedPolicyDecisionPoint(configurationProvider, policyRetrievalPoint,
+				multiSubscriptionParallelism);
 	}
 
 	public static EmbeddedPolicyDecisionPoint resourcesPolicyDecisionPoint() throws InitializationException {
@@ -86,12 +94,20 @@ public static EmbeddedPolicyDecisionPoint resourcesPolicyDecisionPoint(String pa
 	public static EmbeddedPolicyDecisionPoint resourcesPolicyDecisionPoint(String path,
 			Collection<Object> policyInformationPoints, Collection<Object> functionLibraries)
 			throws InitializationException {
+		return resourcesPolicyDecisionPoint(path, policyInformationPoints, functionLibraries,
+				EmbeddedPolicyDecisionPoint.DEFAULT_MULTI_SUBSCRIPTION_PARALLELISM);
+	}
+
+	public static EmbeddedPolicyDecisionPoint resourcesPolicyDecisionPoint(String path,
+			Collection<Object> policyInformationPoints, Collection<Object> functionLibraries,
+			int multiSubscriptionParallelism) throws InitializationException {
 		var resourcesSource = new ResourcesVariablesAndCombinatorSource(EmbeddedPolicyDecisionPoint.class, path,
 				new ObjectMapper());
 		var configurationProvider = constructConfigurationProvider(resourcesSource, policyInformationPoints,
 				functionLibraries);
 		var policyRetrievalPoint = constructResourcesPolicyRetrievalPoint(path);
-		return new EmbeddedPolicyDecisionPoint(configurationProvider, policyRetrievalPoint);
+		return new EmbeddedPolicyDecisionPoint(configurationProvider, policyRetrievalPoint,
+				multiSubscriptionParallelism);
 	}
 
 	private static PDPConfigurationProvider constructConfigurationProvider(
@@ -15,8 +15,11 @@
  */
 package io.sapl.pdp.embedded.config;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
@@ -24,24 +27,84 @@
 import io.sapl.interpreter.combinators.DocumentsCombinator;
 import io.sapl.interpreter.functions.FunctionContext;
 import io.sapl.interpreter.pip.AttributeContext;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
 
-@RequiredArgsConstructor
+/**
+ * Provides the PDP configuration for fixed function and attribute contexts.
+ *
+ * The configuration is computed once for each change of the variables or the
+ * combining algorithm and shared by all subscribers. The stream is hot, i.e.,
+ * it is connected to the source from construction until the provider is
+ * disposed, and replays the latest configuration to new subscribers.
+ *
+ * If the source of the variables or the combining algorithm fails, an invalid
+ * configuration is emitted, so that the PDP answers with INDETERMINATE, and the
+ * source is resubscribed to after a delay.
+ *
+ * The number of subscribers, i.e., the fan-out of each configuration change,
+ * and the number of computed configurations are exposed as statistics.
+ */
+@Slf4j
 public class FixedFunctionsAndAttributesPDPConfigurationProvider implements PDPConfigurationProvider {
 
+	private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
 	private final AttributeContext attributeCtx;
 	private final FunctionContext functionCtx;
 	private final VariablesAndCombinatorSource variablesAndCombinatorSource;
+	private final Flux<PDPConfiguration> configuration;
+	private final Disposable configurationConnection;
+	private final AtomicInteger numberOfSubscribers = new AtomicInteger();
+	private final AtomicLong numberOfConfigurations = new AtomicLong();
+
+	public FixedFunctionsAndAttributesPDPConfigurationProvider(AttributeContext attributeCtx,
+			FunctionContext functionCtx, VariablesAndCombinatorSource variablesAndCombinatorSource) {
+		this.attributeCtx = attributeCtx;
+		this.functionCtx = functionCtx;
+		this.variablesAndCombinatorSource = variablesAndCombinatorSource;
+		var replayedConfiguration = Flux
+				.combineLatest(variablesAndCombinatorSource.getDocumentsCombinator(),
+						variablesAndCombinatorSource.getVariables(), this::createConfiguration)
+				.onErrorResume(this::invalidConfigurationAndError)
+				.retryWhen(Retry.fixedDelay(Long.MAX_VALUE, RETRY_DELAY)).replay(1);
+		this.configuration = replayedConfiguration
+				.doOnSubscribe(subscription -> numberOfSubscribers.incrementAndGet())
+				.doFinally(signal -> numberOfSubscribers.decrementAndGet());
+		this.configurationConnection = replayedConfiguration.connect();
+	}
 
 	@Override
 	public Flux<PDPConfiguration> pdpConfiguration() {
-		return Flux.combineLatest(variablesAndCombinatorSource.getDocumentsCombinator(),
-				variablesAndCombinatorSource.getVariables(), this::createConfiguration);
+		return configuration;
+	}
+
+	/**
+	 * @return the number of subscribers currently sharing the configuration, i.e.,
+	 *         the fan-out of each configuration change.
+	 */
+	public int numberOfSubscribers() {
+		return numberOfSubscribers.get();
+	}
+
+	/**
+	 * @return the number of configurations computed since the provider was
+	 *         created.
+	 */
+	public long numberOfConfigurations() {
+		return numberOfConfigurations.get();
+	}
+
+	private Flux<PDPConfiguration> invalidConfigurationAndError(Throwable error) {
+		log.error("PDP configuration source failed, retrying in {}: {}", RETRY_DELAY, error.getMessage());
+		return Flux.concat(Flux.just(new PDPConfiguration(null, null)), Flux.error(error));
 	}
 
 	private PDPConfiguration createConfiguration(Optional<DocumentsCombinator> combinator,
 			Optional<Map<String, JsonNode>> variables) {
+		numberOfConfigurations.incrementAndGet();
 		return new PDPConfiguration(
 				variables.isPresent() ? new EvaluationContext(attributeCtx, functionCtx, variables.get()) : null,
 				combinator.orElse(null));
@@ -49,6 +112,7 @@ private PDPConfiguration createConfiguration(Optional<DocumentsCombinator> combi
 
 	@Override
 	public void dispose() {
+		configurationConnection.dispose();
 		variablesAndCombinatorSource.dispose();
 	}
 
@@ -28,15 +28,18 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import io.sapl.api.interpreter.PolicyEvaluationException;
 import io.sapl.api.interpreter.SAPLInterpreter;
 import io.sapl.grammar.sapl.SAPL;
+import io.sapl.prp.PolicyDocumentLoader;
+import io.sapl.prp.PolicyDocumentLoader.DocumentSource;
+import io.sapl.prp.PolicyDocumentLoader.LoadedDocument;
 import io.sapl.prp.PrpUpdateEvent;
 import io.sapl.prp.PrpUpdateEvent.Type;
 import io.sapl.prp.PrpUpdateEvent.Update;
 import io.sapl.prp.PrpUpdateEventSource;
-import io.sapl.util.filemonitoring.FileCreatedEvent;
 import io.sapl.util.filemonitoring.FileDeletedEvent;
 import io.sapl.util.filemonitoring.FileEvent;
 import io.sapl.util.filemonitoring.FileMonitorUtil;
@@ -44,6 +47,7 @@
 import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.UnicastProcessor;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
@@ -54,10 +58,12 @@ public class FileSystemPrpUpdateEventSource implements PrpUpdateEventSource {
 	private static final String SAPL_GLOB_PATTERN = "*" + SAPL_SUFFIX;
 
 	private final SAPLInterpreter interpreter;
+	private final PolicyDocumentLoader documentLoader;
 	private final String watchDir;
 
 	public FileSystemPrpUpdateEventSource(String policyPath, SAPLInterpreter interpreter) {
 		this.interpreter = interpreter;
+		this.documentLoader = new PolicyDocumentLoader(interpreter);
 		watchDir = resolveHomeFolderIfPresent(policyPath);
 		log.info("Monitoring for SAPL documents: {}", watchDir);
 	}
@@ -67,49 +73,139 @@ public void dispose() {
 		// NOOP
 	}
 
+	/**
+	 * The directory is watched before it is listed for the initial load, so that
+	 * no change happening during the load is missed. The file events are buffered
+	 * until the initial load is complete and then applied to its result. Files
+	 * reported as created which have already been loaded are reloaded.
+	 */
 	@Override
 	public Flux<PrpUpdateEvent> getUpdates() {
-		Map<String, Optional<SAPL>> files = new HashMap<>();
-		List<Update> updates = new LinkedList<>();
-		try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(watchDir), SAPL_GLOB_PATTERN)) {
-			for (var filePath : stream) {
-				try {
-					log.info("loading SAPL document: {}", filePath);
-					var rawDocument = readFile(filePath.toFile());
-					var saplDocument = interpreter.parse(rawDocument);
-					files.put(filePath.toString(), Optional.of(saplDocument));
-					updates.add(new Update(Type.PUBLISH, saplDocument, rawDocument));
-				} catch (PolicyEvaluationException e) {
-					files.put(filePath.toString(), Optional.empty());
-				}
-			}
-		} catch (IOException e) {
-			log.error("Unable to open directory configured to contain policies: {}", watchDir);
-			return Flux.error(e);
+		return Flux.defer(() -> {
+			var bufferedFileEvents = UnicastProcessor.<List<FileEvent>>create();
+			var monitoring = FileMonitorUtil
+					.monitorDirectoryInBursts(watchDir, file -> file.getName().endsWith(SAPL_SUFFIX))
+					.subscribe(bufferedFileEvents::onNext, bufferedFileEvents::onError,
+							bufferedFileEvents::onComplete);
+			var initialLoading = new InitialLoading();
+			var loadingEvents = documentLoader.loadInBatches(documentSources()).concatMap(initialLoading::nextBatch)
+					.concatWith(Mono.fromCallable(initialLoading::complete));
+			return loadingEvents
+					.concatWith(
+							Flux.defer(() -> directoryMonitor(bufferedFileEvents, initialLoading.getSeedIndex())))
+					.doFinally(signal -> monitoring.dispose());
+		});
+	}
+
+	private Flux<DocumentSource> documentSources() {
+		return Mono.fromCallable(this::listDocuments).flatMapIterable(Function.identity()).map(DocumentSource::of)
+				.doOnError(IOException.class,
+						e -> log.error("Unable to open directory configured to contain policies: {}", watchDir));
+	}
+
+	private List<Path> listDocuments() throws IOException {
+		var paths = new LinkedList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(watchDir).toAbsolutePath(),
+				SAPL_GLOB_PATTERN)) {
+			stream.forEach(paths::add);
 		}
+		return paths;
+	}
 
-		var seedIndex = new ImmutableFileIndex(files);
+	/**
+	 * Turns the batches of initially loaded documents into update events. While
+	 * further batches are expected, the index is marked INCONSISTENT, so that no
+	 * decisions are made based on an incomplete set of documents. A load fitting
+	 * into a single batch results in a single event.
+	 */
+	private static class InitialLoading {
 
-		if (seedIndex.isInconsistent()) {
-			updates.add(new Update(Type.INCONSISTENT, null, null));
+		private final Map<String, Optional<SAPL>> files = new HashMap<>();
+
+		private List<LoadedDocument> pendingBatch = List.of();
+
+		private boolean eventEmitted;
+
+		private ImmutableFileIndex seedIndex;
+
+		Mono<PrpUpdateEvent> nextBatch(List<LoadedDocument> batch) {
+			var previousBatch = pendingBatch;
+			pendingBatch = batch;
+			if (previousBatch.isEmpty()) {
+				return Mono.empty();
+			}
+			var updates = publish(previousBatch);
+			if (!eventEmitted) {
+				updates.add(0, new Update(Type.INCONSISTENT, null, null));
+				eventEmitted = true;
+			}
+			return Mono.just(new PrpUpdateEvent(updates));
 		}
 
-		var initialEvent = new PrpUpdateEvent(updates);
+		PrpUpdateEvent complete() {
+			var updates = publish(pendingBatch);
+			pendingBatch = List.of();
+			seedIndex = new ImmutableFileIndex(files);
+			if (seedIndex.isInconsistent() && !eventEmitted) {
+				updates.add(new Update(Type.INCONSISTENT, null, null));
+			} else if (seedIndex.isConsistent() && eventEmitted) {
+				updates.add(new Update(Type.CONSISTENT, null, null));
+			}
+			var initialEvent = new PrpUpdateEvent(updates);
+			log.debug("initial event: {}", initialEvent);
+			return initialEvent;
+		}
+
+		ImmutableFileIndex getSeedIndex() {
+			return seedIndex;
+		}
 
-		var monitoringFlux = FileMonitorUtil.monitorDirectory(watchDir, file -> file.getName().endsWith(SAPL_SUFFIX));
+		private List<Update> publish(List<LoadedDocument> batch) {
+			var updates = new LinkedList<Update>();
+			for (var loadedDocument : batch) {
+				var document = loadedDocument.getDocument();
+				files.put(loadedDocument.getName(), document);
+				document.ifPresent(
+						saplDocument -> updates.add(new Update(Type.PUBLISH, saplDocument, loadedDocument.getRawDocument())));
+			}
+			return updates;
+		}
 
-		log.debug("initial event: {}", initialEvent);
-		return Mono.just(initialEvent).concatWith(directoryMonitor(monitoringFlux, seedIndex));
 	}
 
-	private Flux<PrpUpdateEvent> directoryMonitor(Flux<FileEvent> fileEvents, ImmutableFileIndex seedIndex) {
-		return fileEvents.scan(Tuples.of(Optional.empty(), seedIndex), this::processFileEvent)
+	private Flux<PrpUpdateEvent> directoryMonitor(Flux<List<FileEvent>> fileEventBursts,
+			ImmutableFileIndex seedIndex) {
+		return fileEventBursts.scan(Tuples.of(Optional.empty(), seedIndex), this::processFileEvents)
 				.filter(tuple -> tuple.getT1().isPresent()).map(Tuple2::getT1).map(Optional::get);
 	}
 
-	private Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> processFileEvent(
-			Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> tuple, FileEvent fileEvent) {
-		var index = tuple.getT2();
+	/**
+	 * Coalesces a burst of file events into a single update event. Consistency is
+	 * only compared between the index before and after the complete burst.
+	 */
+	private Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> processFileEvents(
+			Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> tuple, List<FileEvent> fileEvents) {
+		var previousIndex = tuple.getT2();
+		var index = previousIndex;
+		var updates = new LinkedList<Update>();
+		for (var fileEvent : fileEvents) {
+			index = processFileEvent(index, fileEvent, updates);
+		}
+		if (index.becameConsistentComparedTo(previousIndex)) {
+			log.debug("the set of documents was previously INCONSISTENT and is now CONSISTENT again.");
+			updates.add(new Update(Type.CONSISTENT, null, null));
+		}
+		if (index.becameInconsistentComparedTo(previousIndex)) {
+			log.debug("the set of documents was previously CONSISTENT and is now INCONSISTENT.");
+			updates.add(new Update(Type.INCONSISTENT, null, null));
+		}
+		if (updates.isEmpty()) {
+			return Tuples.of(Optional.empty(), index);
+		}
+		return Tuples.of(Optional.of(new PrpUpdateEvent(updates)), index);
+	}
+
+	private ImmutableFileIndex processFileEvent(ImmutableFileIndex index, FileEvent fileEvent, List<Update> updates) {
 		var fileName = fileEvent.getFile().getName();
 		var absoluteFileName = fileEvent.getFile().getAbsolutePath();
 
@@ -118,13 +214,11 @@ private Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> processFileEvent(
 
 		if (fileEvent instanceof FileDeletedEvent) {
 			log.info("unloading deleted SAPL document: {} {}", fileName, absoluteFileName);
-			var document = index.get(absoluteFileName);
-			if(document.isEmpty()) {
-				return Tuples.of(Optional.empty(), index);
+			if (!index.containsFile(absoluteFileName)) {
+				return index;
 			}
-			var update = new Update(Type.UNPUBLISH, document.get(), "");
-			var newIndex = index.remove(absoluteFileName);
-			return Tuples.of(Optional.of(new PrpUpdateEvent(update)), newIndex);
+			index.get(absoluteFileName).ifPresent(document -> updates.add(new Update(Type.UNPUBLISH, document, "")));
+			return index.remove(absoluteFileName);
 		}
 		Optional<SAPL> saplDocument = Optional.empty();
 		String rawDocument = "";
@@ -132,53 +226,25 @@ private Tuple2<Optional<PrpUpdateEvent>, ImmutableFileIndex> processFileEvent(
 			rawDocument = readFile(fileEvent.getFile());
 			saplDocument = Optional.of(interpreter.parse(rawDocument));
 		} catch (PolicyEvaluationException | IOException e) {
-			log.debug("Error reading file: {}. Will lead to inconsistent index.",e.getMessage());
+			log.debug("Error reading file: {}. Will lead to inconsistent index.", e.getMessage());
 		}
 
-		if (fileEvent instanceof FileCreatedEvent || !index.containsFile(absoluteFileName)) {
+		// a file created while the directory was listed may already be loaded
+		if (!index.containsFile(absoluteFileName)) {
 			log.info("loading new SAPL document: {}", fileName);
-			var newIndex = index.put(absoluteFileName, saplDocument);
-			var updates = new LinkedList<Update>();
-			if(saplDocument.isPresent()) {
-				log.debug("the document has been parsed successfully. publish it to the index.");
-				updates.add(new Update(Type.PUBLISH, saplDocument.get(), rawDocument));
-			}
-			if(newIndex.becameConsistentComparedTo(index)) {
-				log.debug("the set of documents was previously INCONSISTENT and is now CONSISTENT again.");
-				updates.add(new Update(Type.CONSISTENT, null, null));
-			}
-			if(newIndex.becameInconsistentComparedTo(index)) {
-				log.debug("the set of documents was previously CONSISTENT and is now INCONSISTENT.");
-				updates.add(new Update(Type.INCONSISTENT, null, null));
+		} else {
+			log.info("loading updated SAPL document: {}", fileName);
+			var oldDocument = index.get(absoluteFileName);
+			if (oldDocument.isPresent()) {
+				log.debug("UNPUBLISH the old document.");
+				updates.add(new Update(Type.UNPUBLISH, oldDocument.get(), ""));
 			}
-			return Tuples.of(Optional.of(new PrpUpdateEvent(updates)), newIndex);
 		}
-
-		// file changed
-
-		log.info("loading updated SAPL document: {}", fileName);
-		var oldDocument = index.get(absoluteFileName);
-		var newIndex = index.put(absoluteFileName, saplDocument);
-		var updates = new LinkedList<Update>();
-
-		if(oldDocument.isPresent()) {
-			log.debug("UNPUBLISH the old document.");
-			updates.add(new Update(Type.UNPUBLISH, oldDocument.get(), ""));
-		}
-		if(saplDocument.isPresent()) {
-			log.debug("the document has been parsed successfully. publish the changed document.");
+		if (saplDocument.isPresent()) {
+			log.debug("the document has been parsed successfully. publish it to the index.");
 			updates.add(new Update(Type.PUBLISH, saplDocument.get(), rawDocument));
 		}
-		if(newIndex.becameConsistentComparedTo(index)) {
-			log.debug("the set of documents was previously INCONSISTENT and is now CONSISTENT again.");
-			updates.add(new Update(Type.CONSISTENT, null, null));
-		}
-		if(newIndex.becameInconsistentComparedTo(index)) {
-			log.debug("the set of documents was previously CONSISTENT and is now INCONSISTENT.");
-			updates.add(new Update(Type.INCONSISTENT, null, null));
-		}
-
-		return Tuples.of(Optional.of(new PrpUpdateEvent(updates)), newIndex);
+		return index.put(absoluteFileName, saplDocument);
 	}
 
 }
@@ -0,0 +1,158 @@
+package io.sapl.util.filemonitoring;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * Monitors a directory using a {@link WatchService}. Native notifications are
+ * debounced: after the first notification, further notifications are collected
+ * until the directory has been quiet for the debounce timeout. The resulting
+ * burst contains at most one event per file, derived from whether the file
+ * existed before and exists after the burst.
+ */
+@Slf4j
+class DirectoryWatcher {
+
+    private final Path directory;
+
+    private final FileFilter fileFilter;
+
+    private final long debounceMillis;
+
+    private final WatchService watchService;
+
+    private final Set<Path> knownFiles;
+
+    private DirectoryWatcher(Path directory, FileFilter fileFilter, Duration debounceTimeout) throws IOException {
+        this.directory = directory;
+        this.fileFilter = fileFilter;
+        this.debounceMillis = debounceTimeout.toMillis();
+        this.watchService = directory.getFileSystem().newWatchService();
+        try {
+            directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+            this.knownFiles = listFiles();
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+    }
+
+    static Flux<List<FileEvent>> watch(Path directory, FileFilter fileFilter, Duration debounceTimeout)
+            throws IOException {
+        var watcher = new DirectoryWatcher(directory.toAbsolutePath(), fileFilter, debounceTimeout);
+        return Flux.create(watcher::run);
+    }
+
+    private void run(FluxSink<List<FileEvent>> emitter) {
+        var thread = new Thread(() -> processNotifications(emitter), "sapl-directory-watcher");
+        thread.setDaemon(true);
+        emitter.onDispose(this::close);
+        thread.start();
+    }
+
+    private void processNotifications(FluxSink<List<FileEvent>> emitter) {
+        try {
+            while (!emitter.isCancelled()) {
+                var touchedFiles = new LinkedHashSet<Path>();
+                var valid = collect(watchService.take(), touchedFiles);
+                WatchKey key;
+                while (valid && (key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    valid = collect(key, touchedFiles);
+                }
+                var burst = coalesce(touchedFiles);
+                if (!burst.isEmpty()) {
+                    emitter.next(burst);
+                }
+                if (!valid) {
+                    log.error("Directory {} is no longer accessible. Stopping to monitor it.", directory);
+                    emitter.complete();
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // monitoring cancelled
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            emitter.error(e);
+        }
+    }
+
+    /**
+     * @return false, if the key is no longer valid, i.e., the directory is gone
+     */
+    private boolean collect(WatchKey key, Set<Path> touchedFiles) throws IOException {
+        for (var event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // notifications were lost, compare the complete directory
+                touchedFiles.addAll(knownFiles);
+                touchedFiles.addAll(listFiles());
+            } else {
+                var file = directory.resolve((Path) event.context());
+                if (fileFilter.accept(file.toFile())) {
+                    touchedFiles.add(file);
+                }
+            }
+        }
+        return key.reset();
+    }
+
+    private List<FileEvent> coalesce(Set<Path> touchedFiles) {
+        var burst = new ArrayList<FileEvent>(touchedFiles.size());
+        for (var file : touchedFiles) {
+            var exists = Files.isRegularFile(file);
+            if (knownFiles.contains(file)) {
+                if (exists) {
+                    burst.add(new FileChangedEvent(file.toFile()));
+                } else {
+                    knownFiles.remove(file);
+                    burst.add(new FileDeletedEvent(file.toFile()));
+                }
+            } else if (exists) {
+                knownFiles.add(file);
+                burst.add(new FileCreatedEvent(file.toFile()));
+            }
+        }
+        return burst;
+    }
+
+    private Set<Path> listFiles() throws IOException {
+        var files = new HashSet<Path>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                path -> Files.isRegularFile(path) && fileFilter.accept(path.toFile()))) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    private void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Error closing watch service of {}: {}", directory, e.getMessage());
+        }
+    }
+
+}
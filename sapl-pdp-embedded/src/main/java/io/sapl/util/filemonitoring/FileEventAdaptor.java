@@ -1,29 +1,46 @@
 package io.sapl.util.filemonitoring;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.io.monitor.FileAlterationListenerAdaptor;
+import org.apache.commons.io.monitor.FileAlterationObserver;
 
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.FluxSink;
 
+/**
+ * Collects the events detected during one check of an observer and emits them
+ * as one burst.
+ */
 @RequiredArgsConstructor
 public class FileEventAdaptor extends FileAlterationListenerAdaptor {
 
-    private final FluxSink<FileEvent> emitter;
+    private final FluxSink<List<FileEvent>> emitter;
+
+    private List<FileEvent> burst = new ArrayList<>();
 
     @Override
     public void onFileCreate(File file) {
-        emitter.next(new FileCreatedEvent(file));
+        burst.add(new FileCreatedEvent(file));
     }
 
     @Override
     public void onFileDelete(File file) {
-        emitter.next(new FileDeletedEvent(file));
+        burst.add(new FileDeletedEvent(file));
     }
 
     @Override
     public void onFileChange(File file) {
-        emitter.next(new FileChangedEvent(file));
+        burst.add(new FileChangedEvent(file));
+    }
+
+    @Override
+    public void onStop(FileAlterationObserver observer) {
+        if (!burst.isEmpty()) {
+            emitter.next(burst);
+            burst = new ArrayList<>();
+        }
     }
 }
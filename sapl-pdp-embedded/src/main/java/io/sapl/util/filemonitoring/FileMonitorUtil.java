@@ -7,18 +7,36 @@
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
 
 import org.apache.commons.io.monitor.FileAlterationMonitor;
 import org.apache.commons.io.monitor.FileAlterationObserver;
 
 import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 
+@Slf4j
 @UtilityClass
 public class FileMonitorUtil {
 
+    /**
+     * If this system property is set to true, directories are monitored by
+     * polling instead of using the native file change notifications of the
+     * operating system. If set to false, the watch service of the platform is
+     * used. If not set, directories are polled on macOS, where the JDK does not
+     * use native notifications but emulates them by scanning every few seconds.
+     */
+    public static final String FORCE_POLLING_PROPERTY = "io.sapl.filemonitoring.polling";
+
     private static final long POLL_INTERVAL = 500; // ms
 
+    private static final Duration DEBOUNCE_TIMEOUT = Duration.ofMillis(50);
+
     public static String resolveHomeFolderIfPresent(String policyPath) {
         if (policyPath.startsWith("~" + File.separator) || policyPath.startsWith("~/")) {
             return System.getProperty("user.home") + policyPath.substring(1);
@@ -40,6 +58,42 @@ public static String readFile(File file) throws IOException {
     }
 
     public static Flux<FileEvent> monitorDirectory(final String watchDir, final FileFilter fileFilter) {
+        return monitorDirectoryInBursts(watchDir, fileFilter).flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Monitors a directory for created, changed and deleted files. Events
+     * occurring in quick succession, e.g., while an editor saves a file or a
+     * deployment copies a set of files, are coalesced into one burst with at most
+     * one event per file.
+     *
+     * The native file change notifications of the operating system are used if
+     * available. Otherwise, the directory is polled.
+     *
+     * @param watchDir   the directory to monitor
+     * @param fileFilter selects the files of interest
+     * @return a Flux of bursts of file events
+     */
+    public static Flux<List<FileEvent>> monitorDirectoryInBursts(final String watchDir, final FileFilter fileFilter) {
+        return Flux.defer(() -> {
+            if (!isPollingForced()) {
+                try {
+                    return DirectoryWatcher.watch(Paths.get(watchDir), fileFilter, DEBOUNCE_TIMEOUT);
+                } catch (IOException | UnsupportedOperationException e) {
+                    log.info("No native file change notifications available for {}, falling back to polling: {}",
+                            watchDir, e.getMessage());
+                }
+            }
+            return pollDirectory(watchDir, fileFilter);
+        });
+    }
+
+    private static boolean isPollingForced() {
+        var pollingByDefault = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("mac");
+        return Boolean.parseBoolean(System.getProperty(FORCE_POLLING_PROPERTY, String.valueOf(pollingByDefault)));
+    }
+
+    private static Flux<List<FileEvent>> pollDirectory(final String watchDir, final FileFilter fileFilter) {
         return Flux.push(emitter -> {
             var adaptor = new FileEventAdaptor(emitter);
             FileAlterationMonitor monitor = new FileAlterationMonitor(POLL_INTERVAL);
@@ -15,8 +15,13 @@
  */
 package io.sapl.pdp.embedded;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -28,8 +33,18 @@
 import io.sapl.api.pdp.Decision;
 import io.sapl.api.pdp.PolicyDecisionPoint;
 import io.sapl.api.pdp.multisubscription.IdentifiableAuthorizationDecision;
+import io.sapl.api.pdp.multisubscription.MultiAuthorizationDecision;
 import io.sapl.api.pdp.multisubscription.MultiAuthorizationSubscription;
+import io.sapl.api.prp.PolicyRetrievalPoint;
+import io.sapl.api.prp.PolicyRetrievalResult;
+import io.sapl.interpreter.EvaluationContext;
+import io.sapl.interpreter.combinators.DocumentsCombinator;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import io.sapl.pdp.embedded.config.PDPConfiguration;
+import io.sapl.pdp.embedded.config.PDPConfigurationProvider;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.ReplayProcessor;
 import reactor.test.StepVerifier;
 
 public class EmbeddedPolicyDecisionPointTest {
@@ -118,4 +133,112 @@ public void decide_withMultiSubscriptionContainingTwoSubscriptions_shouldReturnT
 		}).thenCancel().verify();
 	}
 
+	@Test
+	public void decideAll_withDuplicateSubscriptions_shouldReturnOneDecisionForAllIds() {
+		final MultiAuthorizationSubscription multiAuthzSubscription = new MultiAuthorizationSubscription();
+		for (int i = 0; i < 500; i++) {
+			multiAuthzSubscription.addAuthorizationSubscription("id" + i, "willi", i % 2 == 0 ? "read" : "write",
+					"something");
+		}
+
+		final Flux<MultiAuthorizationDecision> flux = pdp.decideAll(multiAuthzSubscription);
+		StepVerifier.create(flux).expectNextMatches(multiAuthzDecision -> {
+			if (multiAuthzDecision.size() != 500) {
+				return false;
+			}
+			for (int i = 0; i < 500; i++) {
+				var expected = i % 2 == 0 ? Decision.PERMIT : Decision.DENY;
+				if (multiAuthzDecision.getDecisionForSubscriptionWithId("id" + i) != expected) {
+					return false;
+				}
+			}
+			return true;
+		}).verifyComplete();
+	}
+
+	@Test
+	public void decide_withDuplicateSubscriptions_shouldReturnDecisionForEachId() {
+		final MultiAuthorizationSubscription multiAuthzSubscription = new MultiAuthorizationSubscription()
+				.addAuthorizationSubscription("id1", "willi", "write", "something")
+				.addAuthorizationSubscription("id2", "willi", "write", "something");
+
+		final Flux<IdentifiableAuthorizationDecision> flux = pdp.decide(multiAuthzSubscription);
+		StepVerifier.create(flux.map(IdentifiableAuthorizationDecision::getAuthorizationSubscriptionId).take(2)
+				.collectList())
+				.expectNextMatches(ids -> ids.containsAll(List.of("id1", "id2"))).verifyComplete();
+	}
+
+	@Test
+	public void decide_withDelayedSubscription_shouldReturnDecisionsOfOtherSubscriptions() {
+		final MultiAuthorizationSubscription multiAuthzSubscription = new MultiAuthorizationSubscription()
+				.addAuthorizationSubscription("id1", "willi", "read", "something")
+				.addAuthorizationSubscription("id2", "willi", "write", "something");
+		final ReplayProcessor<AuthorizationDecision> delayedDecisions = ReplayProcessor.create();
+		final DocumentsCombinator combinator = (policyRetrievalResult, ctx) -> {
+			if ("write".equals(ctx.getVariableCtx().get("action").get().asText())) {
+				return delayedDecisions;
+			}
+			return Flux.just(AuthorizationDecision.PERMIT, AuthorizationDecision.PERMIT).concatWith(Flux.never());
+		};
+		final CountingPolicyRetrievalPoint prp = new CountingPolicyRetrievalPoint();
+		final EmbeddedPolicyDecisionPoint delayingPdp = new EmbeddedPolicyDecisionPoint(
+				fixedConfiguration(combinator), prp, 2);
+
+		final Flux<IdentifiableAuthorizationDecision> flux = delayingPdp.decide(multiAuthzSubscription);
+		StepVerifier.create(flux)
+				.expectNextMatches(iad -> iad.getAuthorizationSubscriptionId().equals("id1")
+						&& iad.getAuthorizationDecision().equals(AuthorizationDecision.PERMIT))
+				.then(() -> delayedDecisions.onNext(AuthorizationDecision.DENY))
+				.expectNextMatches(iad -> iad.getAuthorizationSubscriptionId().equals("id2")
+						&& iad.getAuthorizationDecision().equals(AuthorizationDecision.DENY))
+				.thenCancel().verify(Duration.ofSeconds(10));
+		assertThat(prp.retrievalsForAll.get()).isEqualTo(1);
+		delayingPdp.dispose();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void construct_withNonPositiveParallelism_shouldFail() {
+		new EmbeddedPolicyDecisionPoint(null, null, 0);
+	}
+
+	private static PDPConfigurationProvider fixedConfiguration(DocumentsCombinator combinator) {
+		final EvaluationContext pdpScopedEvaluationContext = new EvaluationContext(new AnnotationAttributeContext(),
+				new AnnotationFunctionContext(), new HashMap<>());
+		return new PDPConfigurationProvider() {
+			@Override
+			public Flux<PDPConfiguration> pdpConfiguration() {
+				return Flux.just(new PDPConfiguration(pdpScopedEvaluationContext, combinator))
+						.concatWith(Flux.never());
+			}
+
+			@Override
+			public void dispose() {
+				// nothing to dispose
+			}
+		};
+	}
+
+	private static class CountingPolicyRetrievalPoint implements PolicyRetrievalPoint {
+
+		private final AtomicInteger retrievalsForAll = new AtomicInteger();
+
+		@Override
+		public Flux<PolicyRetrievalResult> retrievePolicies(EvaluationContext subscriptionScopedEvaluationContext) {
+			return Flux.just(new PolicyRetrievalResult()).concatWith(Flux.never());
+		}
+
+		@Override
+		public Flux<List<PolicyRetrievalResult>> retrievePoliciesForAll(
+				List<EvaluationContext> subscriptionScopedEvaluationContexts) {
+			retrievalsForAll.incrementAndGet();
+			return PolicyRetrievalPoint.super.retrievePoliciesForAll(subscriptionScopedEvaluationContexts);
+		}
+
+		@Override
+		public void dispose() {
+			// nothing to dispose
+		}
+
+	}
+
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.pdp.embedded.config;
+
+import static io.sapl.api.pdp.PolicyDocumentCombiningAlgorithm.DENY_OVERRIDES;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import io.sapl.interpreter.combinators.DocumentsCombinator;
+import io.sapl.interpreter.combinators.DocumentsCombinatorFactory;
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.ReplayProcessor;
+import reactor.test.StepVerifier;
+
+public class FixedFunctionsAndAttributesPDPConfigurationProviderTest {
+
+	private VariablesSource source;
+
+	private FixedFunctionsAndAttributesPDPConfigurationProvider provider;
+
+	@Before
+	public void setUp() {
+		source = new VariablesSource();
+		provider = new FixedFunctionsAndAttributesPDPConfigurationProvider(new AnnotationAttributeContext(),
+				new AnnotationFunctionContext(), source);
+	}
+
+	@After
+	public void tearDown() {
+		provider.dispose();
+	}
+
+	@Test
+	public void configurationIsComputedOnceAndSharedBySubscribers() {
+		source.emitVariables(Map.of("key", JsonNodeFactory.instance.textNode("value")));
+
+		var first = provider.pdpConfiguration().blockFirst();
+		var second = provider.pdpConfiguration().blockFirst();
+
+		assertThat(first).isNotNull();
+		assertThat(first.isValid()).isTrue();
+		assertThat(second).isSameAs(first);
+		assertThat(provider.numberOfConfigurations()).isEqualTo(1L);
+	}
+
+	@Test
+	public void subscribersReceiveConfigurationUpdates() {
+		source.emitVariables(Map.of());
+		var firstSubscriber = provider.pdpConfiguration().subscribe();
+		var latestConfiguration = new PDPConfiguration[1];
+		var secondSubscriber = provider.pdpConfiguration()
+				.subscribe(configuration -> latestConfiguration[0] = configuration);
+
+		assertThat(provider.numberOfSubscribers()).isEqualTo(2);
+		var initialConfiguration = latestConfiguration[0];
+
+		source.emitVariables(Map.of("key", JsonNodeFactory.instance.textNode("value")));
+
+		assertThat(latestConfiguration[0]).isNotSameAs(initialConfiguration);
+		assertThat(provider.numberOfConfigurations()).isEqualTo(2L);
+
+		firstSubscriber.dispose();
+		secondSubscriber.dispose();
+		assertThat(provider.numberOfSubscribers()).isZero();
+	}
+
+	@Test
+	public void failingSourceLeadsToInvalidConfigurationAndIsResubscribed() {
+		var failingSource = new VariablesSource(1);
+		failingSource.emitVariables(Map.of());
+		var recoveringProvider = new FixedFunctionsAndAttributesPDPConfigurationProvider(
+				new AnnotationAttributeContext(), new AnnotationFunctionContext(), failingSource);
+		try {
+			StepVerifier.create(recoveringProvider.pdpConfiguration())
+					.expectNextMatches(configuration -> !configuration.isValid())
+					.expectNextMatches(PDPConfiguration::isValid).thenCancel().verify(Duration.ofSeconds(10));
+		} finally {
+			recoveringProvider.dispose();
+		}
+	}
+
+	private static class VariablesSource implements VariablesAndCombinatorSource {
+
+		private final ReplayProcessor<Optional<Map<String, JsonNode>>> variables = ReplayProcessor.cacheLast();
+
+		private final AtomicInteger remainingFailures;
+
+		VariablesSource() {
+			this(0);
+		}
+
+		VariablesSource(int failures) {
+			remainingFailures = new AtomicInteger(failures);
+		}
+
+		void emitVariables(Map<String, JsonNode> value) {
+			variables.onNext(Optional.of(value));
+		}
+
+		@Override
+		public Flux<Optional<DocumentsCombinator>> getDocumentsCombinator() {
+			return Flux.just(Optional.of(DocumentsCombinatorFactory.getCombinator(DENY_OVERRIDES)));
+		}
+
+		@Override
+		public Flux<Optional<Map<String, JsonNode>>> getVariables() {
+			return Flux.defer(() -> remainingFailures.getAndDecrement() > 0
+					? Flux.error(new IllegalStateException("variables unavailable"))
+					: variables);
+		}
+
+		@Override
+		public void dispose() {
+			// nothing to dispose
+		}
+
+	}
+
+}
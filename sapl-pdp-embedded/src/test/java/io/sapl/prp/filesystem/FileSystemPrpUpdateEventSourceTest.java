@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.prp.filesystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.sapl.grammar.sapl.SAPL;
+import io.sapl.interpreter.DefaultSAPLInterpreter;
+import io.sapl.prp.PrpUpdateEvent.Type;
+import reactor.test.StepVerifier;
+
+public class FileSystemPrpUpdateEventSourceTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void documentCreatedDuringInitialLoadIsPublished() {
+		write("a.sapl", "policy \"a\" permit");
+		var documentCreated = new AtomicBoolean();
+		// the directory has already been listed when the first document is parsed
+		var interpreter = new DefaultSAPLInterpreter() {
+			@Override
+			public SAPL parse(String saplDefinition) {
+				if (documentCreated.compareAndSet(false, true)) {
+					write("b.sapl", "policy \"b\" deny");
+				}
+				return super.parse(saplDefinition);
+			}
+		};
+		var source = new FileSystemPrpUpdateEventSource(folder.getRoot().getAbsolutePath(), interpreter);
+
+		var publishedDocuments = source.getUpdates().flatMapIterable(event -> Arrays.asList(event.getUpdates()))
+				.filter(update -> update.getType() == Type.PUBLISH)
+				.map(update -> update.getDocument().getPolicyElement().getSaplName());
+
+		StepVerifier.create(publishedDocuments).expectNext("a", "b").thenCancel().verify(TIMEOUT);
+		source.dispose();
+	}
+
+	private void write(String fileName, String content) {
+		try {
+			Files.writeString(new File(folder.getRoot(), fileName).toPath(), content, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package io.sapl.util.filemonitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class FileMonitorUtilTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(FileMonitorUtil.FORCE_POLLING_PROPERTY);
+    }
+
+    @Test
+    public void burstOfCreatedFilesIsCoalesced() {
+        StepVerifier.create(monitor()).expectSubscription()
+                .then(() -> {
+                    write("a.sapl", "first");
+                    write("a.sapl", "second");
+                    write("b.sapl", "first");
+                    write("ignored.txt", "first");
+                }).assertNext(burst -> {
+                    assertThat(burst).allMatch(FileCreatedEvent.class::isInstance);
+                    assertThat(burst).extracting(event -> event.getFile().getName())
+                            .containsExactlyInAnyOrder("a.sapl", "b.sapl");
+                }).thenCancel().verify(TIMEOUT);
+    }
+
+    @Test
+    public void changedAndDeletedFilesAreReported() {
+        write("a.sapl", "first");
+        write("b.sapl", "first");
+        StepVerifier.create(monitor()).expectSubscription()
+                .then(() -> {
+                    write("a.sapl", "second");
+                    delete("b.sapl");
+                }).assertNext(burst -> {
+                    assertThat(burst).hasSize(2);
+                    assertThat(burst).anyMatch(event -> event instanceof FileChangedEvent
+                            && event.getFile().getName().equals("a.sapl"));
+                    assertThat(burst).anyMatch(event -> event instanceof FileDeletedEvent
+                            && event.getFile().getName().equals("b.sapl"));
+                }).thenCancel().verify(TIMEOUT);
+    }
+
+    @Test
+    public void createdAndDeletedFileWithinBurstIsNotReported() {
+        StepVerifier.create(monitor()).expectSubscription()
+                .then(() -> {
+                    write("a.sapl", "first");
+                    delete("a.sapl");
+                    write("b.sapl", "first");
+                }).assertNext(burst -> assertThat(burst).extracting(event -> event.getFile().getName())
+                        .containsExactly("b.sapl"))
+                .thenCancel().verify(TIMEOUT);
+    }
+
+    @Test
+    public void pollingCanBeForced() {
+        System.setProperty(FileMonitorUtil.FORCE_POLLING_PROPERTY, "true");
+        StepVerifier.create(monitor()).expectSubscription()
+                .then(() -> write("a.sapl", "first"))
+                .assertNext(burst -> assertThat(burst).hasSize(1).allMatch(FileCreatedEvent.class::isInstance))
+                .thenCancel().verify(TIMEOUT);
+    }
+
+    private Flux<List<FileEvent>> monitor() {
+        return FileMonitorUtil.monitorDirectoryInBursts(folder.getRoot().getAbsolutePath(),
+                file -> file.getName().endsWith(".sapl"));
+    }
+
+    private void write(String fileName, String content) {
+        try {
+            Files.writeString(new File(folder.getRoot(), fileName).toPath(), content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void delete(String fileName) {
+        try {
+            Files.delete(new File(folder.getRoot(), fileName).toPath());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -15,7 +15,6 @@
  */
 package io.sapl.pdp.remote;
 
-import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -26,6 +25,7 @@
 import io.sapl.api.pdp.multisubscription.IdentifiableAuthorizationDecision;
 import io.sapl.api.pdp.multisubscription.MultiAuthorizationDecision;
 import io.sapl.api.pdp.multisubscription.MultiAuthorizationSubscription;
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.netty.http.client.HttpClient;
@@ -37,8 +37,12 @@ public class RemotePolicyDecisionPoint implements PolicyDecisionPoint {
 	private static final String MULTI_DECIDE = "/api/pdp/multi-decide";
 	private static final String MULTI_DECIDE_ALL = "/api/pdp/multi-decide-all";
 
+	private static final String WIRE_FORMAT_NOT_AVAILABLE = "The wire format %s is not available. Required libraries are missing on the classpath.";
+
 	private final WebClient client;
 
+	private final WireFormat wireFormat;
+
 	public RemotePolicyDecisionPoint(String baseUrl, String clientKey, String clientSecret, SslContext sslContext) {
 		this(baseUrl, clientKey, clientSecret, HttpClient.create().secure(spec -> spec.sslContext(sslContext)));
 	}
@@ -48,6 +52,24 @@ public RemotePolicyDecisionPoint(String baseUrl, String clientKey, String client
 	}
 
 	public RemotePolicyDecisionPoint(String baseUrl, String clientKey, String clientSecret, HttpClient httpClient) {
+		this(baseUrl, clientKey, clientSecret, httpClient, WireFormat.JSON);
+	}
+
+	/**
+	 * @param baseUrl      the URL of the PDP server
+	 * @param clientKey    the key for basic authentication
+	 * @param clientSecret the secret for basic authentication
+	 * @param httpClient   the HTTP client used for connecting to the server
+	 * @param wireFormat   the encoding of subscriptions and decisions
+	 * @throws IllegalStateException if the libraries required for the wire format
+	 *                               are not on the classpath
+	 */
+	public RemotePolicyDecisionPoint(String baseUrl, String clientKey, String clientSecret, HttpClient httpClient,
+			@NonNull WireFormat wireFormat) {
+		if (!wireFormat.isAvailable()) {
+			throw new IllegalStateException(String.format(WIRE_FORMAT_NOT_AVAILABLE, wireFormat));
+		}
+		this.wireFormat = wireFormat;
 		client = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).baseUrl(baseUrl)
 				.defaultHeaders(header -> header.setBasicAuth(clientKey, clientSecret)).build();
 	}
@@ -71,8 +93,8 @@ public Flux<MultiAuthorizationDecision> decideAll(MultiAuthorizationSubscription
 	}
 
 	private <T> Flux<T> decide(String path, Class<T> valueType, Object authzSubscription) {
-		return client.post().uri(path).accept(MediaType.APPLICATION_STREAM_JSON).contentType(MediaType.APPLICATION_JSON)
-				.bodyValue(authzSubscription).retrieve().bodyToFlux(valueType)
+		return client.post().uri(path).accept(wireFormat.getDecisionMediaType())
+				.contentType(wireFormat.getSubscriptionMediaType()).bodyValue(authzSubscription).retrieve().bodyToFlux(valueType)
 				.doOnError(error -> log.error("Error : {}", error.getMessage()));
 	}
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.pdp.remote;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.ClassUtils;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Encodings of the subscriptions and decisions exchanged with a remote PDP.
+ */
+@Getter(AccessLevel.PACKAGE)
+@RequiredArgsConstructor
+public enum WireFormat {
+
+	/**
+	 * Subscriptions as JSON, decisions as a stream of JSON documents. Supported by
+	 * every PDP server.
+	 */
+	JSON(MediaType.APPLICATION_JSON, MediaType.APPLICATION_STREAM_JSON, null),
+
+	/**
+	 * The binary JSON format Smile. Requires
+	 * com.fasterxml.jackson.dataformat:jackson-dataformat-smile on the classpath
+	 * of the client and the server.
+	 */
+	SMILE(new MediaType("application", "x-jackson-smile"), new MediaType("application", "stream+x-jackson-smile"),
+			"com.fasterxml.jackson.dataformat.smile.SmileFactory");
+
+	private final MediaType subscriptionMediaType;
+
+	private final MediaType decisionMediaType;
+
+	@Getter(AccessLevel.NONE)
+	private final String requiredClass;
+
+	boolean isAvailable() {
+		return requiredClass == null || ClassUtils.isPresent(requiredClass, WireFormat.class.getClassLoader());
+	}
+
+}
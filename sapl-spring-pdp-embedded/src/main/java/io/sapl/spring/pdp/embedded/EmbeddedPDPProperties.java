@@ -17,6 +17,7 @@
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import io.sapl.pdp.embedded.EmbeddedPolicyDecisionPoint;
 import lombok.Data;
 
 @Data
@@ -24,8 +25,10 @@
 public class EmbeddedPDPProperties {
 	private PDPDataSource pdpConfigType = PDPDataSource.RESOURCES;
 	private IndexType index = IndexType.NAIVE;
+	private PredicateOrder predicateOrder = PredicateOrder.DEFAULT;
 	private String configPath = "/policies";
 	private String policiesPath = "/policies";
+	private int multiSubscriptionParallelism = EmbeddedPolicyDecisionPoint.DEFAULT_MULTI_SUBSCRIPTION_PARALLELISM;
 
 	public enum PDPDataSource {
 		RESOURCES, FILESYSTEM
@@ -34,4 +37,8 @@ public enum PDPDataSource {
 	public enum IndexType {
 		NAIVE, CANONICAL
 	}
+
+	public enum PredicateOrder {
+		DEFAULT, ADAPTIVE
+	}
 }
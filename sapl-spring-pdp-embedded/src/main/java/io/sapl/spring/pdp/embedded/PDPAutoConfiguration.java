@@ -39,13 +39,16 @@ public class PDPAutoConfiguration {
 
 	private final PolicyRetrievalPoint policyRetrievalPoint;
 	private final PDPConfigurationProvider configurationProvider;
+	private final EmbeddedPDPProperties pdpProperties;
 
-	@Bean
+	@Bean(destroyMethod = "dispose")
 	@ConditionalOnMissingBean
 	public PolicyDecisionPoint policyDecisionPoint() {
-		log.info("Deploying embedded Policy Decision Point. ConfigProvider: {} PRP: {}",
-				configurationProvider.getClass().getSimpleName(), policyRetrievalPoint.getClass().getSimpleName());
-		return new EmbeddedPolicyDecisionPoint(configurationProvider, policyRetrievalPoint);
+		log.info("Deploying embedded Policy Decision Point. ConfigProvider: {} PRP: {} Parallelism: {}",
+				configurationProvider.getClass().getSimpleName(), policyRetrievalPoint.getClass().getSimpleName(),
+				pdpProperties.getMultiSubscriptionParallelism());
+		return new EmbeddedPolicyDecisionPoint(configurationProvider, policyRetrievalPoint,
+				pdpProperties.getMultiSubscriptionParallelism());
 	}
 
 }
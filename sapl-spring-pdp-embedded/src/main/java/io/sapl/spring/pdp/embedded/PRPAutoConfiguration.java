@@ -24,8 +24,12 @@
 import io.sapl.prp.PrpUpdateEventSource;
 import io.sapl.prp.index.ImmutableParsedDocumentIndex;
 import io.sapl.prp.index.canonical.CanonicalImmutableParsedDocumentIndex;
+import io.sapl.prp.index.canonical.ordering.AdaptivePredicateOrderStrategy;
+import io.sapl.prp.index.canonical.ordering.DefaultPredicateOrderStrategy;
+import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
 import io.sapl.prp.index.naive.NaiveImmutableParsedDocumentIndex;
 import io.sapl.spring.pdp.embedded.EmbeddedPDPProperties.IndexType;
+import io.sapl.spring.pdp.embedded.EmbeddedPDPProperties.PredicateOrder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -63,9 +67,17 @@ public PolicyRetrievalPoint policyRetrievalPoint()
 			// Variables need not to be bound here. Thus, this hind of static PDP scoped
 			// evaluation context is sufficient. Variables will be bound later in the
 			// subscription scoped EvaluationContext handed over for lookup.
-			seedIndex = new CanonicalImmutableParsedDocumentIndex(
+			seedIndex = new CanonicalImmutableParsedDocumentIndex(predicateOrderStrategy(),
 					new EvaluationContext(attributeContext, functionContext, new HashMap<>()));
 		}
 		return new GenericInMemoryIndexedPolicyRetrievalPoint(seedIndex, eventSource);
 	}
+
+	PredicateOrderStrategy predicateOrderStrategy() {
+		log.info("Using predicate order: {}", pdpProperties.getPredicateOrder());
+		if (pdpProperties.getPredicateOrder() == PredicateOrder.ADAPTIVE) {
+			return new AdaptivePredicateOrderStrategy();
+		}
+		return new DefaultPredicateOrderStrategy();
+	}
 }
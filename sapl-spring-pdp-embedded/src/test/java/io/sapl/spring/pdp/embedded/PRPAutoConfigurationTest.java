@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.spring.pdp.embedded;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import io.sapl.interpreter.functions.AnnotationFunctionContext;
+import io.sapl.interpreter.pip.AnnotationAttributeContext;
+import io.sapl.prp.index.canonical.ordering.AdaptivePredicateOrderStrategy;
+import io.sapl.prp.index.canonical.ordering.DefaultPredicateOrderStrategy;
+import io.sapl.prp.index.canonical.ordering.PredicateOrderStrategy;
+import io.sapl.spring.pdp.embedded.EmbeddedPDPProperties.PredicateOrder;
+
+public class PRPAutoConfigurationTest {
+
+	@Test
+	public void predicateOrderDefaultsToDefaultStrategy() {
+		var properties = bind(Map.of());
+
+		assertThat(properties.getPredicateOrder()).isEqualTo(PredicateOrder.DEFAULT);
+		assertThat(predicateOrderStrategy(properties)).isInstanceOf(DefaultPredicateOrderStrategy.class);
+	}
+
+	@Test
+	public void adaptivePredicateOrderIsConfiguredByProperty() {
+		var properties = bind(Map.of("io.sapl.pdp.embedded.index", "canonical",
+				"io.sapl.pdp.embedded.predicate-order", "adaptive"));
+
+		assertThat(properties.getPredicateOrder()).isEqualTo(PredicateOrder.ADAPTIVE);
+		assertThat(predicateOrderStrategy(properties)).isInstanceOf(AdaptivePredicateOrderStrategy.class);
+	}
+
+	private static EmbeddedPDPProperties bind(Map<String, String> properties) {
+		return new Binder(new MapConfigurationPropertySource(properties))
+				.bindOrCreate("io.sapl.pdp.embedded", EmbeddedPDPProperties.class);
+	}
+
+	private static PredicateOrderStrategy predicateOrderStrategy(EmbeddedPDPProperties properties) {
+		return new PRPAutoConfiguration(properties, null, new AnnotationFunctionContext(),
+				new AnnotationAttributeContext()).predicateOrderStrategy();
+	}
+
+}
@@ -27,6 +27,7 @@
 import io.sapl.pdp.remote.RemotePolicyDecisionPoint;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.client.HttpClient;
 
 @Slf4j
 @Configuration
@@ -40,8 +41,9 @@ public class RemotePDPAutoConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	public PolicyDecisionPoint policyDecisionPoint() throws SSLException {
-		log.info("Binding to remote PDP server: {}", properties.getHost());
-		return new RemotePolicyDecisionPoint(properties.getHost(), properties.getKey(), properties.getSecret());
+		log.info("Binding to remote PDP server: {} ({})", properties.getHost(), properties.getWireFormat());
+		return new RemotePolicyDecisionPoint(properties.getHost(), properties.getKey(), properties.getSecret(),
+				HttpClient.create().secure(), properties.getWireFormat());
 	}
 
 }
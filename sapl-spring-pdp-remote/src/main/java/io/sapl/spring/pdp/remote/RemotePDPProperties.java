@@ -17,6 +17,7 @@
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import io.sapl.pdp.remote.WireFormat;
 import lombok.Data;
 
 @Data
@@ -25,4 +26,5 @@ public class RemotePDPProperties {
 	private String host;
 	private String key;
 	private String secret;
+	private WireFormat wireFormat = WireFormat.JSON;
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.spring.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.sapl.api.pdp.PolicyDecisionPoint;
+
+@Configuration
+@EnableConfigurationProperties(DecisionCacheProperties.class)
+public class DecisionCacheAutoConfiguration {
+
+	@Bean(destroyMethod = "dispose")
+	public OneShotPolicyDecisionPointProvider oneShotPolicyDecisionPointProvider(PolicyDecisionPoint pdp,
+			DecisionCacheProperties decisionCache) {
+		return new OneShotPolicyDecisionPointProvider(pdp, decisionCache);
+	}
+
+}
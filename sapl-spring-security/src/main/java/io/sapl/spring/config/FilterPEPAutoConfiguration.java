@@ -21,7 +21,6 @@
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import io.sapl.api.pdp.PolicyDecisionPoint;
 import io.sapl.spring.constraints.ConstraintHandlerService;
 import io.sapl.spring.pep.PolicyEnforcementFilterPEP;
 import lombok.extern.slf4j.Slf4j;
@@ -31,9 +30,9 @@
 public class FilterPEPAutoConfiguration {
 	@Bean
 	@ConditionalOnProperty("io.sapl.policyEnforcementFilter")
-	public PolicyEnforcementFilterPEP policyEnforcementFilter(PolicyDecisionPoint pdp,
+	public PolicyEnforcementFilterPEP policyEnforcementFilter(OneShotPolicyDecisionPointProvider pdpProvider,
 			ConstraintHandlerService constraintHandlers, ObjectMapper mapper) {
 		log.info("PolicyEnforcementFilter enabled.");
-		return new PolicyEnforcementFilterPEP(pdp, constraintHandlers, mapper);
+		return new PolicyEnforcementFilterPEP(pdpProvider.getPolicyDecisionPoint(), constraintHandlers, mapper);
 	}
 }
@@ -49,7 +49,7 @@
 @EnableGlobalMethodSecurity
 public class MethodSecurityAutoConfiguration extends GlobalMethodSecurityConfiguration {
 
-	protected final ObjectFactory<PolicyDecisionPoint> pdpFactory;
+	protected final ObjectFactory<OneShotPolicyDecisionPointProvider> pdpProviderFactory;
 
 	protected final ObjectFactory<ConstraintHandlerService> constraintHandlerFactory;
 
@@ -59,7 +59,7 @@ public class MethodSecurityAutoConfiguration extends GlobalMethodSecurityConfigu
 	protected AccessDecisionManager accessDecisionManager() {
 		List<AccessDecisionVoter<?>> decisionVoters = new ArrayList<>();
 		PolicyBasedPreInvocationEnforcementAdvice policyAdvice = new PolicyBasedPreInvocationEnforcementAdvice(
-				pdpFactory, constraintHandlerFactory, objectMapperFactory);
+				this::oneShotPolicyDecisionPoint, constraintHandlerFactory, objectMapperFactory);
 		policyAdvice.setExpressionHandler(getExpressionHandler());
 		decisionVoters.add(new PreInvocationEnforcementAdviceVoter(policyAdvice));
 		decisionVoters.add(new RoleVoter());
@@ -71,8 +71,8 @@ protected AccessDecisionManager accessDecisionManager() {
 
 	@Override
 	protected AfterInvocationManager afterInvocationManager() {
-		PolicyBasedPostInvocationEnforcementAdvice advice = new PolicyBasedPostInvocationEnforcementAdvice(pdpFactory,
-				constraintHandlerFactory, objectMapperFactory);
+		PolicyBasedPostInvocationEnforcementAdvice advice = new PolicyBasedPostInvocationEnforcementAdvice(
+				this::oneShotPolicyDecisionPoint, constraintHandlerFactory, objectMapperFactory);
 		advice.setExpressionHandler(getExpressionHandler());
 		PostInvocationEnforcementProvider provider = new PostInvocationEnforcementProvider(advice);
 
@@ -92,6 +92,15 @@ protected AfterInvocationManager afterInvocationManager() {
 		return invocationProviderManager;
 	}
 
+	/*
+	 * The pre and post invocation advices only consume the first decision. They
+	 * use the PDP shared by all one-shot enforcement points, which is retrieved
+	 * lazily like the other dependencies of the advices.
+	 */
+	private PolicyDecisionPoint oneShotPolicyDecisionPoint() {
+		return pdpProviderFactory.getObject().getPolicyDecisionPoint();
+	}
+
 	@Override
 	protected MethodSecurityMetadataSource customMethodSecurityMetadataSource() {
 		return new PolicyEnforcementMethodSecurityMetadataSource(
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.spring.config;
+
+import io.sapl.api.pdp.PolicyDecisionPoint;
+import io.sapl.spring.pdp.CachingPolicyDecisionPoint;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Provides the PDP for enforcement points consuming the first decision of each
+ * subscription only, i.e., the policy enforcement filter and method security.
+ * If enabled by setting io.sapl.decision-cache.enabled=true, a
+ * {@link CachingPolicyDecisionPoint} is placed in front of the PDP. All one-shot
+ * enforcement points share this cache. The PDP bean itself is not replaced, so
+ * streaming enforcement points are not affected.
+ */
+@Slf4j
+public class OneShotPolicyDecisionPointProvider {
+
+	@Getter
+	private final PolicyDecisionPoint policyDecisionPoint;
+
+	public OneShotPolicyDecisionPointProvider(@NonNull PolicyDecisionPoint pdp,
+			@NonNull DecisionCacheProperties properties) {
+		if (properties.isEnabled()) {
+			log.info("Decision cache enabled. Maximum size: {} Time to idle: {}", properties.getMaximumSize(),
+					properties.getTimeToIdle());
+			policyDecisionPoint = new CachingPolicyDecisionPoint(pdp, properties.getMaximumSize(),
+					properties.getTimeToIdle());
+		} else {
+			policyDecisionPoint = pdp;
+		}
+	}
+
+	/**
+	 * Stops the eviction task of the decision cache and cancels its hot
+	 * subscriptions to the PDP, if the cache is enabled.
+	 */
+	public void dispose() {
+		if (policyDecisionPoint instanceof CachingPolicyDecisionPoint) {
+			((CachingPolicyDecisionPoint) policyDecisionPoint).dispose();
+		}
+	}
+
+}
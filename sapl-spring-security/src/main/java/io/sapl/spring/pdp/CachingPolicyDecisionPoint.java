@@ -0,0 +1,293 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.spring.pdp;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.PolicyDecisionPoint;
+import io.sapl.api.pdp.multisubscription.IdentifiableAuthorizationDecision;
+import io.sapl.api.pdp.multisubscription.MultiAuthorizationDecision;
+import io.sapl.api.pdp.multisubscription.MultiAuthorizationSubscription;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Decision cache in front of a policy decision point for enforcement points
+ * which only consume the first decision, e.g., using
+ * {@code decide(...).blockFirst()}.
+ *
+ * For each distinct authorization subscription, one hot subscription to the
+ * delegate PDP is kept open. Its latest decision is replayed to every caller,
+ * so that one-shot enforcement points are served without setting up a new
+ * evaluation pipeline per call. As the hot subscription keeps running, cached
+ * decisions follow policy and attribute updates.
+ *
+ * Subscriptions are identified by their JSON content. Entries are reference
+ * counted. Only entries without subscribers are evicted: once they have not
+ * been accessed for the configured time to idle, or in least recently used
+ * order once the maximum size is exceeded. Thus, the cache may temporarily hold
+ * more entries than its maximum size, if all of them are subscribed to.
+ *
+ * Multi-subscriptions are passed through to the delegate.
+ */
+@Slf4j
+public class CachingPolicyDecisionPoint implements PolicyDecisionPoint {
+
+	private final PolicyDecisionPoint delegate;
+
+	private final int maximumSize;
+
+	private final long timeToIdleMillis;
+
+	private final Scheduler scheduler;
+
+	private final Map<AuthorizationSubscription, CacheEntry> entries = new ConcurrentHashMap<>();
+
+	private final Disposable idleEviction;
+
+	/**
+	 * @param delegate    the PDP computing the decisions
+	 * @param maximumSize the maximum number of idle subscriptions kept hot
+	 * @param timeToIdle  the time after which an entry not accessed anymore is
+	 *                    evicted
+	 */
+	public CachingPolicyDecisionPoint(@NonNull PolicyDecisionPoint delegate, int maximumSize,
+			@NonNull Duration timeToIdle) {
+		this(delegate, maximumSize, timeToIdle, Schedulers.parallel());
+	}
+
+	CachingPolicyDecisionPoint(@NonNull PolicyDecisionPoint delegate, int maximumSize, @NonNull Duration timeToIdle,
+			@NonNull Scheduler scheduler) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("The maximum size of the decision cache must be positive.");
+		}
+		if (timeToIdle.isNegative() || timeToIdle.isZero()) {
+			throw new IllegalArgumentException("The time to idle of the decision cache must be positive.");
+		}
+		this.delegate = delegate;
+		this.maximumSize = maximumSize;
+		this.timeToIdleMillis = timeToIdle.toMillis();
+		this.scheduler = scheduler;
+		long evictionPeriod = Math.max(1L, timeToIdleMillis / 2);
+		this.idleEviction = scheduler.schedulePeriodically(this::evictIdleEntries, evictionPeriod, evictionPeriod,
+				TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public Flux<AuthorizationDecision> decide(AuthorizationSubscription authzSubscription) {
+		return Flux.defer(() -> {
+			var entry = acquire(keyOf(authzSubscription));
+			return entry.hotDecisions.doFinally(signal -> entry.release(now()));
+		});
+	}
+
+	@Override
+	public Flux<IdentifiableAuthorizationDecision> decide(MultiAuthorizationSubscription multiAuthzSubscription) {
+		return delegate.decide(multiAuthzSubscription);
+	}
+
+	@Override
+	public Flux<MultiAuthorizationDecision> decideAll(MultiAuthorizationSubscription multiAuthzSubscription) {
+		return delegate.decideAll(multiAuthzSubscription);
+	}
+
+	/**
+	 * @return the number of authorization subscriptions currently kept hot.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes all entries from the cache. The hot subscriptions to the delegate
+	 * PDP are cancelled once their last subscriber left.
+	 */
+	public void invalidateAll() {
+		for (var entry : entries.values()) {
+			entries.remove(entry.key, entry);
+			entry.invalidate();
+		}
+	}
+
+	/**
+	 * Stops the periodic eviction of idle entries and invalidates all entries.
+	 */
+	public void dispose() {
+		idleEviction.dispose();
+		invalidateAll();
+	}
+
+	private CacheEntry acquire(AuthorizationSubscription key) {
+		while (true) {
+			var entry = entries.get(key);
+			var created = false;
+			if (entry == null) {
+				var newEntry = new CacheEntry(key);
+				entry = entries.putIfAbsent(key, newEntry);
+				if (entry == null) {
+					log.trace("caching decisions for subscription: {}", key);
+					entry = newEntry;
+					created = true;
+				}
+			}
+			if (entry.tryAcquire(now())) {
+				if (created && entries.size() > maximumSize) {
+					evictEntriesExceedingMaximumSize();
+				}
+				return entry;
+			}
+			// the entry has been evicted concurrently, retry with a new one
+			entries.remove(key, entry);
+		}
+	}
+
+	void evictIdleEntries() {
+		long now = now();
+		for (var entry : entries.values()) {
+			if (entry.evictIfIdleSince(now - timeToIdleMillis)) {
+				entries.remove(entry.key, entry);
+			}
+		}
+	}
+
+	private void evictEntriesExceedingMaximumSize() {
+		// the time of the last access is captured once, as it may change while sorting
+		var lastAccessOfEntry = new IdentityHashMap<CacheEntry, Long>();
+		entries.values().forEach(entry -> lastAccessOfEntry.put(entry, entry.getLastAccess()));
+		var evictionCandidates = new ArrayList<>(lastAccessOfEntry.keySet());
+		evictionCandidates.sort(Comparator.comparingLong(lastAccessOfEntry::get));
+		for (var entry : evictionCandidates) {
+			if (entries.size() <= maximumSize) {
+				return;
+			}
+			if (entry.evictIfIdleSince(Long.MAX_VALUE)) {
+				entries.remove(entry.key, entry);
+			}
+		}
+	}
+
+	private long now() {
+		return scheduler.now(TimeUnit.MILLISECONDS);
+	}
+
+	private static AuthorizationSubscription keyOf(AuthorizationSubscription authzSubscription) {
+		// AuthorizationSubscription is mutable, so the key has to be decoupled from
+		// the callers instance. Equality of JSON nodes does not depend on the order of
+		// object fields.
+		return new AuthorizationSubscription(copyOf(authzSubscription.getSubject()),
+				copyOf(authzSubscription.getAction()), copyOf(authzSubscription.getResource()),
+				copyOf(authzSubscription.getEnvironment()));
+	}
+
+	private static JsonNode copyOf(JsonNode node) {
+		return node == null ? null : node.deepCopy();
+	}
+
+	private class CacheEntry {
+
+		private final AuthorizationSubscription key;
+
+		private final ConnectableFlux<AuthorizationDecision> hotDecisions;
+
+		private Disposable connection;
+
+		private int subscribers;
+
+		private long lastAccess;
+
+		private boolean evicted;
+
+		CacheEntry(AuthorizationSubscription key) {
+			this.key = key;
+			this.hotDecisions = delegate.decide(key).doFinally(signal -> terminated()).replay(1);
+		}
+
+		synchronized boolean tryAcquire(long now) {
+			if (evicted) {
+				return false;
+			}
+			subscribers++;
+			lastAccess = now;
+			if (connection == null) {
+				connection = hotDecisions.connect();
+			}
+			return true;
+		}
+
+		synchronized void release(long now) {
+			subscribers--;
+			lastAccess = now;
+			if (evicted && subscribers == 0) {
+				disconnect();
+			}
+		}
+
+		synchronized long getLastAccess() {
+			return lastAccess;
+		}
+
+		/**
+		 * @return true, if the entry had no subscribers and was not accessed after the
+		 *         given time, i.e., it has been evicted
+		 */
+		synchronized boolean evictIfIdleSince(long time) {
+			if (evicted || subscribers > 0 || lastAccess > time) {
+				return false;
+			}
+			evicted = true;
+			disconnect();
+			return true;
+		}
+
+		synchronized void invalidate() {
+			evicted = true;
+			if (subscribers == 0) {
+				disconnect();
+			}
+		}
+
+		private void terminated() {
+			// the delegate completed or failed, subscribers receive the replayed signal
+			synchronized (this) {
+				evicted = true;
+			}
+			entries.remove(key, this);
+		}
+
+		private void disconnect() {
+			if (connection != null) {
+				connection.dispose();
+			}
+		}
+
+	}
+
+}
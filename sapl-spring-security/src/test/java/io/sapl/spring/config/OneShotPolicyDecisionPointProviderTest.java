@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.spring.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.PolicyDecisionPoint;
+import io.sapl.api.pdp.multisubscription.IdentifiableAuthorizationDecision;
+import io.sapl.api.pdp.multisubscription.MultiAuthorizationDecision;
+import io.sapl.api.pdp.multisubscription.MultiAuthorizationSubscription;
+import io.sapl.spring.pdp.CachingPolicyDecisionPoint;
+import reactor.core.publisher.Flux;
+
+public class OneShotPolicyDecisionPointProviderTest {
+
+	private static final AuthorizationSubscription SUBSCRIPTION = AuthorizationSubscription.of("willi", "read",
+			"something");
+
+	private final PolicyDecisionPoint pdp = new PermittingPolicyDecisionPoint();
+
+	@Test
+	public void disabledCacheProvidesPdp() {
+		var provider = new OneShotPolicyDecisionPointProvider(pdp, new DecisionCacheProperties());
+
+		assertThat(provider.getPolicyDecisionPoint()).isSameAs(pdp);
+		provider.dispose();
+	}
+
+	@Test
+	public void enabledCacheIsDisposedWithProvider() {
+		var properties = new DecisionCacheProperties();
+		properties.setEnabled(true);
+		var provider = new OneShotPolicyDecisionPointProvider(pdp, properties);
+		var cache = (CachingPolicyDecisionPoint) provider.getPolicyDecisionPoint();
+
+		assertThat(cache.decide(SUBSCRIPTION).blockFirst()).isEqualTo(AuthorizationDecision.PERMIT);
+		assertThat(cache.size()).isEqualTo(1);
+		provider.dispose();
+		assertThat(cache.size()).isZero();
+	}
+
+	private static class PermittingPolicyDecisionPoint implements PolicyDecisionPoint {
+
+		@Override
+		public Flux<AuthorizationDecision> decide(AuthorizationSubscription authzSubscription) {
+			return Flux.just(AuthorizationDecision.PERMIT).concatWith(Flux.never());
+		}
+
+		@Override
+		public Flux<IdentifiableAuthorizationDecision> decide(MultiAuthorizationSubscription multiAuthzSubscription) {
+			return Flux.empty();
+		}
+
+		@Override
+		public Flux<MultiAuthorizationDecision> decideAll(MultiAuthorizationSubscription multiAuthzSubscription) {
+			return Flux.empty();
+		}
+
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.spring.pdp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.PolicyDecisionPoint;
+import io.sapl.api.pdp.multisubscription.IdentifiableAuthorizationDecision;
+import io.sapl.api.pdp.multisubscription.MultiAuthorizationDecision;
+import io.sapl.api.pdp.multisubscription.MultiAuthorizationSubscription;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+public class CachingPolicyDecisionPointTest {
+
+	private static final Duration TIME_TO_IDLE = Duration.ofMinutes(5);
+
+	private static final AuthorizationSubscription SUBSCRIPTION = AuthorizationSubscription.of("willi", "read",
+			"something");
+
+	private static final AuthorizationSubscription OTHER_SUBSCRIPTION = AuthorizationSubscription.of("willi", "write",
+			"something");
+
+	private CountingPolicyDecisionPoint delegate;
+
+	private VirtualTimeScheduler scheduler;
+
+	@Before
+	public void setUp() {
+		delegate = new CountingPolicyDecisionPoint();
+		scheduler = VirtualTimeScheduler.create();
+	}
+
+	@Test
+	public void equalSubscriptionsAreServedFromCache() {
+		var pdp = new CachingPolicyDecisionPoint(delegate, 10, TIME_TO_IDLE, scheduler);
+
+		assertThat(pdp.decide(SUBSCRIPTION).blockFirst()).isEqualTo(AuthorizationDecision.PERMIT);
+		assertThat(pdp.decide(AuthorizationSubscription.of("willi", "read", "something")).blockFirst())
+				.isEqualTo(AuthorizationDecision.PERMIT);
+
+		assertThat(delegate.subscriptions.get()).isEqualTo(1);
+		assertThat(delegate.cancellations.get()).isZero();
+		assertThat(pdp.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void idleEntriesAreEvicted() {
+		var pdp = new CachingPolicyDecisionPoint(delegate, 10, TIME_TO_IDLE, scheduler);
+		pdp.decide(SUBSCRIPTION).blockFirst();
+
+		scheduler.advanceTimeBy(TIME_TO_IDLE.dividedBy(2));
+		pdp.decide(SUBSCRIPTION).blockFirst();
+		scheduler.advanceTimeBy(TIME_TO_IDLE.dividedBy(2));
+		assertThat(pdp.size()).isEqualTo(1);
+
+		scheduler.advanceTimeBy(TIME_TO_IDLE);
+		assertThat(pdp.size()).isZero();
+		assertThat(delegate.cancellations.get()).isEqualTo(1);
+
+		pdp.decide(SUBSCRIPTION).blockFirst();
+		assertThat(delegate.subscriptions.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void leastRecentlyUsedEntryIsEvictedWhenMaximumSizeIsExceeded() {
+		var pdp = new CachingPolicyDecisionPoint(delegate, 1, TIME_TO_IDLE, scheduler);
+		pdp.decide(SUBSCRIPTION).blockFirst();
+		scheduler.advanceTimeBy(Duration.ofSeconds(1));
+		pdp.decide(OTHER_SUBSCRIPTION).blockFirst();
+
+		assertThat(pdp.size()).isEqualTo(1);
+		assertThat(delegate.cancellations.get()).isEqualTo(1);
+
+		pdp.decide(OTHER_SUBSCRIPTION).blockFirst();
+		assertThat(delegate.subscriptions.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void subscribedEntriesAreNotEvicted() {
+		var pdp = new CachingPolicyDecisionPoint(delegate, 1, TIME_TO_IDLE, scheduler);
+
+		StepVerifier.create(pdp.decide(SUBSCRIPTION)).expectNext(AuthorizationDecision.PERMIT).then(() -> {
+			pdp.decide(OTHER_SUBSCRIPTION).blockFirst();
+			scheduler.advanceTimeBy(TIME_TO_IDLE.multipliedBy(2));
+			pdp.invalidateAll();
+			assertThat(delegate.cancellations.get()).isEqualTo(1);
+		}).then(() -> delegate.updates.onNext(AuthorizationDecision.DENY)).expectNext(AuthorizationDecision.DENY)
+				.thenCancel().verify();
+
+		assertThat(delegate.cancellations.get()).isEqualTo(2);
+		assertThat(pdp.size()).isZero();
+	}
+
+	@Test
+	public void invalidateAllCancelsIdleEntries() {
+		var pdp = new CachingPolicyDecisionPoint(delegate, 10, TIME_TO_IDLE, scheduler);
+		pdp.decide(SUBSCRIPTION).blockFirst();
+		pdp.decide(OTHER_SUBSCRIPTION).blockFirst();
+
+		pdp.invalidateAll();
+
+		assertThat(pdp.size()).isZero();
+		assertThat(delegate.cancellations.get()).isEqualTo(2);
+
+		pdp.decide(SUBSCRIPTION).blockFirst();
+		assertThat(delegate.subscriptions.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void terminatedDecisionStreamsAreNotCached() {
+		var pdp = new CachingPolicyDecisionPoint(delegate, 10, TIME_TO_IDLE, scheduler);
+		delegate.complete = true;
+
+		assertThat(pdp.decide(SUBSCRIPTION).collectList().block()).containsExactly(AuthorizationDecision.PERMIT);
+		assertThat(pdp.size()).isZero();
+	}
+
+	private static class CountingPolicyDecisionPoint implements PolicyDecisionPoint {
+
+		private final AtomicInteger subscriptions = new AtomicInteger();
+
+		private final AtomicInteger cancellations = new AtomicInteger();
+
+		private final DirectProcessor<AuthorizationDecision> updates = DirectProcessor.create();
+
+		private boolean complete;
+
+		@Override
+		public Flux<AuthorizationDecision> decide(AuthorizationSubscription authzSubscription) {
+			var decisions = complete ? Flux.just(AuthorizationDecision.PERMIT)
+					: Flux.just(AuthorizationDecision.PERMIT).concatWith(updates);
+			return decisions.doOnSubscribe(subscription -> subscriptions.incrementAndGet())
+					.doOnCancel(cancellations::incrementAndGet);
+		}
+
+		@Override
+		public Flux<IdentifiableAuthorizationDecision> decide(MultiAuthorizationSubscription multiAuthzSubscription) {
+			return Flux.empty();
+		}
+
+		@Override
+		public Flux<MultiAuthorizationDecision> decideAll(MultiAuthorizationSubscription multiAuthzSubscription) {
+			return Flux.empty();
+		}
+
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.server.pdpcontroller;
+
+import lombok.Value;
+
+/**
+ * Statistics of the decision streams shared by the decide endpoint of the
+ * {@link PDPController}.
+ */
+@Value
+public class DecisionStreamStatistics {
+
+	/**
+	 * The number of distinct authorization subscriptions currently evaluated by
+	 * the PDP on behalf of the decide endpoint.
+	 */
+	int distinctSubscriptions;
+
+	/**
+	 * The number of open connections to the decide endpoint, including connections
+	 * with equal authorization subscriptions.
+	 */
+	int subscriptions;
+
+}
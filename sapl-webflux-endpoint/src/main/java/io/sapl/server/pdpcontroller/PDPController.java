@@ -16,6 +16,7 @@
 package io.sapl.server.pdpcontroller;
 
 import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -27,34 +28,68 @@
 import io.sapl.api.pdp.multisubscription.IdentifiableAuthorizationDecision;
 import io.sapl.api.pdp.multisubscription.MultiAuthorizationDecision;
 import io.sapl.api.pdp.multisubscription.MultiAuthorizationSubscription;
-import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * REST controller providing endpoints for a policy decision point. The
  * endpoints can be connected using the client
  * {@link io.sapl.pdp.remote.RemotePolicyDecisionPoint} in the module
  * sapl-pdp-client.
+ * 
+ * Decisions are streamed as JSON by default. If
+ * com.fasterxml.jackson.dataformat:jackson-dataformat-smile is on the classpath,
+ * clients may exchange subscriptions and decisions in the binary Smile format
+ * instead, by sending the subscription as {@value #APPLICATION_SMILE_VALUE} and
+ * accepting {@value #APPLICATION_STREAM_SMILE_VALUE}.
  */
 
 @RestController
-@RequiredArgsConstructor
 @RequestMapping("/api/pdp")
 public class PDPController {
 
+	public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+	public static final String APPLICATION_STREAM_SMILE_VALUE = "application/stream+x-jackson-smile";
+
 	private final PolicyDecisionPoint pdp;
 
+	private final SharedDecisionStreams sharedDecisionStreams;
+
+	public PDPController(PolicyDecisionPoint pdp) {
+		this.pdp = pdp;
+		this.sharedDecisionStreams = new SharedDecisionStreams(pdp);
+	}
+
 	/**
 	 * Delegates to {@link PolicyDecisionPoint#decide(AuthorizationSubscription)}.
 	 * 
+	 * Connections with equal authorization subscriptions share one decision
+	 * stream of the PDP. A connection joining an existing stream immediately
+	 * receives the latest decision.
+	 * 
 	 * @param authzSubscription the authorization subscription to be processed by
 	 *                          the PDP.
 	 * @return a flux emitting the current authorization decisions.
 	 * @see PolicyDecisionPoint#decide(AuthorizationSubscription)
 	 */
-	@PostMapping(value = "/decide", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+	@PostMapping(value = "/decide", produces = { MediaType.APPLICATION_STREAM_JSON_VALUE,
+			APPLICATION_STREAM_SMILE_VALUE })
 	public Flux<AuthorizationDecision> decide(@RequestBody AuthorizationSubscription authzSubscription) {
-		return pdp.decide(authzSubscription).onErrorResume(error -> Flux.just(AuthorizationDecision.INDETERMINATE));
+		return sharedDecisionStreams.decide(authzSubscription);
+	}
+
+	/**
+	 * Reports the sharing of decision streams by the decide endpoint, i.e., the
+	 * number of distinct authorization subscriptions evaluated by the PDP and the
+	 * number of connections they are shared by.
+	 * 
+	 * @return the current statistics of the shared decision streams.
+	 */
+	@GetMapping(value = "/decide/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<DecisionStreamStatistics> decisionStreamStatistics() {
+		return Mono.fromSupplier(() -> new DecisionStreamStatistics(
+				sharedDecisionStreams.numberOfDistinctSubscriptions(), sharedDecisionStreams.numberOfSubscriptions()));
 	}
 
 	/**
@@ -68,7 +103,8 @@ public Flux<AuthorizationDecision> decide(@RequestBody AuthorizationSubscription
 	 *         as soon as they are available.
 	 * @see PolicyDecisionPoint#decide(MultiAuthorizationSubscription)
 	 */
-	@PostMapping(value = "/multi-decide", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+	@PostMapping(value = "/multi-decide", produces = { MediaType.APPLICATION_STREAM_JSON_VALUE,
+			APPLICATION_STREAM_SMILE_VALUE })
 	public Flux<IdentifiableAuthorizationDecision> decide(
 			@RequestBody MultiAuthorizationSubscription multiAuthzSubscription) {
 		return pdp.decide(multiAuthzSubscription)
@@ -86,7 +122,8 @@ public Flux<IdentifiableAuthorizationDecision> decide(
 	 *         given {@code multiAuthzSubscription}.
 	 * @see PolicyDecisionPoint#decideAll(MultiAuthorizationSubscription)
 	 */
-	@PostMapping(value = "/multi-decide-all", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+	@PostMapping(value = "/multi-decide-all", produces = { MediaType.APPLICATION_STREAM_JSON_VALUE,
+			APPLICATION_STREAM_SMILE_VALUE })
 	public Flux<MultiAuthorizationDecision> decideAll(
 			@RequestBody MultiAuthorizationSubscription multiAuthzSubscription) {
 		return pdp.decideAll(multiAuthzSubscription)
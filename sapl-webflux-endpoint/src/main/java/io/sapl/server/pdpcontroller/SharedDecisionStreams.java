@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.server.pdpcontroller;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.PolicyDecisionPoint;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+
+/**
+ * Shares the decision streams of the PDP between all connections with the same
+ * authorization subscription.
+ *
+ * For each distinct subscription, only one upstream decision stream is
+ * subscribed to at the PDP. The latest decision is replayed to connections
+ * joining later. Once the last connection of a subscription is closed, the
+ * upstream is cancelled.
+ *
+ * The subscribers of a stream are counted while holding the lock of its map
+ * entry. When the last subscriber leaves, the stream is removed from the map
+ * atomically, so that connections arriving afterwards start a new upstream
+ * instead of joining the cancelled one.
+ */
+@RequiredArgsConstructor
+class SharedDecisionStreams {
+
+	private final Map<AuthorizationSubscription, SharedStream> activeStreams = new ConcurrentHashMap<>();
+
+	private final AtomicInteger numberOfSubscriptions = new AtomicInteger();
+
+	private final PolicyDecisionPoint pdp;
+
+	/**
+	 * @param authzSubscription an authorization subscription
+	 * @return a Flux sharing one upstream decision stream between all subscribers
+	 *         with an equal subscription. Errors of the upstream are mapped to
+	 *         {@link AuthorizationDecision#INDETERMINATE}.
+	 */
+	Flux<AuthorizationDecision> decide(@NonNull AuthorizationSubscription authzSubscription) {
+		var key = canonicalize(authzSubscription);
+		return Flux.defer(() -> {
+			var sharedStream = acquire(key);
+			return sharedStream.decisions.doFinally(signal -> release(sharedStream));
+		}).doOnSubscribe(subscription -> numberOfSubscriptions.incrementAndGet())
+				.doFinally(signal -> numberOfSubscriptions.decrementAndGet());
+	}
+
+	/**
+	 * @return the number of distinct subscriptions with an upstream decision
+	 *         stream at the PDP.
+	 */
+	int numberOfDistinctSubscriptions() {
+		return activeStreams.size();
+	}
+
+	/**
+	 * @return the number of subscribers to decision streams, i.e., the number of
+	 *         connections including duplicates.
+	 */
+	int numberOfSubscriptions() {
+		return numberOfSubscriptions.get();
+	}
+
+	private SharedStream acquire(AuthorizationSubscription key) {
+		var sharedStream = activeStreams.compute(key, (k, activeStream) -> {
+			var stream = activeStream == null ? new SharedStream(k) : activeStream;
+			stream.subscribers++;
+			return stream;
+		});
+		// connecting subscribes to the PDP, which must not happen within compute
+		sharedStream.connect();
+		return sharedStream;
+	}
+
+	private void release(SharedStream sharedStream) {
+		var lastSubscriberLeft = new boolean[1];
+		activeStreams.computeIfPresent(sharedStream.key, (k, activeStream) -> {
+			if (activeStream != sharedStream) {
+				return activeStream;
+			}
+			activeStream.subscribers--;
+			if (activeStream.subscribers > 0) {
+				return activeStream;
+			}
+			lastSubscriberLeft[0] = true;
+			return null;
+		});
+		if (lastSubscriberLeft[0]) {
+			sharedStream.disconnect();
+		}
+	}
+
+	private static AuthorizationSubscription canonicalize(AuthorizationSubscription authzSubscription) {
+		// AuthorizationSubscription is mutable, so the key has to be decoupled from
+		// the request. Equality of JSON nodes does not depend on the order of object
+		// fields. An omitted field is equivalent to null for the PDP.
+		return new AuthorizationSubscription(copyOf(authzSubscription.getSubject()),
+				copyOf(authzSubscription.getAction()), copyOf(authzSubscription.getResource()),
+				copyOf(authzSubscription.getEnvironment()));
+	}
+
+	private static JsonNode copyOf(JsonNode node) {
+		return node == null ? NullNode.getInstance() : node.deepCopy();
+	}
+
+	private class SharedStream {
+
+		private final AuthorizationSubscription key;
+
+		private final ConnectableFlux<AuthorizationDecision> decisions;
+
+		// guarded by the lock of the map entry
+		private int subscribers;
+
+		private Disposable connection;
+
+		private boolean disconnected;
+
+		SharedStream(AuthorizationSubscription key) {
+			this.key = key;
+			// a terminated upstream is replayed to its current subscribers only
+			this.decisions = Flux.defer(() -> pdp.decide(key))
+					.onErrorResume(error -> Flux.just(AuthorizationDecision.INDETERMINATE))
+					.doOnTerminate(() -> activeStreams.remove(key, this)).replay(1);
+		}
+
+		synchronized void connect() {
+			if (connection == null && !disconnected) {
+				connection = decisions.connect();
+			}
+		}
+
+		synchronized void disconnect() {
+			disconnected = true;
+			if (connection != null) {
+				connection.dispose();
+			}
+		}
+
+	}
+
+}
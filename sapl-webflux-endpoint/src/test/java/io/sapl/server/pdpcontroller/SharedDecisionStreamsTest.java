@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2017-2021 Dominic Heutelbeck (dominic@heutelbeck.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sapl.server.pdpcontroller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.sapl.api.pdp.AuthorizationDecision;
+import io.sapl.api.pdp.AuthorizationSubscription;
+import io.sapl.api.pdp.PolicyDecisionPoint;
+import io.sapl.api.pdp.multisubscription.IdentifiableAuthorizationDecision;
+import io.sapl.api.pdp.multisubscription.MultiAuthorizationDecision;
+import io.sapl.api.pdp.multisubscription.MultiAuthorizationSubscription;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class SharedDecisionStreamsTest {
+
+	private CountingPolicyDecisionPoint pdp;
+
+	private SharedDecisionStreams sharedDecisionStreams;
+
+	@Before
+	public void setUp() {
+		pdp = new CountingPolicyDecisionPoint();
+		sharedDecisionStreams = new SharedDecisionStreams(pdp);
+	}
+
+	@Test
+	public void equalSubscriptionsShareOneUpstreamWhichIsCancelledWhenTheLastSubscriberLeaves() {
+		var first = sharedDecisionStreams.decide(AuthorizationSubscription.of("willi", "read", "something"));
+		var second = sharedDecisionStreams.decide(AuthorizationSubscription.of("willi", "read", "something"));
+
+		StepVerifier.create(first).expectNext(AuthorizationDecision.PERMIT).then(() -> {
+			StepVerifier.create(second).expectNext(AuthorizationDecision.PERMIT)
+					.then(() -> assertThat(sharedDecisionStreams.numberOfSubscriptions()).isEqualTo(2))
+					.thenCancel().verify();
+			assertThat(pdp.subscriptions.get()).isEqualTo(1);
+			assertThat(pdp.cancellations.get()).isZero();
+		}).then(() -> pdp.updates.onNext(AuthorizationDecision.DENY)).expectNext(AuthorizationDecision.DENY)
+				.thenCancel().verify();
+
+		assertThat(pdp.cancellations.get()).isEqualTo(1);
+		assertThat(sharedDecisionStreams.numberOfDistinctSubscriptions()).isZero();
+		assertThat(sharedDecisionStreams.numberOfSubscriptions()).isZero();
+	}
+
+	@Test
+	public void subscriptionAfterTheLastSubscriberLeftStartsNewUpstream() {
+		var subscription = AuthorizationSubscription.of("willi", "read", "something");
+
+		StepVerifier.create(sharedDecisionStreams.decide(subscription)).expectNext(AuthorizationDecision.PERMIT)
+				.thenCancel().verify();
+		StepVerifier.create(sharedDecisionStreams.decide(subscription)).expectNext(AuthorizationDecision.PERMIT)
+				.then(() -> assertThat(sharedDecisionStreams.numberOfDistinctSubscriptions()).isEqualTo(1))
+				.thenCancel().verify();
+
+		assertThat(pdp.subscriptions.get()).isEqualTo(2);
+		assertThat(pdp.cancellations.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void distinctSubscriptionsUseDistinctUpstreams() {
+		StepVerifier.create(sharedDecisionStreams.decide(AuthorizationSubscription.of("willi", "read", "something")))
+				.expectNext(AuthorizationDecision.PERMIT).then(() -> StepVerifier
+						.create(sharedDecisionStreams
+								.decide(AuthorizationSubscription.of("willi", "write", "something")))
+						.expectNext(AuthorizationDecision.PERMIT)
+						.then(() -> assertThat(sharedDecisionStreams.numberOfDistinctSubscriptions()).isEqualTo(2))
+						.thenCancel().verify())
+				.thenCancel().verify();
+
+		assertThat(pdp.subscriptions.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void upstreamErrorsAreMappedToIndeterminate() {
+		pdp.error = true;
+
+		StepVerifier.create(sharedDecisionStreams.decide(AuthorizationSubscription.of("willi", "read", "something")))
+				.expectNext(AuthorizationDecision.INDETERMINATE).verifyComplete();
+		assertThat(sharedDecisionStreams.numberOfDistinctSubscriptions()).isZero();
+	}
+
+	private static class CountingPolicyDecisionPoint implements PolicyDecisionPoint {
+
+		private final AtomicInteger subscriptions = new AtomicInteger();
+
+		private final AtomicInteger cancellations = new AtomicInteger();
+
+		private final DirectProcessor<AuthorizationDecision> updates = DirectProcessor.create();
+
+		private boolean error;
+
+		@Override
+		public Flux<AuthorizationDecision> decide(AuthorizationSubscription authzSubscription) {
+			var decisions = error ? Flux.<AuthorizationDecision>error(new IllegalStateException("PDP failure"))
+					: Flux.just(AuthorizationDecision.PERMIT).concatWith(updates);
+			return decisions.doOnSubscribe(subscription -> subscriptions.incrementAndGet())
+					.doOnCancel(cancellations::incrementAndGet);
+		}
+
+		@Override
+		public Flux<IdentifiableAuthorizationDecision> decide(MultiAuthorizationSubscription multiAuthzSubscription) {
+			return Flux.empty();
+		}
+
+		@Override
+		public Flux<MultiAuthorizationDecision> decideAll(MultiAuthorizationSubscription multiAuthzSubscription) {
+			return Flux.empty();
+		}
+
+	}
+
+}